@@ -0,0 +1,99 @@
+package com.wchamara.springboottesting.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.util.Employees;
+import com.wchamara.springboottesting.util.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the Jackson serialization of an Employee and of the Employees wrapper of the data files,
+ * and FileUtil.readEmployees, which reads the wrapper from the classpath.
+ * The ObjectMapper is built like the one of the HTTP message converters.
+ * The wrapper is benchmarked with 1, 100 and 10000 Employees; the single Employee and the file do not depend on the size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private byte[] employeeJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employee = SampleEmployees.of(1).get(0);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] writeEmployee() throws IOException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee readEmployee() throws IOException {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    public byte[] writeEmployees(EmployeesState state) throws IOException {
+        return objectMapper.writeValueAsBytes(state.employees);
+    }
+
+    @Benchmark
+    public Employees readEmployees(EmployeesState state) throws IOException {
+        return objectMapper.readValue(state.employeesJson, Employees.class);
+    }
+
+    /**
+     * FileUtil reads the file with its own ObjectMapper, so this includes finding the resource on the classpath.
+     */
+    @Benchmark
+    public List<Employee> readEmployeesFile() {
+        return FileUtil.readEmployees(SampleEmployees.FILE);
+    }
+
+    /**
+     * The Employees wrapper, with the number of Employees as a parameter.
+     */
+    @State(Scope.Benchmark)
+    public static class EmployeesState {
+
+        @Param({"1", "100", "10000"})
+        public int size;
+
+        private Employees employees;
+
+        private byte[] employeesJson;
+
+        @Setup
+        public void setUp(EmployeeJsonBenchmark benchmark) throws IOException {
+            employees = new Employees();
+            employees.setUsers(SampleEmployees.of(size));
+            employeesJson = benchmark.objectMapper.writeValueAsBytes(employees);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.wchamara.springboottesting.benchmarks;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * This class benchmarks the queries of the EmployeeRepository against an embedded H2 database in MySQL mode:
+ * the id lookup, as a managed entity and as a projection, and the four name lookups,
+ * to compare JPQL against native SQL and positional against named parameters.
+ * <p>
+ * Only the repository and the JPA, DataSource and transaction auto-configurations are started, with an in-memory database
+ * that Hibernate creates from the entity, so none of the caches or decorators of the application are in the way.
+ * Every lookup runs in a read-only transaction, like the ones of the EmployeeServiceImpl, and looks up the next Employee in turn.
+ * There is no index on the names, so the name lookups scan the table, as they do on MySQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EmployeeRepositoryBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate readOnly;
+
+    private List<Employee> employees;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RepositoryConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .properties(
+                        // keeps the application.properties of spring-boot-testing, which point at MySQL, from being read
+                        "spring.config.name=benchmarks",
+                        "spring.datasource.url=jdbc:h2:mem:employees;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+                        "logging.level.root=warn")
+                .run();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        List<Employee> sample = SampleEmployees.of(size);
+        sample.forEach(employee -> employee.setId(0L));
+        employees = new TransactionTemplate(transactionManager).execute(status -> employeeRepository.saveAll(sample));
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findById() {
+        return lookup(employee -> employeeRepository.findById(employee.getId()));
+    }
+
+    @Benchmark
+    public Optional<Employee> findProjectedById() {
+        return lookup(employee -> employeeRepository.findProjectedById(employee.getId()));
+    }
+
+    @Benchmark
+    public Employee findByJPQLQuery() {
+        return lookup(employee -> employeeRepository.findByJPQLQuery(employee.getFirstName(), employee.getLastName()));
+    }
+
+    @Benchmark
+    public Employee findByJPQLQueryWithNamedParameters() {
+        return lookup(employee ->
+                employeeRepository.findByJPQLQueryWithNamedParameters(employee.getFirstName(), employee.getLastName()));
+    }
+
+    @Benchmark
+    public Employee findByNativeQueryWithIndexParameters() {
+        return lookup(employee ->
+                employeeRepository.findByNativeQueryWithIndexParameters(employee.getFirstName(), employee.getLastName()));
+    }
+
+    @Benchmark
+    public Employee findByNativeQueryWithNamedParameters() {
+        return lookup(employee ->
+                employeeRepository.findByNativeQueryWithNamedParameters(employee.getFirstName(), employee.getLastName()));
+    }
+
+    private <T> T lookup(Function<Employee, T> query) {
+        next = next + 1 == size ? 0 : next + 1;
+        Employee employee = employees.get(next);
+        return readOnly.execute(status -> query.apply(employee));
+    }
+
+    /**
+     * The configuration of the benchmark, which starts the EmployeeRepository and what it needs, and nothing else.
+     */
+    @SpringBootConfiguration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = Employee.class)
+    @EnableJpaRepositories(basePackageClasses = EmployeeRepository.class)
+    static class RepositoryConfiguration {
+    }
+}
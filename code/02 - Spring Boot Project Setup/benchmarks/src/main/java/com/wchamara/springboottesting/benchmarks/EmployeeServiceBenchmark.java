@@ -0,0 +1,90 @@
+package com.wchamara.springboottesting.benchmarks;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the methods of the EmployeeServiceImpl over an InMemoryEmployeeRepository,
+ * so it measures what the service adds to a query, without a database, a transaction or a Spring proxy.
+ * Every invocation looks up the next Employee of the repository in turn, so the lookups do not always hit the same entry.
+ * The saves are not benchmarked, as the repository would grow with every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private List<Employee> employees;
+
+    private EmployeeServiceImpl employeeService;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        employees = SampleEmployees.of(size);
+        // none of the benchmarked methods uses the entity manager
+        employeeService = new EmployeeServiceImpl(InMemoryEmployeeRepository.of(employees), null, new EmployeeProperties());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(nextEmployee().getId());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByEmail() {
+        return employeeService.getEmployeeByEmail(nextEmployee().getEmail());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByName() {
+        Employee employee = nextEmployee();
+        return employeeService.getEmployeeByName(employee.getFirstName(), employee.getLastName());
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public CursorPage<Employee> getEmployeesAfter() {
+        return employeeService.getEmployeesAfter(nextEmployee().getId(), 100);
+    }
+
+    @Benchmark
+    public Employee updateEmployee() {
+        Employee employee = nextEmployee();
+        return employeeService.updateEmployee(employee.getId(),
+                new Employee(0L, employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+    }
+
+    private Employee nextEmployee() {
+        next = next + 1 == size ? 0 : next + 1;
+        return employees.get(next);
+    }
+}
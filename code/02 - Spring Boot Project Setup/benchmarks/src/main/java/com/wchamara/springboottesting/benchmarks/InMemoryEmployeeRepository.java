@@ -0,0 +1,88 @@
+package com.wchamara.springboottesting.benchmarks;
+
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * This class answers the queries of an EmployeeRepository from maps, so a benchmark of the EmployeeServiceImpl measures
+ * the service and not the database. It is a proxy of the interface, like the no-op EmployeeService of the instrumentation
+ * benchmark of the tests, and implements only the queries the benchmarked methods make.
+ */
+final class InMemoryEmployeeRepository implements InvocationHandler {
+
+    private final TreeMap<Long, Employee> byId = new TreeMap<>();
+
+    private final Map<String, Employee> byEmail = new HashMap<>();
+
+    private final Map<String, Employee> byName = new HashMap<>();
+
+    private InMemoryEmployeeRepository(List<Employee> employees) {
+        employees.forEach(this::put);
+    }
+
+    /**
+     * This method is used to create an EmployeeRepository that holds the given Employees.
+     *
+     * @param employees The Employees of the repository.
+     * @return The EmployeeRepository.
+     */
+    static EmployeeRepository of(List<Employee> employees) {
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, new InMemoryEmployeeRepository(employees));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findProjectedById" -> Optional.ofNullable(byId.get((Long) args[0]));
+            case "findByEmail" -> Optional.ofNullable(byEmail.get((String) args[0]));
+            case "findByJPQLQueryWithNamedParameters" -> byName.get(args[0] + " " + args[1]);
+            case "findAllProjected" -> new ArrayList<>(byId.values());
+            case "findListVersion" -> new EmployeeListVersion(byId.size(), 0, byId.isEmpty() ? 0 : byId.lastKey(), null);
+            case "findByIdGreaterThanOrderByIdAsc" -> byId.tailMap((Long) args[0], false).values().stream()
+                    .limit(((Limit) args[1]).max())
+                    .toList();
+            case "updateEmployeeById" -> update((Long) args[0], (String) args[1], (String) args[2], (String) args[3]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryEmployeeRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private int update(long id, String firstName, String lastName, String email) {
+        Employee current = byId.get(id);
+        if (current == null) {
+            return 0;
+        }
+        byEmail.remove(current.getEmail());
+        byName.remove(current.getFirstName() + " " + current.getLastName());
+        Employee updated = new Employee(id,
+                firstName != null ? firstName : current.getFirstName(),
+                lastName != null ? lastName : current.getLastName(),
+                email != null ? email : current.getEmail());
+        updated.setVersion(current.getVersion() + 1);
+        updated.setLastModified(Instant.now());
+        put(updated);
+        return 1;
+    }
+
+    private void put(Employee employee) {
+        byId.put(employee.getId(), employee);
+        byEmail.put(employee.getEmail(), employee);
+        byName.put(employee.getFirstName() + " " + employee.getLastName(), employee);
+    }
+}
@@ -0,0 +1,40 @@
+package com.wchamara.springboottesting.benchmarks;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.util.FileUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class builds the Employees the benchmarks work on.
+ * They are the Employees of sample-data/user.json, repeated with their own ids and emails,
+ * and with the round of the repetition added to the last name, so every name is unique and can be looked up.
+ */
+final class SampleEmployees {
+
+    /**
+     * The file the Employees are read from, which the test-jar of spring-boot-testing carries.
+     */
+    static final String FILE = "sample-data/user.json";
+
+    private SampleEmployees() {
+    }
+
+    /**
+     * This method is used to build the given number of Employees, with the ids 1 to size.
+     *
+     * @param size The number of Employees.
+     * @return The Employees.
+     */
+    static List<Employee> of(int size) {
+        List<Employee> sample = FileUtil.readEmployees(FILE);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Employee employee = sample.get(i % sample.size());
+            employees.add(new Employee(i + 1L, employee.getFirstName(), employee.getLastName() + (i / sample.size()),
+                    "employee" + i + "@example.com"));
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,78 @@
+package com.wchamara.springboottesting.load;
+
+import com.wchamara.springboottesting.SpringBootTestingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class starts the application in this JVM, on a random port, against a MySQL container configured like the one of BaseIT,
+ * so a run needs nothing but Docker. Both are stopped when it is closed.
+ * The driver and the application share the CPUs of the machine, so for numbers that only the application's limits shape,
+ * start it on its own and point the driver at it with --target.
+ */
+final class ApplicationUnderTest implements AutoCloseable {
+
+    private final MySQLContainer<?> mySQLContainer;
+
+    private final ConfigurableApplicationContext context;
+
+    private ApplicationUnderTest(MySQLContainer<?> mySQLContainer, ConfigurableApplicationContext context) {
+        this.mySQLContainer = mySQLContainer;
+        this.context = context;
+    }
+
+    /**
+     * This method is used to start the MySQL container and then the application.
+     *
+     * @param applicationArgs Further arguments of the application, e.g. --spring.threads.virtual.enabled=true.
+     * @return The started application.
+     */
+    static ApplicationUnderTest start(List<String> applicationArgs) {
+        MySQLContainer<?> mySQLContainer = new MySQLContainer<>(DockerImageName.parse("mysql:8.3.0"))
+                .withPassword("example")
+                .withUsername("root")
+                .withDatabaseName("ems")
+                .withUrlParam("rewriteBatchedStatements", "true")
+                .withCommand("--local-infile=1");
+        mySQLContainer.start();
+
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--spring.datasource.url=" + mySQLContainer.getJdbcUrl());
+        args.add("--spring.datasource.username=" + mySQLContainer.getUsername());
+        args.add("--spring.datasource.password=" + mySQLContainer.getPassword());
+        args.addAll(applicationArgs);
+        try {
+            return new ApplicationUnderTest(mySQLContainer,
+                    new SpringApplicationBuilder(SpringBootTestingApplication.class).run(args.toArray(new String[0])));
+        } catch (RuntimeException e) {
+            mySQLContainer.stop();
+            throw e;
+        }
+    }
+
+    /**
+     * This method is used to get the base URI of the application.
+     *
+     * @return The base URI, on the port the application listens on.
+     */
+    URI getBaseUri() {
+        return URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+    }
+
+    @Override
+    public void close() {
+        try {
+            context.close();
+        } finally {
+            mySQLContainer.stop();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.wchamara.springboottesting.load;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class runs a fixed number of users, each on its own virtual thread, which make one call at a time.
+ * With a rate, every user is paced to its share of it: its calls are meant to start at fixed intervals, and a call that starts
+ * late because the one before it was slow has its response time measured from when it was meant to start.
+ * Without a rate, every user calls again as soon as its call has returned, which finds the throughput of the application,
+ * but hides its stalls, as no call is meant to start while a user waits.
+ */
+final class ClosedWorkload extends Workload {
+
+    private final int users;
+
+    private final long intervalNanos;
+
+    /**
+     * Constructor for the ClosedWorkload.
+     *
+     * @param client   The client the calls are made with.
+     * @param mix      The weights of the operations.
+     * @param recorder The recorder of the latencies.
+     * @param users    The number of users.
+     * @param rate     The calls per second of all users together, or 0 to call as fast as they can.
+     */
+    ClosedWorkload(EmployeeClient client, OperationMix mix, LatencyRecorder recorder, int users, double rate) {
+        super(client, mix, recorder);
+        this.users = users;
+        this.intervalNanos = rate > 0 ? (long) (1_000_000_000.0 * users / rate) : 0;
+    }
+
+    @Override
+    void run(long start, long end) {
+        try (ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                // the users start spread over one interval, so their calls do not all start at once
+                long first = start + intervalNanos * user / users;
+                calls.execute(() -> {
+                    long intended = first;
+                    while (intended - end < 0 && !Thread.currentThread().isInterrupted()) {
+                        waitUntil(intended);
+                        call(intended);
+                        intended = intervalNanos > 0 ? intended + intervalNanos : System.nanoTime();
+                    }
+                });
+            }
+        }
+    }
+}
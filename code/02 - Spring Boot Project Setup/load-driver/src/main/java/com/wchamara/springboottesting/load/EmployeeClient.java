@@ -0,0 +1,158 @@
+package com.wchamara.springboottesting.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.model.Employee;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class makes the calls of the Employee API, and keeps the ids of the Employees they create in an IdPool,
+ * which the get, update and delete calls pick from.
+ * The emails are made unique with the start time of the run, so runs against the same database do not collide.
+ */
+final class EmployeeClient {
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    private final HttpClient httpClient;
+
+    private final URI employees;
+
+    private final int listLimit;
+
+    private final Duration timeout;
+
+    private final IdPool ids = new IdPool();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String run = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong emails = new AtomicLong();
+
+    /**
+     * Constructor for the EmployeeClient.
+     *
+     * @param httpClient The client the calls are sent with.
+     * @param target     The base URI of the application.
+     * @param listLimit  The page size of the list calls.
+     * @param timeout    How long a call may take before it fails.
+     */
+    EmployeeClient(HttpClient httpClient, URI target, int listLimit, Duration timeout) {
+        this.httpClient = httpClient;
+        this.employees = target.resolve("/api/v1/employees");
+        this.listLimit = listLimit;
+        this.timeout = timeout;
+    }
+
+    /**
+     * This method is used to create the Employees the run starts with, in batches.
+     *
+     * @param count The number of Employees to create.
+     * @throws IOException          If a batch could not be created.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    void seed(int count) throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += SEED_CHUNK_SIZE) {
+            List<Employee> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, count); i++) {
+                batch.add(newEmployee());
+            }
+            HttpResponse<String> response = httpClient.send(request(URI.create(employees + "/batch"))
+                    .POST(json(batch))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IOException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode employee : objectMapper.readTree(response.body())) {
+                ids.add(employee.get("id").asLong());
+            }
+        }
+    }
+
+    /**
+     * This method is used to make one call.
+     *
+     * @param operation The operation of the call.
+     * @return Whether the call succeeded with a 2xx status. A get, update or delete fails without a call if no Employee is left.
+     * @throws IOException          If the call failed, including when it timed out.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    boolean send(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case GET -> withId(ids.random(), id -> request(URI.create(employees + "/" + id)).GET());
+            case LIST -> send(request(URI.create(employees + "?limit=" + listLimit)).GET()) != null;
+            case CREATE -> create();
+            case UPDATE -> withId(ids.random(), id -> request(URI.create(employees + "/" + id)).PUT(json(newEmployee())));
+            case DELETE -> withId(ids.take(), id -> request(URI.create(employees + "/" + id)).DELETE());
+        };
+    }
+
+    /**
+     * This method is used to count the Employees the calls can pick from.
+     *
+     * @return The number of Employees.
+     */
+    int employees() {
+        return ids.size();
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(request(employees).POST(json(newEmployee())));
+        if (response == null) {
+            return false;
+        }
+        ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+        return true;
+    }
+
+    private boolean withId(long id, RequestBuilder builder) throws IOException, InterruptedException {
+        return id >= 0 && send(builder.build(id)) != null;
+    }
+
+    /**
+     * This method sends a call and returns its response if it has a 2xx status, or null if not.
+     */
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() / 100 == 2 ? response : null;
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Employee newEmployee() {
+        long n = emails.incrementAndGet();
+        return Employee.builder()
+                .firstName("Load")
+                .lastName("Driver " + n)
+                .email("load-" + run + "-" + n + "@example.com")
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface RequestBuilder {
+        HttpRequest.Builder build(long id);
+    }
+}
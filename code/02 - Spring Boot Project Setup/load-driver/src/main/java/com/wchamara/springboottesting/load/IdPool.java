@@ -0,0 +1,61 @@
+package com.wchamara.springboottesting.load;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class holds the ids of the Employees that exist, which the get, update and delete calls pick from.
+ * It is shared by all the calls in flight, so every method holds the lock of the pool, which is short enough
+ * not to matter next to an HTTP call.
+ */
+final class IdPool {
+
+    private long[] ids = new long[1024];
+
+    private int size;
+
+    /**
+     * This method is used to add the id of a created Employee.
+     *
+     * @param id The id.
+     */
+    synchronized void add(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * This method is used to pick the id of a random Employee, which stays in the pool.
+     *
+     * @return The id, or -1 if the pool is empty.
+     */
+    synchronized long random() {
+        return size == 0 ? -1 : ids[ThreadLocalRandom.current().nextInt(size)];
+    }
+
+    /**
+     * This method is used to take the id of a random Employee out of the pool, so no other call picks it while it is deleted.
+     *
+     * @return The id, or -1 if the pool is empty.
+     */
+    synchronized long take() {
+        if (size == 0) {
+            return -1;
+        }
+        int index = ThreadLocalRandom.current().nextInt(size);
+        long id = ids[index];
+        ids[index] = ids[--size];
+        return id;
+    }
+
+    /**
+     * This method is used to count the ids in the pool.
+     *
+     * @return The number of ids.
+     */
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,133 @@
+package com.wchamara.springboottesting.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records the latencies of the calls in HdrHistograms, in microseconds, and reports their percentiles.
+ * <p>
+ * Every call has two latencies. The response time is measured from when the call was meant to start, by the rate of the
+ * workload, so a call that had to wait for the ones before it counts the wait too, which corrects for coordinated omission.
+ * The service time is measured from when it was actually sent, which is what a driver that waits for its calls sees,
+ * and leaves out the stalls the response time reveals. Without a rate, the closed model starts every call right away,
+ * so both are the same.
+ */
+final class LatencyRecorder {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, Recorder> responseTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Recorder> serviceTimes = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            responseTimes.put(operation, new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS));
+            serviceTimes.put(operation, new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * This method is used to record a call. It can be called from many threads at once.
+     *
+     * @param operation The operation of the call.
+     * @param intended  When the call was meant to start, in System.nanoTime.
+     * @param sent      When the call was sent.
+     * @param done      When the call returned or failed.
+     * @param succeeded Whether the call succeeded.
+     */
+    void record(Operation operation, long intended, long sent, long done, boolean succeeded) {
+        responseTimes.get(operation).recordValue(micros(done - intended));
+        serviceTimes.get(operation).recordValue(micros(done - sent));
+        if (!succeeded) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * This method is used to print the percentiles of every operation and of all of them together, and to write their
+     * percentile distributions to .hgrm files, which the HdrHistogram plotter can chart.
+     *
+     * @param measured How long the calls were measured for.
+     * @param out      Where the percentiles are printed.
+     * @param output   The directory of the .hgrm files.
+     * @throws IOException If a file could not be written.
+     */
+    void report(Duration measured, PrintStream out, Path output) throws IOException {
+        Files.createDirectories(output);
+        Map<Operation, Histogram> response = intervalHistograms(responseTimes);
+        Map<Operation, Histogram> service = intervalHistograms(serviceTimes);
+
+        long calls = response.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        out.printf("%d calls in %s, %.1f calls/s%n", calls, measured, calls * 1_000.0 / measured.toMillis());
+        print("response", "response time (from the intended start, corrected for coordinated omission)", response, out, output);
+        print("service", "service time (from the actual send)", service, out, output);
+        out.printf("percentile distributions written to %s%n", output.toAbsolutePath());
+    }
+
+    private void print(String kind, String title, Map<Operation, Histogram> histograms, PrintStream out, Path output)
+            throws IOException {
+        out.printf("%n%s, ms%n", title);
+        out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s%n", "call", "count", "errors", "p50", "p90", "p99", "p99.9", "max");
+        Histogram all = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long operationErrors = errors.get(entry.getKey()).sum();
+            print(entry.getKey().label(), histogram, operationErrors, out);
+            write(histogram, output.resolve(entry.getKey().label() + "-" + kind + ".hgrm"));
+            all.add(histogram);
+            allErrors += operationErrors;
+        }
+        print("all", all, allErrors, out);
+        write(all, output.resolve("all-" + kind + ".hgrm"));
+    }
+
+    private static void print(String label, Histogram histogram, long errors, PrintStream out) {
+        out.printf("%-8s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, histogram.getTotalCount(), errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    /**
+     * This method takes what the recorders have recorded, which resets them.
+     */
+    private static Map<Operation, Histogram> intervalHistograms(Map<Operation, Recorder> recorders) {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        return histograms;
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_MICROS);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
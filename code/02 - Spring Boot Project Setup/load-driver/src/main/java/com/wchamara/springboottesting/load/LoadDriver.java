@@ -0,0 +1,62 @@
+package com.wchamara.springboottesting.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * This is the load driver of the Employee API. It creates the Employees a run starts with, makes the calls of the workload
+ * with a mix of get, list, create, update and delete, and reports the percentiles of their latencies.
+ * Run it with
+ * mvn -Pjava21 -DskipTests install && mvn -f load-driver/pom.xml exec:exec -Dload.args="--model=open --rate=500 --duration=2m"
+ * <p>
+ * The options, with their defaults:
+ * <ul>
+ *     <li>--model=open, or closed</li>
+ *     <li>--rate=200, the calls per second; in the closed model it paces the users, and 0 leaves them unpaced</li>
+ *     <li>--users=32, the users of the closed model</li>
+ *     <li>--duration=60s and --warmup=10s</li>
+ *     <li>--mix=get=60,list=10,create=10,update=15,delete=5</li>
+ *     <li>--seed=1000, the Employees created before the run</li>
+ *     <li>--list-limit=100, the page size of the list calls</li>
+ *     <li>--timeout=10s, after which a call fails</li>
+ *     <li>--target=http://host:port, a running application, instead of starting one against a MySQL container</li>
+ *     <li>--output=target/load, the directory of the .hgrm percentile distributions</li>
+ * </ul>
+ * Any other argument, like --employees.cache.enabled=false, is passed to the application the driver starts.
+ */
+public class LoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        try (ApplicationUnderTest application = options.target() == null ? ApplicationUnderTest.start(options.applicationArgs()) : null;
+             HttpClient httpClient = HttpClient.newBuilder()
+                     // the application speaks HTTP/1.1 in clear text, so there is no point in trying an upgrade to HTTP/2
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(options.timeout())
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            URI target = application != null ? application.getBaseUri() : options.target();
+            EmployeeClient client = new EmployeeClient(httpClient, target, options.listLimit(), options.timeout());
+            System.out.printf("Creating %d Employees at %s%n", options.seed(), target);
+            client.seed(options.seed());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            Workload workload = options.model() == LoadOptions.Model.OPEN
+                    ? new OpenWorkload(client, options.mix(), recorder, options.rate())
+                    : new ClosedWorkload(client, options.mix(), recorder, options.users(), options.rate());
+            System.out.printf("Running the %s model at %s calls/s%s with %s for %s after a warm-up of %s%n",
+                    options.model().name().toLowerCase(Locale.ROOT), options.rate() > 0 ? options.rate() : "unpaced",
+                    options.model() == LoadOptions.Model.CLOSED ? " by " + options.users() + " users" : "",
+                    options.mix(), options.duration(), options.warmup());
+
+            long start = System.nanoTime();
+            long measureFrom = start + options.warmup().toNanos();
+            workload.run(start, measureFrom, measureFrom + options.duration().toNanos());
+
+            recorder.report(options.duration(), System.out, options.output());
+            System.out.printf("%d Employees left%n", client.employees());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.wchamara.springboottesting.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The options of the load driver, read from its arguments, each given as --name=value.
+ * Arguments that are not options of the driver, like --employees.cache.enabled=false, are passed to the application
+ * when the driver starts it.
+ *
+ * @param model           Whether the calls arrive at a constant rate (open) or a fixed number of users make them (closed).
+ * @param rate            The calls per second; in the closed model it paces the users, and 0 lets them call as fast as they can.
+ * @param users           The number of users of the closed model.
+ * @param duration        How long the calls are measured for.
+ * @param warmup          How long the calls are made for before they are measured.
+ * @param mix             The weights of the operations.
+ * @param seed            The number of Employees created before the run.
+ * @param listLimit       The page size of the list calls.
+ * @param timeout         How long a call may take before it fails.
+ * @param target          The base URI of a running application, or null to start one against a MySQL container.
+ * @param output          The directory the HdrHistogram percentile distributions are written to.
+ * @param applicationArgs The arguments of the application the driver starts.
+ */
+record LoadOptions(Model model, double rate, int users, Duration duration, Duration warmup, OperationMix mix, int seed,
+                   int listLimit, Duration timeout, URI target, Path output, List<String> applicationArgs) {
+
+    private static final Set<String> NAMES = Set.of("model", "rate", "users", "duration", "warmup", "mix", "seed",
+            "list-limit", "timeout", "target", "output");
+
+    /**
+     * The workload models of the driver.
+     */
+    enum Model {
+
+        /**
+         * Calls start at a constant rate, whether or not the earlier ones have returned.
+         */
+        OPEN,
+
+        /**
+         * A fixed number of users each make one call at a time.
+         */
+        CLOSED
+    }
+
+    /**
+     * This method is used to read the options from the arguments of the driver.
+     *
+     * @param args The arguments.
+     * @return The options, with the defaults for those that were not given.
+     * @throws IllegalArgumentException If an argument is not of the form --name=value, or a value is not valid.
+     */
+    static LoadOptions parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            if (NAMES.contains(name)) {
+                options.put(name, arg.substring(equals + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        LoadOptions loadOptions = new LoadOptions(
+                Model.valueOf(options.getOrDefault("model", "open").toUpperCase(Locale.ROOT)),
+                Double.parseDouble(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("users", "32")),
+                DurationStyle.detectAndParse(options.getOrDefault("duration", "60s")),
+                DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s")),
+                OperationMix.parse(options.getOrDefault("mix", "get=60,list=10,create=10,update=15,delete=5")),
+                Integer.parseInt(options.getOrDefault("seed", "1000")),
+                Integer.parseInt(options.getOrDefault("list-limit", "100")),
+                DurationStyle.detectAndParse(options.getOrDefault("timeout", "10s")),
+                options.containsKey("target") ? URI.create(options.get("target")) : null,
+                Path.of(options.getOrDefault("output", "target/load")),
+                List.copyOf(applicationArgs));
+        if (loadOptions.model() == Model.OPEN && loadOptions.rate() <= 0) {
+            throw new IllegalArgumentException("The open model needs a rate above 0");
+        }
+        if (loadOptions.model() == Model.CLOSED && loadOptions.users() <= 0) {
+            throw new IllegalArgumentException("The closed model needs at least one user");
+        }
+        return loadOptions;
+    }
+}
@@ -0,0 +1,41 @@
+package com.wchamara.springboottesting.load;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class starts the calls at a constant rate, on a new virtual thread each, whether or not the earlier ones have returned,
+ * the way independent clients arrive at a service. When the application slows down the calls in flight pile up,
+ * instead of the rate dropping, so the response times show the queueing the users would see.
+ */
+final class OpenWorkload extends Workload {
+
+    private final double intervalNanos;
+
+    /**
+     * Constructor for the OpenWorkload.
+     *
+     * @param client   The client the calls are made with.
+     * @param mix      The weights of the operations.
+     * @param recorder The recorder of the latencies.
+     * @param rate     The calls per second.
+     */
+    OpenWorkload(EmployeeClient client, OperationMix mix, LatencyRecorder recorder, double rate) {
+        super(client, mix, recorder);
+        this.intervalNanos = 1_000_000_000.0 / rate;
+    }
+
+    @Override
+    void run(long start, long end) {
+        try (ExecutorService calls = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * intervalNanos);
+                if (intended - end >= 0) {
+                    break;
+                }
+                waitUntil(intended);
+                calls.execute(() -> call(intended));
+            }
+        }
+    }
+}
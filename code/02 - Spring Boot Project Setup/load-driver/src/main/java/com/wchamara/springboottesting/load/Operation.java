@@ -0,0 +1,43 @@
+package com.wchamara.springboottesting.load;
+
+import java.util.Locale;
+
+/**
+ * The calls of the Employee API the load driver makes.
+ */
+enum Operation {
+
+    /**
+     * GET /api/v1/employees/{id} of a random existing Employee.
+     */
+    GET,
+
+    /**
+     * GET /api/v1/employees?limit=n, the first page of the keyset-paged list.
+     */
+    LIST,
+
+    /**
+     * POST /api/v1/employees of a new Employee with a unique email.
+     */
+    CREATE,
+
+    /**
+     * PUT /api/v1/employees/{id} of a random existing Employee, with all fields and a new unique email.
+     */
+    UPDATE,
+
+    /**
+     * DELETE /api/v1/employees/{id} of a random existing Employee, which no other call uses afterwards.
+     */
+    DELETE;
+
+    /**
+     * This method is used to get the name of the operation as the options and the report use it.
+     *
+     * @return The name of the operation in lower case.
+     */
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package com.wchamara.springboottesting.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * This class picks the operation of every call at random, with the weights of the --mix option,
+ * e.g. get=60,list=10,create=10,update=15,delete=5. Operations that are not listed are never picked.
+ */
+final class OperationMix {
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final int totalWeight;
+
+    private final Map<Operation, Integer> weights;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * This method is used to read a mix from its option, a comma separated list of operation=weight.
+     *
+     * @param mix The mix, e.g. get=60,list=10,create=10,update=15,delete=5.
+     * @return The OperationMix.
+     * @throws IllegalArgumentException If an operation is unknown, a weight is negative, or all weights are 0.
+     */
+    static OperationMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] operationAndWeight = entry.trim().split("=");
+            if (operationAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in the mix, got: " + entry);
+            }
+            Operation operation = Operation.valueOf(operationAndWeight[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(operationAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("The weight of " + operation.label() + " is negative: " + weight);
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a weight above 0: " + mix);
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * This method is used to pick the operation of the next call.
+     *
+     * @return The operation.
+     */
+    Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < operations.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("No operation for " + pick);
+    }
+
+    @Override
+    public String toString() {
+        return weights.entrySet().stream()
+                .map(entry -> entry.getKey().label() + "=" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+}
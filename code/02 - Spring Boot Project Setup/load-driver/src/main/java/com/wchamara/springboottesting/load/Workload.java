@@ -0,0 +1,82 @@
+package com.wchamara.springboottesting.load;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class makes the calls of a run, each on its own virtual thread, and records those meant to start after the warm-up.
+ * The subclasses decide when the calls are meant to start.
+ */
+abstract class Workload {
+
+    private final EmployeeClient client;
+
+    private final OperationMix mix;
+
+    private final LatencyRecorder recorder;
+
+    private long measureFrom;
+
+    /**
+     * Constructor for the Workload.
+     *
+     * @param client   The client the calls are made with.
+     * @param mix      The weights of the operations.
+     * @param recorder The recorder of the latencies.
+     */
+    Workload(EmployeeClient client, OperationMix mix, LatencyRecorder recorder) {
+        this.client = client;
+        this.mix = mix;
+        this.recorder = recorder;
+    }
+
+    /**
+     * This method is used to run the workload. It returns once every call it started has returned.
+     *
+     * @param start       When the first call is meant to start, in System.nanoTime.
+     * @param measureFrom When the warm-up ends; calls meant to start before it are not recorded.
+     * @param end         When the last call may start.
+     */
+    final void run(long start, long measureFrom, long end) {
+        this.measureFrom = measureFrom;
+        run(start, end);
+    }
+
+    /**
+     * This method starts the calls between the start and the end, by calling call with when each was meant to start.
+     */
+    abstract void run(long start, long end);
+
+    /**
+     * This method makes one call of a random operation and records it.
+     *
+     * @param intended When the call was meant to start, which its response time is measured from.
+     */
+    final void call(long intended) {
+        Operation operation = mix.next();
+        long sent = System.nanoTime();
+        boolean succeeded;
+        try {
+            succeeded = client.send(operation);
+        } catch (IOException e) {
+            succeeded = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        if (intended - measureFrom >= 0) {
+            recorder.record(operation, intended, sent, done, succeeded);
+        }
+    }
+
+    /**
+     * This method parks the thread until the given time, in System.nanoTime.
+     */
+    static void waitUntil(long deadline) {
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.wchamara.springboottestingreactive.controller;
+
+import com.wchamara.springboottestingreactive.dto.CursorPage;
+import com.wchamara.springboottestingreactive.model.Employee;
+import com.wchamara.springboottestingreactive.service.EmployeeService;
+import com.wchamara.springboottestingreactive.util.CursorCodec;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/employees")
+public class EmployeeController {
+
+    private final EmployeeService employeeService;
+
+    public EmployeeController(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    /**
+     * The batch is collected before it is written, so the transaction commits before the response starts
+     * and a client that stops reading the response cannot roll it back.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<List<Employee>> createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees).collectList();
+    }
+
+    /**
+     * The Employees are written to the response as they are read, as one JSON array or, when the client asks for
+     * application/x-ndjson, one Employee per line. A slow client slows down the reads instead of filling the memory.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Employee> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<CursorPage<Employee>> getEmployeesPage(@RequestParam(value = "after", required = false) String after,
+                                                       @RequestParam("limit") int limit) {
+        long afterId = after == null || after.isEmpty() ? 0L : CursorCodec.decode(after);
+        return employeeService.getEmployeesAfter(afterId, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Employee> exportEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") Long employeeId) {
+        return employeeService.getEmployeeById(employeeId).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/search", params = "email")
+    public Mono<ResponseEntity<Employee>> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/search", params = {"firstName", "lastName"})
+    public Mono<ResponseEntity<Employee>> getEmployeeByName(@RequestParam("firstName") String firstName,
+                                                            @RequestParam("lastName") String lastName) {
+        return employeeService.getEmployeeByName(firstName, lastName).map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee) {
+        return employeeService.updateEmployee(employeeId, employee).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable("id") Long employeeId) {
+        return employeeService.deleteEmployeeById(employeeId).then(Mono.just(ResponseEntity.ok().<Void>build()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.wchamara.springboottestingreactive.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * This class represents one page of a keyset (cursor) paginated result.
+ * It holds the items of the page and an opaque cursor that can be passed back to fetch the next page.
+ * The nextCursor is null when there are no more items after this page.
+ *
+ * @param <T> The type of the items in the page.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
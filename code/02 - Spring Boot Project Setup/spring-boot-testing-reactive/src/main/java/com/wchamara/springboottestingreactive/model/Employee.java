@@ -0,0 +1,65 @@
+package com.wchamara.springboottestingreactive.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * This class maps the employees table that the blocking spring-boot-testing module creates with JPA.
+ * Both modules can run against the same database.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table("employees")
+public class Employee {
+
+    /**
+     * The name of the unique index on the email column.
+     */
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    /**
+     * The id is allocated from the employee_id_sequence table by the EmployeeIdAllocator, in the same blocks as Hibernate uses,
+     * so ids created by this module and by the blocking module never collide.
+     * The id is never read from JSON.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Id
+    private Long id;
+
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    private String email;
+
+    /**
+     * The version is incremented by every update, like the @Version of the blocking module, which returns it as the ETag of the Employee.
+     * It is not part of the JSON.
+     */
+    @JsonIgnore
+    private long version;
+
+    /**
+     * When the Employee was last created or updated, which the blocking module returns as its Last-Modified header.
+     * It is not part of the JSON.
+     */
+    @JsonIgnore
+    @Column("last_modified")
+    private Instant lastModified;
+
+    public Employee(Long id, String firstName, String lastName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+}
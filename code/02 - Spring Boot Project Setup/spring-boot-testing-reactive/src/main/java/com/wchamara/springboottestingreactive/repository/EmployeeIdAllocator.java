@@ -0,0 +1,94 @@
+package com.wchamara.springboottestingreactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class allocates Employee ids from the employee_id_sequence table the way Hibernate's pooled table generator does
+ * in the blocking module: each read of the row reserves the block of ALLOCATION_SIZE ids that ends at the value read,
+ * and moves the value on by ALLOCATION_SIZE. Both modules can therefore create Employees in the same table.
+ * <p>
+ * A block is reserved in a transaction of its own, so a rollback of the insert that needed it can not hand the same ids out twice.
+ */
+@Component
+public class EmployeeIdAllocator {
+
+    /**
+     * The number of ids reserved at a time. It must match the allocationSize of the Employee entity in the blocking module.
+     */
+    static final int ALLOCATION_SIZE = 100;
+
+    private static final String SEQUENCE_NAME = "employees";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Runs each block reservation in a new transaction.
+     */
+    private final TransactionalOperator newTransaction;
+
+    /**
+     * The block ids are taken from. A block that runs out is replaced by the next reserved block.
+     */
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(new AtomicLong(1), 0));
+
+    /**
+     * Constructor for the EmployeeIdAllocator.
+     *
+     * @param databaseClient     The client used to read and move the sequence row.
+     * @param transactionManager The transaction manager the block reservations run in.
+     */
+    public EmployeeIdAllocator(DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+        this.databaseClient = databaseClient;
+        this.newTransaction = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    /**
+     * This method is used to get the next free Employee id.
+     * It only reaches the database when the current block has run out.
+     *
+     * @return A Mono of the id.
+     */
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = block.get().take();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return reserveBlock().doOnNext(block::set).then(nextId());
+        });
+    }
+
+    private Mono<Block> reserveBlock() {
+        return databaseClient.sql("SELECT next_val FROM employee_id_sequence WHERE sequence_name = :name FOR UPDATE")
+                .bind("name", SEQUENCE_NAME)
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(hi -> databaseClient.sql("UPDATE employee_id_sequence SET next_val = :next WHERE sequence_name = :name")
+                        .bind("next", hi + ALLOCATION_SIZE)
+                        .bind("name", SEQUENCE_NAME)
+                        .then()
+                        .thenReturn(new Block(new AtomicLong(Math.max(1, hi - ALLOCATION_SIZE + 1)), hi)))
+                .as(newTransaction::transactional);
+    }
+
+    /**
+     * A reserved block of ids, from the next id to hand out up to and including hi.
+     */
+    private record Block(AtomicLong next, long hi) {
+
+        long take() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : -1;
+        }
+    }
+}
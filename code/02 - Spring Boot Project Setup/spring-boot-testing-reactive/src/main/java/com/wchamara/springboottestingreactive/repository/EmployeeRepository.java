@@ -0,0 +1,69 @@
+package com.wchamara.springboottestingreactive.repository;
+
+import com.wchamara.springboottestingreactive.model.Employee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface EmployeeRepository extends ReactiveCrudRepository<Employee, Long> {
+    /**
+     * This method is used to find an Employee by their email.
+     * The Mono completes empty if no Employee is found with the given email.
+     *
+     * @param email The email of the Employee to find.
+     * @return A Mono of the Employee.
+     */
+    Mono<Employee> findByEmail(String email);
+
+    /**
+     * This method is used to find an Employee by their first name and last name.
+     * The Mono completes empty if no Employee is found with the given names.
+     *
+     * @param firstName The first name of the Employee to find.
+     * @param lastName  The last name of the Employee to find.
+     * @return A Mono of the first Employee with these names.
+     */
+    Mono<Employee> findFirstByFirstNameAndLastName(String firstName, String lastName);
+
+    /**
+     * This method is used to find one page of Employees using keyset pagination.
+     * It seeks on the primary key, so the cost of a page does not depend on how deep it is.
+     *
+     * @param afterId The id after which the page starts.
+     * @param limit   The maximum number of Employees to return.
+     * @return The Employees with an id greater than afterId, ordered by id.
+     */
+    @Query("SELECT * FROM employees WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Employee> findPageAfter(long afterId, int limit);
+
+    /**
+     * This method is used to update the given fields of an Employee with a single UPDATE statement.
+     * A null field keeps its current value. The version is incremented and the last modified time is set,
+     * like the updates of the blocking module do, so its ETags and Last-Modified headers see the change.
+     *
+     * @param id           The id of the Employee to update.
+     * @param firstName    The new first name, or null to keep the current one.
+     * @param lastName     The new last name, or null to keep the current one.
+     * @param email        The new email, or null to keep the current one.
+     * @param lastModified The time of the update.
+     * @return A Mono of the number of updated rows, 0 if no Employee exists with the given id.
+     */
+    @Modifying
+    @Query("UPDATE employees SET first_name = COALESCE(:firstName, first_name), last_name = COALESCE(:lastName, last_name), "
+            + "email = COALESCE(:email, email), version = version + 1, last_modified = :lastModified WHERE id = :id")
+    Mono<Integer> updateEmployeeById(long id, String firstName, String lastName, String email, Instant lastModified);
+
+    /**
+     * This method is used to delete an Employee by id with a single DELETE statement.
+     *
+     * @param id The id of the Employee to delete.
+     * @return A Mono of the number of deleted rows, 0 if no Employee exists with the given id.
+     */
+    @Modifying
+    @Query("DELETE FROM employees WHERE id = :id")
+    Mono<Integer> deleteEmployeeById(long id);
+}
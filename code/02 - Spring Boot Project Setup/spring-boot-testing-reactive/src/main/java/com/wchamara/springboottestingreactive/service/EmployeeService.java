@@ -0,0 +1,94 @@
+package com.wchamara.springboottestingreactive.service;
+
+import com.wchamara.springboottestingreactive.dto.CursorPage;
+import com.wchamara.springboottestingreactive.model.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * This interface defines the reactive service layer for managing Employees.
+ * It offers the same operations as the EmployeeService of the blocking module, returning a Mono or a Flux instead of a value.
+ */
+public interface EmployeeService {
+
+    /**
+     * This method is used to save an Employee.
+     * The Mono fails with a ResourceAlreadyExistsException if the email is already taken.
+     *
+     * @param employee The Employee to save.
+     * @return A Mono of the saved Employee.
+     */
+    Mono<Employee> saveEmployee(Employee employee);
+
+    /**
+     * This method is used to save many Employees in one transaction.
+     *
+     * @param employees The Employees to save.
+     * @return A Flux of the saved Employees with their generated ids.
+     */
+    Flux<Employee> saveEmployees(List<Employee> employees);
+
+    /**
+     * This method is used to retrieve all Employees.
+     * The implementation of this method should read the Employees as the subscriber requests them,
+     * so memory use does not depend on the number of Employees.
+     *
+     * @return A Flux of all Employees, ordered by id.
+     */
+    Flux<Employee> getAllEmployees();
+
+    /**
+     * This method is used to retrieve one page of Employees using keyset (cursor) pagination.
+     *
+     * @param afterId The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of Employees in the page.
+     * @return A Mono of the page of Employees with the cursor of the next page, or a null cursor if this is the last page.
+     */
+    Mono<CursorPage<Employee>> getEmployeesAfter(long afterId, int limit);
+
+    /**
+     * This method is used to retrieve an Employee by id.
+     *
+     * @param id The id of the Employee to retrieve.
+     * @return A Mono of the Employee, empty if no Employee exists with the given id.
+     */
+    Mono<Employee> getEmployeeById(Long id);
+
+    /**
+     * This method is used to retrieve an Employee by email.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return A Mono of the Employee, empty if no Employee exists with the given email.
+     */
+    Mono<Employee> getEmployeeByEmail(String email);
+
+    /**
+     * This method is used to retrieve an Employee by first name and last name.
+     *
+     * @param firstName The first name of the Employee to retrieve.
+     * @param lastName  The last name of the Employee to retrieve.
+     * @return A Mono of the Employee, empty if no Employee exists with the given names.
+     */
+    Mono<Employee> getEmployeeByName(String firstName, String lastName);
+
+    /**
+     * This method is used to delete an Employee by id.
+     * The Mono fails with a ResourceNotFoundException if no Employee exists with the given id.
+     *
+     * @param id The id of the Employee to delete.
+     * @return A Mono that completes when the Employee is deleted.
+     */
+    Mono<Void> deleteEmployeeById(Long id);
+
+    /**
+     * This method is used to update an Employee.
+     * The Mono fails with a ResourceNotFoundException if no Employee exists with the given id.
+     *
+     * @param id       The id of the Employee to update.
+     * @param employee The updated Employee.
+     * @return A Mono of the updated Employee.
+     */
+    Mono<Employee> updateEmployee(Long id, Employee employee);
+}
@@ -0,0 +1,206 @@
+package com.wchamara.springboottestingreactive.service.impl;
+
+import com.wchamara.springboottestingreactive.dto.CursorPage;
+import com.wchamara.springboottestingreactive.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottestingreactive.exception.ResourceNotFoundException;
+import com.wchamara.springboottestingreactive.model.Employee;
+import com.wchamara.springboottestingreactive.repository.EmployeeIdAllocator;
+import com.wchamara.springboottestingreactive.repository.EmployeeRepository;
+import com.wchamara.springboottestingreactive.service.EmployeeService;
+import com.wchamara.springboottestingreactive.util.CursorCodec;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class implements the EmployeeService interface on top of R2DBC.
+ * Nothing in it blocks: every database call returns a Mono or a Flux that runs when it is subscribed to.
+ */
+@Service
+public class EmployeeServiceImpl implements EmployeeService {
+
+    /**
+     * The largest page a client can ask for.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The number of rows fetched from the server-side cursor at a time when all Employees are streamed.
+     */
+    static final int FETCH_SIZE = 1000;
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeIdAllocator employeeIdAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructor for the EmployeeServiceImpl.
+     *
+     * @param employeeRepository    The repository used for queries, updates and deletes.
+     * @param employeeIdAllocator   The allocator of the ids of new Employees.
+     * @param entityTemplate        The template used to insert new Employees with their allocated ids.
+     * @param transactionalOperator The operator that runs a batch create in one transaction.
+     */
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeIdAllocator employeeIdAllocator,
+                               R2dbcEntityTemplate entityTemplate, TransactionalOperator transactionalOperator) {
+        this.employeeRepository = employeeRepository;
+        this.employeeIdAllocator = employeeIdAllocator;
+        this.entityTemplate = entityTemplate;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * This method is used to save a new Employee.
+     * The id is allocated first and the Employee is inserted with it, at version 0 and modified now, like Hibernate inserts it
+     * in the blocking module; a clash on the unique email index is turned into a ResourceAlreadyExistsException.
+     *
+     * @param employee The Employee to save.
+     * @return A Mono of the saved Employee.
+     */
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return employeeIdAllocator.nextId()
+                .flatMap(id -> {
+                    employee.setId(id);
+                    employee.setVersion(0);
+                    employee.setLastModified(Instant.now());
+                    return entityTemplate.insert(employee);
+                })
+                .onErrorMap(DataIntegrityViolationException.class, e -> translateDuplicateEmail(e, employee.getEmail()));
+    }
+
+    /**
+     * This method is used to save many new Employees.
+     * The ids are allocated before the transaction starts, then all Employees are inserted in one transaction.
+     *
+     * @param employees The Employees to save.
+     * @return A Flux of the saved Employees.
+     */
+    @Override
+    public Flux<Employee> saveEmployees(List<Employee> employees) {
+        return Flux.fromIterable(employees)
+                .concatMap(employee -> employeeIdAllocator.nextId().doOnNext(employee::setId).thenReturn(employee))
+                .doOnNext(employee -> {
+                    employee.setVersion(0);
+                    employee.setLastModified(Instant.now());
+                })
+                .collectList()
+                .flatMapMany(allocated -> Flux.fromIterable(allocated).concatMap(entityTemplate::insert)
+                        .as(transactionalOperator::transactional))
+                .onErrorMap(DataIntegrityViolationException.class, e -> translateDuplicateEmail(e, null));
+    }
+
+    /**
+     * This method is used to stream all Employees ordered by id.
+     * The rows are read from a server-side cursor FETCH_SIZE rows at a time, as the subscriber requests them.
+     *
+     * @return A Flux of all Employees.
+     */
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        // the bound parameter makes the driver prepare the statement on the server, which it needs to open a cursor
+        return entityTemplate.getDatabaseClient()
+                .sql("SELECT * FROM employees WHERE id > :afterId ORDER BY id")
+                .bind("afterId", 0L)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map((row, metadata) -> entityTemplate.getConverter().read(Employee.class, row, metadata))
+                .all();
+    }
+
+    /**
+     * This method is used to retrieve one page of Employees after the given id.
+     * It reads one Employee more than the page holds to find out whether there is a next page.
+     *
+     * @param afterId The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of Employees in the page, capped at MAX_PAGE_SIZE.
+     * @return A Mono of the page.
+     */
+    @Override
+    public Mono<CursorPage<Employee>> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeRepository.findPageAfter(afterId, pageSize + 1)
+                .collectList()
+                .map(employees -> {
+                    if (employees.size() <= pageSize) {
+                        return new CursorPage<>(employees, null);
+                    }
+                    List<Employee> page = employees.subList(0, pageSize);
+                    return new CursorPage<>(page, CursorCodec.encode(page.get(pageSize - 1).getId()));
+                });
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(Long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeByEmail(String email) {
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeByName(String firstName, String lastName) {
+        return employeeRepository.findFirstByFirstNameAndLastName(firstName, lastName);
+    }
+
+    /**
+     * This method is used to delete an Employee with a single DELETE statement.
+     *
+     * @param id The id of the Employee to delete.
+     * @return A Mono that completes when the Employee is deleted, or fails with a ResourceNotFoundException.
+     */
+    @Override
+    public Mono<Void> deleteEmployeeById(Long id) {
+        return employeeRepository.deleteEmployeeById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("Employee not found with id : " + id))
+                        : Mono.empty());
+    }
+
+    /**
+     * This method is used to update an Employee with a single UPDATE statement.
+     * Fields that are null in the given Employee keep their current value. The Employee is only read back
+     * when some fields were left out, because otherwise the request already holds its new state.
+     *
+     * @param id       The id of the Employee to update.
+     * @param employee The updated Employee.
+     * @return A Mono of the updated Employee, or a Mono that fails with a ResourceNotFoundException.
+     */
+    @Override
+    public Mono<Employee> updateEmployee(Long id, Employee employee) {
+        return employeeRepository.updateEmployeeById(id, employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                        Instant.now())
+                .onErrorMap(DataIntegrityViolationException.class, e -> translateDuplicateEmail(e, employee.getEmail()))
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new ResourceNotFoundException("Employee not found with id : " + id));
+                    }
+                    if (employee.getFirstName() != null && employee.getLastName() != null && employee.getEmail() != null) {
+                        return Mono.just(new Employee(id, employee.getFirstName(), employee.getLastName(), employee.getEmail()));
+                    }
+                    return employeeRepository.findById(id);
+                });
+    }
+
+    /**
+     * This method turns a violation of the unique email index into a ResourceAlreadyExistsException.
+     * Any other integrity violation is returned unchanged.
+     */
+    private static Throwable translateDuplicateEmail(DataIntegrityViolationException e, String email) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_CONSTRAINT)) {
+            String detail = email == null ? "" : " : " + email;
+            return new ResourceAlreadyExistsException("Employee already exists with given email" + detail, e);
+        }
+        return e;
+    }
+}
@@ -0,0 +1,22 @@
+-- The same tables the spring-boot-testing module creates through JPA, so both modules can share one database.
+CREATE TABLE IF NOT EXISTS employees
+(
+    id            BIGINT       NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    first_name    VARCHAR(255) NOT NULL,
+    last_name     VARCHAR(255) NOT NULL,
+    version       BIGINT       NOT NULL,
+    last_modified DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_employees_email UNIQUE (email),
+    INDEX idx_employees_last_modified (last_modified)
+);
+
+CREATE TABLE IF NOT EXISTS employee_id_sequence
+(
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT IGNORE INTO employee_id_sequence (sequence_name, next_val) VALUES ('employees', 1);
@@ -0,0 +1,279 @@
+package com.wchamara.springboottestingreactive.benchmark;
+
+import com.wchamara.springboottestingreactive.SpringBootTestingReactiveApplication;
+import com.wchamara.springboottestingreactive.integration.BaseIT;
+import com.wchamara.springboottestingreactive.model.Employee;
+import com.wchamara.springboottestingreactive.service.EmployeeService;
+import com.wchamara.springboottestingreactive.util.CursorCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This is a load test comparing the reactive stack with the servlet stack for the same API and the same database.
+ * It is named *IT so it is not part of the default test run. Package the servlet application first, then run it from this module:
+ * mvn -f ../spring-boot-testing/pom.xml package -DskipTests
+ * mvn test -Dtest=EmployeeStackBenchmarkIT -Dbenchmark.connections=100,1000,5000 -Dbenchmark.seconds=30
+ * The servlet application's jar can be given with -Dbenchmark.mvc-jar. Raise the open files limit first, e.g. ulimit -n 65536.
+ * <p>
+ * The reactive application runs in this JVM and the servlet application in a JVM of its own, both against the same MySQL container
+ * and with the same number of database connections. The servlet application runs without its cache and without coalescing,
+ * so that every request of both stacks reaches the database. For every number of concurrent connections,
+ * each connection sends requests back to back: half of them GET /api/v1/employees/{id} and half of them a keyset page.
+ * Throughput and p50/p99/p99.9 latency are measured after a warm-up.
+ */
+class EmployeeStackBenchmarkIT extends BaseIT {
+
+    private static final int[] CONNECTIONS = Arrays.stream(System.getProperty("benchmark.connections", "100,1000,5000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 20);
+
+    private static final long WARM_UP_SECONDS = Long.getLong("benchmark.warm-up-seconds", 5);
+
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 50);
+
+    private static final Path MVC_JAR = Path.of(System.getProperty("benchmark.mvc-jar",
+            "../spring-boot-testing/target/spring-boot-testing-0.0.1-SNAPSHOT.jar"));
+
+    private static final int ROWS = 10_000;
+
+    private static final int HOT_SET = 1_000;
+
+    @Test
+    @DisplayName("the reactive stack and the servlet stack under the same load")
+    void reactiveVersusServlet() throws Exception {
+        assumeTrue(Files.isRegularFile(MVC_JAR), "the servlet application is not packaged: " + MVC_JAR.toAbsolutePath());
+
+        System.out.printf("%-9s %12s %12s %10s %10s %10s %8s%n",
+                "stack", "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        try (ConfigurableApplicationContext reactive = startReactive()) {
+            List<Long> ids = seed(reactive.getBean(EmployeeService.class));
+            int reactivePort = ((WebServerApplicationContext) reactive).getWebServer().getPort();
+            int servletPort = freePort();
+            Process servlet = startServlet(servletPort);
+            try {
+                awaitStarted(servlet, servletPort);
+                for (int connections : CONNECTIONS) {
+                    for (String stack : new String[]{"servlet", "reactive"}) {
+                        Result result = drive("servlet".equals(stack) ? servletPort : reactivePort, ids, connections);
+                        System.out.printf("%-9s %12d %12.0f %10.2f %10.2f %10.2f %8d%n", stack,
+                                connections, result.throughput(), result.p50(), result.p99(), result.p999(), result.errors());
+                        assertThat(result.requests()).isPositive();
+                    }
+                }
+            } finally {
+                servlet.destroy();
+                servlet.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startReactive() {
+        return new SpringApplicationBuilder(SpringBootTestingReactiveApplication.class)
+                .properties(Map.of(
+                        "spring.r2dbc.url", r2dbcUrl(),
+                        "spring.r2dbc.username", mySQLContainer.getUsername(),
+                        "spring.r2dbc.password", mySQLContainer.getPassword(),
+                        "spring.r2dbc.pool.initial-size", POOL_SIZE,
+                        "spring.r2dbc.pool.max-size", POOL_SIZE,
+                        "server.port", 0))
+                .run();
+    }
+
+    private static Process startServlet(int port) throws IOException {
+        int maxConnections = Arrays.stream(CONNECTIONS).max().orElse(0) + 1_000;
+        return new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", MVC_JAR.toString(),
+                "--server.port=" + port,
+                "--server.tomcat.max-connections=" + maxConnections,
+                "--server.tomcat.accept-count=" + maxConnections,
+                "--spring.datasource.url=" + mySQLContainer.getJdbcUrl(),
+                "--spring.datasource.username=" + mySQLContainer.getUsername(),
+                "--spring.datasource.password=" + mySQLContainer.getPassword(),
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.jpa.show-sql=false",
+                "--employees.cache.enabled=false",
+                "--employees.coalescing.enabled=false")
+                .inheritIO()
+                .start();
+    }
+
+    /**
+     * This method waits until the servlet application answers, or fails if it exits or takes longer than two minutes.
+     */
+    private static void awaitStarted(Process servlet, int port) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees?limit=1")).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!servlet.isAlive()) {
+                throw new IllegalStateException("the servlet application exited with " + servlet.exitValue());
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("the servlet application did not start on port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<Long> seed(EmployeeService employeeService) {
+        List<Employee> existing = employeeService.getEmployeesAfter(0, HOT_SET).block().getItems();
+        if (existing.size() == HOT_SET) {
+            return existing.stream().map(Employee::getId).toList();
+        }
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("load" + i + "@example.com")
+                    .build());
+        }
+        return employeeService.saveEmployees(employees).take(HOT_SET).map(Employee::getId).collectList().block();
+    }
+
+    /**
+     * This method keeps the given number of connections busy for the configured time and collects the latency of every request
+     * that started after the warm-up.
+     */
+    private static Result drive(int port, List<Long> ids, int connections) throws Exception {
+        ExecutorService responses = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(responses)
+                .build();
+        try {
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+            long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(SECONDS);
+            AtomicLong errors = new AtomicLong();
+            List<Connection> clients = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Connection connection = new Connection(client, port, ids, measureFrom, stopAt, errors);
+                clients.add(connection);
+                connection.next();
+            }
+            CompletableFuture.allOf(clients.stream().map(Connection::done).toArray(CompletableFuture[]::new))
+                    .get(SECONDS + WARM_UP_SECONDS + 60, TimeUnit.SECONDS);
+
+            long[] latencies = clients.stream().flatMapToLong(Connection::latencies).sorted().toArray();
+            return new Result(latencies.length, latencies.length / (double) SECONDS,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), errors.get());
+        } finally {
+            responses.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * One client connection that sends its next request as soon as the previous response has arrived.
+     */
+    private static final class Connection {
+
+        private final HttpClient client;
+        private final int port;
+        private final List<Long> ids;
+        private final long measureFrom;
+        private final long stopAt;
+        private final AtomicLong errors;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long[] latencies = new long[256];
+        private int count;
+
+        private Connection(HttpClient client, int port, List<Long> ids, long measureFrom, long stopAt, AtomicLong errors) {
+            this.client = client;
+            this.port = port;
+            this.ids = ids;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.errors = errors;
+        }
+
+        private void next() {
+            long sent = System.nanoTime();
+            if (sent >= stopAt) {
+                done.complete(null);
+                return;
+            }
+            client.sendAsync(request(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long received = System.nanoTime();
+                if (failure != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else if (sent >= measureFrom) {
+                    record(received - sent);
+                }
+                next();
+            });
+        }
+
+        private HttpRequest request() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long id = ids.get(random.nextInt(ids.size()));
+            String path = random.nextBoolean()
+                    ? "/api/v1/employees/" + id
+                    : "/api/v1/employees?limit=20&after=" + CursorCodec.encode(id);
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        private CompletableFuture<Void> done() {
+            return done;
+        }
+
+        private LongStream latencies() {
+            return Arrays.stream(latencies, 0, count);
+        }
+    }
+
+    private record Result(long requests, double throughput, double p50, double p99, double p999, long errors) {
+    }
+}
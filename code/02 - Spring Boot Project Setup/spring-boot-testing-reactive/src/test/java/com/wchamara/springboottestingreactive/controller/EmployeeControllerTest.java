@@ -0,0 +1,183 @@
+package com.wchamara.springboottestingreactive.controller;
+
+import com.wchamara.springboottestingreactive.dto.CursorPage;
+import com.wchamara.springboottestingreactive.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottestingreactive.exception.ResourceNotFoundException;
+import com.wchamara.springboottestingreactive.model.Employee;
+import com.wchamara.springboottestingreactive.service.EmployeeService;
+import com.wchamara.springboottestingreactive.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * This class is a test class for the reactive EmployeeController.
+ * It mocks the EmployeeService to isolate the controller for unit testing,
+ * and uses the WebTestClient to send HTTP requests to the controller.
+ */
+@WebFluxTest(EmployeeController.class)
+class EmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    private Employee employee;
+
+    /**
+     * This method sets up the test environment before each test.
+     * It creates a new Employee object that is used in the tests.
+     */
+    @BeforeEach
+    void setUp() {
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("NewFirstName")
+                .lastName("NewLastName")
+                .email("new@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Employee creation succeeds")
+    void givenEmployee_whenCreateEmployee_thenEmployeeIsCreated() {
+        // given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willReturn(Mono.just(employee));
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    @Test
+    @DisplayName("Employee creation with a taken email returns conflict")
+    void givenTakenEmail_whenCreateEmployee_thenReturnConflict() {
+        // given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willReturn(Mono.error(new ResourceAlreadyExistsException("Employee already exists with given email : " + employee.getEmail(), null)));
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("Get all Employees streams them as newline delimited JSON")
+    void givenEmployees_whenGetAllEmployeesAsNdjson_thenReturnOneEmployeePerLine() {
+        // given - precondition or setup
+        Employee other = Employee.builder().id(2L).firstName("Other").lastName("Employee").email("other@gmail.com").build();
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, other));
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        // then verify the output
+        List<Employee> employees = response.expectStatus().isOk()
+                .returnResult(Employee.class).getResponseBody().collectList().block();
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("new@gmail.com", "other@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Get a page of Employees returns the items and the next cursor")
+    void givenLimit_whenGetEmployeesPage_thenReturnPage() {
+        // given - precondition or setup
+        given(employeeService.getEmployeesAfter(1L, 1))
+                .willReturn(Mono.just(new CursorPage<>(List.of(employee), CursorCodec.encode(employee.getId()))));
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri("/api/v1/employees?limit=1&after=" + CursorCodec.encode(1L))
+                .exchange();
+
+        // then verify the output
+        response.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo(CursorCodec.encode(employee.getId()));
+    }
+
+    @Test
+    @DisplayName("Get a page with an invalid cursor returns bad request")
+    void givenInvalidCursor_whenGetEmployeesPage_thenReturnBadRequest() {
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get()
+                .uri("/api/v1/employees?limit=1&after=not-a-cursor")
+                .exchange();
+
+        // then verify the output
+        response.expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Given invalid ID, then return not found")
+    void givenInvalidId_thenReturnNotFound() {
+        // given - precondition or setup
+        given(employeeService.getEmployeeById(999L)).willReturn(Mono.empty());
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/v1/employees/{id}", 999L).exchange();
+
+        // then verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Update of a missing Employee returns not found")
+    void givenMissingEmployee_whenUpdateEmployee_thenReturnNotFound() {
+        // given - precondition or setup
+        given(employeeService.updateEmployee(ArgumentMatchers.eq(999L), ArgumentMatchers.any(Employee.class)))
+                .willReturn(Mono.error(new ResourceNotFoundException("Employee not found with id : 999")));
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/v1/employees/{id}", 999L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        // then verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Delete Employee returns ok")
+    void givenEmployeeId_whenDeleteEmployee_thenReturnOk() {
+        // given - precondition or setup
+        given(employeeService.deleteEmployeeById(1L)).willReturn(Mono.empty());
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/v1/employees/{id}", 1L).exchange();
+
+        // then verify the output
+        response.expectStatus().isOk();
+    }
+}
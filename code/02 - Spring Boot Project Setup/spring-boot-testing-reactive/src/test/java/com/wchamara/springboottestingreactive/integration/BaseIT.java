@@ -0,0 +1,39 @@
+package com.wchamara.springboottestingreactive.integration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.utility.DockerImageName;
+
+public abstract class BaseIT {
+    protected final static MySQLContainer<?> mySQLContainer;
+    private static final Logger logger;
+
+    static {
+        logger = LoggerFactory.getLogger(BaseIT.class);
+        mySQLContainer = new MySQLContainer<>(DockerImageName.parse("mysql:8.3.0"))
+                .withPassword("example")
+                .withUsername("root")
+                .withDatabaseName("ems")
+                .withLogConsumer(new Slf4jLogConsumer(logger));
+        mySQLContainer.start();
+    }
+
+    /**
+     * This method returns the R2DBC URL of the MySQL container.
+     */
+    protected static String r2dbcUrl() {
+        return "r2dbc:mysql://" + mySQLContainer.getHost() + ":" + mySQLContainer.getMappedPort(MySQLContainer.MYSQL_PORT)
+                + "/" + mySQLContainer.getDatabaseName() + "?sslMode=DISABLED";
+    }
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", BaseIT::r2dbcUrl);
+        registry.add("spring.r2dbc.username", mySQLContainer::getUsername);
+        registry.add("spring.r2dbc.password", mySQLContainer::getPassword);
+    }
+}
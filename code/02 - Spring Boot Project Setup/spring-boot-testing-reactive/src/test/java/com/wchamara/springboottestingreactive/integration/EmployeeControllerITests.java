@@ -0,0 +1,121 @@
+package com.wchamara.springboottestingreactive.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.wchamara.springboottestingreactive.model.Employee;
+import com.wchamara.springboottestingreactive.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an integration test for the reactive Employee API.
+ * It runs the whole application against a MySQL database in a container and calls it over HTTP with the WebTestClient.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmployeeControllerITests extends BaseIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll().block();
+        employee = Employee.builder()
+                .firstName("NewFirstName")
+                .lastName("NewLastName")
+                .email("new@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("an Employee can be created, read, updated and deleted")
+    void givenEmployee_whenCreateReadUpdateDelete_thenEachStepSucceeds() {
+        // given - precondition or setup
+        // the id is never read from JSON, so it is taken from the JSON tree
+        JsonNode created = webTestClient.post().uri("/api/v1/employees")
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+        assertThat(created).isNotNull();
+        long id = created.get("id").asLong();
+        assertThat(id).isPositive();
+
+        // when action or the behaviour we are going to test
+        webTestClient.get().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("new@gmail.com");
+        webTestClient.put().uri("/api/v1/employees/{id}", id)
+                .bodyValue(Employee.builder().email("changed@gmail.com").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("changed@gmail.com")
+                .jsonPath("$.firstName").isEqualTo("NewFirstName");
+        webTestClient.delete().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+
+        // then verify the output
+        webTestClient.get().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("creating an Employee with a taken email returns conflict")
+    void givenTakenEmail_whenCreateEmployee_thenReturnConflict() {
+        // given - precondition or setup
+        webTestClient.post().uri("/api/v1/employees").bodyValue(employee).exchange().expectStatus().isCreated();
+
+        // when action or the behaviour we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/v1/employees").bodyValue(employee).exchange();
+
+        // then verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("a batch of Employees can be paged through and streamed")
+    void givenBatch_whenPageAndStream_thenEveryEmployeeIsReturnedOnce() {
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("employee" + i + "@gmail.com").build());
+        }
+        webTestClient.post().uri("/api/v1/employees/batch").bodyValue(employees).exchange().expectStatus().isCreated();
+
+        // when action or the behaviour we are going to test
+        List<JsonNode> streamed = webTestClient.get().uri("/api/v1/employees/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(JsonNode.class).getResponseBody().collectList().block();
+        webTestClient.get().uri("/api/v1/employees?limit=200")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items.length()").isEqualTo(200)
+                .jsonPath("$.nextCursor").isNotEmpty();
+
+        // then verify the output
+        assertThat(streamed).hasSize(250);
+        assertThat(streamed).extracting(node -> node.get("id").asLong()).isSorted().doesNotHaveDuplicates();
+    }
+}
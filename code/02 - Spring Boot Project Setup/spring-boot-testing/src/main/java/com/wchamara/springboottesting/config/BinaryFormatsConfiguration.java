@@ -0,0 +1,55 @@
+package com.wchamara.springboottesting.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * This class adds Smile and CBOR, the binary formats of Jackson, as representations of the Employee API besides JSON.
+ * <p>
+ * A client asks for them with an Accept header of application/x-jackson-smile or application/cbor,
+ * and sends them with the same Content-Type. They encode the same properties as JSON, but need less bytes and less CPU to parse.
+ * The converters take the place of the ones Spring MVC adds by default after the JSON converter,
+ * so JSON stays the representation of requests that do not ask for one.
+ * Their ObjectMappers are built by Spring Boot's builder, so they have the same modules and spring.jackson.* settings as the JSON one.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfiguration {
+
+    /**
+     * The media type of Smile, as a String for the produces and consumes of request mappings.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * The media type of Smile.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    /**
+     * This method builds the converter that reads and writes Smile.
+     *
+     * @param builder A new builder of the ObjectMapper, with the settings of Spring Boot.
+     * @return The Smile converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * This method builds the converter that reads and writes CBOR.
+     *
+     * @param builder A new builder of the ObjectMapper, with the settings of Spring Boot.
+     * @return The CBOR converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,365 @@
+package com.wchamara.springboottesting.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the configuration of the Employee API, bound from the employees.* properties.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employees")
+public class EmployeeProperties {
+
+    /**
+     * The settings of the batch create endpoint.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * The settings of the in-process Employee cache.
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * The settings of the cache of encoded single Employee responses.
+     */
+    private final ResponseCache responseCache = new ResponseCache();
+
+    /**
+     * The settings of the request coalescing of single Employee lookups.
+     */
+    private final Coalescing coalescing = new Coalescing();
+
+    /**
+     * The settings of the write-behind buffer for single Employee creates.
+     */
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * The settings of the bulk loader for Employee files.
+     */
+    private final Load load = new Load();
+
+    /**
+     * The settings of the routing of read-only transactions to MySQL replicas.
+     */
+    private final Routing routing = new Routing();
+
+    /**
+     * The settings of the sharding of Employees across several MySQL databases.
+     */
+    private final Sharding sharding = new Sharding();
+
+    /**
+     * The settings of the metrics of the EmployeeService.
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * The settings of the profiling and the logging of SQL statements.
+     */
+    private final Sql sql = new Sql();
+
+    /**
+     * The settings of the Java Flight Recorder events and recording.
+     */
+    private final Jfr jfr = new Jfr();
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * The number of Employees inserted before the persistence context is flushed and cleared.
+         * It should be a multiple of spring.jpa.properties.hibernate.jdbc.batch_size.
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        /**
+         * Whether reads of single Employees go through the in-process cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The upper bound of the cache, as the approximate number of bytes held by the cached Employees.
+         */
+        private long maxWeight = 50_000_000;
+
+        /**
+         * How long a found Employee stays in the cache.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * How long a lookup that found no Employee stays in the cache.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class ResponseCache {
+        /**
+         * Whether GET /api/v1/employees/{id} writes JSON from a cache of encoded Employees instead of serializing them on every request.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The upper bound of the cache, as the number of bytes held by the encoded Employees.
+         */
+        private long maxBytes = 20_000_000;
+
+        /**
+         * How long an encoded Employee stays in the cache.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Coalescing {
+        /**
+         * Whether concurrent lookups of the same Employee share one database query.
+         */
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        /**
+         * Whether single Employee creates are buffered and inserted in batches instead of one transaction each.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of buffered creates that makes the buffer flush.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * How long the oldest buffered create waits for more creates before the buffer flushes.
+         */
+        private Duration maxDelay = Duration.ofMillis(5);
+
+        /**
+         * The number of creates the buffer holds before callers have to wait.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * How long a caller waits for room in a full buffer before the create is rejected with a 503.
+         */
+        private Duration offerTimeout = Duration.ofMillis(100);
+
+        /**
+         * How long a caller waits for a flush to take its create before the create is dropped from the buffer with a 503.
+         * A create that a flush has already taken is waited for until the flush ends.
+         */
+        private Duration saveTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Load {
+        /**
+         * The number of Employees read from the file and inserted in one transaction.
+         * Together with the size of an Employee, it bounds the memory a load needs.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * The number of threads that insert chunks in parallel, each on a connection and in a transaction of its own.
+         * It should stay below spring.datasource.hikari.maximum-pool-size, so the API keeps some connections during a load.
+         */
+        private int writers = 4;
+
+        /**
+         * The number of parsed chunks that wait for a writer before the parser has to wait.
+         */
+        private int queueCapacity = 8;
+
+        /**
+         * How many times a chunk is tried before it is reported as failed.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * How long a writer waits before the second try of a chunk. The wait doubles with every further try.
+         */
+        private Duration retryBackoff = Duration.ofMillis(500);
+
+        /**
+         * The number of rows sent in one LOAD DATA LOCAL INFILE statement, and committed together, by the EmployeeLocalInfileLoader.
+         * A chunk is held in memory as TSV while it is sent.
+         */
+        private int localInfileChunkSize = 50_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Routing {
+        /**
+         * Whether read-only transactions go to the replicas while everything else goes to spring.datasource.url, the primary.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The replicas read-only transactions are balanced across, like employees.routing.replicas[0].url=jdbc:mysql://replica-1:3306/ems.
+         * Each one gets a connection pool with the settings of spring.datasource.hikari.
+         */
+        private List<Database> replicas = new ArrayList<>();
+
+        /**
+         * How often each replica is checked. A replica that fails the check is taken out of the rotation until it passes again.
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * How far a replica may fall behind the primary, as reported by SHOW REPLICA STATUS, before it is taken out of the rotation.
+         */
+        private Duration maxReplicaLag = Duration.ofSeconds(10);
+
+        /**
+         * Whether a request reads from the primary after it has committed a write, so it sees its own write.
+         */
+        private boolean readYourWrites = true;
+
+        /**
+         * How long a client keeps reading from the primary after a write, through a cookie, so its next requests see the write too.
+         * With 0 only the rest of the writing request is pinned.
+         */
+        private Duration pinDuration = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Sharding {
+        /**
+         * Whether Employees are spread across spring.datasource.url, which is shard 0 and holds the email directory,
+         * and the shards listed in employees.sharding.shards, which are shard 1, 2 and so on.
+         * It can not be combined with employees.routing.enabled.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The shards after shard 0, like employees.sharding.shards[0].url=jdbc:mysql://shard-1:3306/ems.
+         * Each one gets a connection pool with the settings of spring.datasource.hikari.
+         * Shards can be added later: existing Employees stay where their id says, only new ones are spread across more shards.
+         */
+        private List<Database> shards = new ArrayList<>();
+
+        /**
+         * The node of this application instance in the Snowflake ids, from 0 to 31. Every instance needs its own.
+         */
+        private int nodeId = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        /**
+         * Whether every call that gets past the caches to the EmployeeService talking to the database is timed in employees.service.
+         */
+        private boolean serviceTimers = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Sql {
+        /**
+         * Whether the SQL statements are timed, counted by fingerprint and logged when they are slow or sampled.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a statement, including the reading of its rows, has to take to be logged.
+         */
+        private Duration slowThreshold = Duration.ofMillis(100);
+
+        /**
+         * The share of the statements below the slow threshold that is logged as well, from 0 for none to 1 for all.
+         */
+        private double sampleRate = 0.0;
+
+        /**
+         * The number of fingerprints the statistics are kept for. Statements with further fingerprints are counted together.
+         */
+        private int maxFingerprints = 1000;
+
+        /**
+         * The number of fingerprints the slowstatements actuator endpoint lists.
+         */
+        private int top = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class Jfr {
+        /**
+         * Whether a continuous flight recording runs from startup, so the last minutes can be dumped at any time.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether the calls to the EmployeeService and the EmployeeRepository emit Employee events to the flight recorder.
+         */
+        private boolean events = true;
+
+        /**
+         * The JDK settings the continuous recording starts from: default, the low overhead one, or profile.
+         */
+        private String settings = "default";
+
+        /**
+         * How long a call to the EmployeeService or the EmployeeRepository has to take for its event to be recorded.
+         */
+        private Duration threshold = Duration.ofMillis(1);
+
+        /**
+         * How far back the continuous recording keeps its data.
+         */
+        private Duration maxAge = Duration.ofMinutes(30);
+
+        /**
+         * How many bytes of data the continuous recording keeps on disk at most.
+         */
+        private long maxSize = 250_000_000;
+
+        /**
+         * The directory the .jfr files of the dumps are written to.
+         */
+        private String dumpDirectory = System.getProperty("java.io.tmpdir");
+    }
+
+    /**
+     * A MySQL database besides spring.datasource.url, a replica or a shard.
+     */
+    @Getter
+    @Setter
+    public static class Database {
+        /**
+         * The JDBC URL of the database.
+         */
+        private String url;
+
+        /**
+         * The user of the database, spring.datasource.username if not set.
+         */
+        private String username;
+
+        /**
+         * The password of the database, spring.datasource.password if not set.
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,99 @@
+package com.wchamara.springboottesting.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.service.impl.CachingEmployeeService;
+import com.wchamara.springboottesting.service.impl.CoalescingEmployeeService;
+import com.wchamara.springboottesting.service.impl.EmployeeServiceImpl;
+import com.wchamara.springboottesting.service.impl.FlightRecorderEmployeeService;
+import com.wchamara.springboottesting.service.impl.ResponseCacheInvalidatingEmployeeService;
+import com.wchamara.springboottesting.service.impl.ShardedEmployeeService;
+import com.wchamara.springboottesting.service.impl.TimedEmployeeService;
+import com.wchamara.springboottesting.service.impl.WriteBehindEmployeeService;
+import com.wchamara.springboottesting.util.EmployeeResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * This class assembles the EmployeeService used by the controllers.
+ * The transactional EmployeeServiceImpl is wrapped in the optional layers that are enabled in the EmployeeProperties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class EmployeeServiceConfiguration {
+
+    /**
+     * This method builds the primary EmployeeService.
+     * When employees.sharding.enabled is true, the ShardedEmployeeService, which spreads the calls across the shards,
+     * takes the place of the EmployeeServiceImpl below the other layers.
+     * When employees.metrics.service-timers is true, that service is wrapped in a TimedEmployeeService,
+     * so the calls that reach the database are timed per method, and cache hits do not dilute the timers.
+     * When employees.cache.enabled is true, reads go through a CachingEmployeeService first.
+     * When employees.coalescing.enabled is true, the lookups that reach the database go through a CoalescingEmployeeService,
+     * so concurrent cache misses for the same key, or concurrent lookups the cache does not cover, share one query.
+     * Every write retires the running lookups it may affect, so a cache miss after the write never joins a lookup that read the old row.
+     * When employees.write-behind.enabled is true, single creates go through a WriteBehindEmployeeService that saves them in batches.
+     * It is closed together with the application context, which saves the creates that are still buffered;
+     * the layers added above it pass the close on, because Spring only closes the EmployeeService this method returns.
+     * When employees.response-cache.enabled is true, every write ends in a ResponseCacheInvalidatingEmployeeService,
+     * which drops the encoded response of the Employee once the layers below have committed the write.
+     * When employees.jfr.events is true, a FlightRecorderEmployeeService wraps it all, so every call the controllers make,
+     * including those the CachingEmployeeService answers, emits a flight recorder event.
+     *
+     * @param employeeServiceImpl    The EmployeeService that talks to the database.
+     * @param shardedEmployeeService The EmployeeService that spreads the calls across the shards, if sharding is enabled.
+     * @param employeeResponseCache  The cache of encoded Employee responses, if it is enabled.
+     * @param employeeProperties     The configuration of the Employee API.
+     * @param meterRegistry          The registry the layers publish their metrics to.
+     * @return The EmployeeService used by the controllers.
+     */
+    @Bean
+    @Primary
+    public EmployeeService employeeService(EmployeeServiceImpl employeeServiceImpl,
+                                           ObjectProvider<ShardedEmployeeService> shardedEmployeeService,
+                                           ObjectProvider<EmployeeResponseCache> employeeResponseCache,
+                                           EmployeeProperties employeeProperties,
+                                           MeterRegistry meterRegistry) {
+        EmployeeService sharded = shardedEmployeeService.getIfAvailable();
+        EmployeeService employeeService = sharded != null ? sharded : employeeServiceImpl;
+        if (employeeProperties.getMetrics().isServiceTimers()) {
+            employeeService = new TimedEmployeeService(employeeService, meterRegistry);
+        }
+        if (employeeProperties.getCoalescing().isEnabled()) {
+            employeeService = new CoalescingEmployeeService(employeeService, meterRegistry);
+        }
+        if (employeeProperties.getCache().isEnabled()) {
+            employeeService = new CachingEmployeeService(employeeService, employeeProperties.getCache(), meterRegistry);
+        }
+        if (employeeProperties.getWriteBehind().isEnabled()) {
+            employeeService = new WriteBehindEmployeeService(employeeService, employeeProperties.getWriteBehind(), meterRegistry);
+        }
+        EmployeeResponseCache responseCache = employeeResponseCache.getIfAvailable();
+        if (responseCache != null) {
+            employeeService = new ResponseCacheInvalidatingEmployeeService(employeeService, responseCache);
+        }
+        if (employeeProperties.getJfr().isEvents()) {
+            employeeService = new FlightRecorderEmployeeService(employeeService);
+        }
+        return employeeService;
+    }
+
+    /**
+     * This method builds the cache of encoded Employees that GET /api/v1/employees/{id} writes its JSON from.
+     *
+     * @param objectMapper       The ObjectMapper of the JSON message converter, so the cached JSON is the same as the serialized one.
+     * @param employeeProperties The configuration of the Employee API.
+     * @param meterRegistry      The registry the cache publishes its metrics to.
+     * @return The EmployeeResponseCache.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "employees.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public EmployeeResponseCache employeeResponseCache(ObjectMapper objectMapper,
+                                                       EmployeeProperties employeeProperties,
+                                                       MeterRegistry meterRegistry) {
+        return new EmployeeResponseCache(objectMapper, employeeProperties.getResponseCache(), meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.wchamara.springboottesting.config;
+
+import com.wchamara.springboottesting.jfr.EmployeeFlightRecorder;
+import com.wchamara.springboottesting.jfr.FlightRecordingEndpoint;
+import com.wchamara.springboottesting.jfr.RepositoryEventInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * This class sets up the Java Flight Recorder support of the Employee API: the continuous recording,
+ * the flightrecording actuator endpoint that dumps it, and, when employees.jfr.events is true, the events of the repository calls.
+ * The events of the service calls are emitted by the FlightRecorderEmployeeService the EmployeeServiceConfiguration adds.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FlightRecorderConfiguration {
+
+    /**
+     * This method builds the recorder that runs the continuous recording and dumps it on demand.
+     *
+     * @param employeeProperties The configuration of the Employee API.
+     * @return The EmployeeFlightRecorder, which is closed together with the application context.
+     * @throws IOException    If the recording could not be started.
+     * @throws ParseException If the JDK settings of the recording can not be read.
+     */
+    @Bean
+    public EmployeeFlightRecorder employeeFlightRecorder(EmployeeProperties employeeProperties) throws IOException, ParseException {
+        return new EmployeeFlightRecorder(employeeProperties.getJfr());
+    }
+
+    /**
+     * This method builds the flightrecording actuator endpoint.
+     *
+     * @param employeeFlightRecorder The recorder the endpoint dumps.
+     * @return The FlightRecordingEndpoint.
+     */
+    @Bean
+    public FlightRecordingEndpoint flightRecordingEndpoint(EmployeeFlightRecorder employeeFlightRecorder) {
+        return new FlightRecordingEndpoint(employeeFlightRecorder);
+    }
+
+    /**
+     * This method builds the post processor that adds the RepositoryEventInterceptor to the proxy of every repository.
+     * It works on the factory beans of the repositories before they create their proxies, the way Spring Boot adds its repository metrics.
+     *
+     * @return The post processor.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "employees.jfr", name = "events", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor repositoryEventPostProcessor() {
+        RepositoryEventInterceptor interceptor = new RepositoryEventInterceptor();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    proxyFactory.addAdvice(interceptor)));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.wchamara.springboottesting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * This class configures when Hibernate takes a connection from the pool.
+ * <p>
+ * Employee ids come from a table generator, which reads the next block of ids on a separate connection.
+ * By default Hibernate takes the transaction's connection when the transaction begins, just to switch off auto-commit,
+ * so a transaction that needs a new block of ids holds one connection while it waits for a second one.
+ * With as many concurrent creates as there are connections in the pool, every connection is held and the pool deadlocks.
+ * When the pool already hands out connections with auto-commit switched off, Hibernate is told so,
+ * and it only takes the transaction's connection at the first statement, after the ids of the new Employees have been generated.
+ */
+@Configuration(proxyBeanMethods = false)
+public class HibernateConnectionConfiguration {
+
+    /**
+     * This method tells Hibernate that the pool disables auto-commit, if, and only if, it does.
+     * It is checked on the DataSource itself because a DataSource that still auto-commits,
+     * like the embedded one of a @DataJpaTest, would otherwise commit every statement.
+     *
+     * @param dataSource The DataSource Hibernate takes its connections from.
+     * @return The customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer delayedConnectionAcquisition(DataSource dataSource) {
+        return hibernateProperties -> {
+            if (poolDisablesAutoCommit(dataSource)) {
+                hibernateProperties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, true);
+            }
+        };
+    }
+
+    private static boolean poolDisablesAutoCommit(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) && !dataSource.unwrap(HikariDataSource.class).isAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
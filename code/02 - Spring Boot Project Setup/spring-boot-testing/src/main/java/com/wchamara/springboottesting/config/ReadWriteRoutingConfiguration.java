@@ -0,0 +1,96 @@
+package com.wchamara.springboottesting.config;
+
+import com.wchamara.springboottesting.datasource.ReadWriteRoutingDataSource;
+import com.wchamara.springboottesting.datasource.ReadYourWritesFilter;
+import com.wchamara.springboottesting.datasource.ReplicaPool;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * This class routes read-only transactions to MySQL replicas when employees.routing.enabled is true.
+ * <p>
+ * spring.datasource.* still configures the primary, which gets every transaction that may write.
+ * The replicas are listed under employees.routing.replicas and share the pool settings of the primary.
+ * The user of a replica needs the REPLICATION CLIENT privilege for the health check, which reads SHOW REPLICA STATUS.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "employees.routing", name = "enabled", havingValue = "true")
+public class ReadWriteRoutingConfiguration {
+
+    /**
+     * This method builds the pool of the primary from spring.datasource.* and spring.datasource.hikari.*,
+     * the way Spring Boot does when there is no DataSource of the application.
+     *
+     * @param dataSourceProperties The spring.datasource.* properties.
+     * @return The pool of the primary.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * This method builds the pools of the replicas, which are closed together with the application context.
+     *
+     * @param primaryDataSource  The pool of the primary, whose settings the replica pools start from.
+     * @param employeeProperties The configuration of the Employee API.
+     * @param meterRegistry      The registry the replicas publish their metrics to.
+     * @return The pools of the replicas.
+     */
+    @Bean
+    public ReplicaPool replicaPool(HikariDataSource primaryDataSource, EmployeeProperties employeeProperties,
+                                   MeterRegistry meterRegistry) {
+        return new ReplicaPool(primaryDataSource, employeeProperties.getRouting(), meterRegistry);
+    }
+
+    /**
+     * This method builds the DataSource used by JPA and JDBC, which routes each transaction to the primary or a replica.
+     * The routing happens at the first statement of a transaction, once Spring has marked it read-only or not.
+     *
+     * @param primaryDataSource The pool of the primary.
+     * @param replicaPool       The pools of the replicas.
+     * @param meterRegistry     The registry the number of connections per target is published to.
+     * @return The routing DataSource.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool, MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(new ReadWriteRoutingDataSource(primaryDataSource, replicaPool, meterRegistry));
+        dataSource.setDefaultAutoCommit(primaryDataSource.isAutoCommit());
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * This method registers the filter that pins a request, and with a cookie the following requests, to the primary after a write.
+     * It runs first, so the pin covers every transaction of the request.
+     *
+     * @param employeeProperties The configuration of the Employee API.
+     * @return The registration of the filter.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "employees.routing", name = "read-your-writes", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(EmployeeProperties employeeProperties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(employeeProperties.getRouting().getPinDuration()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
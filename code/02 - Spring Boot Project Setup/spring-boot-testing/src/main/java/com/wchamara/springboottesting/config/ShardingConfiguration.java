@@ -0,0 +1,162 @@
+package com.wchamara.springboottesting.config;
+
+import com.wchamara.springboottesting.datasource.HikariPools;
+import com.wchamara.springboottesting.service.impl.EmployeeServiceImpl;
+import com.wchamara.springboottesting.service.impl.ShardedEmployeeService;
+import com.wchamara.springboottesting.sharding.ShardDirectory;
+import com.wchamara.springboottesting.sharding.ShardRoutingDataSource;
+import com.wchamara.springboottesting.sharding.SnowflakeIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class spreads Employees across several MySQL databases when employees.sharding.enabled is true.
+ * <p>
+ * spring.datasource.* is shard 0, which also holds the directory of the shard of each email, and employees.sharding.shards
+ * lists shard 1, 2 and so on. At startup, the employees table is created on every shard that does not have it yet.
+ * The ShardedEmployeeService becomes the innermost EmployeeService, and picks the shard of each call;
+ * the EmployeeRepository below it works on that shard through the ShardRoutingDataSource.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "employees.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    /**
+     * Constructor for the ShardingConfiguration.
+     *
+     * @param employeeProperties The configuration of the Employee API.
+     * @throws IllegalStateException If the routing to replicas is enabled as well, which sharding does not support.
+     */
+    public ShardingConfiguration(EmployeeProperties employeeProperties) {
+        if (employeeProperties.getRouting().isEnabled()) {
+            throw new IllegalStateException("employees.sharding.enabled and employees.routing.enabled can not both be true");
+        }
+    }
+
+    /**
+     * This method builds the pool of shard 0 from spring.datasource.* and spring.datasource.hikari.*,
+     * the way Spring Boot does when there is no DataSource of the application.
+     *
+     * @param dataSourceProperties The spring.datasource.* properties.
+     * @return The pool of shard 0.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    /**
+     * This method builds the DataSource used by JPA and JDBC, which connects to the shard of the current thread.
+     * It creates the pools of the other shards with the settings of shard 0, and the tables every shard needs.
+     *
+     * @param shardZeroDataSource The pool of shard 0.
+     * @param employeeProperties  The configuration of the Employee API.
+     * @param meterRegistry       The registry the pools publish their metrics to.
+     * @return The routing DataSource, which closes the pools of the shards when the application context is closed.
+     */
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource shardZeroDataSource, EmployeeProperties employeeProperties,
+                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        shards.add(shardZeroDataSource);
+        List<EmployeeProperties.Database> others = employeeProperties.getSharding().getShards();
+        for (int i = 0; i < others.size(); i++) {
+            shards.add(HikariPools.copyOf(shardZeroDataSource, others.get(i), "shard-" + (i + 1), meterRegistry));
+        }
+        shards.forEach(shard -> DatabasePopulatorUtils.execute(
+                new ResourceDatabasePopulator(new ClassPathResource("db/sharding/employees.sql")), shard));
+        DatabasePopulatorUtils.execute(
+                new ResourceDatabasePopulator(new ClassPathResource("db/sharding/employee-shards.sql")), shardZeroDataSource);
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * This method builds the generator of the ids of new Employees, which carry their shard.
+     *
+     * @param employeeProperties The configuration of the Employee API, with the node of this instance.
+     * @return The id generator.
+     */
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(EmployeeProperties employeeProperties) {
+        return new SnowflakeIdGenerator(employeeProperties.getSharding().getNodeId());
+    }
+
+    /**
+     * This method builds the directory of the shard of each email, which is kept on shard 0.
+     *
+     * @param shardZeroDataSource The pool of shard 0.
+     * @return The directory.
+     */
+    @Bean
+    public ShardDirectory shardDirectory(HikariDataSource shardZeroDataSource) {
+        return new ShardDirectory(shardZeroDataSource);
+    }
+
+    /**
+     * This method builds the EmployeeService that spreads Employees across the shards.
+     * The EmployeeServiceConfiguration puts it between the EmployeeServiceImpl and the optional layers.
+     * <p>
+     * When spring.threads.virtual.enabled is true, the calls to the shards run on a virtual thread each.
+     * Otherwise they run on at most one platform thread per connection of every shard, the shards having the pool size of shard 0.
+     * A thread that waits for a connection is still a live thread, so the pools alone would not bound the threads;
+     * when every thread is busy, the calling thread runs the call itself, which slows down the requests that cause the load.
+     *
+     * @param employeeServiceImpl  The EmployeeService that works on the shard of the current thread.
+     * @param employeeProperties   The configuration of the Employee API.
+     * @param snowflakeIdGenerator The generator of the ids of new Employees.
+     * @param shardDirectory       The directory of the shard of each email.
+     * @param shardZeroDataSource  The pool of shard 0, whose size every shard has.
+     * @param environment          The environment that tells whether virtual threads are enabled.
+     * @param meterRegistry        The registry the scatter-gather timers are published to.
+     * @return The sharded EmployeeService.
+     */
+    @Bean
+    public ShardedEmployeeService shardedEmployeeService(EmployeeServiceImpl employeeServiceImpl, EmployeeProperties employeeProperties,
+                                                         SnowflakeIdGenerator snowflakeIdGenerator, ShardDirectory shardDirectory,
+                                                         HikariDataSource shardZeroDataSource, Environment environment,
+                                                         MeterRegistry meterRegistry) {
+        int shardCount = employeeProperties.getSharding().getShards().size() + 1;
+        Executor executor;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = new VirtualThreadTaskExecutor("employee-shard-");
+        } else {
+            int threads = shardCount * shardZeroDataSource.getMaximumPoolSize();
+            AtomicInteger started = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "employee-shard-" + started.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return new ShardedEmployeeService(employeeServiceImpl, shardCount, snowflakeIdGenerator, shardDirectory, executor,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wchamara.springboottesting.config;
+
+import com.wchamara.springboottesting.datasource.SlowStatementsEndpoint;
+import com.wchamara.springboottesting.datasource.StatementProfilingDataSource;
+import com.wchamara.springboottesting.datasource.StatementRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * This class profiles the SQL statements of the application when employees.sql.enabled is true.
+ * <p>
+ * The DataSource named dataSource, the one JPA and JDBC use, whether Spring Boot, the ReadWriteRoutingConfiguration
+ * or the ShardingConfiguration built it, is wrapped in a StatementProfilingDataSource. The pools below it are not wrapped,
+ * so the replica health checks and the email directory of the shards are not profiled.
+ * It replaces spring.jpa.show-sql, which printed every statement to stdout on the thread that ran it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "employees.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementProfilingConfiguration {
+
+    /**
+     * This method builds the post processor that wraps the dataSource bean.
+     * It is static, and looks the recorder up only when it wraps, so it does not initialize other beans too early.
+     *
+     * @param statementRecorder The recorder of the statements.
+     * @return The post processor.
+     */
+    @Bean
+    public static BeanPostProcessor statementProfilingPostProcessor(ObjectProvider<StatementRecorder> statementRecorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof StatementProfilingDataSource)) {
+                    return new StatementProfilingDataSource(dataSource, statementRecorder.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * This method builds the recorder of the statements.
+     *
+     * @param employeeProperties The configuration of the Employee API.
+     * @param meterRegistry      The registry the statement metrics are published to.
+     * @return The StatementRecorder.
+     */
+    @Bean
+    public StatementRecorder statementRecorder(EmployeeProperties employeeProperties, MeterRegistry meterRegistry) {
+        return new StatementRecorder(employeeProperties.getSql(), meterRegistry);
+    }
+
+    /**
+     * This method builds the slowstatements actuator endpoint.
+     *
+     * @param statementRecorder  The recorder whose statistics the endpoint lists.
+     * @param employeeProperties The configuration of the Employee API.
+     * @return The SlowStatementsEndpoint.
+     */
+    @Bean
+    public SlowStatementsEndpoint slowStatementsEndpoint(StatementRecorder statementRecorder, EmployeeProperties employeeProperties) {
+        return new SlowStatementsEndpoint(statementRecorder, employeeProperties.getSql().getTop());
+    }
+}
@@ -0,0 +1,68 @@
+package com.wchamara.springboottesting.controller;
+
+import com.wchamara.springboottesting.util.EmployeeLoader;
+import com.wchamara.springboottesting.util.EmployeeLocalInfileLoader;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/employees")
+public class EmployeeAdminController {
+
+    static final String TEXT_CSV = "text/csv";
+
+    static final String TEXT_TSV = "text/tab-separated-values";
+
+    private final EmployeeLoader employeeLoader;
+
+    private final EmployeeLocalInfileLoader employeeLocalInfileLoader;
+
+    public EmployeeAdminController(EmployeeLoader employeeLoader, EmployeeLocalInfileLoader employeeLocalInfileLoader) {
+        this.employeeLoader = employeeLoader;
+        this.employeeLocalInfileLoader = employeeLocalInfileLoader;
+    }
+
+    /**
+     * The request body is an Employee file in the format of sample-data/user.json, plain or gzip compressed.
+     * It is parsed while it is uploaded, so it is never held in memory as a whole.
+     * The response is sent when the load has finished and lists the chunks that could not be saved.
+     */
+    @PostMapping(value = "/import", params = "!mode")
+    public EmployeeLoader.LoadResult importEmployees(InputStream body) throws IOException {
+        return employeeLoader.load(body);
+    }
+
+    /**
+     * With ?mode=local-infile the file is loaded with LOAD DATA LOCAL INFILE instead of JPA batches.
+     * The Content-Type gives the format: text/csv or text/tab-separated-values with a header row, or application/json.
+     * Rows with an email that is already taken are skipped, so the response reports fewer rows than were parsed.
+     * Any other Content-Type is answered with a 415. It is checked here rather than with consumes, because the handler
+     * without a mode accepts every Content-Type, and Spring would then report the request as a 400 for its mode parameter.
+     */
+    @PostMapping(value = "/import", params = "mode=local-infile")
+    public EmployeeLoader.LoadResult importEmployeesWithLocalInfile(@RequestHeader("Content-Type") MediaType contentType,
+                                                                   InputStream body)
+            throws IOException, HttpMediaTypeNotSupportedException {
+        EmployeeLocalInfileLoader.Format format;
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            format = EmployeeLocalInfileLoader.Format.JSON;
+        } else if (contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_TSV))) {
+            format = EmployeeLocalInfileLoader.Format.TSV;
+        } else if (contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))) {
+            format = EmployeeLocalInfileLoader.Format.CSV;
+        } else {
+            throw new HttpMediaTypeNotSupportedException(contentType, MediaType.parseMediaTypes(
+                    List.of(TEXT_CSV, TEXT_TSV, MediaType.APPLICATION_JSON_VALUE)), HttpMethod.POST);
+        }
+        return employeeLocalInfileLoader.load(body, format);
+    }
+}
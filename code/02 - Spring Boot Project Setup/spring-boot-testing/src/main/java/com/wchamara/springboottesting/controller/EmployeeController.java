@@ -1,21 +1,51 @@
 package com.wchamara.springboottesting.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.config.BinaryFormatsConfiguration;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.dto.SparseEmployee;
+import com.wchamara.springboottesting.exception.InvalidFieldsException;
 import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
 import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.CursorCodec;
+import com.wchamara.springboottesting.util.EmployeeResponseCache;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/v1/employees")
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+    private final EmployeeResponseCache responseCache;
+    private final Function<Long, Optional<Employee>> loadEmployee;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              ObjectProvider<EmployeeResponseCache> responseCache) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache.getIfAvailable();
+        this.loadEmployee = employeeService::getEmployeeById;
     }
 
     @PostMapping
@@ -25,33 +55,190 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
+    }
+
     @GetMapping
-    public List<Employee> getAllEmployees() {
+    public List<Employee> getAllEmployees(WebRequest request) {
+        // the version is read before the list, so a list that changes in between is sent again on the next poll
+        EmployeeListVersion version = employeeService.getEmployeeListVersion();
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
         return employeeService.getAllEmployees();
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId) {
-        return employeeService.getEmployeeById(employeeId).map(ResponseEntity::ok)
+    @GetMapping(params = {"fields", "!limit"})
+    public List<SparseEmployee> getAllEmployees(@RequestParam("fields") String fields) {
+        Set<EmployeeField> selected = EmployeeField.parse(fields);
+        return employeeService.getAllEmployees(selected).stream()
+                .map(employee -> new SparseEmployee(employee, selected))
+                .toList();
+    }
+
+    @GetMapping(params = "limit")
+    public CursorPage<Employee> getEmployeesPage(@RequestParam(value = "after", required = false) String after,
+                                                 @RequestParam("limit") int limit,
+                                                 @RequestParam(value = "fields", required = false) String fields) {
+        if (fields != null) {
+            // a cursor page holds whole Employees, so the fields would otherwise be ignored without the client noticing
+            throw new InvalidFieldsException("The fields parameter can not be combined with limit");
+        }
+        long afterId = after == null || after.isEmpty() ? 0L : CursorCodec.decode(after);
+        return employeeService.getEmployeesAfter(afterId, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportEmployees(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // one Employee per line, written straight to the response as it is read from the database
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    generator.writeObject(employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getEmployeeById(@PathVariable("id") Long employeeId,
+                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                WebRequest request, HttpServletResponse response) throws IOException {
+        // JSON is written as bytes, from the response cache when it is enabled, so a cached Employee is not serialized again
+        // the Smile and CBOR handler below serves the same URL, so shared caches have to keep the representations apart
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (responseCache != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        boolean gzip = responseCache != null && acceptsGzip(acceptEncoding);
+        EmployeeResponseCache.Encoded encoded = responseCache != null
+                ? responseCache.get(employeeId, gzip, loadEmployee)
+                : employeeService.getEmployeeById(employeeId)
+                .map(employee -> EmployeeResponseCache.encode(objectMapper, employee, false))
+                .orElse(null);
+        if (encoded == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (request.checkNotModified(encoded.eTag(gzip), encoded.lastModified())) {
+            return;
+        }
+        byte[] body = encoded.body(gzip);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @GetMapping(value = "/{id}", produces = {BinaryFormatsConfiguration.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Employee> getBinaryEmployeeById(@PathVariable("id") Long employeeId,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                          WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        Optional<Employee> employee = employeeService.getEmployeeById(employeeId);
+        if (employee.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // a strong ETag names one representation, so each format has its own, derived from the version of the Employee
+        MediaType format = binaryFormat(accept);
+        String suffix = format.equals(MediaType.APPLICATION_CBOR) ? "cbor" : "smile";
+        long lastModified = employee.get().getLastModified() == null ? -1 : employee.get().getLastModified().toEpochMilli();
+        if (request.checkNotModified("\"" + employee.get().getVersion() + "-" + suffix + "\"", lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(format).body(employee.get());
+    }
+
+    // the formats are listed, so an Accept that none of the handlers of this URL serves is answered with a 406, not a 400
+    @GetMapping(value = "/{id}", params = "fields", produces = {MediaType.APPLICATION_JSON_VALUE,
+            BinaryFormatsConfiguration.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<SparseEmployee> getSparseEmployeeById(@PathVariable("id") Long employeeId,
+                                                                @RequestParam("fields") String fields,
+                                                                HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        Set<EmployeeField> selected = EmployeeField.parse(fields);
+        return employeeService.getEmployeeById(employeeId, selected)
+                .map(employee -> ResponseEntity.ok(new SparseEmployee(employee, selected)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/search", params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email).map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/search", params = {"firstName", "lastName"})
+    public ResponseEntity<Employee> getEmployeeByName(@RequestParam("firstName") String firstName,
+                                                      @RequestParam("lastName") String lastName) {
+        return employeeService.getEmployeeByName(firstName, lastName).map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(employeeObj -> {
-                    return ResponseEntity.ok(employeeService.updateEmployee(employeeId, employee));
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        return ResponseEntity.ok(employeeService.updateEmployee(employeeId, employee));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEmployee(@PathVariable("id") Long employeeId) {
-        return employeeService.getEmployeeById(employeeId)
-                .map(employee -> {
-                    employeeService.deleteEmployeeById(employeeId);
-                    return ResponseEntity.ok().build();
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        employeeService.deleteEmployeeById(employeeId);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * This method is used to choose the binary format of a response the way the client prefers it.
+     *
+     * @param accept The Accept header of the request, or null if it has none.
+     * @return Smile or CBOR, whichever the Accept header ranks first, Smile if it ranks them the same.
+     */
+    private static MediaType binaryFormat(String accept) {
+        if (accept != null) {
+            List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            MimeTypeUtils.sortBySpecificity(accepted);
+            for (MediaType mediaType : accepted) {
+                if (mediaType.isCompatibleWith(BinaryFormatsConfiguration.APPLICATION_SMILE)) {
+                    return BinaryFormatsConfiguration.APPLICATION_SMILE;
+                }
+                if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                    return MediaType.APPLICATION_CBOR;
+                }
+            }
+        }
+        return BinaryFormatsConfiguration.APPLICATION_SMILE;
+    }
+
+    /**
+     * This method tells whether an Accept-Encoding header allows gzip, without allocating.
+     * A q-value of 0 refuses it.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        int index = acceptEncoding == null ? -1 : acceptEncoding.indexOf("gzip");
+        if (index < 0) {
+            return false;
+        }
+        int end = acceptEncoding.indexOf(',', index);
+        end = end < 0 ? acceptEncoding.length() : end;
+        int quality = acceptEncoding.indexOf("q=", index);
+        if (quality < 0 || quality > end) {
+            return true;
+        }
+        for (int i = quality + 2; i < end; i++) {
+            char c = acceptEncoding.charAt(i);
+            if (c >= '1' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
     }
 }
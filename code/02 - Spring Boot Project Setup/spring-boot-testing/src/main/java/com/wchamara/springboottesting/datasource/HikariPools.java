@@ -0,0 +1,44 @@
+package com.wchamara.springboottesting.datasource;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class creates the connection pools of the databases besides spring.datasource.url, the replicas and the shards.
+ */
+public final class HikariPools {
+
+    private HikariPools() {
+    }
+
+    /**
+     * This method is used to create a pool for a database with the settings of the pool of spring.datasource.url.
+     * The pool does not connect before it is used, so a database that is down at startup does not stop the application.
+     *
+     * @param template      The pool whose settings, user and password the new pool starts from.
+     * @param database      The URL, and optionally the user and password, of the database.
+     * @param poolName      The name of the new pool, which tags its metrics.
+     * @param meterRegistry The registry the pool publishes its metrics to.
+     * @return The new pool.
+     */
+    public static HikariDataSource copyOf(HikariDataSource template, EmployeeProperties.Database database, String poolName,
+                                          MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        template.copyStateTo(config);
+        config.setPoolName(poolName);
+        config.setJdbcUrl(database.getUrl());
+        if (database.getUsername() != null) {
+            config.setUsername(database.getUsername());
+        }
+        if (database.getPassword() != null) {
+            config.setPassword(database.getPassword());
+        }
+        config.setInitializationFailTimeout(-1);
+        if (config.getMetricRegistry() == null && config.getMetricsTrackerFactory() == null) {
+            config.setMetricRegistry(meterRegistry);
+        }
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,135 @@
+package com.wchamara.springboottesting.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * This class holds whether the current request has to read from the primary, to read its own writes.
+ * <p>
+ * A request opens a scope with open and closes it with close. Inside the scope, the first read-write transaction that commits
+ * pins the rest of the request to the primary, and runs the callback given to open, which can tell the client to stay pinned.
+ * Outside of a scope, like on the threads of the bulk loaders, nothing is ever pinned.
+ * A write that another thread commits for the request, like the flush of the write-behind buffer, pins the scope with pin.
+ * <p>
+ * The caches that are shared by all clients load their misses with onPrimary, whether the request is pinned or not.
+ * An entry loaded from a lagging replica would otherwise be served to every client until it expires,
+ * including to a pinned client whose write had just invalidated it.
+ */
+public final class PrimaryPin {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> ON_PRIMARY = new ThreadLocal<>();
+
+    private PrimaryPin() {
+    }
+
+    /**
+     * This method is used to open the scope of a request on the current thread.
+     *
+     * @param pinned Whether the request starts out pinned, because the client wrote shortly before.
+     * @param onPin  The callback run when a write pins the request, or null.
+     */
+    public static void open(boolean pinned, Runnable onPin) {
+        SCOPE.set(new Scope(pinned, onPin));
+    }
+
+    /**
+     * This method is used to close the scope of the current thread.
+     */
+    public static void close() {
+        SCOPE.remove();
+    }
+
+    /**
+     * This method is used to find out whether reads of the current thread have to go to the primary.
+     *
+     * @return True if a scope is open and pinned.
+     */
+    public static boolean isPinned() {
+        Scope scope = SCOPE.get();
+        return scope != null && scope.pinned;
+    }
+
+    /**
+     * This method is used to find out whether reads of the current thread have to go to the primary,
+     * because the request is pinned or because they load an entry of a shared cache.
+     *
+     * @return True if a scope is pinned or a load of onPrimary is running.
+     */
+    public static boolean isPrimaryRequired() {
+        return isPinned() || ON_PRIMARY.get() != null;
+    }
+
+    /**
+     * This method is used to run a load on the primary, whether or not the current request is pinned.
+     *
+     * @param load The load to run.
+     * @param <T>  The type of the loaded value.
+     * @return The loaded value.
+     */
+    public static <T> T onPrimary(Supplier<T> load) {
+        if (ON_PRIMARY.get() != null) {
+            return load.get();
+        }
+        ON_PRIMARY.set(Boolean.TRUE);
+        try {
+            return load.get();
+        } finally {
+            ON_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * This method pins the current scope now, for a write that was committed on another thread for this request,
+     * like a create that the write-behind buffer saved.
+     * It does nothing outside of a scope or if the scope is already pinned.
+     */
+    public static void pin() {
+        Scope scope = SCOPE.get();
+        if (scope == null || scope.pinned) {
+            return;
+        }
+        scope.pinned = true;
+        if (scope.onPin != null) {
+            scope.onPin.run();
+        }
+    }
+
+    /**
+     * This method pins the current scope once the current transaction has committed.
+     * It does nothing outside of a scope, outside of a transaction or if the scope is already pinned.
+     */
+    static void pinAfterCommit() {
+        Scope scope = SCOPE.get();
+        if (scope == null || scope.pinned || scope.registered || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        scope.registered = true;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                scope.registered = false;
+                if (status == STATUS_COMMITTED && !scope.pinned) {
+                    scope.pinned = true;
+                    if (scope.onPin != null) {
+                        scope.onPin.run();
+                    }
+                }
+            }
+        });
+    }
+
+    private static final class Scope {
+        private final Runnable onPin;
+        private boolean pinned;
+        private boolean registered;
+
+        private Scope(boolean pinned, Runnable onPin) {
+            this.pinned = pinned;
+            this.onPin = onPin;
+        }
+    }
+}
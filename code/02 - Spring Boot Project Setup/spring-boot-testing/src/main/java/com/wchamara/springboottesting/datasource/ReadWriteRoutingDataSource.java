@@ -0,0 +1,82 @@
+package com.wchamara.springboottesting.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * This class hands out connections to the primary or to a replica, depending on the current transaction.
+ * <p>
+ * A read-only transaction, like @Transactional(readOnly = true) or the finders of a Spring Data repository, gets a replica,
+ * unless the current request is pinned to the primary by PrimaryPin, the read loads an entry of a shared cache, or no replica is healthy.
+ * Everything else gets the primary, including work outside of a transaction, because it may write.
+ * <p>
+ * The routing decision needs the read-only flag of the transaction, which Spring only sets after the transaction manager asked for a connection,
+ * so this DataSource must be wrapped in a LazyConnectionDataSourceProxy, which asks for the connection at the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+    private final MeterRegistry meterRegistry;
+    private final Counter primaryConnections;
+
+    /**
+     * Constructor for the ReadWriteRoutingDataSource.
+     *
+     * @param primary       The DataSource of the primary.
+     * @param replicas      The pools of the replicas.
+     * @param meterRegistry The registry the number of connections per target is published to.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+        this.primaryConnections = connections("primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!PrimaryPin.isPrimaryRequired()) {
+                ReplicaPool.Lease lease = replicas.getConnection();
+                if (lease != null) {
+                    connections(lease.replica()).increment();
+                    return lease.connection();
+                }
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            PrimaryPin.pinAfterCommit();
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("The primary and the replicas have their own users");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private Counter connections(String target) {
+        return Counter.builder("employees.routing.connections").tag("target", target).register(meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.wchamara.springboottesting.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * This filter opens a PrimaryPin scope for every request, so a request that has written reads from the primary afterwards.
+ * <p>
+ * When the pin duration is not zero, a request that writes also sets a cookie that holds until when the client is pinned.
+ * Requests that send the cookie back read from the primary until then, which covers the lag of the replicas behind the write.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * The cookie that pins a client to the primary, with the time in epoch milliseconds until which it is pinned.
+     */
+    public static final String PIN_COOKIE = "employees-primary-pin";
+
+    private final Duration pinDuration;
+
+    /**
+     * Constructor for the ReadYourWritesFilter.
+     *
+     * @param pinDuration How long a client reads from the primary after a write, or zero to pin only the writing request.
+     */
+    public ReadYourWritesFilter(Duration pinDuration) {
+        this.pinDuration = pinDuration;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Runnable onPin = pinDuration.isZero() ? null : () -> response.addCookie(pinCookie());
+        PrimaryPin.open(isPinnedByCookie(request), onPin);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryPin.close();
+        }
+    }
+
+    private Cookie pinCookie() {
+        Cookie cookie = new Cookie(PIN_COOKIE, Long.toString(System.currentTimeMillis() + pinDuration.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, pinDuration.toSeconds()));
+        return cookie;
+    }
+
+    private static boolean isPinnedByCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PIN_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,194 @@
+package com.wchamara.springboottesting.datasource;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds the connection pools of the MySQL replicas and balances connections across the healthy ones, round-robin.
+ * <p>
+ * A replica is taken out of the rotation when a connection to it can not be opened, or when the periodic health check finds that
+ * it is unreachable, that its replication threads are stopped or that it lags more than employees.routing.max-replica-lag behind.
+ * It comes back once a health check passes again. When no replica is healthy, getConnection returns null and the caller reads from the primary.
+ */
+@Slf4j
+public class ReplicaPool implements Closeable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long maxLagSeconds;
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * Constructor for the ReplicaPool.
+     * It creates a pool for each replica with the settings of the primary pool, and starts the health check.
+     * A replica that is down at startup is only taken out of the rotation.
+     *
+     * @param primary       The pool of the primary, whose settings, user and password the replica pools start from.
+     * @param settings      The routing settings with the replicas.
+     * @param meterRegistry The registry the pools and the health of the replicas are published to.
+     */
+    public ReplicaPool(HikariDataSource primary, EmployeeProperties.Routing settings, MeterRegistry meterRegistry) {
+        this.maxLagSeconds = settings.getMaxReplicaLag().toSeconds();
+        for (int i = 0; i < settings.getReplicas().size(); i++) {
+            String name = "replica-" + i;
+            HikariDataSource dataSource = HikariPools.copyOf(primary, settings.getReplicas().get(i), name, meterRegistry);
+            replicas.add(new Replica(name, dataSource,
+                    Counter.builder("employees.routing.ejections").tag("replica", name).register(meterRegistry)));
+        }
+        Gauge.builder("employees.routing.replicas.healthy", replicas, list -> list.stream().filter(r -> r.healthy).count())
+                .register(meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, settings.getHealthCheckInterval().toMillis());
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method is used to get a connection to the next healthy replica.
+     * A replica that fails to hand out a connection is taken out of the rotation and the next one is tried.
+     *
+     * @return A connection to a replica with the name of the replica, or null if no replica is healthy.
+     */
+    Lease getConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return new Lease(replica.name, replica.dataSource.getConnection());
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method checks every replica once and takes it out of, or back into, the rotation.
+     * It runs every employees.routing.health-check-interval, and can be called to check right away.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem == null) {
+                if (!replica.healthy) {
+                    log.info("Replica {} is healthy again and back in the rotation", replica.name);
+                    replica.healthy = true;
+                }
+            } else {
+                eject(replica, problem);
+            }
+        }
+    }
+
+    /**
+     * This method is used to get the names of the replicas that are in the rotation.
+     *
+     * @return The names of the healthy replicas.
+     */
+    public List<String> getHealthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).map(replica -> replica.name).toList();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * This method is used to find out whether a replica can serve reads.
+     *
+     * @return Why the replica can not serve reads, or null if it can.
+     */
+    private String probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return "the connection is not valid";
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                if (!status.next()) {
+                    // not set up as a replica, so there is no lag to check
+                    return null;
+                }
+                if (!"Yes".equals(status.getString("Replica_IO_Running")) || !"Yes".equals(status.getString("Replica_SQL_Running"))) {
+                    return "replication is stopped: " + status.getString("Last_Error");
+                }
+                long lag = status.getLong("Seconds_Behind_Source");
+                if (status.wasNull()) {
+                    return "the lag is unknown";
+                }
+                if (lag > maxLagSeconds) {
+                    return "it lags " + lag + "s behind the primary";
+                }
+                return null;
+            } finally {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+            }
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void eject(Replica replica, String problem) {
+        if (replica.healthy) {
+            log.warn("Replica {} is taken out of the rotation: {}", replica.name, problem);
+            replica.healthy = false;
+            replica.ejections.increment();
+        }
+    }
+
+    /**
+     * A replica, its pool and whether it is in the rotation.
+     */
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final Counter ejections;
+
+        /**
+         * Replicas start out of the rotation until the first health check, which runs right after startup, lets them in.
+         */
+        private volatile boolean healthy;
+
+        private Replica(String name, HikariDataSource dataSource, Counter ejections) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.ejections = ejections;
+        }
+    }
+
+    /**
+     * A connection to a replica, with the name of the replica.
+     */
+    record Lease(String replica, Connection connection) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.wchamara.springboottesting.datasource;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * This class is the slowstatements actuator endpoint, at /actuator/slowstatements once it is exposed.
+ * A GET lists the fingerprints of the SQL statements that took the most time in total, with their counts and times,
+ * and a DELETE resets the statistics.
+ */
+@Endpoint(id = "slowstatements")
+public class SlowStatementsEndpoint {
+
+    private final StatementRecorder recorder;
+
+    private final int top;
+
+    /**
+     * Constructor for the SlowStatementsEndpoint.
+     *
+     * @param recorder The recorder whose statistics are listed.
+     * @param top      The number of fingerprints to list.
+     */
+    public SlowStatementsEndpoint(StatementRecorder recorder, int top) {
+        this.recorder = recorder;
+        this.top = top;
+    }
+
+    @ReadOperation
+    public List<StatementRecorder.StatementStatistics> slowStatements() {
+        return recorder.top(top);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
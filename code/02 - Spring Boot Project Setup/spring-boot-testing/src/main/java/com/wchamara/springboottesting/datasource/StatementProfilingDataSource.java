@@ -0,0 +1,290 @@
+package com.wchamara.springboottesting.datasource;
+
+import com.wchamara.springboottesting.util.SqlFingerprint;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * This class profiles the SQL statements run on the connections of another DataSource, and hands them to a StatementRecorder.
+ * <p>
+ * The connections, their statements and the result sets of their queries are wrapped in JDK proxies.
+ * An update or a batch is recorded when it returns, with its update counts as rows.
+ * A query is recorded when its result set is closed, or its statement if the result set is not,
+ * with the time of the execution plus the time spent in ResultSet.next, and the number of rows read.
+ * The SQL of a prepared statement is fingerprinted once, when it is prepared, so its executions only time and count;
+ * only the SQL given to the executions of a plain Statement is fingerprinted as it runs.
+ * When the rows of a query are streamed, like those of the export, they are fetched from MySQL during next,
+ * so that is where the time of a large query goes.
+ * <p>
+ * unwrap and isWrapperFor reach through the proxies, so driver specific calls, like the LOAD DATA LOCAL INFILE input stream
+ * of Connector/J, and the pool metrics of Spring Boot, still find the objects they need.
+ */
+public class StatementProfilingDataSource extends DelegatingDataSource implements Closeable {
+
+    private static final ClassLoader CLASS_LOADER = StatementProfilingDataSource.class.getClassLoader();
+
+    private final StatementRecorder recorder;
+
+    /**
+     * Constructor for the StatementProfilingDataSource.
+     *
+     * @param target   The DataSource whose statements are profiled.
+     * @param recorder The recorder of the statements.
+     */
+    public StatementProfilingDataSource(DataSource target, StatementRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return profile(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return profile(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * This method closes the target, if it can be closed, as Spring closes this DataSource in its place.
+     *
+     * @throws IOException If the target could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection profile(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * This method answers the methods of Object for a proxy, so the proxies are equal only to themselves,
+     * which is what the registries of open statements in Hibernate expect.
+     *
+     * @return The answer, or null if the method is not one of them.
+     */
+    private static Object objectMethod(Object proxy, Method method, Object[] args, Object target) {
+        return switch (method.getName()) {
+            case "equals" -> args.length == 1 && proxy == args[0];
+            case "hashCode" -> args == null ? System.identityHashCode(proxy) : null;
+            case "toString" -> args == null ? "Profiled " + target : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * The handler of a proxied Connection, which profiles the statements it creates.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object answer = objectMethod(proxy, method, args, target);
+            if (answer != null) {
+                return answer;
+            }
+            Object result = StatementProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{type},
+                        new StatementHandler(statement, sql, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The handler of a proxied Statement, which times its executions.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        /**
+         * The SQL the statement was prepared with, or null for a plain Statement, which gets its SQL with each execution.
+         */
+        private final String sql;
+
+        /**
+         * The fingerprint of the SQL the statement was prepared with, or null for a plain Statement.
+         */
+        private final String fingerprint;
+
+        private final Connection connection;
+
+        /**
+         * The SQL of the last addBatch of a plain Statement.
+         */
+        private String batchSql;
+
+        /**
+         * The handler of the result set of the last query, recorded when the statement is closed, if it was not before.
+         */
+        private ResultSetHandler open;
+
+        private StatementHandler(Statement target, String sql, Connection connection) {
+            this.target = target;
+            this.sql = sql;
+            this.fingerprint = sql != null ? SqlFingerprint.of(sql) : null;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object answer = objectMethod(proxy, method, args, target);
+            if (answer != null) {
+                return answer;
+            }
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery", "executeUpdate", "executeLargeUpdate", "execute", "executeBatch", "executeLargeBatch" -> {
+                    return execute(name, method, args);
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                }
+                case "close" -> finishOpenQuery();
+                case "getConnection" -> {
+                    return connection;
+                }
+                default -> {
+                }
+            }
+            return StatementProfilingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(String name, Method method, Object[] args) throws Throwable {
+            String given = args != null && args.length > 0 && args[0] instanceof String value ? value : null;
+            String executed = given != null ? given
+                    : sql != null ? sql
+                    : batchSql;
+            finishOpenQuery();
+            long start = System.nanoTime();
+            Object result = StatementProfilingDataSource.invoke(target, method, args);
+            long nanos = System.nanoTime() - start;
+            if (executed == null) {
+                return result;
+            }
+            String executedFingerprint = given == null && sql != null ? fingerprint : SqlFingerprint.of(executed);
+            if (result instanceof ResultSet resultSet) {
+                open = new ResultSetHandler(resultSet, executed, executedFingerprint, nanos);
+                return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{ResultSet.class}, open);
+            }
+            long rows = -1;
+            if (result instanceof Integer count) {
+                rows = count;
+            } else if (result instanceof Long count) {
+                rows = count;
+            } else if (result instanceof int[] counts) {
+                rows = 0;
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                rows = 0;
+                for (long count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (Boolean.FALSE.equals(result) && "execute".equals(name)) {
+                rows = target.getUpdateCount();
+            }
+            recorder.record(executed, executedFingerprint, nanos, rows);
+            return result;
+        }
+
+        private void finishOpenQuery() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+    }
+
+    /**
+     * The handler of a proxied ResultSet, which counts its rows and the time spent reading them.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final String sql;
+        private final String fingerprint;
+        private long nanos;
+        private long rows;
+        private boolean finished;
+
+        private ResultSetHandler(ResultSet target, String sql, String fingerprint, long nanos) {
+            this.target = target;
+            this.sql = sql;
+            this.fingerprint = fingerprint;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object answer = objectMethod(proxy, method, args, target);
+            if (answer != null) {
+                return answer;
+            }
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    Object hasRow = StatementProfilingDataSource.invoke(target, method, args);
+                    nanos += System.nanoTime() - start;
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        rows++;
+                    }
+                    return hasRow;
+                }
+                case "close" -> finish();
+                default -> {
+                }
+            }
+            return StatementProfilingDataSource.invoke(target, method, args);
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                recorder.record(sql, fingerprint, nanos, rows);
+            }
+        }
+    }
+}
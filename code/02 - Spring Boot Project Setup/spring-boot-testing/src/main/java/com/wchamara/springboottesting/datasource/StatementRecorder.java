@@ -0,0 +1,252 @@
+package com.wchamara.springboottesting.datasource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records the SQL statements the StatementProfilingDataSource has seen executed.
+ * <p>
+ * Every statement is timed in the employees.sql.statements timer and its rows counted in the employees.sql.rows summary,
+ * both tagged with the kind of statement, and added to the statistics of its fingerprint (see SqlFingerprint),
+ * which the slowstatements actuator endpoint lists. The number of fingerprints is bounded; once the bound is reached,
+ * statements with a new fingerprint are counted under OTHER_FINGERPRINT.
+ * <p>
+ * Only the statements that took at least the slow threshold, and a random sample of the others, are logged.
+ * They are logged as one JSON object per line to the employees.sql logger, which logback-spring.xml writes through an AsyncAppender,
+ * so the thread that ran the statement only builds the line and hands it over. The line has the SQL with its placeholders,
+ * never the values bound to them.
+ */
+public class StatementRecorder {
+
+    /**
+     * The name of the logger the slow and the sampled statements are logged to.
+     */
+    public static final String LOGGER = "employees.sql";
+
+    /**
+     * The name of the timer of the statements.
+     */
+    public static final String TIMER = "employees.sql.statements";
+
+    /**
+     * The name of the counter of the logged statements, tagged with why they were logged.
+     */
+    public static final String LOGGED_COUNTER = "employees.sql.logged";
+
+    /**
+     * The fingerprint the statements are counted under once there are as many fingerprints as the bound.
+     */
+    public static final String OTHER_FINGERPRINT = "(other statements)";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * The kinds of statements the timer and the row summary are tagged with, by the first word of their fingerprint.
+     */
+    private static final String[] KINDS = {"select", "insert", "update", "delete", "other"};
+
+    /**
+     * The statistics by fingerprint.
+     */
+    private final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxFingerprints;
+    private final MeterRegistry meterRegistry;
+    private final Timer[] timers = new Timer[KINDS.length];
+    private final DistributionSummary[] rowSummaries = new DistributionSummary[KINDS.length];
+    private final Counter loggedSlow;
+    private final Counter loggedSampled;
+
+    /**
+     * Constructor for the StatementRecorder.
+     *
+     * @param settings      The thresholds of the logging and the bound of the statistics.
+     * @param meterRegistry The registry the timer, the row summary and the logged counter are published to.
+     */
+    public StatementRecorder(EmployeeProperties.Sql settings, MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = settings.getSlowThreshold().toNanos();
+        this.sampleRate = settings.getSampleRate();
+        this.maxFingerprints = settings.getMaxFingerprints();
+        this.meterRegistry = meterRegistry;
+        this.loggedSlow = loggedCounter("slow");
+        this.loggedSampled = loggedCounter("sampled");
+        for (int i = 0; i < KINDS.length; i++) {
+            timers[i] = Timer.builder(TIMER)
+                    .description("The time of the SQL statements, including the reading of their rows")
+                    .tag("kind", KINDS[i])
+                    .register(meterRegistry);
+            rowSummaries[i] = DistributionSummary.builder("employees.sql.rows")
+                    .description("The rows read or changed by the SQL statements")
+                    .tag("kind", KINDS[i])
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * This method is used to record an executed statement.
+     *
+     * @param sql         The SQL of the statement.
+     * @param fingerprint The fingerprint of the SQL, computed once per prepared statement rather than per execution.
+     * @param nanos       The time the statement took, including the reading of its rows.
+     * @param rows        The rows the statement read or changed, or -1 if they are not known.
+     */
+    public void record(String sql, String fingerprint, long nanos, long rows) {
+        int kind = kind(fingerprint);
+        timers[kind].record(nanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            rowSummaries[kind].record(rows);
+        }
+
+        boolean slow = nanos >= slowThresholdNanos;
+        statisticsOf(fingerprint).add(nanos, rows, slow);
+
+        if (slow) {
+            loggedSlow.increment();
+            log(sql, fingerprint, nanos, rows, "slow");
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            loggedSampled.increment();
+            log(sql, fingerprint, nanos, rows, "sampled");
+        }
+    }
+
+    /**
+     * This method is used to list the fingerprints whose statements took the most time in total.
+     *
+     * @param limit The maximum number of fingerprints to list.
+     * @return The statistics of the fingerprints, by total time, longest first.
+     */
+    public List<StatementStatistics> top(int limit) {
+        return statistics.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementStatistics::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * This method is used to forget the statistics of every fingerprint, for example after a deployment or a load test.
+     */
+    public void reset() {
+        statistics.clear();
+    }
+
+    private Statistics statisticsOf(String fingerprint) {
+        Statistics existing = statistics.get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        if (statistics.size() >= maxFingerprints) {
+            return statistics.computeIfAbsent(OTHER_FINGERPRINT, key -> new Statistics());
+        }
+        return statistics.computeIfAbsent(fingerprint, key -> new Statistics());
+    }
+
+    private void log(String sql, String fingerprint, long nanos, long rows, String reason) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        try {
+            log.info(JSON.writeValueAsString(new LoggedStatement(Instant.now().toString(), reason, nanos / 1_000_000.0,
+                    rows, Thread.currentThread().getName(), fingerprint, sql)));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not log a statement as JSON", e);
+        }
+    }
+
+    private static int kind(String fingerprint) {
+        for (int i = 0; i < KINDS.length - 1; i++) {
+            if (fingerprint.startsWith(KINDS[i])) {
+                return i;
+            }
+        }
+        return KINDS.length - 1;
+    }
+
+    private Counter loggedCounter(String reason) {
+        return Counter.builder(LOGGED_COUNTER)
+                .description("The SQL statements that were logged, by why they were logged")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The running statistics of one fingerprint. They are updated without locks, so a snapshot may be a few statements behind.
+     */
+    private static final class Statistics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+
+        private void add(long nanos, long rows, boolean slow) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (rows > 0) {
+                this.rows.add(rows);
+            }
+            if (slow) {
+                this.slow.increment();
+            }
+        }
+
+        private StatementStatistics snapshot(String fingerprint) {
+            long count = this.count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new StatementStatistics(fingerprint, count, slow.sum(), totalMillis,
+                    count == 0 ? 0 : totalMillis / count, maxNanos.get() / 1_000_000.0, rows.sum());
+        }
+    }
+
+    /**
+     * The statistics of the statements of one fingerprint.
+     *
+     * @param fingerprint The fingerprint of the statements.
+     * @param count       The number of statements executed.
+     * @param slow        The number of them that took at least the slow threshold.
+     * @param totalMillis The time they took together.
+     * @param meanMillis  The time they took on average.
+     * @param maxMillis   The time the longest of them took.
+     * @param rows        The rows they read or changed together.
+     */
+    public record StatementStatistics(String fingerprint, long count, long slow, double totalMillis, double meanMillis,
+                                      double maxMillis, long rows) {
+    }
+
+    /**
+     * A logged statement, as its line of JSON.
+     *
+     * @param timestamp   When the statement finished, in ISO-8601.
+     * @param reason      Why the statement was logged, slow or sampled.
+     * @param millis      The time the statement took.
+     * @param rows        The rows the statement read or changed, or -1 if they are not known.
+     * @param thread      The thread that ran the statement.
+     * @param fingerprint The fingerprint of the statement.
+     * @param sql         The SQL of the statement, with its placeholders.
+     */
+    private record LoggedStatement(String timestamp, String reason, double millis, long rows, String thread,
+                                   String fingerprint, String sql) {
+    }
+}
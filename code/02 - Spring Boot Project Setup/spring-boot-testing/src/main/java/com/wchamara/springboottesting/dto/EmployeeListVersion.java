@@ -0,0 +1,54 @@
+package com.wchamara.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * This class represents the version of the list of all Employees, read with an aggregate query instead of the rows.
+ * The ETag is built from the count, the sum of the versions and the highest id, which the database alone moves:
+ * a create raises the highest id, an update raises the sum of the versions, and a delete lowers the count.
+ * It does not depend on the clocks of the instances that wrote the rows, so clock skew between them can not freeze it.
+ * The lastModified is only the Last-Modified header of the list. It is null when there are no Employees,
+ * or none has been modified since the column was added.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeListVersion {
+    private long count;
+    private long versions;
+    private long maxId;
+    private Instant lastModified;
+
+    /**
+     * This method is used to combine the versions of parts of the list, like the Employees of each shard.
+     *
+     * @param other The version of another part of the list.
+     * @return The version of both parts together.
+     */
+    public EmployeeListVersion plus(EmployeeListVersion other) {
+        Instant latest = lastModified == null || (other.lastModified != null && other.lastModified.isAfter(lastModified))
+                ? other.lastModified
+                : lastModified;
+        return new EmployeeListVersion(count + other.count, versions + other.versions, Math.max(maxId, other.maxId), latest);
+    }
+
+    /**
+     * This method is used to build the strong ETag of the list, from the count, the sum of the versions and the highest id.
+     *
+     * @return The quoted ETag.
+     */
+    public String getETag() {
+        return "\"" + count + "-" + versions + "-" + maxId + "\"";
+    }
+
+    /**
+     * This method is used to read the latest last modified time as the milliseconds of the Last-Modified header.
+     *
+     * @return The milliseconds since the epoch, or -1 if no Employee has a last modified time.
+     */
+    public long getLastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
@@ -0,0 +1,56 @@
+package com.wchamara.springboottesting.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * This class represents an Employee of which a client selected only some fields, as in ?fields=id,email.
+ * It writes itself: each selected field writes its own property, so the fields that were not selected are left out
+ * without a filter or bean introspection per request.
+ */
+public final class SparseEmployee implements JsonSerializable {
+
+    private final Employee employee;
+    private final Set<EmployeeField> fields;
+
+    /**
+     * Constructor for the SparseEmployee.
+     *
+     * @param employee The Employee, which has at least the selected fields set.
+     * @param fields   The selected fields.
+     */
+    public SparseEmployee(Employee employee, Set<EmployeeField> fields) {
+        this.employee = employee;
+        this.fields = fields;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartObject(employee, fields.size());
+        writeFields(generator);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        WritableTypeId typeId = typeSerializer.writeTypePrefix(generator, typeSerializer.typeId(employee, JsonToken.START_OBJECT));
+        writeFields(generator);
+        typeSerializer.writeTypeSuffix(generator, typeId);
+    }
+
+    private void writeFields(JsonGenerator generator) throws IOException {
+        for (EmployeeField field : fields) {
+            field.write(generator, employee);
+        }
+    }
+}
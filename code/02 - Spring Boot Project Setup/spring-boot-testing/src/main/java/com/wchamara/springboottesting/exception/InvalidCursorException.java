@@ -0,0 +1,24 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that a pagination cursor sent by a client could not be decoded.
+ * It is mapped to a 400 Bad Request response.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructor for the InvalidCursorException.
+     * It takes a message and a cause as parameters and passes them to the superclass constructor.
+     *
+     * @param message The message about the cursor that could not be decoded.
+     * @param cause   The underlying exception that caused this exception to be thrown.
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
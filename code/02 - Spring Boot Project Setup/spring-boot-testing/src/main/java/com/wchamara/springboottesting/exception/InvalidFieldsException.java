@@ -0,0 +1,23 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that the fields parameter sent by a client names a field an Employee does not have, or no field at all.
+ * It is mapped to a 400 Bad Request response.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFieldsException extends RuntimeException {
+
+    /**
+     * Constructor for the InvalidFieldsException.
+     * It takes a message as a parameter and passes it to the superclass constructor.
+     *
+     * @param message The message about the fields that could not be parsed.
+     */
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
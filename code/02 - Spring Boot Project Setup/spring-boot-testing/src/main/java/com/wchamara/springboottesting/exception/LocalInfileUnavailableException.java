@@ -0,0 +1,24 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that Employees were to be loaded with LOAD DATA LOCAL INFILE while the configuration does not allow it,
+ * because the Employees are spread across shards.
+ * It is mapped to a 409 Conflict response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LocalInfileUnavailableException extends RuntimeException {
+
+    /**
+     * Constructor for the LocalInfileUnavailableException.
+     * It takes a message as a parameter and passes it to the superclass constructor.
+     *
+     * @param message The message about why LOAD DATA LOCAL INFILE can not be used.
+     */
+    public LocalInfileUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that a Java Flight Recorder dump was asked for while there is nothing recorded,
+ * because JFR is not available or no recording is running.
+ * It is mapped to a 409 Conflict response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class RecordingUnavailableException extends RuntimeException {
+
+    /**
+     * Constructor for the RecordingUnavailableException.
+     * It takes a message as a parameter and passes it to the superclass constructor.
+     *
+     * @param message The message about why there is nothing to dump.
+     */
+    public RecordingUnavailableException(String message) {
+        super(message);
+    }
+}
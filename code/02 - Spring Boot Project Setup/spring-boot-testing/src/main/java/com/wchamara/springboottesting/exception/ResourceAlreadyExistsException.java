@@ -0,0 +1,25 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that a resource could not be created or changed because it would clash with an existing one,
+ * for example an Employee with an email that is already taken.
+ * It is mapped to a 409 Conflict response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ResourceAlreadyExistsException extends RuntimeException {
+
+    /**
+     * Constructor for the ResourceAlreadyExistsException.
+     * It takes a message and a cause as parameters and passes them to the superclass constructor.
+     *
+     * @param message The message about the resource that already exists.
+     * @param cause   The underlying exception that caused this exception to be thrown.
+     */
+    public ResourceAlreadyExistsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,10 +1,15 @@
 package com.wchamara.springboottesting.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
 /**
  * This class extends the RuntimeException class.
  * It is used to indicate that a resource was not found.
  * It can be thrown when trying to find a resource with a specific id or other unique identifier, and the resource does not exist.
+ * It is mapped to a 404 Not Found response.
  */
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
     /**
@@ -0,0 +1,24 @@
+package com.wchamara.springboottesting.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This class extends the RuntimeException class.
+ * It is used to indicate that a request was rejected because the service can not take more work right now,
+ * for example because the write-behind buffer stayed full.
+ * It is mapped to a 503 Service Unavailable response, so clients know they can retry later.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+
+    /**
+     * Constructor for the ServiceBusyException.
+     * It takes a message as a parameter and passes it to the superclass constructor.
+     *
+     * @param message The message about the work that was rejected.
+     */
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.wchamara.springboottesting.jfr;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.model.Employee;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * This class holds the fields the Java Flight Recorder events of the Employee API share, and how they are filled.
+ * The fields are only filled when the event is going to be committed, so a call below the threshold does not pay for them.
+ */
+public abstract class EmployeeEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    String key;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failure")
+    String failure;
+
+    /**
+     * This method is used to fill the fields of the event once the call has returned.
+     *
+     * @param operation The name of the method that was called.
+     * @param key       The id, email or name the call was made for, or null.
+     * @param result    What the call returned, which the rows are counted from.
+     */
+    public void succeeded(String operation, Object key, Object result) {
+        this.operation = operation;
+        this.key = key(key);
+        this.rows = rows(result);
+    }
+
+    /**
+     * This method is used to fill the fields of the event once the call has thrown.
+     *
+     * @param operation The name of the method that was called.
+     * @param key       The id, email or name the call was made for, or null.
+     * @param failure   What the call threw.
+     */
+    public void failed(String operation, Object key, Throwable failure) {
+        this.operation = operation;
+        this.key = key(key);
+        this.rows = -1;
+        this.failure = failure.getClass().getSimpleName();
+    }
+
+    /**
+     * This method is used to describe the key of a call: ids and strings as they are, an Employee by its id or else its email,
+     * a collection by its size, and the arguments of a call, given as an array, each in turn, separated by spaces.
+     *
+     * @param key The key of the call.
+     * @return The description of the key, or null if the call had none.
+     */
+    public static String key(Object key) {
+        if (key == null) {
+            return null;
+        }
+        if (key instanceof Object[] arguments) {
+            StringBuilder keys = new StringBuilder();
+            for (Object argument : arguments) {
+                String described = key(argument);
+                if (described != null) {
+                    if (!keys.isEmpty()) {
+                        keys.append(' ');
+                    }
+                    keys.append(described);
+                }
+            }
+            return keys.isEmpty() ? null : keys.toString();
+        }
+        if (key instanceof Number || key instanceof CharSequence) {
+            return key.toString();
+        }
+        if (key instanceof Employee employee) {
+            return employee.getId() != 0 ? Long.toString(employee.getId()) : employee.getEmail();
+        }
+        if (key instanceof Collection<?> keys) {
+            return keys.size() + " keys";
+        }
+        return null;
+    }
+
+    /**
+     * This method is used to count the rows a call returned or changed.
+     *
+     * @param result What the call returned.
+     * @return The number of rows, or -1 if it can not be told from the result, like for a Stream.
+     */
+    public static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof CursorPage<?> page) {
+            return page.getItems().size();
+        }
+        if (result instanceof Employee) {
+            return 1;
+        }
+        if (result instanceof Integer || result instanceof Long) {
+            return ((Number) result).longValue();
+        }
+        return -1;
+    }
+}
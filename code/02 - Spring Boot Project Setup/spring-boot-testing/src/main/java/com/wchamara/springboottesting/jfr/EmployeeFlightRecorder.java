@@ -0,0 +1,119 @@
+package com.wchamara.springboottesting.jfr;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.exception.RecordingUnavailableException;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * This class runs the continuous Java Flight Recorder recording of the application and dumps the last minutes of it on demand.
+ * <p>
+ * The recording uses one of the settings of the JDK, "default" unless configured otherwise, which is the low overhead profile
+ * made for production, with the EmployeeServiceEvent and EmployeeRepositoryEvent enabled above the configured threshold.
+ * It is kept on disk, bounded by its maximum age and size, and closed together with the application context.
+ * <p>
+ * A dump is a snapshot of everything recorded in the JVM, so it also holds the data of recordings started with
+ * -XX:StartFlightRecording, and works while the continuous recording is disabled, as long as another one is running.
+ */
+@Slf4j
+public class EmployeeFlightRecorder implements Closeable {
+
+    /**
+     * The name of the continuous recording, as jcmd JFR.check lists it.
+     */
+    public static final String RECORDING_NAME = "employees";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final EmployeeProperties.Jfr settings;
+
+    /**
+     * The continuous recording, or null if it is disabled or JFR is not available.
+     */
+    private final Recording recording;
+
+    /**
+     * Constructor for the EmployeeFlightRecorder.
+     * It starts the continuous recording if it is enabled and JFR is available.
+     *
+     * @param settings The settings of the recording and of the dumps.
+     * @throws IOException    If the recording could not be started.
+     * @throws ParseException If the JDK settings can not be read.
+     */
+    public EmployeeFlightRecorder(EmployeeProperties.Jfr settings) throws IOException, ParseException {
+        this.settings = settings;
+        this.recording = settings.isEnabled() && FlightRecorder.isAvailable() ? start(settings) : null;
+    }
+
+    /**
+     * This method is used to dump the last minutes of the recorded data to a new .jfr file in the dump directory.
+     * The data is cut at chunk boundaries, so the file may reach a little further back than asked for.
+     *
+     * @param last How far back the dump reaches.
+     * @return The path of the .jfr file.
+     * @throws IOException                   If the file could not be written.
+     * @throws RecordingUnavailableException If JFR is not available or nothing is recorded.
+     */
+    public Path dump(Duration last) throws IOException {
+        if (!FlightRecorder.isAvailable()) {
+            throw new RecordingUnavailableException("Java Flight Recorder is not available in this JVM");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                throw new RecordingUnavailableException("No Java Flight Recorder recording is running");
+            }
+            snapshot.setMaxAge(last);
+            Path directory = Paths.get(settings.getDumpDirectory());
+            Files.createDirectories(directory);
+            Path file = directory.resolve("employees-" + FILE_TIMESTAMP.format(ZonedDateTime.now(ZoneOffset.UTC)) + ".jfr");
+            snapshot.dump(file);
+            log.info("Dumped the last {} of the flight recording to {}", last, file);
+            return file;
+        }
+    }
+
+    /**
+     * This method is used to tell whether the continuous recording is running.
+     *
+     * @return Whether the continuous recording is running.
+     */
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * This method stops the continuous recording and deletes its data. Spring calls it when the application context is closed.
+     */
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private static Recording start(EmployeeProperties.Jfr settings) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(settings.getSettings()));
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(settings.getMaxAge());
+        recording.setMaxSize(settings.getMaxSize());
+        recording.enable(EmployeeServiceEvent.class).withThreshold(settings.getThreshold());
+        recording.enable(EmployeeRepositoryEvent.class).withThreshold(settings.getThreshold());
+        recording.start();
+        log.info("Started the continuous flight recording {} with the {} settings", RECORDING_NAME, settings.getSettings());
+        return recording;
+    }
+}
@@ -0,0 +1,27 @@
+package com.wchamara.springboottesting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * This class is the Java Flight Recorder event of a call to a method of the EmployeeRepository, emitted by the RepositoryEventInterceptor.
+ * It covers the query and the mapping of its rows, inside the transaction of the caller.
+ * Calls shorter than the threshold are not recorded, which the continuous recording can change.
+ */
+@Name(EmployeeRepositoryEvent.NAME)
+@Label("Employee Repository Query")
+@Category({"Employees", "Repository"})
+@Description("A call to a query method of the EmployeeRepository")
+@StackTrace(false)
+@Threshold("1 ms")
+public class EmployeeRepositoryEvent extends EmployeeEvent {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "com.wchamara.employees.RepositoryQuery";
+}
@@ -0,0 +1,28 @@
+package com.wchamara.springboottesting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * This class is the Java Flight Recorder event of a call to the EmployeeService, emitted by the FlightRecorderEmployeeService.
+ * Its duration is the time of the call, and its thread the one that served the request, so it can be lined up with the GC pauses,
+ * lock contention and socket reads JFR records for the same thread and time.
+ * Calls shorter than the threshold are not recorded, which the continuous recording can change.
+ */
+@Name(EmployeeServiceEvent.NAME)
+@Label("Employee Service Call")
+@Category({"Employees", "Service"})
+@Description("A call to the EmployeeService")
+@StackTrace(false)
+@Threshold("1 ms")
+public class EmployeeServiceEvent extends EmployeeEvent {
+
+    /**
+     * The name of the event type.
+     */
+    public static final String NAME = "com.wchamara.employees.ServiceCall";
+}
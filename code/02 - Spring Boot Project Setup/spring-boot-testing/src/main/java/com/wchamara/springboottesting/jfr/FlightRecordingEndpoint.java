@@ -0,0 +1,118 @@
+package com.wchamara.springboottesting.jfr;
+
+import com.wchamara.springboottesting.exception.RecordingUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * This class is the flightrecording actuator endpoint, at /actuator/flightrecording once it is exposed.
+ * A POST dumps the last minutes of the flight recording, 5 unless minutes says otherwise, and sends the .jfr file back,
+ * so it can be opened in JDK Mission Control next to the Employee events. The response is a 409 if nothing is recorded.
+ * <p>
+ * A dump holds everything recorded in the JVM, including its environment variables and system properties,
+ * so the endpoint is not in management.endpoints.web.exposure.include by default and should only be exposed on a management port.
+ * The file is deleted once it has been sent, the way the heapdump endpoint does it, so repeated dumps do not fill the disk.
+ */
+@Slf4j
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private final EmployeeFlightRecorder recorder;
+
+    /**
+     * Constructor for the FlightRecordingEndpoint.
+     *
+     * @param recorder The recorder the dumps are taken from.
+     */
+    public FlightRecordingEndpoint(EmployeeFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @WriteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Long minutes) throws IOException {
+        try {
+            Path file = recorder.dump(Duration.ofMinutes(minutes == null ? 5 : Math.max(1, minutes)));
+            return new WebEndpointResponse<>(new TemporaryFileSystemResource(file));
+        } catch (RecordingUnavailableException e) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+    }
+
+    /**
+     * This class is a FileSystemResource whose file is deleted once its content has been read and closed.
+     */
+    static final class TemporaryFileSystemResource extends FileSystemResource {
+
+        TemporaryFileSystemResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            ReadableByteChannel channel = super.readableChannel();
+            return new ReadableByteChannel() {
+                @Override
+                public int read(ByteBuffer destination) throws IOException {
+                    return channel.read(destination);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    closeThenDelete(channel);
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    closeThenDelete(in);
+                }
+            };
+        }
+
+        /**
+         * The content must go through getInputStream or readableChannel, not be copied from the file directly,
+         * so the file is deleted when it has been sent.
+         */
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+
+        private void closeThenDelete(Closeable closeable) throws IOException {
+            try {
+                closeable.close();
+            } finally {
+                try {
+                    Files.deleteIfExists(getFile().toPath());
+                } catch (IOException e) {
+                    log.warn("Could not delete the flight recording dump {}", getFile(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.wchamara.springboottesting.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * This class emits a Java Flight Recorder EmployeeRepositoryEvent for every call to a method of a repository it advises,
+ * with the name of the method, its arguments as the key, and the rows it returned or changed.
+ * It is added to the proxies of the repositories by the FlightRecorderConfiguration, so it covers the derived, the JPQL and
+ * the native queries alike, and the fragments like EmployeeFieldsRepository.
+ */
+public class RepositoryEventInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        EmployeeRepositoryEvent event = new EmployeeRepositoryEvent();
+        event.begin();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.failed(invocation.getMethod().getName(), invocation.getArguments(), e);
+                event.commit();
+            }
+            throw e;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.succeeded(invocation.getMethod().getName(), invocation.getArguments(), result);
+            event.commit();
+        }
+        return result;
+    }
+}
@@ -1,7 +1,15 @@
 package com.wchamara.springboottesting.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wchamara.springboottesting.sharding.EmployeeIdGenerator;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.TableGenerator;
+
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -9,10 +17,38 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "idx_employees_last_modified", columnList = Employee.LAST_MODIFIED_COLUMN))
 public class Employee {
+
+    /**
+     * The name of the unique index on the email column.
+     */
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    /**
+     * The name of the column that holds when an Employee was last created or updated.
+     */
+    public static final String LAST_MODIFIED_COLUMN = "last_modified";
+
+    /**
+     * The id is allocated from the employee_id_sequence table in blocks of increment_size by Hibernate's pooled optimizer.
+     * Unlike IDENTITY, the id is known before the INSERT, so Hibernate can batch inserts.
+     * On a database created with IDENTITY ids, employee_id_sequence.next_val must be set above MAX(id) first.
+     * When employees.sharding.enabled is true, the EmployeeIdGenerator gives a Snowflake id that carries the shard instead.
+     * EmployeeService.saveEmployee and saveEmployees reset the id before the INSERT, so an id sent by a client
+     * or read from a data file can not make a save overwrite an existing row.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "employee_id")
+    @GenericGenerator(name = "employee_id", type = EmployeeIdGenerator.class, parameters = {
+            @Parameter(name = TableGenerator.TABLE_PARAM, value = "employee_id_sequence"),
+            @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = "sequence_name"),
+            @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = "next_val"),
+            @Parameter(name = TableGenerator.SEGMENT_VALUE_PARAM, value = "employees"),
+            @Parameter(name = TableGenerator.INITIAL_PARAM, value = "1"),
+            @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "100")
+    })
     private long id;
 
     @Column(name = "first_name",nullable = false)
@@ -22,4 +58,28 @@ public class Employee {
     @Column(nullable = false)
     private String email;
 
+    /**
+     * The version is incremented by every update, so it changes whenever the JSON of the Employee does.
+     * It is not part of the JSON, the API returns it as the ETag of the Employee.
+     */
+    @JsonIgnore
+    @Version
+    private long version;
+
+    /**
+     * When the Employee was last created or updated. It is set by Hibernate on insert and by the bulk update.
+     * It is not part of the JSON, the API returns it as the Last-Modified header of the Employee.
+     * Rows created before the column existed have none until their next update.
+     */
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = LAST_MODIFIED_COLUMN)
+    private Instant lastModified;
+
+    public Employee(long id, String firstName, String lastName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
 }
@@ -0,0 +1,117 @@
+package com.wchamara.springboottesting.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.wchamara.springboottesting.exception.InvalidFieldsException;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * This enum lists the fields of an Employee a client can select with the fields parameter, as in ?fields=id,email.
+ * The name of each field is both its JSON property and its JPA attribute, so a selection maps straight to a SELECT list.
+ * Each field writes and sets its own value, so a sparse Employee is read and written without reflection.
+ */
+public enum EmployeeField {
+
+    ID("id") {
+        @Override
+        public void write(JsonGenerator generator, Employee employee) throws IOException {
+            generator.writeNumberField(getName(), employee.getId());
+        }
+
+        @Override
+        public void set(Employee employee, Object value) {
+            employee.setId((Long) value);
+        }
+    },
+    FIRST_NAME("firstName") {
+        @Override
+        public void write(JsonGenerator generator, Employee employee) throws IOException {
+            generator.writeStringField(getName(), employee.getFirstName());
+        }
+
+        @Override
+        public void set(Employee employee, Object value) {
+            employee.setFirstName((String) value);
+        }
+    },
+    LAST_NAME("lastName") {
+        @Override
+        public void write(JsonGenerator generator, Employee employee) throws IOException {
+            generator.writeStringField(getName(), employee.getLastName());
+        }
+
+        @Override
+        public void set(Employee employee, Object value) {
+            employee.setLastName((String) value);
+        }
+    },
+    EMAIL("email") {
+        @Override
+        public void write(JsonGenerator generator, Employee employee) throws IOException {
+            generator.writeStringField(getName(), employee.getEmail());
+        }
+
+        @Override
+        public void set(Employee employee, Object value) {
+            employee.setEmail((String) value);
+        }
+    };
+
+    private final String name;
+
+    EmployeeField(String name) {
+        this.name = name;
+    }
+
+    /**
+     * This method is used to get the name of the field, which is its JSON property and its JPA attribute.
+     *
+     * @return The name of the field.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * This method is used to write the field of an Employee as a property of the JSON object that is being written.
+     *
+     * @param generator The generator that writes the Employee.
+     * @param employee  The Employee to write the field of.
+     * @throws IOException If the generator fails to write.
+     */
+    public abstract void write(JsonGenerator generator, Employee employee) throws IOException;
+
+    /**
+     * This method is used to set the field of an Employee to a value read from the database.
+     *
+     * @param employee The Employee to set the field of.
+     * @param value    The value of the column.
+     */
+    public abstract void set(Employee employee, Object value);
+
+    /**
+     * This method is used to parse the fields parameter of a request, a comma separated list of field names.
+     *
+     * @param fields The fields parameter, as in id,email.
+     * @return The selected fields, in the order of this enum.
+     * @throws InvalidFieldsException If a name is not a field of an Employee, or no field is given.
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        Set<EmployeeField> selected = EnumSet.noneOf(EmployeeField.class);
+        for (String name : fields.split(",")) {
+            selected.add(byName(name.trim()));
+        }
+        return selected;
+    }
+
+    private static EmployeeField byName(String name) {
+        for (EmployeeField field : values()) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldsException("Unknown Employee field : '" + name + "'");
+    }
+}
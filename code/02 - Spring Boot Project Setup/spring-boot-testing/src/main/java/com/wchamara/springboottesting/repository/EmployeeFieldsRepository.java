@@ -0,0 +1,33 @@
+package com.wchamara.springboottesting.repository;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This interface declares the lookups of EmployeeRepository that read only some fields of the Employees.
+ * The selected fields become the SELECT list of the query, so the other columns are neither read from MySQL nor sent over the wire.
+ */
+public interface EmployeeFieldsRepository {
+
+    /**
+     * This method is used to find all Employees with only the given fields read.
+     *
+     * @param fields The fields to read.
+     * @return All Employees, with the fields that were not read left null, or 0 for the id. They are not managed by the persistence context.
+     */
+    List<Employee> findAllWithFields(Set<EmployeeField> fields);
+
+    /**
+     * This method is used to find an Employee by their id with only the given fields read.
+     *
+     * @param id     The id of the Employee to find.
+     * @param fields The fields to read.
+     * @return An Optional containing the Employee if found, with the fields that were not read left null, or 0 for the id,
+     * or empty if not found.
+     */
+    Optional<Employee> findByIdWithFields(long id, Set<EmployeeField> fields);
+}
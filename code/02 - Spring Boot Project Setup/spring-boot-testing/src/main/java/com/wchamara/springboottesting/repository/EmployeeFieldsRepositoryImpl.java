@@ -0,0 +1,62 @@
+package com.wchamara.springboottesting.repository;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class implements the EmployeeFieldsRepository interface, which Spring Data adds to EmployeeRepository.
+ * It builds a JPQL query that selects exactly the given fields and fills new Employees from the tuples,
+ * so no managed entity is created and no column that was not asked for is read.
+ */
+class EmployeeFieldsRepositoryImpl implements EmployeeFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    EmployeeFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Employee> findAllWithFields(Set<EmployeeField> fields) {
+        List<Tuple> tuples = query(fields, "").getResultList();
+        List<Employee> employees = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            employees.add(toEmployee(tuple, fields));
+        }
+        return employees;
+    }
+
+    @Override
+    public Optional<Employee> findByIdWithFields(long id, Set<EmployeeField> fields) {
+        return query(fields, " WHERE e.id = :id")
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toEmployee(tuple, fields));
+    }
+
+    private TypedQuery<Tuple> query(Set<EmployeeField> fields, String where) {
+        String select = fields.stream()
+                .map(field -> "e." + field.getName())
+                .collect(Collectors.joining(", ", "SELECT ", " FROM Employee e"));
+        return entityManager.createQuery(select + where, Tuple.class);
+    }
+
+    private static Employee toEmployee(Tuple tuple, Set<EmployeeField> fields) {
+        Employee employee = new Employee();
+        int column = 0;
+        for (EmployeeField field : fields) {
+            field.set(employee, tuple.get(column++));
+        }
+        return employee;
+    }
+}
@@ -1,13 +1,42 @@
 package com.wchamara.springboottesting.repository;
 
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
 import com.wchamara.springboottesting.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The repository of Employees.
+ * <p>
+ * The lookups that only serve reads do not hydrate managed entities. The JPQL ones select a constructor expression,
+ * which gives plain Employee objects that Hibernate does not put into the persistence context,
+ * so there is no entity entry and no dirty checking snapshot per row.
+ * The ones that can not, the derived and the native queries, carry Hibernate's read-only hint,
+ * so their entities are loaded without a snapshot.
+ * Employees returned by either kind are not managed, so changes to them are never written back.
+ * The lookups of EmployeeFieldsRepository go further and read only the fields a client selected.
+ */
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeFieldsRepository {
+
+    /**
+     * The select clause of the projections, which builds unmanaged Employees from the columns.
+     */
+    String PROJECTION = "SELECT new com.wchamara.springboottesting.model.Employee(e.id, e.firstName, e.lastName, e.email, " +
+            "e.version, e.lastModified) FROM Employee e";
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     /**
      * This method is used to find an Employee by their email.
      * It takes an email as a parameter and returns an Optional<Employee>.
@@ -16,18 +45,51 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * @param email The email of the Employee to find.
      * @return An Optional<Employee> containing the Employee if found, or empty if not found.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     Optional<Employee> findByEmail(String email);
 
+    /**
+     * This method is used to find all Employees as projections, for reads that only serialize them.
+     * Unlike findAll, it does not create a managed entity and a snapshot for every row.
+     *
+     * @return All Employees, not managed by the persistence context.
+     */
+    @Query(PROJECTION)
+    List<Employee> findAllProjected();
+
+    /**
+     * This method is used to find an Employee by their id as a projection, for reads that only serialize it.
+     * Unlike findById, it does not create a managed entity and a snapshot.
+     *
+     * @param id The id of the Employee to find.
+     * @return An Optional containing the Employee if found, not managed by the persistence context, or empty if not found.
+     */
+    @Query(PROJECTION + " WHERE e.id = :id")
+    Optional<Employee> findProjectedById(@Param("id") long id);
+
+    /**
+     * This method is used to read the version of the list of all Employees, without reading any of them.
+     * The highest id changes when an Employee is created, the sum of the versions when one is updated, and the count when one is deleted,
+     * all without relying on the clock of the instance that wrote the row. The latest last modified time is only read for the
+     * Last-Modified header.
+     *
+     * @return The number of Employees, the sum of their versions, the highest id, and when the latest of them was last modified.
+     */
+    @Query("SELECT new com.wchamara.springboottesting.dto.EmployeeListVersion(COUNT(e), COALESCE(SUM(e.version), 0), " +
+            "COALESCE(MAX(e.id), 0), MAX(e.lastModified)) FROM Employee e")
+    EmployeeListVersion findListVersion();
+
     /**
      * This method is used to find an Employee by their first name and last name using a JPQL query.
      * It takes a first name and a last name as parameters and returns an Employee.
      * If no Employee is found with the given first name and last name, it will return null.
+     * The Employee is a projection, which is not managed by the persistence context.
      *
      * @param firstName The first name of the Employee to find.
      * @param lastName  The last name of the Employee to find.
      * @return The Employee if found, or null if not found.
      */
-    @Query("SELECT e FROM Employee e WHERE e.firstName = ?1 AND e.lastName = ?2")
+    @Query(PROJECTION + " WHERE e.firstName = ?1 AND e.lastName = ?2")
     Employee findByJPQLQuery(String firstName, String lastName);
 
     /**
@@ -35,12 +97,13 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * It takes a first name and a last name as parameters and returns an Employee.
      * If no Employee is found with the given first name and last name, it will return null.
      * The named parameters in the JPQL query provide a more readable and error-prone way of setting parameters.
+     * The Employee is a projection, which is not managed by the persistence context.
      *
      * @param firstName The first name of the Employee to find.
      * @param lastName  The last name of the Employee to find.
      * @return The Employee if found, or null if not found.
      */
-    @Query("SELECT e FROM Employee e WHERE e.firstName =:firstName AND e.lastName =:lastName")
+    @Query(PROJECTION + " WHERE e.firstName =:firstName AND e.lastName =:lastName")
     Employee findByJPQLQueryWithNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
     /**
@@ -49,11 +112,13 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * If no Employee is found with the given first name and last name, it will return null.
      * The native SQL query provides a way to write database-specific queries, which can be more efficient in some cases.
      * The parameters in the query are indexed, starting from 1.
+     * The Employee is loaded read-only, without a dirty checking snapshot.
      *
      * @param firstName The first name of the Employee to find.
      * @param lastName  The last name of the Employee to find.
      * @return The Employee if found, or null if not found.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query(value = "SELECT * FROM employees e WHERE e.first_name = ?1 AND e.last_name = ?2", nativeQuery = true)
     Employee findByNativeQueryWithIndexParameters(String firstName, String lastName);
 
@@ -63,11 +128,105 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
      * If no Employee is found with the given first name and last name, it will return null.
      * The native SQL query provides a way to write database-specific queries, which can be more efficient in some cases.
      * The named parameters in the query provide a more readable and error-prone way of setting parameters.
+     * The Employee is loaded read-only, without a dirty checking snapshot.
      *
      * @param firstName The first name of the Employee to find.
      * @param lastName  The last name of the Employee to find.
      * @return The Employee if found, or null if not found.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query(value = "SELECT * FROM employees e WHERE e.first_name =:firstName AND e.last_name =:lastName", nativeQuery = true)
     Employee findByNativeQueryWithNamedParameters(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    /**
+     * This method is used to find which of the given emails are already taken.
+     * It reads only the email column, through the unique index on it.
+     * It runs in a read-write transaction, so it is not routed to a replica that may not have the latest inserts yet.
+     *
+     * @param emails The emails to look for.
+     * @return The emails of the given ones that belong to an Employee.
+     */
+    @Transactional
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * This method is used to fetch one page of Employees using keyset (cursor) pagination.
+     * It returns the Employees with an id greater than the given id, ordered by id and limited to the given size.
+     * The query becomes WHERE id > ? ORDER BY id LIMIT ?, which walks the primary key index,
+     * so the cost of a page does not depend on how deep into the table it is, unlike OFFSET paging.
+     * The Employees are loaded read-only, without dirty checking snapshots.
+     *
+     * @param id    The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit The maximum number of Employees to return.
+     * @return The Employees of the page, ordered by id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    /**
+     * This method is used to stream all Employees ordered by id.
+     * A fetch size of Integer.MIN_VALUE makes Connector/J stream the rows one by one as the server sends them, instead of buffering
+     * the whole result set, and the read-only hint stops Hibernate from keeping dirty checking snapshots of the streamed Employees.
+     * It is set on this query only: useCursorFetch=true on the JDBC URL would do the same with a server-side cursor,
+     * but it turns on server-side prepared statements for every query of the application, which costs each of them a round trip.
+     * While the rows are streamed, the connection can not run other statements.
+     * The Stream must be consumed inside a transaction and closed after use, because it holds an open JDBC result set.
+     *
+     * @return A Stream of all Employees ordered by id.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    /**
+     * This method is used to update an Employee by their id with a single UPDATE statement, modified now.
+     * Every field that is null keeps its current value, so it can be used for partial updates.
+     * It returns the number of matched rows, which is 0 if no Employee exists with the given id.
+     * MySQL Connector/J reports matched rather than changed rows by default, so an update that changes nothing still returns 1.
+     *
+     * @param id        The id of the Employee to update.
+     * @param firstName The new first name, or null to keep the current one.
+     * @param lastName  The new last name, or null to keep the current one.
+     * @param email     The new email, or null to keep the current one.
+     * @return The number of updated rows, 0 or 1.
+     */
+    default int updateEmployeeById(long id, String firstName, String lastName, String email) {
+        return updateEmployeeById(id, firstName, lastName, email, Instant.now());
+    }
+
+    /**
+     * This method is used to update an Employee by their id with a single UPDATE statement.
+     * Every field that is null keeps its current value. The version is incremented and the last modified time is set,
+     * which a bulk update has to do itself, as Hibernate does not see the entity.
+     *
+     * @param id           The id of the Employee to update.
+     * @param firstName    The new first name, or null to keep the current one.
+     * @param lastName     The new last name, or null to keep the current one.
+     * @param email        The new email, or null to keep the current one.
+     * @param lastModified The time of the update.
+     * @return The number of updated rows, 0 or 1.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.firstName = COALESCE(:firstName, e.firstName), e.lastName = COALESCE(:lastName, e.lastName), " +
+            "e.email = COALESCE(:email, e.email), e.version = e.version + 1, e.lastModified = :lastModified WHERE e.id = :id")
+    int updateEmployeeById(@Param("id") long id, @Param("firstName") String firstName,
+                           @Param("lastName") String lastName, @Param("email") String email,
+                           @Param("lastModified") Instant lastModified);
+
+    /**
+     * This method is used to delete an Employee by their id with a single DELETE statement.
+     * Unlike deleteById, it does not load the Employee before deleting it.
+     * It returns the number of deleted rows, which is 0 if no Employee exists with the given id.
+     *
+     * @param id The id of the Employee to delete.
+     * @return The number of deleted rows, 0 or 1.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Employee e WHERE e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
 }
@@ -1,9 +1,14 @@
 package com.wchamara.springboottesting.service;
 
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
 import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * This interface defines the service layer for managing Employees.
@@ -15,13 +20,24 @@ public interface EmployeeService {
     /**
      * This method is used to save an Employee.
      * It takes an Employee as a parameter and returns the saved Employee.
-     * The implementation of this method should handle the business logic for saving the Employee, such as checking if an Employee with the same id already exists.
+     * The implementation of this method should handle the business logic for saving the Employee,
+     * such as rejecting an Employee whose email is already taken with a ResourceAlreadyExistsException.
      *
      * @param employee The Employee to save.
      * @return The saved Employee.
      */
     Employee saveEmployee(Employee employee);
 
+    /**
+     * This method is used to save many Employees at once.
+     * It takes a List of new Employees as a parameter and returns the saved Employees with their generated ids.
+     * The implementation of this method should insert all Employees in one transaction using batched inserts.
+     *
+     * @param employees The Employees to save.
+     * @return The saved Employees.
+     */
+    List<Employee> saveEmployees(List<Employee> employees);
+
     /**
      * This method is used to retrieve all Employees from the database.
      * The implementation of this method should handle the business logic for retrieving all Employees.
@@ -30,6 +46,43 @@ public interface EmployeeService {
      */
     List<Employee> getAllEmployees();
 
+    /**
+     * This method is used to retrieve all Employees with only the given fields.
+     * The implementation of this method should read only the given fields from the database.
+     *
+     * @param fields The fields to retrieve.
+     * @return A List of all Employees, with the fields that were not retrieved left null, or 0 for the id.
+     */
+    List<Employee> getAllEmployees(Set<EmployeeField> fields);
+
+    /**
+     * This method is used to retrieve the version of the list of all Employees, which changes whenever the list does.
+     * The implementation of this method should read it with an aggregate query, without loading any Employee.
+     *
+     * @return The version of the list of all Employees.
+     */
+    EmployeeListVersion getEmployeeListVersion();
+
+    /**
+     * This method is used to retrieve one page of Employees using keyset (cursor) pagination.
+     * It takes the id of the last Employee of the previous page and the page size as parameters.
+     * The implementation of this method should only load the requested page and return a cursor for the next one.
+     *
+     * @param afterId The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of Employees in the page.
+     * @return The page of Employees with the cursor of the next page, or a null cursor if this is the last page.
+     */
+    CursorPage<Employee> getEmployeesAfter(long afterId, int limit);
+
+    /**
+     * This method is used to pass every Employee to the given consumer, one at a time.
+     * The implementation of this method should stream the Employees from the database instead of loading them all,
+     * so memory use does not depend on the number of Employees.
+     *
+     * @param consumer The consumer that receives each Employee.
+     */
+    void streamAllEmployees(Consumer<Employee> consumer);
+
     /**
      * This method is used to retrieve an Employee by id.
      * It takes the id of the Employee as a parameter and returns an Optional of the Employee.
@@ -40,10 +93,40 @@ public interface EmployeeService {
      */
     Optional<Employee> getEmployeeById(Long id);
 
+    /**
+     * This method is used to retrieve an Employee by id with only the given fields.
+     * The implementation of this method should read only the given fields from the database.
+     *
+     * @param id     The id of the Employee to retrieve.
+     * @param fields The fields to retrieve.
+     * @return An Optional of the Employee, with the fields that were not retrieved left null, or 0 for the id.
+     */
+    Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields);
+
+    /**
+     * This method is used to retrieve an Employee by email.
+     * It takes the email of the Employee as a parameter and returns an Optional of the Employee.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    /**
+     * This method is used to retrieve an Employee by first name and last name.
+     * It takes the first name and the last name of the Employee as parameters and returns an Optional of the Employee.
+     *
+     * @param firstName The first name of the Employee to retrieve.
+     * @param lastName  The last name of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    Optional<Employee> getEmployeeByName(String firstName, String lastName);
+
     /**
      * This method is used to delete an Employee by id.
      * It takes the id of the Employee as a parameter and returns void.
      * The implementation of this method should handle the business logic for deleting an Employee by id.
+     * It should throw a ResourceNotFoundException if no Employee exists with the given id.
      *
      * @param id The id of the Employee to delete.
      */
@@ -53,6 +136,7 @@ public interface EmployeeService {
      * This method is used to update an Employee.
      * It takes the id of the Employee and the updated Employee as parameters and returns the updated Employee.
      * The implementation of this method should handle the business logic for updating an Employee.
+     * It should throw a ResourceNotFoundException if no Employee exists with the given id.
      *
      * @param id       The id of the Employee to update.
      * @param employee The updated Employee.
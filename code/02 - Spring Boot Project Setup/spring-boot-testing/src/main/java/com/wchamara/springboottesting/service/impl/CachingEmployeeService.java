@@ -0,0 +1,303 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * This class implements the EmployeeService interface by adding an in-process read-through cache in front of another EmployeeService.
+ * Employees are cached by id, and emails are cached as a secondary key that points to the id.
+ * Lookups that find nothing are cached too, for a shorter time, so repeated lookups of missing Employees do not reach the database.
+ * The caches are bounded by weight with Caffeine's W-TinyLFU eviction and their statistics are published as Micrometer metrics.
+ * Every write through this service invalidates exactly the entries it changed, after the write has been committed by the delegate.
+ * <p>
+ * A miss is loaded on the calling thread outside of the cache's internal locks, so a virtual thread that loads an Employee
+ * does not pin its carrier thread while it waits on JDBC. Concurrent misses for the same key still share the one load,
+ * and a load that is still running when its key is invalidated is returned to its callers but never cached.
+ * Misses are loaded from the primary when reads are routed to replicas, because a cached entry is served to every client,
+ * and one loaded from a lagging replica right after a write would hide the write from its writer until it expires.
+ */
+public class CachingEmployeeService implements EmployeeService {
+
+    /**
+     * The EmployeeService that is called on a cache miss and for every write.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The cached lookups by id. An empty Optional is a cached miss.
+     */
+    private final AsyncCache<Long, Optional<Employee>> employeesById;
+
+    /**
+     * The cached lookups by email, holding the id of the Employee. An empty Optional is a cached miss.
+     */
+    private final AsyncCache<String, Optional<Long>> employeeIdsByEmail;
+
+    /**
+     * Constructor for the CachingEmployeeService.
+     * It builds the caches from the given settings and registers their metrics.
+     *
+     * @param delegate      The EmployeeService that is called on a cache miss and for every write.
+     * @param cache         The settings of the cache.
+     * @param meterRegistry The registry the cache metrics are published to.
+     */
+    public CachingEmployeeService(EmployeeService delegate, EmployeeProperties.Cache cache, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.employeesById = Caffeine.newBuilder()
+                .maximumWeight(cache.getMaxWeight())
+                .weigher((Long id, Optional<Employee> employee) -> employee.map(CachingEmployeeService::weigh).orElse(16))
+                .expireAfter(new PositiveNegativeExpiry<Long, Optional<Employee>>(cache.getTtl(), cache.getNegativeTtl()))
+                .recordStats()
+                .buildAsync();
+        this.employeeIdsByEmail = Caffeine.newBuilder()
+                .maximumWeight(cache.getMaxWeight())
+                .weigher((String email, Optional<Long> id) -> 32 + 2 * email.length())
+                .expireAfter(new PositiveNegativeExpiry<String, Optional<Long>>(cache.getTtl(), cache.getNegativeTtl()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, employeesById, "employees.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, employeeIdsByEmail, "employees.by-email");
+    }
+
+    /**
+     * This method is used to save an Employee through the delegate.
+     * It drops any cached miss for the new id or email.
+     *
+     * @param employee The Employee to save.
+     * @return The saved Employee.
+     */
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        Employee savedEmployee = delegate.saveEmployee(employee);
+        invalidate(savedEmployee);
+        return savedEmployee;
+    }
+
+    /**
+     * This method is used to save many Employees through the delegate.
+     * It drops any cached miss for the new ids or emails.
+     *
+     * @param employees The Employees to save.
+     * @return The saved Employees.
+     */
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        List<Employee> savedEmployees = delegate.saveEmployees(employees);
+        savedEmployees.forEach(this::invalidate);
+        return savedEmployees;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return delegate.getAllEmployees(fields);
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return delegate.getEmployeeListVersion();
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return delegate.getEmployeesAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        delegate.streamAllEmployees(consumer);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id from the cache, loading it through the delegate on a miss.
+     * Concurrent misses for the same id wait for a single load.
+     *
+     * @param id The id of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return getOrLoad(employeesById, id, delegate::getEmployeeById);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id with only the given fields.
+     * A cached Employee has every field, so it is returned as it is. On a miss, only the given fields are loaded
+     * through the delegate, and the partial Employee is not cached.
+     *
+     * @param id     The id of the Employee to retrieve.
+     * @param fields The fields to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        CompletableFuture<Optional<Employee>> cached = employeesById.getIfPresent(id);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return cached.join();
+        }
+        return delegate.getEmployeeById(id, fields);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by email.
+     * The email is resolved to an id through the email cache, and the Employee itself comes from the id cache.
+     * If the cached id now belongs to an Employee with another email, for example because the email was changed
+     * while the id entry was not cached, the stale email entry is dropped and the lookup is repeated against the delegate.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        Optional<Employee> employee = lookUpByEmail(email);
+        if (employee.isPresent() && !email.equals(employee.get().getEmail())) {
+            employeeIdsByEmail.synchronous().invalidate(email);
+            employee = lookUpByEmail(email);
+        }
+        return employee.filter(found -> email.equals(found.getEmail()));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return delegate.getEmployeeByName(firstName, lastName);
+    }
+
+    /**
+     * This method is used to delete an Employee through the delegate.
+     * It drops the cached Employee and its email afterwards.
+     *
+     * @param id The id of the Employee to delete.
+     */
+    @Override
+    public void deleteEmployeeById(Long id) {
+        Optional<Employee> cached = cachedEmployee(id);
+        delegate.deleteEmployeeById(id);
+        employeesById.synchronous().invalidate(id);
+        cached.ifPresent(employee -> employeeIdsByEmail.synchronous().invalidate(employee.getEmail()));
+    }
+
+    /**
+     * This method is used to update an Employee through the delegate.
+     * It drops the cached Employee, its old email and its new email afterwards.
+     *
+     * @param id       The id of the Employee to update.
+     * @param employee The updated Employee.
+     * @return The updated Employee.
+     */
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        Optional<Employee> cached = cachedEmployee(id);
+        Employee updatedEmployee = delegate.updateEmployee(id, employee);
+        employeesById.synchronous().invalidate(id);
+        cached.ifPresent(old -> employeeIdsByEmail.synchronous().invalidate(old.getEmail()));
+        invalidate(updatedEmployee);
+        return updatedEmployee;
+    }
+
+    private Optional<Employee> lookUpByEmail(String email) {
+        return getOrLoad(employeeIdsByEmail, email, key -> delegate.getEmployeeByEmail(key).map(Employee::getId))
+                .flatMap(this::getEmployeeById);
+    }
+
+    private Optional<Employee> cachedEmployee(Long id) {
+        CompletableFuture<Optional<Employee>> cached = employeesById.getIfPresent(id);
+        return cached == null ? Optional.empty() : cached.getNow(Optional.empty());
+    }
+
+    private void invalidate(Employee employee) {
+        employeesById.synchronous().invalidate(employee.getId());
+        if (employee.getEmail() != null) {
+            employeeIdsByEmail.synchronous().invalidate(employee.getEmail());
+        }
+    }
+
+    /**
+     * This method returns the cached value of a key, or loads it on the calling thread if it is not cached.
+     * Only an empty future is put in the cache while its lock is held; the loader runs after the lock is released, on the primary.
+     * Callers that find the future of a running load wait for it instead of loading again.
+     */
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(PrimaryPin.onPrimary(() -> loader.apply(key)));
+            } catch (RuntimeException e) {
+                // a failed future is removed from the cache, so the next caller loads again
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * This method estimates the number of bytes an Employee holds on the heap, used as its weight in the cache.
+     */
+    private static int weigh(Employee employee) {
+        return 64 + 2 * (length(employee.getFirstName()) + length(employee.getLastName()) + length(employee.getEmail()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * This class lets a found value and a cached miss expire after different times.
+     */
+    private static final class PositiveNegativeExpiry<K, V extends Optional<?>> implements Expiry<K, V> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private PositiveNegativeExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
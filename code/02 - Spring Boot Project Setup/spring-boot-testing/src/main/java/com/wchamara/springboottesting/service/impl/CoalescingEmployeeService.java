@@ -0,0 +1,214 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * This class implements the EmployeeService interface by coalescing concurrent lookups in front of another EmployeeService.
+ * Concurrent lookups of the same id, email or name share one call to the delegate, and so one database query.
+ * The Employee returned to callers that shared a lookup is the same instance, so it must be treated as read-only.
+ * Every lookup that joined a running one is counted in the employees.requests.coalesced counter, tagged with the kind of lookup.
+ * Writes are passed to the delegate unchanged, and once the delegate has committed a write, the running lookups it may affect are retired.
+ * A lookup that started before the write may have read the old row, so callers that arrive after the write start a new one.
+ * This keeps a cache above this service from being filled with the old row after it has invalidated the entry.
+ * The running lookups by id are retired for the written ids; the lookups by email and name are all retired,
+ * because the old email and name of an updated or deleted Employee are not known here.
+ * <p>
+ * A lookup that has to read from the primary, because the request is pinned or it fills a shared cache, only joins
+ * other lookups that read from the primary, so it never gets a row from a lagging replica.
+ */
+public class CoalescingEmployeeService implements EmployeeService {
+
+    /**
+     * The name of the counter of lookups that joined a running lookup.
+     */
+    public static final String COALESCED_COUNTER = "employees.requests.coalesced";
+
+    /**
+     * The EmployeeService that runs the lookups and the writes.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The running lookups by id.
+     */
+    private final SingleFlight<Routed<Long>, Optional<Employee>> lookupsById;
+
+    /**
+     * The running lookups by email.
+     */
+    private final SingleFlight<Routed<String>, Optional<Employee>> lookupsByEmail;
+
+    /**
+     * The running lookups by first name and last name.
+     */
+    private final SingleFlight<Routed<Name>, Optional<Employee>> lookupsByName;
+
+    /**
+     * Constructor for the CoalescingEmployeeService.
+     * It registers one counter for each kind of lookup.
+     *
+     * @param delegate      The EmployeeService that runs the lookups and the writes.
+     * @param meterRegistry The registry the counters are published to.
+     */
+    public CoalescingEmployeeService(EmployeeService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.lookupsById = new SingleFlight<>(coalescedCounter(meterRegistry, "id")::increment);
+        this.lookupsByEmail = new SingleFlight<>(coalescedCounter(meterRegistry, "email")::increment);
+        this.lookupsByName = new SingleFlight<>(coalescedCounter(meterRegistry, "name")::increment);
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        Employee savedEmployee = delegate.saveEmployee(employee);
+        retire(savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        List<Employee> savedEmployees = delegate.saveEmployees(employees);
+        savedEmployees.forEach(savedEmployee -> forgetById(savedEmployee.getId()));
+        retire(null);
+        return savedEmployees;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return delegate.getAllEmployees(fields);
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return delegate.getEmployeeListVersion();
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return delegate.getEmployeesAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        delegate.streamAllEmployees(consumer);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id, sharing the lookup with concurrent callers for the same id.
+     *
+     * @param id The id of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return lookupsById.execute(routed(id), () -> delegate.getEmployeeById(id));
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id with only the given fields.
+     * It is not coalesced, because concurrent callers may select different fields.
+     *
+     * @param id     The id of the Employee to retrieve.
+     * @param fields The fields to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return delegate.getEmployeeById(id, fields);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by email, sharing the lookup with concurrent callers for the same email.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return lookupsByEmail.execute(routed(email), () -> delegate.getEmployeeByEmail(email));
+    }
+
+    /**
+     * This method is used to retrieve an Employee by first name and last name,
+     * sharing the lookup with concurrent callers for the same name.
+     *
+     * @param firstName The first name of the Employee to retrieve.
+     * @param lastName  The last name of the Employee to retrieve.
+     * @return An Optional of the Employee.
+     */
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return lookupsByName.execute(routed(new Name(firstName, lastName)), () -> delegate.getEmployeeByName(firstName, lastName));
+    }
+
+    @Override
+    public void deleteEmployeeById(Long id) {
+        delegate.deleteEmployeeById(id);
+        retire(id);
+    }
+
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        Employee updatedEmployee = delegate.updateEmployee(id, employee);
+        retire(id);
+        return updatedEmployee;
+    }
+
+    /**
+     * This method retires the running lookups a committed write may affect.
+     *
+     * @param id The id of the written Employee, or null if only the lookups by email and name are retired.
+     */
+    private void retire(Long id) {
+        if (id != null) {
+            forgetById(id);
+        }
+        lookupsByEmail.forgetAll();
+        lookupsByName.forgetAll();
+    }
+
+    private void forgetById(Long id) {
+        lookupsById.forget(new Routed<>(id, false));
+        lookupsById.forget(new Routed<>(id, true));
+    }
+
+    private static <K> Routed<K> routed(K key) {
+        return new Routed<>(key, PrimaryPin.isPrimaryRequired());
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String lookup) {
+        return Counter.builder(COALESCED_COUNTER)
+                .description("Lookups that shared the database query of a concurrent lookup of the same key")
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The key of a lookup by first name and last name.
+     */
+    private record Name(String firstName, String lastName) {
+    }
+
+    /**
+     * The key of a lookup together with whether it reads from the primary.
+     */
+    private record Routed<K>(K key, boolean primary) {
+    }
+}
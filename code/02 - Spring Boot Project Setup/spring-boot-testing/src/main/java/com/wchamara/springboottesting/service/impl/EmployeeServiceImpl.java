@@ -1,124 +1,323 @@
 package com.wchamara.springboottesting.service.impl;
 
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
 import com.wchamara.springboottesting.exception.ResourceNotFoundException;
 import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
 import com.wchamara.springboottesting.repository.EmployeeRepository;
 import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.CursorCodec;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * This class implements the EmployeeService interface.
  * It provides the business logic for managing Employees.
+ * The lookups run in read-only transactions, which Hibernate does not dirty check and which go to a replica
+ * when employees.routing.enabled is true.
+ * They return projections or read-only Employees, which are only serialized, so no managed entities are built for them.
  */
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    /**
+     * The largest page size a client can request, so a single page can not load the whole table.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
     /**
      * The repository for accessing the Employee data from the database.
      */
     private final EmployeeRepository employeeRepository;
 
+    /**
+     * The entity manager, used to detach streamed Employees from the persistence context.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * The configuration of the Employee API.
+     */
+    private final EmployeeProperties employeeProperties;
+
     /**
      * Constructor for the EmployeeServiceImpl.
-     * It takes an EmployeeRepository as a parameter and assigns it to the employeeRepository field.
+     * It takes an EmployeeRepository, an EntityManager and the EmployeeProperties as parameters and assigns them to their fields.
      *
      * @param employeeRepository The repository for accessing the Employee data from the database.
+     * @param entityManager      The entity manager of the current persistence context.
+     * @param employeeProperties The configuration of the Employee API.
      */
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager, EmployeeProperties employeeProperties) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeProperties = employeeProperties;
     }
 
     /**
-     * This method is used to save an Employee to the database.
-     * It first checks if an Employee with the same id already exists in the database.
-     * If an Employee with the same id already exists, it throws a ResourceNotFoundException.
-     * If no Employee with the same id exists, it saves the Employee to the database and returns the saved Employee.
+     * This method is used to save a new Employee to the database.
+     * It does not check for an existing Employee first. It inserts right away and relies on the unique index on the email column,
+     * which saves a round-trip and can not be raced by concurrent creates the way a check-then-insert can.
+     * The insert is flushed immediately so a duplicate email is reported here, not at commit.
+     * Any id sent by the client is ignored, so an existing Employee can not be overwritten through this method.
      *
      * @param employee The Employee to save.
      * @return The saved Employee.
-     * @throws ResourceNotFoundException If an Employee with the same id already exists.
+     * @throws ResourceAlreadyExistsException If an Employee with the same email already exists.
      */
     @Override
     public Employee saveEmployee(Employee employee) {
+        employee.setId(0L);
+        try {
+            return employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateEmail(e, employee.getEmail());
+        }
+    }
 
-        Optional<Employee> findEmployee = employeeRepository.findById(employee.getId());
-
-        if (findEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exists with given email : " + employee.getEmail());
+    /**
+     * This method is used to save many Employees in one transaction.
+     * The Employees are inserted in chunks of employees.batch.chunk-size.
+     * After each chunk the persistence context is flushed, which sends the chunk as batched (and rewritten multi-row) INSERTs,
+     * and then cleared, so the persistence context does not grow with the size of the request.
+     * Any id sent by the client is ignored, so every Employee is inserted as a new row.
+     * If any email is already taken, nothing is saved.
+     *
+     * @param employees The Employees to save.
+     * @return The saved Employees with their generated ids.
+     * @throws ResourceAlreadyExistsException If an Employee with one of the emails already exists.
+     */
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        int chunkSize = Math.max(1, employeeProperties.getBatch().getChunkSize());
+        for (int from = 0; from < employees.size(); from += chunkSize) {
+            List<Employee> chunk = employees.subList(from, Math.min(from + chunkSize, employees.size()));
+            chunk.forEach(employee -> employee.setId(0L));
+            employeeRepository.saveAll(chunk);
+            try {
+                employeeRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw translateDuplicateEmail(e, "one of the given emails");
+            }
+            entityManager.clear();
         }
-        return employeeRepository.save(employee);
+        return employees;
     }
 
     /**
      * This method is used to retrieve all Employees from the database.
-     * It calls the findAll method of the EmployeeRepository to retrieve all Employees.
+     * It calls the findAllProjected method of the EmployeeRepository, which builds the Employees from the columns
+     * instead of hydrating managed entities.
      * It returns a List of all Employees.
      *
      * @return A List of all Employees.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        return employeeRepository.findAllProjected();
+    }
+
+    /**
+     * This method is used to retrieve all Employees with only the given fields from the database.
+     * It calls the findAllWithFields method of the EmployeeRepository, which selects only the columns of the given fields.
+     *
+     * @param fields The fields to retrieve.
+     * @return A List of all Employees, with the fields that were not retrieved left null, or 0 for the id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return employeeRepository.findAllWithFields(fields);
+    }
+
+    /**
+     * This method is used to retrieve the version of the list of all Employees.
+     * It calls the findListVersion method of the EmployeeRepository, an aggregate query that reads no Employee,
+     * so a client whose copy of the list is current can be answered without loading the list.
+     *
+     * @return The number of Employees and when the latest of them was last modified.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeListVersion getEmployeeListVersion() {
+        return employeeRepository.findListVersion();
+    }
+
+    /**
+     * This method is used to retrieve one page of Employees using keyset (cursor) pagination.
+     * The page size is capped at MAX_PAGE_SIZE.
+     * It fetches one Employee more than requested to find out whether there is a next page without a count query.
+     * If there is a next page, the returned cursor points after the last Employee of this page.
+     *
+     * @param afterId The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of Employees in the page.
+     * @return The page of Employees with the cursor of the next page, or a null cursor if this is the last page.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+
+        if (employees.size() <= pageSize) {
+            return new CursorPage<>(employees, null);
+        }
+        List<Employee> page = employees.subList(0, pageSize);
+        return new CursorPage<>(page, CursorCodec.encode(page.get(pageSize - 1).getId()));
+    }
+
+    /**
+     * This method is used to pass every Employee to the given consumer, one at a time.
+     * It streams the Employees from a read-only transaction and detaches each one after the consumer has used it,
+     * so the persistence context does not grow and memory use stays flat regardless of the table size.
+     *
+     * @param consumer The consumer that receives each Employee.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
     }
 
     /**
      * This method is used to retrieve an Employee by their id from the database.
-     * It calls the findById method of the EmployeeRepository with the provided id.
+     * It calls the findProjectedById method of the EmployeeRepository with the provided id,
+     * which builds the Employee from the columns instead of hydrating a managed entity.
      * It returns an Optional that contains the Employee if one was found with the provided id, or an empty Optional if no Employee was found.
      *
      * @param id The id of the Employee to retrieve.
      * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return employeeRepository.findProjectedById(id);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by their id with only the given fields from the database.
+     * It calls the findByIdWithFields method of the EmployeeRepository, which selects only the columns of the given fields.
+     *
+     * @param id     The id of the Employee to retrieve.
+     * @param fields The fields to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return employeeRepository.findByIdWithFields(id, fields);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by their email from the database.
+     * It calls the findByEmail method of the EmployeeRepository with the provided email.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeRepository.findByEmail(email);
+    }
+
+    /**
+     * This method is used to retrieve an Employee by their first name and last name from the database.
+     * It calls the findByJPQLQueryWithNamedParameters method of the EmployeeRepository with the provided names.
+     *
+     * @param firstName The first name of the Employee to retrieve.
+     * @param lastName  The last name of the Employee to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return Optional.ofNullable(employeeRepository.findByJPQLQueryWithNamedParameters(firstName, lastName));
     }
 
     /**
      * This method is used to delete an Employee by their id from the database.
-     * It calls the deleteById method of the EmployeeRepository with the provided id.
+     * It issues a single DELETE statement and uses the number of deleted rows to find out whether the Employee existed,
+     * instead of loading the Employee first.
      *
      * @param id The id of the Employee to delete.
+     * @throws ResourceNotFoundException If no Employee with the provided id exists.
      */
     @Override
     public void deleteEmployeeById(Long id) {
-        employeeRepository.deleteById(id);
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            throw new ResourceNotFoundException("Employee not found with id : " + id);
+        }
     }
 
     /**
      * This method is used to update an Employee by their id in the database.
-     * It first checks if an Employee with the provided id exists in the database.
-     * If an Employee with the provided id exists, it updates the Employee with the provided data and returns the updated Employee.
-     * If no Employee with the provided id exists, it throws a ResourceNotFoundException.
+     * It issues a single conditional UPDATE statement that only changes the fields which are not null in the provided data.
+     * If no row was updated, no Employee with the provided id exists and it throws a ResourceNotFoundException.
+     * When all fields were provided the updated Employee is built from the provided data,
+     * otherwise the updated row is read back in the same transaction to fill in the unchanged fields.
      *
      * @param id       The id of the Employee to update.
      * @param employee The Employee data to update.
      * @return The updated Employee.
-     * @throws ResourceNotFoundException If no Employee with the provided id exists.
+     * @throws ResourceNotFoundException      If no Employee with the provided id exists.
+     * @throws ResourceAlreadyExistsException If the new email is already taken by another Employee.
      */
     @Override
+    @Transactional
     public Employee updateEmployee(Long id, Employee employee) {
-        Optional<Employee> findEmployee = employeeRepository.findById(id);
-
-        if (findEmployee.isPresent()) {
-            Employee existingEmployee = findEmployee.get();
-            if (employee.getFirstName() != null) {
-                existingEmployee.setFirstName(employee.getFirstName());
-            }
-            if (employee.getLastName() != null) {
-                existingEmployee.setLastName(employee.getLastName());
-            }
-
-            if (employee.getEmail() != null) {
-                existingEmployee.setEmail(employee.getEmail());
-            }
+        int updated;
+        try {
+            updated = employeeRepository.updateEmployeeById(id, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateEmail(e, employee.getEmail());
+        }
 
-            return employeeRepository.save(existingEmployee);
-        } else {
+        if (updated == 0) {
             throw new ResourceNotFoundException("Employee not found with id : " + id);
         }
+        if (employee.getFirstName() != null && employee.getLastName() != null && employee.getEmail() != null) {
+            return new Employee(id, employee.getFirstName(), employee.getLastName(), employee.getEmail());
+        }
+        return employeeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id : " + id));
+    }
+
+    /**
+     * This method is used to turn a violation of the unique email index into a ResourceAlreadyExistsException.
+     * Any other integrity violation, such as a missing required field, is returned unchanged.
+     *
+     * @param e     The integrity violation reported by the database.
+     * @param email The email, or a description of the emails, that was being written.
+     * @return The exception to throw.
+     */
+    private static RuntimeException translateDuplicateEmail(DataIntegrityViolationException e, String email) {
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Employee.EMAIL_CONSTRAINT)) {
+            return new ResourceAlreadyExistsException("Employee already exists with given email : " + email, e);
+        }
+        return e;
     }
-}
\ No newline at end of file
+}
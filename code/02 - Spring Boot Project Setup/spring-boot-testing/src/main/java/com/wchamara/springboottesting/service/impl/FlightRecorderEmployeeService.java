@@ -0,0 +1,154 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.jfr.EmployeeServiceEvent;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class implements the EmployeeService interface by emitting a Java Flight Recorder EmployeeServiceEvent for every call
+ * to another EmployeeService, with the operation, the id, email or name it was made for, and the rows it returned.
+ * While no recording has the event enabled, or the call is below its threshold, the event is never filled or committed,
+ * and the JIT can drop it altogether.
+ */
+public class FlightRecorderEmployeeService implements EmployeeService, AutoCloseable {
+
+    /**
+     * The EmployeeService whose calls are recorded.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * Constructor for the FlightRecorderEmployeeService.
+     *
+     * @param delegate The EmployeeService whose calls are recorded.
+     */
+    public FlightRecorderEmployeeService(EmployeeService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return record("saveEmployee", employee, () -> delegate.saveEmployee(employee));
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        return record("saveEmployees", employees, () -> delegate.saveEmployees(employees));
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return record("getAllEmployees", null, delegate::getAllEmployees);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return record("getAllEmployees", null, () -> delegate.getAllEmployees(fields));
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return record("getEmployeeListVersion", null, delegate::getEmployeeListVersion);
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return record("getEmployeesAfter", afterId, () -> delegate.getEmployeesAfter(afterId, limit));
+    }
+
+    /**
+     * This method is used to stream all Employees to a consumer.
+     * The rows of the event are the Employees the consumer was given.
+     *
+     * @param consumer The consumer of the Employees.
+     */
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        long[] streamed = new long[1];
+        record("streamAllEmployees", null, () -> {
+            delegate.streamAllEmployees(employee -> {
+                streamed[0]++;
+                consumer.accept(employee);
+            });
+            return streamed[0];
+        });
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return record("getEmployeeById", id, () -> delegate.getEmployeeById(id));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return record("getEmployeeById", id, () -> delegate.getEmployeeById(id, fields));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return record("getEmployeeByEmail", email, () -> delegate.getEmployeeByEmail(email));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return record("getEmployeeByName", new Object[]{firstName, lastName}, () -> delegate.getEmployeeByName(firstName, lastName));
+    }
+
+    @Override
+    public void deleteEmployeeById(Long id) {
+        record("deleteEmployeeById", id, () -> {
+            delegate.deleteEmployeeById(id);
+            // the service does not tell how many rows were deleted
+            return -1L;
+        });
+    }
+
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        return record("updateEmployee", id, () -> delegate.updateEmployee(id, employee));
+    }
+
+    /**
+     * This method passes the close of the application context on to the delegate, if it can be closed.
+     * The call is not recorded.
+     *
+     * @throws Exception If the delegate could not be closed.
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static <T> T record(String operation, Object key, Supplier<T> call) {
+        EmployeeServiceEvent event = new EmployeeServiceEvent();
+        event.begin();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.failed(operation, key, e);
+                event.commit();
+            }
+            throw e;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.succeeded(operation, key, result);
+            event.commit();
+        }
+        return result;
+    }
+}
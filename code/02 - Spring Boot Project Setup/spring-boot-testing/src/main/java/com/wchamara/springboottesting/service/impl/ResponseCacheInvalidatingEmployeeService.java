@@ -0,0 +1,127 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.EmployeeResponseCache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * This class implements the EmployeeService interface by keeping the EmployeeResponseCache in step with the writes of another EmployeeService.
+ * After every create, update and delete that the delegate has committed, the encoded response of the Employee is dropped.
+ * Reads are passed to the delegate unchanged.
+ */
+public class ResponseCacheInvalidatingEmployeeService implements EmployeeService, AutoCloseable {
+
+    /**
+     * The EmployeeService that runs the reads and the writes.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The cache of the encoded responses that is invalidated on every write.
+     */
+    private final EmployeeResponseCache responseCache;
+
+    /**
+     * Constructor for the ResponseCacheInvalidatingEmployeeService.
+     *
+     * @param delegate      The EmployeeService that runs the reads and the writes.
+     * @param responseCache The cache of the encoded responses that is invalidated on every write.
+     */
+    public ResponseCacheInvalidatingEmployeeService(EmployeeService delegate, EmployeeResponseCache responseCache) {
+        this.delegate = delegate;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        Employee savedEmployee = delegate.saveEmployee(employee);
+        responseCache.invalidate(savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        List<Employee> savedEmployees = delegate.saveEmployees(employees);
+        savedEmployees.forEach(savedEmployee -> responseCache.invalidate(savedEmployee.getId()));
+        return savedEmployees;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return delegate.getAllEmployees(fields);
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return delegate.getEmployeeListVersion();
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return delegate.getEmployeesAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        delegate.streamAllEmployees(consumer);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return delegate.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return delegate.getEmployeeById(id, fields);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return delegate.getEmployeeByEmail(email);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return delegate.getEmployeeByName(firstName, lastName);
+    }
+
+    @Override
+    public void deleteEmployeeById(Long id) {
+        delegate.deleteEmployeeById(id);
+        responseCache.invalidate(id);
+    }
+
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        Employee updatedEmployee = delegate.updateEmployee(id, employee);
+        responseCache.invalidate(id);
+        return updatedEmployee;
+    }
+
+    /**
+     * This method closes the delegate if it holds resources, like the buffer of a WriteBehindEmployeeService.
+     * Spring only closes the outermost EmployeeService when the application context is closed, so every wrapper passes it on.
+     *
+     * @throws Exception If the delegate could not be closed.
+     */
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottesting.exception.ResourceNotFoundException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.sharding.ShardContext;
+import com.wchamara.springboottesting.sharding.ShardDirectory;
+import com.wchamara.springboottesting.sharding.SnowflakeIdGenerator;
+import com.wchamara.springboottesting.util.CursorCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * This class implements the EmployeeService interface by spreading Employees across several shards,
+ * each of them a MySQL database with the same employees table, served by the same delegate EmployeeService.
+ * <p>
+ * A new Employee is placed on a shard by the hash of its email, and gets an id that carries the shard, so a lookup by id goes to one shard.
+ * A lookup by email asks the ShardDirectory for the shard first, which also keeps emails unique across the shards.
+ * The lookups by name and the reads of all Employees are sent to every shard in parallel, and the results are merged by id.
+ * <p>
+ * Each shard is written in a transaction of its own, so a batch that spans several shards is not atomic:
+ * when one shard fails, the Employees saved on the other shards stay.
+ * The delegate must not be called inside a transaction that is already open, as that transaction is bound to one shard.
+ */
+public class ShardedEmployeeService implements EmployeeService, AutoCloseable {
+
+    /**
+     * The EmployeeService that works on the shard of the current thread.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The number of shards new Employees are spread across.
+     */
+    private final int shardCount;
+
+    /**
+     * The generator of the ids of new Employees.
+     */
+    private final SnowflakeIdGenerator ids;
+
+    /**
+     * The directory of the shard of each email.
+     */
+    private final ShardDirectory directory;
+
+    /**
+     * The threads that run the calls to the shards in parallel.
+     */
+    private final Executor executor;
+
+    /**
+     * The time it takes to ask every shard, tagged with the operation.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for the ShardedEmployeeService.
+     * The executor runs the calls to the shards in parallel. It should be bounded, as each of its threads holds a connection
+     * or waits for one, and is closed together with this service if it is an ExecutorService.
+     *
+     * @param delegate      The EmployeeService that works on the shard of the current thread.
+     * @param shardCount    The number of shards.
+     * @param ids           The generator of the ids of new Employees.
+     * @param directory     The directory of the shard of each email.
+     * @param executor      The executor that runs the calls to the shards in parallel.
+     * @param meterRegistry The registry the scatter-gather timers are published to.
+     */
+    public ShardedEmployeeService(EmployeeService delegate, int shardCount, SnowflakeIdGenerator ids, ShardDirectory directory,
+                                  Executor executor, MeterRegistry meterRegistry) {
+        if (shardCount < 1 || shardCount > SnowflakeIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("The number of shards must be between 1 and " + SnowflakeIdGenerator.MAX_SHARDS);
+        }
+        this.delegate = delegate;
+        this.shardCount = shardCount;
+        this.ids = ids;
+        this.directory = directory;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * This method is used to save a new Employee on the shard of its email.
+     *
+     * @param employee The Employee to save.
+     * @return The saved Employee with an id that carries its shard.
+     * @throws ResourceAlreadyExistsException If an Employee on any shard has the same email.
+     */
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        int shard = shardOf(employee.getEmail());
+        reserve(Map.of(employee.getEmail(), shard), employee.getEmail());
+        try {
+            return onShard(shard, () -> delegate.saveEmployee(employee));
+        } catch (RuntimeException e) {
+            directory.release(List.of(employee.getEmail()));
+            throw e;
+        }
+    }
+
+    /**
+     * This method is used to save many Employees, grouped by shard, with the shards saved in parallel.
+     * If any email is already taken, on any shard, nothing is saved.
+     * If a shard fails, the Employees of the other shards stay saved and the failure is thrown.
+     *
+     * @param employees The Employees to save.
+     * @return The saved Employees with their generated ids.
+     * @throws ResourceAlreadyExistsException If an Employee with one of the emails already exists.
+     */
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        Map<String, Integer> shardsByEmail = new LinkedHashMap<>();
+        Map<Integer, List<Employee>> employeesByShard = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            int shard = shardOf(employee.getEmail());
+            if (shardsByEmail.put(employee.getEmail(), shard) != null) {
+                throw new ResourceAlreadyExistsException("Employee email is given twice : " + employee.getEmail(), null);
+            }
+            employeesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(employee);
+        }
+        if (employees.isEmpty()) {
+            return employees;
+        }
+        reserve(shardsByEmail, "one of the given emails");
+
+        Map<Integer, CompletableFuture<List<Employee>>> saves = new LinkedHashMap<>();
+        employeesByShard.forEach((shard, group) ->
+                saves.put(shard, CompletableFuture.supplyAsync(() -> onShard(shard, () -> delegate.saveEmployees(group)), executor)));
+        RuntimeException failure = null;
+        for (Map.Entry<Integer, CompletableFuture<List<Employee>>> save : saves.entrySet()) {
+            try {
+                save.getValue().join();
+            } catch (CompletionException e) {
+                directory.release(employeesByShard.get(save.getKey()).stream().map(Employee::getEmail).toList());
+                if (failure == null) {
+                    failure = unwrap(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return employees;
+    }
+
+    /**
+     * This method is used to retrieve the Employees of every shard, merged and ordered by id.
+     *
+     * @return A List of all Employees.
+     */
+    @Override
+    public List<Employee> getAllEmployees() {
+        List<Employee> employees = new ArrayList<>();
+        scatter("all", shard -> delegate.getAllEmployees()).forEach(employees::addAll);
+        employees.sort(Comparator.comparingLong(Employee::getId));
+        return employees;
+    }
+
+    /**
+     * This method is used to retrieve the Employees of every shard with only the given fields, merged and ordered by id.
+     * The id is always read, as the merge needs it.
+     *
+     * @param fields The fields to retrieve.
+     * @return A List of all Employees.
+     */
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        Set<EmployeeField> withId = EnumSet.copyOf(fields);
+        withId.add(EmployeeField.ID);
+        List<Employee> employees = new ArrayList<>();
+        scatter("all", shard -> delegate.getAllEmployees(withId)).forEach(employees::addAll);
+        employees.sort(Comparator.comparingLong(Employee::getId));
+        return employees;
+    }
+
+    /**
+     * This method is used to retrieve the version of the list of all Employees, combined from the versions of every shard.
+     *
+     * @return The total number of Employees and when the latest of them was last modified on any shard.
+     */
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return scatter("version", shard -> delegate.getEmployeeListVersion()).stream()
+                .reduce(new EmployeeListVersion(0, 0, 0, null), EmployeeListVersion::plus);
+    }
+
+    /**
+     * This method is used to retrieve one page of Employees across the shards using keyset (cursor) pagination.
+     * Every shard is asked for a page after the same id, and the pages are merged by id and cut to the page size,
+     * which works because ids grow with time on every shard.
+     *
+     * @param afterId The id of the last Employee of the previous page, or 0 for the first page.
+     * @param limit   The maximum number of Employees in the page.
+     * @return The page of Employees with the cursor of the next page, or a null cursor if this is the last page.
+     */
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeServiceImpl.MAX_PAGE_SIZE));
+        List<Employee> employees = new ArrayList<>();
+        boolean more = false;
+        for (CursorPage<Employee> page : scatter("page", shard -> delegate.getEmployeesAfter(afterId, pageSize))) {
+            employees.addAll(page.getItems());
+            more |= page.getNextCursor() != null;
+        }
+        employees.sort(Comparator.comparingLong(Employee::getId));
+        if (employees.size() <= pageSize && !more) {
+            return new CursorPage<>(employees, null);
+        }
+        List<Employee> page = employees.subList(0, Math.min(pageSize, employees.size()));
+        return new CursorPage<>(page, CursorCodec.encode(page.get(page.size() - 1).getId()));
+    }
+
+    /**
+     * This method is used to pass every Employee to the given consumer, one shard after the other.
+     * The Employees are ordered by id within a shard, but not across shards.
+     *
+     * @param consumer The consumer that receives each Employee.
+     */
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            onShard(shard, () -> {
+                delegate.streamAllEmployees(consumer);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id from the shard the id carries.
+     *
+     * @param id The id of the Employee to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        int shard = SnowflakeIdGenerator.shardOf(id);
+        if (shard >= shardCount) {
+            return Optional.empty();
+        }
+        return onShard(shard, () -> delegate.getEmployeeById(id));
+    }
+
+    /**
+     * This method is used to retrieve an Employee by id with only the given fields from the shard the id carries.
+     *
+     * @param id     The id of the Employee to retrieve.
+     * @param fields The fields to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        int shard = SnowflakeIdGenerator.shardOf(id);
+        if (shard >= shardCount) {
+            return Optional.empty();
+        }
+        return onShard(shard, () -> delegate.getEmployeeById(id, fields));
+    }
+
+    /**
+     * This method is used to retrieve an Employee by email from the shard the directory has for the email.
+     *
+     * @param email The email of the Employee to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return directory.findShard(email)
+                .flatMap(shard -> onShard(shard, () -> delegate.getEmployeeByEmail(email)));
+    }
+
+    /**
+     * This method is used to retrieve an Employee by name from all shards.
+     * If several shards have an Employee with the name, the one with the lowest id is returned.
+     *
+     * @param firstName The first name of the Employee to retrieve.
+     * @param lastName  The last name of the Employee to retrieve.
+     * @return An Optional containing the Employee if one was found, or an empty Optional if no Employee was found.
+     */
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return scatter("name", shard -> delegate.getEmployeeByName(firstName, lastName)).stream()
+                .flatMap(Optional::stream)
+                .min(Comparator.comparingLong(Employee::getId));
+    }
+
+    /**
+     * This method is used to delete an Employee from the shard its id carries, and to release its email.
+     *
+     * @param id The id of the Employee to delete.
+     * @throws ResourceNotFoundException If no Employee with the provided id exists.
+     */
+    @Override
+    public void deleteEmployeeById(Long id) {
+        Employee employee = getEmployeeById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id : " + id));
+        onShard(SnowflakeIdGenerator.shardOf(id), () -> {
+            delegate.deleteEmployeeById(id);
+            return null;
+        });
+        directory.release(List.of(employee.getEmail()));
+    }
+
+    /**
+     * This method is used to update an Employee on the shard its id carries.
+     * The Employee stays on its shard when its email changes. The new email is reserved for that shard first,
+     * and the old one is released once the update is saved.
+     *
+     * @param id       The id of the Employee to update.
+     * @param employee The Employee data to update.
+     * @return The updated Employee.
+     * @throws ResourceNotFoundException      If no Employee with the provided id exists.
+     * @throws ResourceAlreadyExistsException If the new email is already taken by another Employee.
+     */
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        int shard = SnowflakeIdGenerator.shardOf(id);
+        Employee current = getEmployeeById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Employee not found with id : " + id));
+        String newEmail = employee.getEmail();
+        if (newEmail == null || newEmail.equals(current.getEmail())) {
+            return onShard(shard, () -> delegate.updateEmployee(id, employee));
+        }
+        reserve(Map.of(newEmail, shard), newEmail);
+        Employee updated;
+        try {
+            updated = onShard(shard, () -> delegate.updateEmployee(id, employee));
+        } catch (RuntimeException e) {
+            directory.release(List.of(newEmail));
+            throw e;
+        }
+        directory.release(List.of(current.getEmail()));
+        return updated;
+    }
+
+    /**
+     * This method stops the threads that call the shards in parallel.
+     * Spring calls it when the application context is closed.
+     */
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * This method is used to find the shard a new Employee is placed on, from the hash of its email.
+     * The hash is mixed, so emails that only differ in their last characters still spread evenly.
+     */
+    int shardOf(String email) {
+        int hash = Objects.requireNonNull(email, "email").toLowerCase(Locale.ROOT).hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    private void reserve(Map<String, Integer> shardsByEmail, String email) {
+        try {
+            directory.reserve(shardsByEmail);
+        } catch (DuplicateKeyException e) {
+            throw new ResourceAlreadyExistsException("Employee already exists with given email : " + email, e);
+        }
+    }
+
+    private <T> T onShard(int shard, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Sharded Employees can not be used inside a transaction that is already bound to a shard");
+        }
+        return ShardContext.callOn(shard, ids, work);
+    }
+
+    /**
+     * This method runs the work on every shard in parallel and waits for all of them.
+     *
+     * @return The results, by shard.
+     */
+    private <T> List<T> scatter(String operation, IntFunction<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<CompletableFuture<T>> calls = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            calls.add(CompletableFuture.supplyAsync(() -> onShard(current, () -> work.apply(current)), executor));
+        }
+        try {
+            return calls.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        } finally {
+            sample.stop(Timer.builder("employees.sharding.scatter").tag("operation", operation).register(meterRegistry));
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+}
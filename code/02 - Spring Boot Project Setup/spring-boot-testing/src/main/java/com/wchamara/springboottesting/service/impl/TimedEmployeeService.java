@@ -0,0 +1,172 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class implements the EmployeeService interface by timing every call to another EmployeeService.
+ * Each method is recorded in the employees.service timer, tagged with the name of the method and the simple name
+ * of the exception it threw, or none. Overloads share the timer of their name.
+ * The timers of the calls that succeed are registered up front, so a call only reads the clock twice and records one sample.
+ */
+public class TimedEmployeeService implements EmployeeService {
+
+    /**
+     * The name of the timer of the calls to the EmployeeService.
+     */
+    public static final String TIMER = "employees.service";
+
+    /**
+     * The EmployeeService whose calls are timed.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The registry the timers of the calls that fail are registered in when they first fail.
+     */
+    private final MeterRegistry meterRegistry;
+
+    private final Timer saveEmployee;
+    private final Timer saveEmployees;
+    private final Timer getAllEmployees;
+    private final Timer getEmployeeListVersion;
+    private final Timer getEmployeesAfter;
+    private final Timer streamAllEmployees;
+    private final Timer getEmployeeById;
+    private final Timer getEmployeeByEmail;
+    private final Timer getEmployeeByName;
+    private final Timer deleteEmployeeById;
+    private final Timer updateEmployee;
+
+    /**
+     * Constructor for the TimedEmployeeService.
+     * It registers the timer of every method for the calls that succeed.
+     *
+     * @param delegate      The EmployeeService whose calls are timed.
+     * @param meterRegistry The registry the timers are published to.
+     */
+    public TimedEmployeeService(EmployeeService delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.saveEmployee = timer("saveEmployee", "none");
+        this.saveEmployees = timer("saveEmployees", "none");
+        this.getAllEmployees = timer("getAllEmployees", "none");
+        this.getEmployeeListVersion = timer("getEmployeeListVersion", "none");
+        this.getEmployeesAfter = timer("getEmployeesAfter", "none");
+        this.streamAllEmployees = timer("streamAllEmployees", "none");
+        this.getEmployeeById = timer("getEmployeeById", "none");
+        this.getEmployeeByEmail = timer("getEmployeeByEmail", "none");
+        this.getEmployeeByName = timer("getEmployeeByName", "none");
+        this.deleteEmployeeById = timer("deleteEmployeeById", "none");
+        this.updateEmployee = timer("updateEmployee", "none");
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return time(saveEmployee, "saveEmployee", () -> delegate.saveEmployee(employee));
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        return time(saveEmployees, "saveEmployees", () -> delegate.saveEmployees(employees));
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return time(getAllEmployees, "getAllEmployees", delegate::getAllEmployees);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return time(getAllEmployees, "getAllEmployees", () -> delegate.getAllEmployees(fields));
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return time(getEmployeeListVersion, "getEmployeeListVersion", delegate::getEmployeeListVersion);
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return time(getEmployeesAfter, "getEmployeesAfter", () -> delegate.getEmployeesAfter(afterId, limit));
+    }
+
+    /**
+     * This method is used to stream all Employees to a consumer.
+     * The time includes the time the consumer takes, as the Employees are read while it runs.
+     *
+     * @param consumer The consumer of the Employees.
+     */
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        time(streamAllEmployees, "streamAllEmployees", () -> {
+            delegate.streamAllEmployees(consumer);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return time(getEmployeeById, "getEmployeeById", () -> delegate.getEmployeeById(id));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return time(getEmployeeById, "getEmployeeById", () -> delegate.getEmployeeById(id, fields));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return time(getEmployeeByEmail, "getEmployeeByEmail", () -> delegate.getEmployeeByEmail(email));
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return time(getEmployeeByName, "getEmployeeByName", () -> delegate.getEmployeeByName(firstName, lastName));
+    }
+
+    @Override
+    public void deleteEmployeeById(Long id) {
+        time(deleteEmployeeById, "deleteEmployeeById", () -> {
+            delegate.deleteEmployeeById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        return time(updateEmployee, "updateEmployee", () -> delegate.updateEmployee(id, employee));
+    }
+
+    private <T> T time(Timer succeeded, String method, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timer(method, e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String method, String exception) {
+        return Timer.builder(TIMER)
+                .description("The time of the calls to the EmployeeService")
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
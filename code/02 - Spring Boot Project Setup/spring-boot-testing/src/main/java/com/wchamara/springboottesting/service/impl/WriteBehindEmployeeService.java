@@ -0,0 +1,340 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.exception.ServiceBusyException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * This class implements the EmployeeService interface by buffering single Employee creates in front of another EmployeeService.
+ * Each call to saveEmployee is put in a bounded buffer and waits. A background thread takes the buffered creates and saves them
+ * with one call to saveEmployees, so one transaction and one batched INSERT, when maxBatchSize creates are buffered or
+ * when the oldest one has waited maxDelay, whichever comes first. Each caller returns with its saved Employee and generated id
+ * once the batch has been committed.
+ * <p>
+ * When the buffer is full, callers wait up to offerTimeout for room and are then rejected with a ServiceBusyException.
+ * A caller waits up to saveTimeout for its create to be flushed. If it is still buffered by then, it is taken out of the buffer
+ * and the caller is answered with a ServiceBusyException too, so a create that was reported as failed is never saved later.
+ * If a flush has already taken it, the caller waits for the result of that flush instead.
+ * If a batch fails, for example because one of its emails is already taken, its Employees are saved one by one,
+ * so only the callers whose own create failed get an exception.
+ * Every other method is passed to the delegate unchanged.
+ */
+@Slf4j
+public class WriteBehindEmployeeService implements EmployeeService, AutoCloseable {
+
+    /**
+     * The EmployeeService that saves the batches and serves every other call.
+     */
+    private final EmployeeService delegate;
+
+    /**
+     * The number of buffered creates that makes the buffer flush.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * How long the oldest buffered create waits for more creates, in nanoseconds.
+     */
+    private final long maxDelayNanos;
+
+    /**
+     * How long a caller waits for room in a full buffer, in nanoseconds.
+     */
+    private final long offerTimeoutNanos;
+
+    /**
+     * How long a caller waits for a flush to take its create out of the buffer, in nanoseconds.
+     */
+    private final long saveTimeoutNanos;
+
+    /**
+     * The buffered creates, oldest first.
+     */
+    private final BlockingQueue<PendingCreate> buffer;
+
+    /**
+     * The sizes of the flushed batches.
+     */
+    private final DistributionSummary batchSizes;
+
+    /**
+     * The thread that flushes the buffer.
+     */
+    private final Thread flusher;
+
+    /**
+     * Whether new creates are accepted. It is cleared by close.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for the WriteBehindEmployeeService.
+     * It registers the metrics of the buffer and starts the thread that flushes it.
+     *
+     * @param delegate      The EmployeeService that saves the batches and serves every other call.
+     * @param writeBehind   The settings of the buffer.
+     * @param meterRegistry The registry the buffer metrics are published to.
+     */
+    public WriteBehindEmployeeService(EmployeeService delegate, EmployeeProperties.WriteBehind writeBehind,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxBatchSize = writeBehind.getMaxBatchSize();
+        this.maxDelayNanos = writeBehind.getMaxDelay().toNanos();
+        this.offerTimeoutNanos = writeBehind.getOfferTimeout().toNanos();
+        this.saveTimeoutNanos = writeBehind.getSaveTimeout().toNanos();
+        this.buffer = new ArrayBlockingQueue<>(writeBehind.getCapacity());
+        Gauge.builder("employees.write-behind.buffered", buffer, BlockingQueue::size)
+                .description("Employee creates waiting in the write-behind buffer")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("employees.write-behind.batch.size")
+                .description("Employee creates saved per write-behind flush")
+                .register(meterRegistry);
+        this.flusher = new Thread(this::flushUntilClosed, "employee-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * This method is used to save an Employee as part of the next batch.
+     * It waits until the batch that holds the Employee has been committed.
+     * The batch is committed on the flushing thread, so the PrimaryPin scope of the caller is pinned here instead,
+     * which keeps the next reads of the caller on the primary when reads are routed to replicas.
+     *
+     * @param employee The Employee to save.
+     * @return The saved Employee with its generated id.
+     * @throws ServiceBusyException if the buffer stayed full for offerTimeout, no flush took the Employee within saveTimeout,
+     *                              or the service is shutting down. The Employee is not saved in any of these cases.
+     */
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        PendingCreate pending = new PendingCreate(employee, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !offer(pending)) {
+            throw new ServiceBusyException("Too many Employees are waiting to be saved, please try again later");
+        }
+        if (!running && buffer.remove(pending)) {
+            // close drained the buffer before this create arrived, so nothing would ever flush it
+            throw new ServiceBusyException("The service is shutting down, please try again later");
+        }
+        Employee saved = await(pending);
+        PrimaryPin.pin();
+        return saved;
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        return delegate.saveEmployees(employees);
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee> getAllEmployees(Set<EmployeeField> fields) {
+        return delegate.getAllEmployees(fields);
+    }
+
+    @Override
+    public EmployeeListVersion getEmployeeListVersion() {
+        return delegate.getEmployeeListVersion();
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesAfter(long afterId, int limit) {
+        return delegate.getEmployeesAfter(afterId, limit);
+    }
+
+    @Override
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        delegate.streamAllEmployees(consumer);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        return delegate.getEmployeeById(id);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id, Set<EmployeeField> fields) {
+        return delegate.getEmployeeById(id, fields);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return delegate.getEmployeeByEmail(email);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByName(String firstName, String lastName) {
+        return delegate.getEmployeeByName(firstName, lastName);
+    }
+
+    @Override
+    public void deleteEmployeeById(Long id) {
+        delegate.deleteEmployeeById(id);
+    }
+
+    @Override
+    public Employee updateEmployee(Long id, Employee employee) {
+        return delegate.updateEmployee(id, employee);
+    }
+
+    /**
+     * This method stops accepting creates, saves the creates that are already buffered and stops the flushing thread.
+     * Spring calls it when the application context is closed.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingCreate> abandoned = new ArrayList<>();
+        buffer.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.saved().completeExceptionally(
+                new ServiceBusyException("The service is shutting down, please try again later")));
+    }
+
+    private boolean offer(PendingCreate pending) {
+        try {
+            return buffer.offer(pending, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushUntilClosed() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                List<PendingCreate> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | Error e) {
+                // flush has failed the callers of the batch, so the buffer goes on with the next one
+                log.error("Flushing a batch of the write-behind buffer failed", e);
+            }
+        }
+    }
+
+    /**
+     * This method waits for the first buffered create and then collects more until the batch is full
+     * or the first create has waited maxDelay.
+     * Once the first create is taken, an interrupt ends the batch early instead of losing it, because its callers wait for the flush.
+     */
+    private List<PendingCreate> nextBatch() throws InterruptedException {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        PendingCreate first = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = first.enqueuedAt() + maxDelayNanos;
+        try {
+            while (batch.size() < maxBatchSize) {
+                long remaining = deadline - System.nanoTime();
+                PendingCreate next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : buffer.poll();
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            // the next poll of flushUntilClosed ends the thread once this batch is flushed
+            Thread.currentThread().interrupt();
+        }
+        return batch;
+    }
+
+    /**
+     * This method saves a batch in one call to the delegate and completes its callers.
+     * If the batch fails as a whole, its Employees are saved one by one so each caller gets its own result.
+     * Whatever is thrown, no caller of the batch is left waiting.
+     */
+    private void flush(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<Employee> saved = delegate.saveEmployees(batch.stream().map(PendingCreate::employee).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).saved().complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).saved().completeExceptionally(e);
+                return;
+            }
+            log.debug("Saving a batch of {} Employees failed, saving them one by one", batch.size(), e);
+            for (PendingCreate pending : batch) {
+                try {
+                    pending.saved().complete(delegate.saveEmployee(pending.employee()));
+                } catch (RuntimeException single) {
+                    pending.saved().completeExceptionally(single);
+                }
+            }
+        } finally {
+            // only completes the callers that nothing above answered, like when the delegate threw an Error
+            IllegalStateException unanswered = new IllegalStateException("The batch of the Employee ended without a result");
+            batch.forEach(pending -> pending.saved().completeExceptionally(unanswered));
+        }
+    }
+
+    /**
+     * This method waits for the flush of a buffered create.
+     * When saveTimeout runs out, the create is taken out of the buffer and the caller is told to try again.
+     * If a flush has already taken it, the create may be committed at any moment, so the caller waits for that flush instead;
+     * the flush always answers its callers, and close answers the creates it abandons.
+     */
+    private Employee await(PendingCreate pending) {
+        try {
+            try {
+                return pending.saved().get(saveTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (buffer.remove(pending)) {
+                    throw new ServiceBusyException("The Employee was not saved in time, please try again later");
+                }
+                return pending.saved().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (buffer.remove(pending)) {
+                throw new ServiceBusyException("Interrupted while waiting for the Employee to be saved");
+            }
+            throw new ServiceBusyException("Interrupted while waiting for the Employee to be saved, it may still be saved");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A buffered create and the future its caller waits on.
+     */
+    private record PendingCreate(Employee employee, long enqueuedAt, CompletableFuture<Employee> saved) {
+    }
+}
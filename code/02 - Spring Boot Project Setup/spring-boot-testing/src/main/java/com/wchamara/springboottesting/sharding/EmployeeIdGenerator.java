@@ -0,0 +1,21 @@
+package com.wchamara.springboottesting.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+
+/**
+ * This class generates the ids of Employees.
+ * On a thread that works on a shard, the id is a Snowflake id that carries the shard. Everywhere else it is allocated from
+ * the employee_id_sequence table by the pooled table generator, as it is on an unsharded database.
+ */
+public class EmployeeIdGenerator extends TableGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        ShardContext shard = ShardContext.current();
+        if (shard != null) {
+            return shard.nextId();
+        }
+        return super.generate(session, object);
+    }
+}
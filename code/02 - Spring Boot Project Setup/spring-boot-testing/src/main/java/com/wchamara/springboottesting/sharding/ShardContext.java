@@ -0,0 +1,66 @@
+package com.wchamara.springboottesting.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * This class holds the shard the current thread works on.
+ * <p>
+ * The ShardRoutingDataSource connects to the shard of the thread, and the EmployeeIdGenerator gives new Employees ids of that shard.
+ * A thread without a shard uses shard 0 and the table generator ids of an unsharded database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<ShardContext> CURRENT = new ThreadLocal<>();
+
+    private final int shard;
+    private final SnowflakeIdGenerator ids;
+
+    private ShardContext(int shard, SnowflakeIdGenerator ids) {
+        this.shard = shard;
+        this.ids = ids;
+    }
+
+    /**
+     * This method is used to run work on a shard. The shard of the thread is restored afterwards.
+     *
+     * @param shard The shard to work on.
+     * @param ids   The generator of the ids of new Employees.
+     * @param work  The work to run.
+     * @return The result of the work.
+     */
+    public static <T> T callOn(int shard, SnowflakeIdGenerator ids, Supplier<T> work) {
+        ShardContext previous = CURRENT.get();
+        CURRENT.set(new ShardContext(shard, ids));
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * This method is used to get the shard of the current thread.
+     *
+     * @return The shard, or null if the thread does not work on a shard.
+     */
+    public static ShardContext current() {
+        return CURRENT.get();
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * This method is used to generate the id of a new Employee on this shard.
+     *
+     * @return The new id.
+     */
+    public long nextId() {
+        return ids.nextId(shard);
+    }
+}
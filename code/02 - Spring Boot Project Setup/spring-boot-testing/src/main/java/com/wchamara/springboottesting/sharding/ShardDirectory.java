@@ -0,0 +1,94 @@
+package com.wchamara.springboottesting.sharding;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * This class keeps the global directory of which shard each email is stored on, in the employee_shards table of shard 0.
+ * <p>
+ * It serves lookups by email with one query, and, because the email is the primary key of the table,
+ * it also keeps emails unique across all shards, which the unique index of each shard can not do.
+ * An email is reserved in the directory before the Employee is inserted into its shard, and released again if the insert fails.
+ */
+public class ShardDirectory {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor for the ShardDirectory.
+     *
+     * @param dataSource The DataSource of shard 0, which holds the employee_shards table.
+     */
+    public ShardDirectory(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * This method is used to reserve emails for the shards their Employees are going to be inserted into.
+     * Either all emails are reserved or none is.
+     *
+     * @param shardsByEmail The shard of each email.
+     * @throws DuplicateKeyException If one of the emails is already reserved.
+     */
+    public void reserve(Map<String, Integer> shardsByEmail) {
+        List<Object[]> rows = new ArrayList<>(shardsByEmail.size());
+        shardsByEmail.forEach((email, shard) -> rows.add(new Object[]{email, shard}));
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate("INSERT INTO employee_shards (email, shard) VALUES (?, ?)", rows));
+    }
+
+    /**
+     * This method is used to find the shard of an email.
+     *
+     * @param email The email to look up.
+     * @return The shard of the Employee with the email, or empty if no Employee has it.
+     */
+    public Optional<Integer> findShard(String email) {
+        return transactionTemplate.execute(status -> jdbcTemplate
+                .queryForList("SELECT shard FROM employee_shards WHERE email = ?", Integer.class, email)
+                .stream()
+                .findFirst());
+    }
+
+    /**
+     * This method is used to find which of the given emails are reserved, on any shard.
+     *
+     * @param emails The emails to look up.
+     * @return The emails that are reserved.
+     */
+    public List<String> findReserved(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> namedParameterJdbcTemplate.queryForList(
+                "SELECT email FROM employee_shards WHERE email IN (:emails)", new MapSqlParameterSource("emails", emails), String.class));
+    }
+
+    /**
+     * This method is used to release emails, after their Employees were deleted, changed their email or could not be inserted.
+     *
+     * @param emails The emails to release.
+     */
+    public void release(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> namedParameterJdbcTemplate.update(
+                "DELETE FROM employee_shards WHERE email IN (:emails)", new MapSqlParameterSource("emails", emails)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.wchamara.springboottesting.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class hands out connections to the shard of the current thread, as set by ShardContext, and to shard 0 otherwise.
+ * The shard is picked when a transaction takes its connection, so a transaction stays on the shard it started on.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    /**
+     * Constructor for the ShardRoutingDataSource.
+     *
+     * @param shards The DataSources of the shards, by shard.
+     */
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ShardContext shard = ShardContext.current();
+        return shard == null ? 0 : shard.getShard();
+    }
+
+    /**
+     * This method closes the pools of the shards. Spring calls it when the application context is closed.
+     */
+    @Override
+    public void close() {
+        for (DataSource shard : getResolvedDataSources().values()) {
+            if (shard instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.wchamara.springboottesting.sharding;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * This class generates Snowflake-style Employee ids that carry the shard the Employee is stored on.
+ * <p>
+ * An id is made of, from the highest bit down, 41 bits of milliseconds since 2024-01-01, 10 bits of shard, 5 bits of node and 7 bits of sequence.
+ * The ids of a shard grow with time, so ordering by id is ordering by creation across all shards, and keyset pagination keeps working.
+ * The node, employees.sharding.node-id, keeps the ids of several application instances apart, so each instance needs its own.
+ * Each shard and node can get 128 ids per millisecond. When the sequence runs out, or the clock goes back, the generator moves on
+ * to the next millisecond itself instead of waiting, so the ids of a node never repeat.
+ */
+public class SnowflakeIdGenerator {
+
+    /**
+     * The start of the time in the ids, 2024-01-01T00:00:00Z.
+     */
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SEQUENCE_BITS = 7;
+    private static final int NODE_BITS = 5;
+    private static final int SHARD_BITS = 10;
+
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = NODE_SHIFT + NODE_BITS;
+    private static final int TIME_SHIFT = SHARD_SHIFT + SHARD_BITS;
+
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+    /**
+     * The number of shards an id can address.
+     */
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    /**
+     * The number of nodes an id can address.
+     */
+    public static final int MAX_NODES = 1 << NODE_BITS;
+
+    private final int node;
+    private final LongSupplier clock;
+    private final long[] lastMillis = new long[MAX_SHARDS];
+    private final int[] sequences = new int[MAX_SHARDS];
+
+    /**
+     * Constructor for the SnowflakeIdGenerator, with the system clock.
+     *
+     * @param node The node of this application instance, from 0 to MAX_NODES - 1.
+     */
+    public SnowflakeIdGenerator(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node >= MAX_NODES) {
+            throw new IllegalArgumentException("The node must be between 0 and " + (MAX_NODES - 1) + " but is " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    /**
+     * This method is used to generate the next id of a shard.
+     *
+     * @param shard The shard the Employee is stored on.
+     * @return A new id, larger than every id this generator returned for the shard before.
+     */
+    public synchronized long nextId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("The shard must be between 0 and " + (MAX_SHARDS - 1) + " but is " + shard);
+        }
+        long millis = Math.max(clock.getAsLong() - EPOCH, lastMillis[shard]);
+        int sequence = 0;
+        if (millis == lastMillis[shard]) {
+            sequence = sequences[shard] + 1;
+            if (sequence > MAX_SEQUENCE) {
+                millis++;
+                sequence = 0;
+            }
+        }
+        lastMillis[shard] = millis;
+        sequences[shard] = sequence;
+        return millis << TIME_SHIFT | (long) shard << SHARD_SHIFT | (long) node << NODE_SHIFT | sequence;
+    }
+
+    /**
+     * This method is used to find the shard an Employee is stored on from its id.
+     *
+     * @param id The id of the Employee.
+     * @return The shard encoded in the id.
+     */
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT) & (MAX_SHARDS - 1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.wchamara.springboottesting.util;
+
+import com.wchamara.springboottesting.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * This class encodes and decodes the opaque cursors used for keyset pagination.
+ * A cursor is the URL safe Base64 form of the last id of a page, so clients can not rely on its format.
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    /**
+     * This method is used to encode the id of the last item of a page into an opaque cursor.
+     *
+     * @param id The id of the last item of the page.
+     * @return The opaque cursor.
+     */
+    public static String encode(long id) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * This method is used to decode an opaque cursor back into the id it was created from.
+     *
+     * @param cursor The opaque cursor sent by the client.
+     * @return The id the cursor points after.
+     * @throws InvalidCursorException If the cursor is not a cursor created by this class.
+     */
+    public static long decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new IllegalArgumentException("Unexpected cursor length : " + bytes.length);
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor : " + cursor, e);
+        }
+    }
+}
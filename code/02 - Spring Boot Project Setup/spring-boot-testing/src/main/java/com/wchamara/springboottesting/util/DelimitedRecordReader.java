@@ -0,0 +1,139 @@
+package com.wchamara.springboottesting.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads the records of a CSV or TSV file one at a time.
+ * <p>
+ * Fields are separated by the delimiter and records by \n or \r\n. When quoting is enabled, as for CSV,
+ * a field in double quotes can hold delimiters, line breaks and doubled quotes ("") that stand for one quote.
+ * Without quoting, as for TSV, every character other than the delimiter and the line break is taken as it is.
+ */
+public class DelimitedRecordReader implements AutoCloseable {
+
+    private static final char QUOTE = '"';
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean quoting;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLine;
+    private int pushedBack = NONE;
+
+    /**
+     * Constructor for the DelimitedRecordReader.
+     *
+     * @param reader    The text to read. It is closed together with this reader.
+     * @param delimiter The character between two fields, like ',' or '\t'.
+     * @param quoting   Whether fields can be enclosed in double quotes.
+     */
+    public DelimitedRecordReader(Reader reader, char delimiter, boolean quoting) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quoting = quoting;
+    }
+
+    /**
+     * This method is used to read the next record. Empty lines are skipped.
+     *
+     * @return The fields of the record, or null at the end of the input.
+     * @throws IOException If the input can not be read or ends inside a quoted field.
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            endLine(c);
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in the record of line " + recordLine);
+                }
+                if (c == QUOTE) {
+                    c = read();
+                    if (c != QUOTE) {
+                        quoted = false;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    lineNumber++;
+                }
+                field.append((char) c);
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c != -1) {
+                    endLine(c);
+                }
+                return fields;
+            } else if (c == QUOTE && quoting && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * This method is used to get the line the last record returned by next started on.
+     *
+     * @return The line number, starting at 1.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * This method counts the line break that starts with the given character, and consumes the \n of a \r\n.
+     */
+    private void endLine(int c) throws IOException {
+        lineNumber++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,104 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.model.Employee;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This class reads the Employees of a file in the format of sample-data/user.json, an object with a "users" array,
+ * one Employee at a time with Jackson's streaming parser.
+ * Only the Employees of the current chunk are held in memory, so files of any size can be read.
+ * Gzip compressed input is recognised by its magic number and decompressed on the fly.
+ */
+public class EmployeeJsonReader implements AutoCloseable {
+
+    private static final String USERS_FIELD = "users";
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean exhausted;
+
+    /**
+     * Constructor for the EmployeeJsonReader.
+     * It positions the parser at the start of the "users" array. Fields before and after the array are skipped.
+     *
+     * @param objectMapper The ObjectMapper used to bind each Employee.
+     * @param input        The plain or gzip compressed JSON. It is closed together with this reader.
+     * @throws IOException If the input can not be read or has no "users" array.
+     */
+    public EmployeeJsonReader(ObjectMapper objectMapper, InputStream input) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(decompress(input));
+        seekUsersArray();
+    }
+
+    /**
+     * This method is used to read the next chunk of Employees.
+     *
+     * @param chunkSize The maximum number of Employees to read.
+     * @return The next Employees, or an empty List once the "users" array has been read to the end.
+     */
+    public List<Employee> nextChunk(int chunkSize) {
+        List<Employee> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (!exhausted && chunk.size() < chunkSize) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT) {
+                    chunk.add(objectMapper.readValue(parser, Employee.class));
+                } else if (token == JsonToken.END_ARRAY || token == null) {
+                    exhausted = true;
+                } else {
+                    throw new IOException("Expected an Employee object in \"" + USERS_FIELD + "\" but found " + token
+                            + " at " + parser.currentLocation());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void seekUsersArray() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object with a \"" + USERS_FIELD + "\" array");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (USERS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new IOException("No \"" + USERS_FIELD + "\" array found");
+    }
+
+    /**
+     * This method wraps the input in a GZIPInputStream if it starts with the gzip magic number 0x1f8b.
+     */
+    static InputStream decompress(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, 64 * 1024);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered, 64 * 1024);
+        }
+        return buffered;
+    }
+}
@@ -0,0 +1,409 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.sharding.ShardDirectory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class bulk loads Employees from a JSON file in the format of sample-data/user.json, plain or gzip compressed.
+ * <p>
+ * A load is a pipeline of two stages. The calling thread parses the file with an EmployeeJsonReader into chunks of
+ * employees.load.chunk-size Employees and puts them in a queue of employees.load.queue-capacity chunks.
+ * employees.load.writers threads take the chunks and insert each one with EmployeeService.saveEmployees,
+ * on a connection and in a transaction of their own. When the writers fall behind, the full queue makes the parser wait,
+ * so memory use depends on the chunk size and the queue capacity, not on the size of the file.
+ * <p>
+ * A chunk that fails with a transient error is tried again, up to employees.load.max-attempts times with a doubling backoff.
+ * A failed chunk has been rolled back as a whole, but a commit whose outcome was lost can still have been applied,
+ * so before each new try the Employees whose email is already taken are left out instead of being inserted twice.
+ * When the Employees are sharded, the taken emails are looked up in the ShardDirectory, which covers every shard.
+ * A chunk that fails for good is reported in the LoadResult and the load goes on with the next chunks.
+ * <p>
+ * The stages publish employees.load.rows, counted per stage, employees.load.chunk, the time per chunk and stage,
+ * employees.load.retries and employees.load.queued, the number of chunks waiting for a writer.
+ */
+@Slf4j
+@Component
+public class EmployeeLoader {
+
+    /**
+     * How often the progress of a running load is logged.
+     */
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Put in the queue once per writer after the last chunk, to make the writer stop.
+     */
+    private static final Chunk END = new Chunk(-1, List.of());
+
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * The directory of the emails of every shard, or null if the Employees are not sharded.
+     */
+    private final ShardDirectory shardDirectory;
+
+    private final ObjectMapper objectMapper;
+    private final EmployeeProperties.Load settings;
+
+    private final Timer parseTimer;
+    private final Timer writeTimer;
+    private final Counter parsedRows;
+    private final Counter writtenRows;
+    private final Counter failedRows;
+    private final Counter retries;
+
+    /**
+     * The number of parsed chunks that wait for a writer, over all running loads.
+     */
+    private final AtomicInteger queuedChunks = new AtomicInteger();
+
+    /**
+     * Constructor for the EmployeeLoader.
+     * It registers the metrics of the pipeline.
+     *
+     * @param employeeService    The EmployeeService each chunk is saved through.
+     * @param employeeRepository The repository used to find the Employees of a chunk that are already saved.
+     * @param shardDirectory     The directory used instead of the repository when the Employees are sharded.
+     * @param objectMapper       The ObjectMapper used to bind each Employee.
+     * @param employeeProperties The configuration of the Employee API.
+     * @param meterRegistry      The registry the pipeline metrics are published to.
+     */
+    public EmployeeLoader(EmployeeService employeeService, EmployeeRepository employeeRepository,
+                          ObjectProvider<ShardDirectory> shardDirectory, ObjectMapper objectMapper,
+                          EmployeeProperties employeeProperties, MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.shardDirectory = shardDirectory.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.settings = employeeProperties.getLoad();
+        this.parseTimer = chunkTimer(meterRegistry, "parse");
+        this.writeTimer = chunkTimer(meterRegistry, "write");
+        this.parsedRows = rowCounter(meterRegistry, "parsed");
+        this.writtenRows = rowCounter(meterRegistry, "written");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+        this.retries = Counter.builder("employees.load.retries")
+                .description("Chunks of a load that were tried again")
+                .register(meterRegistry);
+        Gauge.builder("employees.load.queued", queuedChunks, AtomicInteger::get)
+                .description("Parsed chunks waiting for a writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method is used to load the Employees of a file.
+     *
+     * @param file The plain or gzip compressed JSON file.
+     * @return The number of loaded Employees, the chunks that failed and how long the load took.
+     * @throws IOException If the file can not be read.
+     */
+    public LoadResult load(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return load(input);
+        }
+    }
+
+    /**
+     * This method is used to load the Employees of a stream.
+     * It returns when every chunk has been saved or has failed for good.
+     *
+     * @param input The plain or gzip compressed JSON. It is closed when the load ends.
+     * @return The number of loaded Employees, the chunks that failed and how long the load took.
+     * @throws IOException If the stream can not be read. The chunks parsed before the error are still saved.
+     */
+    public LoadResult load(InputStream input) throws IOException {
+        int chunkSize = Math.max(1, settings.getChunkSize());
+        int writerCount = Math.max(1, settings.getWriters());
+        RunningLoad load = new RunningLoad(System.nanoTime(), new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(writerCount, runnable -> {
+            Thread thread = new Thread(runnable, "employee-load-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < writerCount; i++) {
+                writers.execute(() -> writeUntilEnd(load));
+            }
+            parse(input, chunkSize, load);
+        } finally {
+            try {
+                for (int i = 0; i < writerCount; i++) {
+                    put(load, END);
+                }
+            } finally {
+                writers.shutdown();
+                awaitWriters(writers);
+            }
+        }
+
+        LoadResult result = load.result();
+        log.info("Loaded Employees: {}", result);
+        return result;
+    }
+
+    /**
+     * This method is the parser stage. It reads the input chunk by chunk and queues each chunk for the writers.
+     */
+    private void parse(InputStream input, int chunkSize, RunningLoad load) throws IOException {
+        try (EmployeeJsonReader reader = new EmployeeJsonReader(objectMapper, input)) {
+            long number = 0;
+            while (true) {
+                long start = System.nanoTime();
+                List<Employee> employees = reader.nextChunk(chunkSize);
+                if (employees.isEmpty()) {
+                    return;
+                }
+                parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                parsedRows.increment(employees.size());
+                load.parsed.addAndGet(employees.size());
+                put(load, new Chunk(++number, employees));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * This method is the work of one writer. It saves queued chunks until it takes the end marker.
+     */
+    private void writeUntilEnd(RunningLoad load) {
+        while (true) {
+            Chunk chunk;
+            try {
+                chunk = load.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (chunk == END) {
+                return;
+            }
+            queuedChunks.decrementAndGet();
+            write(chunk, load);
+            load.logProgress();
+        }
+    }
+
+    /**
+     * This method saves one chunk in one transaction, trying it again after a transient failure.
+     */
+    private void write(Chunk chunk, RunningLoad load) {
+        List<Employee> employees = chunk.employees();
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (attempt > 1) {
+                    employees = withoutSavedEmployees(employees);
+                }
+                if (!employees.isEmpty()) {
+                    employeeService.saveEmployees(employees);
+                }
+                writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                writtenRows.increment(chunk.employees().size());
+                load.written.addAndGet(chunk.employees().size());
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e) || attempt >= settings.getMaxAttempts() || !backOff(attempt)) {
+                    log.warn("Chunk {} of {} Employees failed after {} attempt(s)", chunk.number(), chunk.employees().size(), attempt, e);
+                    failedRows.increment(chunk.employees().size());
+                    load.failedChunks.add(new FailedChunk(chunk.number(), chunk.employees().size(), attempt, e.getMessage()));
+                    return;
+                }
+                retries.increment();
+                log.debug("Chunk {} failed, trying it again", chunk.number(), e);
+            }
+        }
+    }
+
+    /**
+     * This method leaves out the Employees whose email is already taken, because an earlier try committed them.
+     * The repository only sees shard 0, so when the Employees are sharded the emails are looked up in the directory.
+     */
+    private List<Employee> withoutSavedEmployees(List<Employee> employees) {
+        List<String> emails = employees.stream().map(Employee::getEmail).toList();
+        Set<String> saved = new HashSet<>(shardDirectory != null
+                ? shardDirectory.findReserved(emails)
+                : employeeRepository.findExistingEmails(emails));
+        if (saved.isEmpty()) {
+            return employees;
+        }
+        return employees.stream().filter(employee -> !saved.contains(employee.getEmail())).toList();
+    }
+
+    /**
+     * This method tells whether trying the chunk again can succeed: the connection, the lock or the commit failed,
+     * not the data.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    /**
+     * This method waits before the next try of a chunk. It returns false if the writer was interrupted.
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(settings.getRetryBackoff().toMillis() << Math.min(attempt - 1, 10));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void put(RunningLoad load, Chunk chunk) {
+        try {
+            load.queue.put(chunk);
+            if (chunk != END) {
+                queuedChunks.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing Employees to load", e);
+        }
+    }
+
+    private static void awaitWriters(ExecutorService writers) {
+        try {
+            while (!writers.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Waiting for the Employee load writers to finish");
+            }
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Timer chunkTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("employees.load.chunk")
+                .description("Time to parse or to write one chunk of a load")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String stage) {
+        return Counter.builder("employees.load.rows")
+                .description("Employees that went through a stage of a load")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * One numbered chunk of a load.
+     */
+    private record Chunk(long number, List<Employee> employees) {
+    }
+
+    /**
+     * The state of one running load, shared by its parser and its writers.
+     */
+    private static final class RunningLoad {
+        private final long start;
+        private final BlockingQueue<Chunk> queue;
+        private final AtomicLong parsed = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final List<FailedChunk> failedChunks = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicLong nextProgress;
+
+        private RunningLoad(long start, BlockingQueue<Chunk> queue) {
+            this.start = start;
+            this.queue = queue;
+            this.nextProgress = new AtomicLong(start + PROGRESS_INTERVAL_NANOS);
+        }
+
+        private void logProgress() {
+            long now = System.nanoTime();
+            long due = nextProgress.get();
+            if (now >= due && nextProgress.compareAndSet(due, now + PROGRESS_INTERVAL_NANOS)) {
+                log.info("Loading Employees: {}", result());
+            }
+        }
+
+        private LoadResult result() {
+            List<FailedChunk> failed;
+            synchronized (failedChunks) {
+                failed = List.copyOf(failedChunks);
+            }
+            return new LoadResult(parsed.get(), written.get(), failed, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * A chunk that could not be saved.
+     *
+     * @param number   The position of the chunk in the file, starting at 1.
+     * @param rows     The number of Employees in the chunk.
+     * @param attempts How many times the chunk was tried.
+     * @param error    The message of the last failure.
+     */
+    public record FailedChunk(long number, int rows, int attempts, String error) {
+    }
+
+    /**
+     * The outcome of a load.
+     *
+     * @param parsed       The number of Employees read from the input.
+     * @param rows         The number of Employees saved.
+     * @param failedChunks The chunks that could not be saved.
+     * @param elapsed      How long the load took.
+     */
+    public record LoadResult(long parsed, long rows, List<FailedChunk> failedChunks, Duration elapsed) {
+
+        /**
+         * This method is used to get the average insert rate of the load.
+         *
+         * @return The number of Employees saved per second.
+         */
+        @JsonProperty
+        public double rowsPerSecond() {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return rows * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d rows in %d ms, %.0f rows/s, %d failed chunks",
+                    rows, parsed, elapsed.toMillis(), rowsPerSecond(), failedChunks.size());
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.exception.LocalInfileUnavailableException;
+import com.wchamara.springboottesting.model.Employee;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class bulk loads Employees with MySQL's LOAD DATA LOCAL INFILE, which is much faster than batched inserts
+ * because the server parses the rows itself instead of running one INSERT per batch.
+ * <p>
+ * The input is CSV or TSV with a header row, or JSON in the format of sample-data/user.json, plain or gzip compressed.
+ * The header must name every column of the Employee mapping once, by column or by property name, in any order,
+ * for example first_name,last_name,email or email,firstName,lastName. The columns are read from Hibernate's mapping
+ * of the Employee entity, so the check follows the entity. The version and the last modified time are not read from the file,
+ * every row starts at version 0, modified at the time of the load.
+ * <p>
+ * The rows are read employees.load.local-infile-chunk-size at a time. Each chunk gets a block of ids from employee_id_sequence,
+ * the same table Hibernate's pooled generator uses, is written as TSV into memory and is handed to Connector/J
+ * with setLocalInfileInputStream, so no temporary file is needed. Each chunk is committed on its own.
+ * Rows whose email is already taken are skipped, as LOCAL makes MySQL ignore duplicate keys,
+ * so the LoadResult reports fewer rows than were parsed.
+ * <p>
+ * The loader opens its own connections to spring.datasource.url with allowLoadLocalInfile=true, so the connections of the rest
+ * of the application never let the server ask for a local file. The server needs local_infile=ON.
+ * It can not be used while employees.sharding.enabled is true: every row would go to shard 0, with an id from the table generator
+ * instead of one that carries its shard, and without an entry in the email directory.
+ */
+@Slf4j
+@Component
+public class EmployeeLocalInfileLoader {
+
+    /**
+     * The number of ids Hibernate reserves per read of employee_id_sequence. It must match the increment_size of the Employee id generator.
+     */
+    static final int ALLOCATION_SIZE = 100;
+
+    private static final String SEQUENCE_NAME = "employees";
+
+    /**
+     * The formats the rows can be given in.
+     */
+    public enum Format {
+        CSV, TSV, JSON;
+
+        /**
+         * This method is used to find the format of a file from its extension, ignoring a trailing .gz.
+         *
+         * @param fileName The name of the file.
+         * @return The format of the file.
+         * @throws IllegalArgumentException If the extension is not .csv, .tsv or .json.
+         */
+        public static Format of(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            return switch (extension) {
+                case "csv" -> CSV;
+                case "tsv", "tab" -> TSV;
+                case "json" -> JSON;
+                default -> throw new IllegalArgumentException("Can not load Employees from a ." + extension + " file: " + fileName);
+            };
+        }
+    }
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final EmployeeProperties.Load settings;
+    private final boolean sharded;
+    private final SQLExceptionTranslator exceptionTranslator;
+
+    /**
+     * The Employee mapping the rows are loaded into.
+     */
+    private final AbstractEntityPersister persister;
+
+    /**
+     * The mapped columns other than the id, the version and the last modified time, in the order of the Employee properties.
+     */
+    private final List<String> columns = new ArrayList<>();
+
+    /**
+     * The index in columns of each header name that is accepted, by column name and by property name, in lower case.
+     */
+    private final Map<String, Integer> columnsByHeader = new LinkedHashMap<>();
+
+    /**
+     * The LOAD DATA statement for TSV in the format written by writeTsv.
+     */
+    private final String loadDataSql;
+
+    /**
+     * Constructor for the EmployeeLocalInfileLoader.
+     * It reads the table and the columns of the Employee mapping from Hibernate.
+     *
+     * @param dataSourceProperties The settings of the database the chunks are loaded into.
+     * @param entityManagerFactory The factory whose mapping of the Employee entity defines the columns.
+     * @param objectMapper         The ObjectMapper used to bind each Employee of a JSON file.
+     * @param employeeProperties   The configuration of the Employee API.
+     */
+    public EmployeeLocalInfileLoader(DataSourceProperties dataSourceProperties, EntityManagerFactory entityManagerFactory,
+                                     ObjectMapper objectMapper, EmployeeProperties employeeProperties) {
+        this.dataSource = localInfileDataSource(dataSourceProperties);
+        this.objectMapper = objectMapper;
+        this.settings = employeeProperties.getLoad();
+        this.sharded = employeeProperties.getSharding().isEnabled();
+        this.exceptionTranslator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+        this.persister = (AbstractEntityPersister) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(Employee.class);
+        String[] properties = persister.getPropertyNames();
+        String versionColumn = persister.getPropertyColumnNames(persister.getVersionProperty())[0];
+        for (String property : properties) {
+            String column = persister.getPropertyColumnNames(property)[0];
+            if (column.equals(versionColumn) || column.equals(Employee.LAST_MODIFIED_COLUMN)) {
+                continue;
+            }
+            columnsByHeader.put(column.toLowerCase(Locale.ROOT), columns.size());
+            columnsByHeader.put(property.toLowerCase(Locale.ROOT), columns.size());
+            columns.add(column);
+        }
+        this.loadDataSql = "LOAD DATA LOCAL INFILE 'employees.tsv' IGNORE INTO TABLE " + persister.getTableName()
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+                + " (" + persister.getIdentifierColumnNames()[0] + ", " + String.join(", ", columns) + ")"
+                + " SET " + versionColumn + " = 0, " + Employee.LAST_MODIFIED_COLUMN + " = UTC_TIMESTAMP(6)";
+    }
+
+    /**
+     * This method is used to load the Employees of a file, in the format given by its extension.
+     *
+     * @param file The plain or gzip compressed CSV, TSV or JSON file.
+     * @return The number of parsed and loaded Employees and how long the load took.
+     * @throws IOException                     If the file can not be read or does not match the Employee mapping.
+     * @throws LocalInfileUnavailableException If the Employees are sharded.
+     */
+    public EmployeeLoader.LoadResult load(Path file) throws IOException {
+        checkNotSharded();
+        Format format = Format.of(file.getFileName().toString());
+        try (InputStream input = Files.newInputStream(file)) {
+            return load(input, format);
+        }
+    }
+
+    /**
+     * This method is used to load the Employees of a stream.
+     * The chunks loaded before a failure stay committed.
+     *
+     * @param input  The plain or gzip compressed rows. It is closed when the load ends.
+     * @param format The format of the rows.
+     * @return The number of parsed and loaded Employees and how long the load took.
+     * @throws IOException                     If the input can not be read or does not match the Employee mapping.
+     * @throws LocalInfileUnavailableException If the Employees are sharded.
+     */
+    public EmployeeLoader.LoadResult load(InputStream input, Format format) throws IOException {
+        checkNotSharded();
+        int chunkSize = Math.max(1, settings.getLocalInfileChunkSize());
+        long start = System.nanoTime();
+        long parsed = 0;
+        long loaded = 0;
+        try (RowSource rows = open(EmployeeJsonReader.decompress(input), format);
+             Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            ByteArrayOutputStream tsv = new ByteArrayOutputStream();
+            for (List<String[]> chunk = rows.next(chunkSize); !chunk.isEmpty(); chunk = rows.next(chunkSize)) {
+                long firstId = reserveIds(connection, chunk.size());
+                tsv.reset();
+                writeTsv(chunk, firstId, tsv);
+                loaded += loadTsv(connection, tsv.toByteArray());
+                parsed += chunk.size();
+            }
+        } catch (SQLException e) {
+            throw exceptionTranslator.translate("Loading Employees after " + loaded + " rows", loadDataSql, e);
+        }
+
+        EmployeeLoader.LoadResult result = new EmployeeLoader.LoadResult(parsed, loaded, List.of(),
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("Loaded Employees with LOAD DATA: {}, {} duplicates skipped", result, parsed - loaded);
+        return result;
+    }
+
+    /**
+     * This method builds the DataSource of the loads: unpooled connections to spring.datasource.url that allow LOAD DATA LOCAL INFILE.
+     * A load uses one connection for all of its chunks.
+     */
+    private static DataSource localInfileDataSource(DataSourceProperties dataSourceProperties) {
+        String url = dataSourceProperties.determineUrl();
+        return new DriverManagerDataSource(url + (url.contains("?") ? "&" : "?") + "allowLoadLocalInfile=true",
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private void checkNotSharded() {
+        if (sharded) {
+            throw new LocalInfileUnavailableException(
+                    "LOAD DATA LOCAL INFILE can not load sharded Employees, import them without the local-infile mode");
+        }
+    }
+
+    /**
+     * This method reserves ids for the given number of Employees in a transaction of its own,
+     * so Hibernate only waits for the sequence row as long as the reservation takes, not for the whole chunk.
+     * A read of the value hi gives the ids from hi - ALLOCATION_SIZE + 1 up to hi, as it does for Hibernate,
+     * and the value is moved on by as many blocks as the chunk needs.
+     *
+     * @return The first of the reserved ids.
+     */
+    private long reserveIds(Connection connection, int count) throws SQLException {
+        try {
+            long hi = readSequence(connection);
+            long first = Math.max(1, hi - ALLOCATION_SIZE + 1);
+            long last = first + count - 1;
+            long blocks = Math.max(1, -Math.floorDiv(hi - last, ALLOCATION_SIZE) + 1);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE employee_id_sequence SET next_val = ? WHERE sequence_name = ?")) {
+                update.setLong(1, hi + blocks * ALLOCATION_SIZE);
+                update.setString(2, SEQUENCE_NAME);
+                update.executeUpdate();
+            }
+            connection.commit();
+            return first;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static long readSequence(Connection connection) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_val FROM employee_id_sequence WHERE sequence_name = ? FOR UPDATE")) {
+            select.setString(1, SEQUENCE_NAME);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getLong(1);
+                }
+            }
+        }
+        // nothing has been inserted yet: start the sequence the way Hibernate does
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO employee_id_sequence (sequence_name, next_val) VALUES (?, 1)")) {
+            insert.setString(1, SEQUENCE_NAME);
+            insert.executeUpdate();
+        }
+        return 1;
+    }
+
+    /**
+     * This method streams one chunk of TSV to the server and commits it.
+     *
+     * @return The number of inserted rows.
+     */
+    private long loadTsv(Connection connection, byte[] tsv) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(tsv));
+            long inserted = statement.executeLargeUpdate(loadDataSql);
+            connection.commit();
+            return inserted;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * This method writes the rows of a chunk with consecutive ids, escaped as LOAD DATA reads them by default.
+     */
+    private static void writeTsv(List<String[]> chunk, long firstId, ByteArrayOutputStream tsv) throws IOException {
+        Writer writer = new OutputStreamWriter(tsv, StandardCharsets.UTF_8);
+        long id = firstId;
+        for (String[] row : chunk) {
+            writer.write(Long.toString(id++));
+            for (String value : row) {
+                writer.write('\t');
+                writeEscaped(writer, value);
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static void writeEscaped(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\0' -> writer.write("\\0");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private RowSource open(InputStream input, Format format) throws IOException {
+        if (format == Format.JSON) {
+            EmployeeJsonReader reader = new EmployeeJsonReader(objectMapper, input);
+            return new RowSource() {
+                @Override
+                public List<String[]> next(int chunkSize) throws IOException {
+                    List<String[]> rows = new ArrayList<>(chunkSize);
+                    for (Employee employee : reader.nextChunk(chunkSize)) {
+                        rows.add(validate(toRow(employee), "Employee " + employee.getEmail()));
+                    }
+                    return rows;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        }
+        DelimitedRecordReader reader = new DelimitedRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                format == Format.CSV ? ',' : '\t', format == Format.CSV);
+        int[] positions = readHeader(reader);
+        return new RowSource() {
+            @Override
+            public List<String[]> next(int chunkSize) throws IOException {
+                List<String[]> rows = new ArrayList<>(chunkSize);
+                List<String> record;
+                while (rows.size() < chunkSize && (record = reader.next()) != null) {
+                    if (record.size() != positions.length) {
+                        throw new IOException("Line " + reader.getRecordLine() + " has " + record.size()
+                                + " fields, the header has " + positions.length);
+                    }
+                    String[] row = new String[columns.size()];
+                    for (int i = 0; i < positions.length; i++) {
+                        row[positions[i]] = record.get(i);
+                    }
+                    rows.add(validate(row, "Line " + reader.getRecordLine()));
+                }
+                return rows;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * This method checks the header against the Employee mapping.
+     *
+     * @return For each field of a record, the index of its column in columns.
+     */
+    private int[] readHeader(DelimitedRecordReader reader) throws IOException {
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IOException("The file is empty, a header with the columns " + columns + " is needed");
+        }
+        int[] positions = new int[header.size()];
+        boolean[] seen = new boolean[columns.size()];
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            Integer position = columnsByHeader.get(name.toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new IOException("Unknown column '" + name + "', the Employee mapping has the columns " + columns);
+            }
+            if (seen[position]) {
+                throw new IOException("Column '" + name + "' is given twice");
+            }
+            seen[position] = true;
+            positions[i] = position;
+        }
+        for (int i = 0; i < seen.length; i++) {
+            if (!seen[i]) {
+                throw new IOException("Column '" + columns.get(i) + "' is missing, the header needs the columns " + columns);
+            }
+        }
+        return positions;
+    }
+
+    private String[] toRow(Employee employee) {
+        Object[] values = persister.getValues(employee);
+        String[] row = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            row[i] = values[i] == null ? null : values[i].toString();
+        }
+        return row;
+    }
+
+    /**
+     * This method rejects a row with an empty value, which LOAD DATA LOCAL would only turn into a warning,
+     * because every column of the Employee mapping is NOT NULL.
+     */
+    private String[] validate(String[] row, String where) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (row[i] == null || row[i].isBlank()) {
+                throw new IOException(where + " has no value for " + columns.get(i));
+            }
+        }
+        return row;
+    }
+
+    /**
+     * The rows of a file, read a chunk at a time, with the values in the order of columns.
+     */
+    private interface RowSource extends Closeable {
+        List<String[]> next(int chunkSize) throws IOException;
+    }
+}
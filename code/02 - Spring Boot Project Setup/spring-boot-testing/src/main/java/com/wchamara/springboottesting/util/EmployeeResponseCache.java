@@ -0,0 +1,224 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.model.Employee;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class caches the encoded response of GET /api/v1/employees/{id}, so a cached Employee is written without serializing it again.
+ * For each id it holds the JSON bytes and, once a client asked for them, the gzip-compressed JSON bytes,
+ * together with the ETag and the Last-Modified time of the Employee, so conditional requests are answered from the cache too.
+ * A lookup that finds the bytes allocates nothing, so the controller can copy them straight to the response.
+ * <p>
+ * The cache is bounded by the number of bytes it holds, with Caffeine's W-TinyLFU eviction, and its statistics are published
+ * as Micrometer metrics. The bytes written from the cache and the bytes that had to be serialized are counted in the
+ * employees.responses.bytes counter, tagged with their source and encoding.
+ * <p>
+ * An entry is dropped by invalidate, which the ResponseCacheInvalidatingEmployeeService calls after every committed create, update
+ * and delete. An encoding that was started before the invalidation of its id is returned to its caller but never cached,
+ * so the cache can not keep bytes of an Employee that was changed while they were being encoded.
+ */
+public class EmployeeResponseCache {
+
+    /**
+     * The name of the counter of the response bytes written for single Employees.
+     */
+    public static final String BYTES_COUNTER = "employees.responses.bytes";
+
+    /**
+     * The number of stripes the invalidations of the ids are counted in.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * The estimated number of bytes an entry holds besides its encoded bytes, used in its weight.
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * The encoded Employees by id.
+     */
+    private final Cache<Long, Encoded> responses;
+
+    /**
+     * The number of invalidations of the ids of each stripe. An encoding is only cached if its stripe was not invalidated meanwhile.
+     */
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    /**
+     * The ObjectMapper that encodes the Employees, the one the JSON message converter uses.
+     */
+    private final ObjectMapper objectMapper;
+
+    private final Counter jsonFromCache;
+    private final Counter jsonSerialized;
+    private final Counter gzipFromCache;
+    private final Counter gzipSerialized;
+
+    /**
+     * Constructor for the EmployeeResponseCache.
+     * It builds the cache from the given settings and registers its metrics.
+     *
+     * @param objectMapper  The ObjectMapper that encodes the Employees.
+     * @param responseCache The settings of the cache.
+     * @param meterRegistry The registry the cache metrics and the byte counters are published to.
+     */
+    public EmployeeResponseCache(ObjectMapper objectMapper, EmployeeProperties.ResponseCache responseCache, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(responseCache.getMaxBytes())
+                .weigher((Long id, Encoded encoded) -> encoded.weight())
+                .expireAfterWrite(responseCache.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "employees.responses");
+        this.jsonFromCache = bytesCounter(meterRegistry, "cache", "identity");
+        this.jsonSerialized = bytesCounter(meterRegistry, "serialized", "identity");
+        this.gzipFromCache = bytesCounter(meterRegistry, "cache", "gzip");
+        this.gzipSerialized = bytesCounter(meterRegistry, "serialized", "gzip");
+    }
+
+    /**
+     * This method is used to retrieve the encoded JSON of an Employee, from the cache or by loading and encoding it on a miss.
+     * Missing Employees are not cached, so the next lookup loads them again.
+     * The loader runs on the primary when reads are routed to replicas, so the cache never holds an Employee older than its last write.
+     *
+     * @param id     The id of the Employee.
+     * @param gzip   Whether the gzip-compressed JSON is wanted as well as the plain JSON.
+     * @param loader Loads the Employee on a miss.
+     * @return The encoded Employee, or null if there is no Employee with the id.
+     */
+    public Encoded get(Long id, boolean gzip, Function<Long, Optional<Employee>> loader) {
+        int stripe = stripe(id);
+        long seen = invalidations.get(stripe);
+        Encoded cached = responses.getIfPresent(id);
+        if (cached != null && (!gzip || cached.gzip() != null)) {
+            (gzip ? gzipFromCache : jsonFromCache).increment(cached.body(gzip).length);
+            return cached;
+        }
+
+        Encoded encoded;
+        if (cached != null) {
+            encoded = cached.withGzip();
+        } else {
+            Optional<Employee> employee = PrimaryPin.onPrimary(() -> loader.apply(id));
+            if (employee.isEmpty()) {
+                return null;
+            }
+            encoded = encode(objectMapper, employee.get(), gzip);
+        }
+        // the check and the put share the lock of the key with invalidate, so an invalidation can not slip in between
+        responses.asMap().compute(id, (key, current) -> invalidations.get(stripe) == seen ? encoded : current);
+
+        (gzip ? gzipSerialized : jsonSerialized).increment(encoded.body(gzip).length);
+        return encoded;
+    }
+
+    /**
+     * This method is used to drop the encoded Employee with the given id, and any encoding of it that is still running.
+     *
+     * @param id The id of the Employee that was created, updated or deleted.
+     */
+    public void invalidate(long id) {
+        int stripe = stripe(id);
+        responses.asMap().compute(id, (key, current) -> {
+            invalidations.incrementAndGet(stripe);
+            return null;
+        });
+    }
+
+    /**
+     * This method is used to encode an Employee the way the cache holds it, also when the cache is not used.
+     *
+     * @param objectMapper The ObjectMapper that encodes the Employee.
+     * @param employee     The Employee to encode.
+     * @param gzip         Whether the gzip-compressed JSON is encoded as well as the plain JSON.
+     * @return The encoded Employee.
+     */
+    public static Encoded encode(ObjectMapper objectMapper, Employee employee, boolean gzip) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(employee);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        long lastModified = employee.getLastModified() == null ? -1 : employee.getLastModified().toEpochMilli();
+        Encoded encoded = new Encoded(json, null,
+                "\"" + employee.getVersion() + "\"", "\"" + employee.getVersion() + "-gzip\"", lastModified);
+        return gzip ? encoded.withGzip() : encoded;
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int stripe(long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+    private static Counter bytesCounter(MeterRegistry meterRegistry, String source, String encoding) {
+        return Counter.builder(BYTES_COUNTER)
+                .description("The bytes of single Employee responses, by where they came from")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .tag("encoding", encoding)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The encoded representations of one Employee and their validators.
+     * The gzip-compressed JSON is null until a client asks for it. Each representation has its own strong ETag,
+     * made of the version of the Employee, as their bytes differ. The lastModified is -1 if the Employee has no last modified time.
+     */
+    public record Encoded(byte[] json, byte[] gzip, String eTag, String gzipETag, long lastModified) {
+
+        /**
+         * This method is used to select the bytes of a representation.
+         *
+         * @param gzip Whether the gzip-compressed JSON is selected instead of the plain JSON.
+         * @return The bytes of the representation.
+         */
+        public byte[] body(boolean gzip) {
+            return gzip ? this.gzip : json;
+        }
+
+        /**
+         * This method is used to select the ETag of a representation.
+         *
+         * @param gzip Whether the ETag of the gzip-compressed JSON is selected instead of the one of the plain JSON.
+         * @return The quoted ETag of the representation.
+         */
+        public String eTag(boolean gzip) {
+            return gzip ? gzipETag : eTag;
+        }
+
+        private Encoded withGzip() {
+            return gzip != null ? this : new Encoded(json, compress(json), eTag, gzipETag, lastModified);
+        }
+
+        private int weight() {
+            return ENTRY_OVERHEAD + json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
@@ -1,29 +1,70 @@
 package com.wchamara.springboottesting.util;
 
-import com.wchamara.springboottesting.model.Employee;
-import com.wchamara.springboottesting.repository.EmployeeRepository;
-import org.springframework.boot.CommandLineRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
 
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 
+/**
+ * This class loads Employee files given on the command line when the application starts, for example
+ * java -jar spring-boot-testing.jar --import-employees=/data/employees.json.gz
+ * The option can be repeated, and a value starting with classpath: is read from the classpath,
+ * like --import-employees=classpath:sample-data/user.json. Without the option nothing is loaded.
+ * <p>
+ * With --import-mode=local-infile the files are loaded with LOAD DATA LOCAL INFILE by the EmployeeLocalInfileLoader,
+ * which also reads .csv and .tsv files.
+ */
+@Slf4j
+@Component
+public class InitialSetup implements ApplicationRunner {
 
-public class InitialSetup implements CommandLineRunner {
+    private static final String IMPORT_OPTION = "import-employees";
 
-    private final EmployeeRepository employeeRepository;
+    private static final String MODE_OPTION = "import-mode";
 
-    public InitialSetup(EmployeeRepository employeeRepository) {
-        this.employeeRepository = employeeRepository;
-    }
+    private static final String LOCAL_INFILE_MODE = "local-infile";
 
-    @Override
-    public void run(String... args) throws Exception {
-        String fileName = "sample-data/user.json";
+    private static final String CLASSPATH_PREFIX = "classpath:";
 
-        List<Employee> users = FileUtil.readEmployees(fileName);
+    private final EmployeeLoader employeeLoader;
 
-        System.out.println("running...");
+    private final EmployeeLocalInfileLoader employeeLocalInfileLoader;
 
-        employeeRepository.saveAll(users);
+    public InitialSetup(EmployeeLoader employeeLoader, EmployeeLocalInfileLoader employeeLocalInfileLoader) {
+        this.employeeLoader = employeeLoader;
+        this.employeeLocalInfileLoader = employeeLocalInfileLoader;
+    }
 
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(IMPORT_OPTION)) {
+            return;
+        }
+        List<String> mode = args.getOptionValues(MODE_OPTION);
+        boolean localInfile = mode != null && mode.contains(LOCAL_INFILE_MODE);
+        for (String file : args.getOptionValues(IMPORT_OPTION)) {
+            log.info("Importing Employees from {}", file);
+            if (file.startsWith(CLASSPATH_PREFIX)) {
+                String resource = file.substring(CLASSPATH_PREFIX.length());
+                InputStream input = InitialSetup.class.getClassLoader().getResourceAsStream(resource);
+                if (input == null) {
+                    throw new FileNotFoundException(file);
+                }
+                if (localInfile) {
+                    employeeLocalInfileLoader.load(input, EmployeeLocalInfileLoader.Format.of(resource));
+                } else {
+                    employeeLoader.load(input);
+                }
+            } else if (localInfile) {
+                employeeLocalInfileLoader.load(Path.of(file));
+            } else {
+                employeeLoader.load(Path.of(file));
+            }
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.wchamara.springboottesting.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * This class makes concurrent calls for the same key share one execution.
+ * The first caller for a key runs the loader, and every caller that arrives while it is running waits for the same
+ * CompletableFuture instead of running the loader again. Once the loader finishes, the key is forgotten, so nothing is cached.
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the loaded values.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The loads that are running, by key.
+     */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Called once for every caller that joined a running load instead of starting its own.
+     */
+    private final Runnable onCoalesced;
+
+    /**
+     * Constructor for the SingleFlight.
+     *
+     * @param onCoalesced Called once for every caller that joined a running load instead of starting its own.
+     */
+    public SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    /**
+     * This method is used to load the value of a key, sharing the load with every concurrent caller for the same key.
+     * If the loader throws, every caller that shared the load gets the same exception.
+     *
+     * @param key    The key to load.
+     * @param loader Loads the value of the key. It is only called by the first caller for the key.
+     * @return The loaded value.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            onCoalesced.run();
+            return await(running);
+        }
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * This method retires the running load of a key, so the next caller for the key starts a new load.
+     * Callers that already joined the running load still get its value.
+     * It is called after a write, so a load that may have read the value from before the write is not shared with later callers.
+     *
+     * @param key The key whose running load is retired.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * This method retires every running load, so the next caller for any key starts a new load.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * This method returns the number of keys that are being loaded right now.
+     *
+     * @return The number of running loads.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
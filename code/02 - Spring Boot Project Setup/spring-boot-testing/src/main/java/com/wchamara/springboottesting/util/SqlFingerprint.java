@@ -0,0 +1,110 @@
+package com.wchamara.springboottesting.util;
+
+/**
+ * This class reduces SQL statements to fingerprints, so the executions of one statement with different values are counted together.
+ * <p>
+ * String and number literals become ?, runs of whitespace become one space, and everything else is lower-cased.
+ * A list of placeholders, like the IN (?, ?, ?) of a lookup of several emails or the VALUES (?, ?, ?) of an insert, becomes a single ?,
+ * so lists of any length share a fingerprint. Digits that are part of a name, like the e1_0 aliases Hibernate generates, are kept.
+ */
+public final class SqlFingerprint {
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * This method is used to compute the fingerprint of a SQL statement in one pass over it.
+     *
+     * @param sql The SQL statement.
+     * @return The fingerprint of the statement.
+     */
+    public static String of(String sql) {
+        StringBuilder fingerprint = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipString(sql, i);
+                placeholder(fingerprint);
+            } else if (c == '?') {
+                i++;
+                placeholder(fingerprint);
+            } else if (Character.isDigit(c) && !partOfName(fingerprint)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                placeholder(fingerprint);
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!fingerprint.isEmpty()) {
+                    fingerprint.append(' ');
+                }
+            } else {
+                fingerprint.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        int end = fingerprint.length();
+        while (end > 0 && fingerprint.charAt(end - 1) == ' ') {
+            end--;
+        }
+        fingerprint.setLength(end);
+        return fingerprint.toString();
+    }
+
+    /**
+     * This method appends a ?, unless it continues a list of placeholders, which then stays a single ?.
+     */
+    private static void placeholder(StringBuilder fingerprint) {
+        int end = fingerprint.length();
+        int last = end - 1;
+        while (last >= 0 && fingerprint.charAt(last) == ' ') {
+            last--;
+        }
+        if (last >= 0 && fingerprint.charAt(last) == ',') {
+            int previous = last - 1;
+            while (previous >= 0 && fingerprint.charAt(previous) == ' ') {
+                previous--;
+            }
+            if (previous >= 0 && fingerprint.charAt(previous) == '?') {
+                fingerprint.setLength(previous + 1);
+                return;
+            }
+        }
+        fingerprint.append('?');
+    }
+
+    private static boolean partOfName(StringBuilder fingerprint) {
+        if (fingerprint.isEmpty()) {
+            return false;
+        }
+        char last = fingerprint.charAt(fingerprint.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    /**
+     * This method returns the index after the string literal that starts at the given quote,
+     * which may contain quotes doubled or escaped with a backslash.
+     */
+    private static int skipString(String sql, int quote) {
+        int i = quote + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,7 @@
+-- The directory of the shard of each email, on shard 0. The primary key keeps emails unique across all shards.
+CREATE TABLE IF NOT EXISTS employee_shards
+(
+    email VARCHAR(255) NOT NULL,
+    shard INT          NOT NULL,
+    PRIMARY KEY (email)
+);
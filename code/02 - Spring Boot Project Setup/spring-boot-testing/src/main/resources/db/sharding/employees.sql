@@ -0,0 +1,14 @@
+-- The employees table of a shard, as JPA maps it, created on every shard at startup.
+-- The ids come from the Snowflake generator, so the shards need no employee_id_sequence table.
+CREATE TABLE IF NOT EXISTS employees
+(
+    id            BIGINT       NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    first_name    VARCHAR(255) NOT NULL,
+    last_name     VARCHAR(255) NOT NULL,
+    version       BIGINT       NOT NULL,
+    last_modified DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_employees_email UNIQUE (email),
+    INDEX idx_employees_last_modified (last_modified)
+);
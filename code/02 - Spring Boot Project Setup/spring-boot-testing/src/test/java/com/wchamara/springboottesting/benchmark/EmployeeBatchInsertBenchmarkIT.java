@@ -0,0 +1,83 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.service.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a throughput benchmark for inserting Employees.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeBatchInsertBenchmarkIT -Dbenchmark.rows=100000
+ * <p>
+ * The "row-by-row" path saves each Employee on its own with EmployeeRepository.save, like POST /api/v1/employees does:
+ * one transaction and one INSERT round-trip per row. It uses the current pooled table generator, not the old IDENTITY mapping,
+ * so it only measures the cost of sending rows one by one, not the cost of an id that is only known after each INSERT.
+ * The "batched" path is EmployeeService.saveEmployees, which sends chunked JDBC batches rewritten into multi-row INSERTs.
+ */
+@Slf4j
+@SpringBootTest
+class EmployeeBatchInsertBenchmarkIT extends BaseIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("batched inserts are faster than row by row inserts")
+    void rowByRowVersusBatchedInserts() {
+        long start = System.nanoTime();
+        for (Employee employee : employees("row")) {
+            employeeRepository.save(employee);
+        }
+        double rowByRow = rowsPerSecond(start);
+        employeeRepository.deleteAllInBatch();
+
+        start = System.nanoTime();
+        employeeService.saveEmployees(employees("batch"));
+        double batched = rowsPerSecond(start);
+
+        log.info("row-by-row (pooled ids): {} rows/s", String.format("%.0f", rowByRow));
+        log.info("batched (pooled ids): {} rows/s", String.format("%.0f", batched));
+        log.info("speed-up: {}x for {} rows", String.format("%.1f", batched / rowByRow), ROWS);
+
+        assertThat(employeeRepository.count()).isEqualTo(ROWS);
+        assertThat(batched).isGreaterThan(rowByRow);
+    }
+
+    private static List<Employee> employees(String prefix) {
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email(prefix + i + "@example.com")
+                    .build());
+        }
+        return employees;
+    }
+
+    private static double rowsPerSecond(long start) {
+        return ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
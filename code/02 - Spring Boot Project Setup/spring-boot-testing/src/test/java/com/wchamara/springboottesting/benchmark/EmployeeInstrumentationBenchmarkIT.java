@@ -0,0 +1,105 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.service.impl.TimedEmployeeService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an overhead benchmark for the TimedEmployeeService, the per-method timers of the EmployeeService.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeInstrumentationBenchmarkIT -Dbenchmark.iterations=5000000
+ * <p>
+ * The timed service is a proxy of the EmployeeService that returns the same Employee without any work,
+ * so the difference to the "bare" row, which calls it directly, is the time the instrumentation adds to every database call.
+ * The "timer" row calls it through a TimedEmployeeService on a SimpleMeterRegistry, and the "histogram" row on a PrometheusMeterRegistry
+ * with the percentile histogram and SLO buckets the application configures.
+ * Each row is measured three times after a warm-up, and the fastest round is reported.
+ */
+class EmployeeInstrumentationBenchmarkIT {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5_000_000);
+
+    private static final int ROUNDS = 3;
+
+    @Test
+    @DisplayName("timing a call costs well under a microsecond")
+    void bareVersusTimedVersusHistogram() {
+        Employee employee = Employee.builder().id(1L).firstName("Chamara").lastName("Weerasinghe").email("abc@gmail.com").build();
+        Optional<Employee> found = Optional.of(employee);
+        EmployeeService bare = (EmployeeService) Proxy.newProxyInstance(EmployeeService.class.getClassLoader(),
+                new Class<?>[]{EmployeeService.class}, (proxy, method, args) -> found);
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        prometheus.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(Duration.ofMillis(5).toNanos(), Duration.ofMillis(50).toNanos(),
+                                Duration.ofMillis(500).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+
+        Map<String, EmployeeService> services = new LinkedHashMap<>();
+        services.put("bare", bare);
+        services.put("timer", new TimedEmployeeService(bare, new SimpleMeterRegistry()));
+        services.put("histogram", new TimedEmployeeService(bare, prometheus));
+
+        System.out.printf("%-10s %12s %12s%n", "service", "calls", "ns/call");
+        Map<String, Double> results = new LinkedHashMap<>();
+        for (Map.Entry<String, EmployeeService> service : services.entrySet()) {
+            double nanos = measure(service.getValue());
+            results.put(service.getKey(), nanos);
+            System.out.printf("%-10s %12d %12.1f%n", service.getKey(), ITERATIONS, nanos);
+        }
+
+        assertThat(timer(prometheus).count()).isEqualTo((long) ITERATIONS * (ROUNDS + 1));
+        assertThat(results.get("histogram") - results.get("bare")).isLessThan(1_000);
+    }
+
+    /**
+     * This method runs one round as a warm-up, then measures the rounds and returns the nanoseconds per call of the fastest.
+     */
+    private static double measure(EmployeeService service) {
+        long found = 0;
+        double fastest = Double.MAX_VALUE;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                found += service.getEmployeeById((long) i & 1023).isPresent() ? 1 : 0;
+            }
+            double nanos = (System.nanoTime() - start) / (double) ITERATIONS;
+            if (round > 0) {
+                fastest = Math.min(fastest, nanos);
+            }
+        }
+        assertThat(found).isEqualTo((long) ITERATIONS * (ROUNDS + 1));
+        return fastest;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry) {
+        return meterRegistry.get(TimedEmployeeService.TIMER)
+                .tag("method", "getEmployeeById")
+                .tag("exception", "none")
+                .timer();
+    }
+}
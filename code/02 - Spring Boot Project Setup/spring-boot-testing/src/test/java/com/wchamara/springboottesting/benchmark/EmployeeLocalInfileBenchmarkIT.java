@@ -0,0 +1,93 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.util.EmployeeLoader;
+import com.wchamara.springboottesting.util.EmployeeLocalInfileLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a throughput benchmark for importing Employee files.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeLocalInfileBenchmarkIT -Dbenchmark.rows=1000000
+ * <p>
+ * The "jpa" path is the EmployeeLoader, which parses a JSON file and saves it in chunks of JDBC batches.
+ * The "local-infile" path is the EmployeeLocalInfileLoader, which streams the same Employees as CSV to LOAD DATA LOCAL INFILE.
+ * The behaviour of the local-infile path, like the skipping of taken emails, is tested by EmployeeLocalInfileITest.
+ */
+@SpringBootTest
+class EmployeeLocalInfileBenchmarkIT extends BaseIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeLoader employeeLoader;
+
+    @Autowired
+    private EmployeeLocalInfileLoader employeeLocalInfileLoader;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("LOAD DATA LOCAL INFILE imports are faster than JPA batch imports")
+    void jpaBatchesVersusLocalInfile() throws IOException {
+        Path json = writeJson(directory.resolve("employees.json"), "jpa");
+        Path csv = writeCsv(directory.resolve("employees.csv"), "infile");
+
+        EmployeeLoader.LoadResult jpa = employeeLoader.load(json);
+        assertThat(jpa.rows()).isEqualTo(ROWS);
+        EmployeeLoader.LoadResult localInfile = employeeLocalInfileLoader.load(csv);
+
+        System.out.printf("%-14s %15s %12s%n", "path", "rows/s", "elapsed");
+        System.out.printf("%-14s %15.0f %12s%n", "jpa", jpa.rowsPerSecond(), jpa.elapsed());
+        System.out.printf("%-14s %15.0f %12s%n", "local-infile", localInfile.rowsPerSecond(), localInfile.elapsed());
+        System.out.printf("speed-up: %.1fx for %d rows%n", localInfile.rowsPerSecond() / jpa.rowsPerSecond(), ROWS);
+
+        assertThat(localInfile.rows()).isEqualTo(ROWS);
+        assertThat(employeeRepository.count()).isEqualTo(2L * ROWS);
+        assertThat(localInfile.rowsPerSecond()).isGreaterThan(jpa.rowsPerSecond());
+    }
+
+    private static Path writeJson(Path file, String prefix) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("{\"users\": [\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write((i == 0 ? "" : ",\n") + "{\"firstName\": \"First" + i + "\", \"lastName\": \"Last" + i
+                        + "\", \"email\": \"" + prefix + i + "@example.com\"}");
+            }
+            writer.write("\n]}\n");
+        }
+        return file;
+    }
+
+    private static Path writeCsv(Path file, String prefix) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("first_name,last_name,email\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write("First" + i + ",Last" + i + "," + prefix + i + "@example.com\n");
+            }
+        }
+        return file;
+    }
+}
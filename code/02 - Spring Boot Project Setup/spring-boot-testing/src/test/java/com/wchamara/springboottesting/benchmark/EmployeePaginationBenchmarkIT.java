@@ -0,0 +1,111 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a benchmark comparing keyset (cursor) pagination with OFFSET pagination on the employees table.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeePaginationBenchmarkIT -Dbenchmark.rows=1000000
+ * <p>
+ * It seeds the table once, then measures the average latency of fetching a page at several depths.
+ * Keyset pages seek on the primary key index, so their latency stays flat,
+ * while OFFSET pages have to read and discard every row before the page.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeePaginationBenchmarkIT extends BaseIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int PAGE_SIZE = 50;
+    private static final int ITERATIONS = 20;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        if (employeeRepository.count() == ROWS) {
+            return;
+        }
+        employeeRepository.deleteAllInBatch();
+        // connections do not auto-commit, so the plain JDBC inserts need a transaction of their own
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 1; i <= ROWS; i++) {
+                rows.add(new Object[]{i, "First" + i, "Last" + i, "employee" + i + "@example.com"});
+                if (rows.size() == 5_000 || i == ROWS) {
+                    jdbcTemplate.batchUpdate("INSERT INTO employees (id, first_name, last_name, email, version, last_modified)"
+                            + " VALUES (?, ?, ?, ?, 0, UTC_TIMESTAMP(6))", rows);
+                    rows.clear();
+                }
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("keyset pagination latency stays flat on deep pages")
+    void keysetVersusOffsetPagination() {
+        System.out.printf("%-10s %15s %15s%n", "depth", "keyset (ms)", "offset (ms)");
+
+        double shallowKeyset = 0;
+        double deepKeyset = 0;
+        double deepOffset = 0;
+        for (double depth : new double[]{0.0, 0.25, 0.5, 0.75, 0.99}) {
+            int pageNumber = (int) (ROWS * depth) / PAGE_SIZE;
+            long afterId = (long) pageNumber * PAGE_SIZE;
+
+            double keyset = averageMillis(() -> employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(PAGE_SIZE)));
+            // plain SQL for OFFSET so the count query of a Spring Data Page does not skew the numbers
+            double offset = averageMillis(() -> jdbcTemplate.queryForList(
+                    "SELECT id, first_name, last_name, email FROM employees ORDER BY id LIMIT ? OFFSET ?",
+                    PAGE_SIZE, pageNumber * PAGE_SIZE));
+
+            System.out.printf("%-10s %15.3f %15.3f%n", (int) (depth * 100) + "%", keyset, offset);
+            if (depth == 0.0) {
+                shallowKeyset = keyset;
+            }
+            deepKeyset = keyset;
+            deepOffset = offset;
+        }
+
+        System.out.printf("keyset deep/shallow ratio: %.2f%n", deepKeyset / shallowKeyset);
+        assertThat(deepKeyset).isLessThan(deepOffset);
+    }
+
+    private static double averageMillis(Runnable query) {
+        // warm up the statement cache and the buffer pool before measuring
+        for (int i = 0; i < 3; i++) {
+            query.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+}
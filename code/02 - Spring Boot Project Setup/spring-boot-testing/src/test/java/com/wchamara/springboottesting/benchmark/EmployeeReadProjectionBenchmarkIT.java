@@ -0,0 +1,118 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an allocation and throughput benchmark for the reads behind GET /api/v1/employees and GET /api/v1/employees/{id}.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeReadProjectionBenchmarkIT -Dbenchmark.rows=2000 -Dbenchmark.iterations=2000
+ * <p>
+ * The "entity" path is what the reads did before: findAll and findById, which hydrate managed Employees
+ * and keep a dirty checking snapshot of each. The "projection" path is findAllProjected and findProjectedById,
+ * which build plain Employees from the columns. Both run in read-only transactions, as the service does.
+ * The heap allocated per call is read from the allocation counter of the benchmark thread, so it includes Hibernate and JDBC.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class EmployeeReadProjectionBenchmarkIT extends BaseIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000);
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2_000);
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAllInBatch();
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("read" + i + "@example.com")
+                    .build());
+        }
+        ids = employeeService.saveEmployees(employees).stream().map(Employee::getId).toList();
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("projections allocate less and are faster than managed entities for the list and get-by-id reads")
+    void entitiesVersusProjections() {
+        int listIterations = Math.max(1, ITERATIONS / 20);
+        Result listEntities = measure(listIterations, i -> readOnly.executeWithoutResult(status ->
+                assertThat(employeeRepository.findAll()).hasSize(ROWS)));
+        Result listProjections = measure(listIterations, i -> readOnly.executeWithoutResult(status ->
+                assertThat(employeeRepository.findAllProjected()).hasSize(ROWS)));
+        Result byIdEntities = measure(ITERATIONS, i -> readOnly.executeWithoutResult(status ->
+                assertThat(employeeRepository.findById(ids.get(i % ROWS))).isPresent()));
+        Result byIdProjections = measure(ITERATIONS, i -> readOnly.executeWithoutResult(status ->
+                assertThat(employeeRepository.findProjectedById(ids.get(i % ROWS))).isPresent()));
+
+        System.out.printf("%-10s %-11s %14s %12s%n", "read", "path", "bytes/call", "calls/s");
+        print("list", "entity", listEntities);
+        print("list", "projection", listProjections);
+        print("by id", "entity", byIdEntities);
+        print("by id", "projection", byIdProjections);
+
+        assertThat(listProjections.bytesPerCall()).isLessThan(listEntities.bytesPerCall());
+        assertThat(byIdProjections.bytesPerCall()).isLessThan(byIdEntities.bytesPerCall());
+    }
+
+    /**
+     * This method runs the read once as a warm-up for every measured call, and then measures the given number of calls.
+     */
+    private static Result measure(int iterations, IntConsumer read) {
+        for (int i = 0; i < iterations; i++) {
+            read.accept(i);
+        }
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            read.accept(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result((threads.getThreadAllocatedBytes(thread) - allocated) / iterations,
+                iterations / (elapsed / 1_000_000_000.0));
+    }
+
+    private static void print(String read, String path, Result result) {
+        System.out.printf("%-10s %-11s %14d %12.0f%n", read, path, result.bytesPerCall(), result.callsPerSecond());
+    }
+
+    private record Result(long bytesPerCall, double callsPerSecond) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.util.FileUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a serialization benchmark for the representations of the Employee API: JSON, Smile and CBOR.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeSerializationBenchmarkIT -Dbenchmark.sizes=1,100,10000 -Dbenchmark.iterations=200
+ * <p>
+ * The lists are made of the Employees of sample-data/user.json, repeated with their own ids and emails,
+ * so the names repeat the way real names do. The ObjectMappers are built like the ones of the HTTP message converters.
+ * For each format and list size it prints the bytes on the wire, and the time to encode and to decode the list.
+ */
+class EmployeeSerializationBenchmarkIT {
+
+    private static final int[] SIZES = Arrays.stream(System.getProperty("benchmark.sizes", "1,100,10000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+
+    private static final TypeReference<List<Employee>> LIST = new TypeReference<>() {
+    };
+
+    @Test
+    @DisplayName("Smile and CBOR are smaller on the wire than JSON")
+    void jsonVersusSmileVersusCbor() throws IOException {
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("json", Jackson2ObjectMapperBuilder.json().build());
+        formats.put("smile", Jackson2ObjectMapperBuilder.smile().build());
+        formats.put("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+
+        System.out.printf("%-7s %8s %12s %12s %12s%n", "format", "size", "bytes", "encode µs", "decode µs");
+        for (int size : SIZES) {
+            List<Employee> employees = employees(size);
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                Result result = measure(format.getValue(), employees);
+                results.put(format.getKey(), result);
+                System.out.printf("%-7s %8d %12d %12.1f %12.1f%n",
+                        format.getKey(), size, result.bytes(), result.encodeMicros(), result.decodeMicros());
+            }
+            assertThat(results.get("smile").bytes()).isLessThan(results.get("json").bytes());
+            assertThat(results.get("cbor").bytes()).isLessThan(results.get("json").bytes());
+        }
+    }
+
+    /**
+     * This method encodes and decodes the list once as a warm-up for every measured round trip, and then measures them.
+     */
+    private static Result measure(ObjectMapper objectMapper, List<Employee> employees) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(employees);
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(employees), LIST);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = objectMapper.writeValueAsBytes(employees);
+        }
+        double encode = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        List<Employee> decoded = null;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            decoded = objectMapper.readValue(bytes, LIST);
+        }
+        double decode = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+
+        assertThat(decoded).hasSize(employees.size());
+        assertThat(decoded.get(0).getId()).isEqualTo(employees.get(0).getId());
+        return new Result(bytes.length, encode, decode);
+    }
+
+    private static List<Employee> employees(int size) {
+        List<Employee> sample = FileUtil.readEmployees("sample-data/user.json");
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Employee employee = sample.get(i % sample.size());
+            employees.add(new Employee(1_000_000L + i, employee.getFirstName(), employee.getLastName(),
+                    "employee" + i + "@example.com"));
+        }
+        return employees;
+    }
+
+    private record Result(int bytes, double encodeMicros, double decodeMicros) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.SpringBootTestingApplication;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a scaling benchmark for the sharding of Employees across 1, 2 and 4 MySQL databases.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeShardingScalingBenchmarkIT -Dbenchmark.rows=200000 -Dbenchmark.shards=1,2,4
+ * <p>
+ * It starts four MySQL containers, and starts the application once for every number of shards, on empty databases.
+ * For each run it measures the throughput of EmployeeService.saveEmployees, which writes the shards in parallel,
+ * the latency of a lookup by name, which scans every shard in parallel, and the latency of a lookup by id, which goes to one shard.
+ * All containers share the CPUs and disks of one machine, so the numbers show the overhead and parallelism of the scatter-gather,
+ * not the capacity of separate database hosts.
+ */
+class EmployeeShardingScalingBenchmarkIT {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    private static final int LOOKUPS = Integer.getInteger("benchmark.lookups", 200);
+
+    private static final int[] SHARDS = Arrays.stream(System.getProperty("benchmark.shards", "1,2,4").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static final List<MySQLContainer<?>> containers = new ArrayList<>();
+
+    static {
+        int max = Arrays.stream(SHARDS).max().orElse(1);
+        for (int i = 0; i < max; i++) {
+            containers.add(new MySQLContainer<>(DockerImageName.parse("mysql:8.3.0"))
+                    .withPassword("example")
+                    .withUsername("root")
+                    .withDatabaseName("ems")
+                    .withUrlParam("rewriteBatchedStatements", "true"));
+        }
+        Startables.deepStart(containers).join();
+    }
+
+    @Test
+    @DisplayName("writes and scatter-gather reads scale with the number of shards")
+    void oneVersusTwoVersusFourShards() throws SQLException {
+        System.out.printf("%-7s %12s %14s %14s%n", "shards", "inserts/s", "by name ms", "by id ms");
+        for (int shards : SHARDS) {
+            dropTables();
+            try (ConfigurableApplicationContext application = start(shards)) {
+                EmployeeService employeeService = application.getBean(EmployeeService.class);
+
+                long start = System.nanoTime();
+                List<Employee> saved = employeeService.saveEmployees(employees());
+                double insertsPerSecond = ROWS / ((System.nanoTime() - start) / 1_000_000_000.0);
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    int row = ThreadLocalRandom.current().nextInt(ROWS);
+                    assertThat(employeeService.getEmployeeByName("First" + row, "Last" + row)).isPresent();
+                }
+                double byName = (System.nanoTime() - start) / 1_000_000.0 / LOOKUPS;
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    long id = saved.get(ThreadLocalRandom.current().nextInt(ROWS)).getId();
+                    assertThat(employeeService.getEmployeeById(id)).isPresent();
+                }
+                double byId = (System.nanoTime() - start) / 1_000_000.0 / LOOKUPS;
+
+                System.out.printf("%-7d %12.0f %14.2f %14.2f%n", shards, insertsPerSecond, byName, byId);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int shards) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", containers.get(0).getJdbcUrl());
+        properties.put("spring.datasource.username", containers.get(0).getUsername());
+        properties.put("spring.datasource.password", containers.get(0).getPassword());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("employees.sharding.enabled", true);
+        properties.put("employees.cache.enabled", false);
+        properties.put("employees.coalescing.enabled", false);
+        for (int shard = 1; shard < shards; shard++) {
+            MySQLContainer<?> container = containers.get(shard);
+            properties.put("employees.sharding.shards[" + (shard - 1) + "].url", container.getJdbcUrl());
+            properties.put("employees.sharding.shards[" + (shard - 1) + "].username", container.getUsername());
+            properties.put("employees.sharding.shards[" + (shard - 1) + "].password", container.getPassword());
+        }
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    private static List<Employee> employees() {
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("shard" + i + "@example.com")
+                    .build());
+        }
+        return employees;
+    }
+
+    /**
+     * This method empties every container, so each run starts on empty shards and its ids all carry their shard.
+     */
+    private static void dropTables() throws SQLException {
+        for (MySQLContainer<?> container : containers) {
+            try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS employees, employee_shards, employee_id_sequence");
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.SpringBootTestingApplication;
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.CursorCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This is a load test comparing request handling on platform threads with request handling on virtual threads.
+ * It is named *IT so it is not part of the default test run, and it needs a Java 21 JDK and the java21 profile:
+ * mvn test -Pjava21 -Dtest=EmployeeVirtualThreadsBenchmarkIT -Dbenchmark.connections=1000,5000,10000 -Dbenchmark.seconds=30
+ * Each connection is one client socket and one server socket in this JVM, so raise the open files limit first, e.g. ulimit -n 65536.
+ * <p>
+ * The application is started twice against the same MySQL container, once with spring.threads.virtual.enabled=false
+ * (Tomcat's pool of 200 platform threads) and once with it set to true. For every number of concurrent connections,
+ * each connection sends requests back to back: half of them GET /api/v1/employees/{id} for a hot set of ids,
+ * which is served from the cache, and half of them a keyset page, which blocks on JDBC.
+ * Throughput and p50/p99/p99.9 latency are measured after a warm-up.
+ */
+class EmployeeVirtualThreadsBenchmarkIT extends BaseIT {
+
+    private static final int[] CONNECTIONS = Arrays.stream(System.getProperty("benchmark.connections", "1000,5000,10000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    private static final long SECONDS = Long.getLong("benchmark.seconds", 20);
+
+    private static final long WARM_UP_SECONDS = Long.getLong("benchmark.warm-up-seconds", 5);
+
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 50);
+
+    private static final int ROWS = 10_000;
+
+    private static final int HOT_SET = 1_000;
+
+    @Test
+    @DisplayName("virtual threads keep up with more concurrent connections than platform threads")
+    void platformVersusVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+
+        System.out.printf("%-9s %12s %12s %10s %10s %10s %8s%n",
+                "threads", "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext application = start(virtual)) {
+                List<Long> ids = seed(application.getBean(EmployeeService.class));
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                for (int connections : CONNECTIONS) {
+                    Result result = drive(port, ids, connections);
+                    System.out.printf("%-9s %12d %12.0f %10.2f %10.2f %10.2f %8d%n", virtual ? "virtual" : "platform",
+                            connections, result.throughput(), result.p50(), result.p99(), result.p999(), result.errors());
+                    assertThat(result.requests()).isPositive();
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        int maxConnections = Arrays.stream(CONNECTIONS).max().orElse(0) + 1_000;
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .properties(Map.of(
+                        "spring.datasource.url", mySQLContainer.getJdbcUrl(),
+                        "spring.datasource.username", mySQLContainer.getUsername(),
+                        "spring.datasource.password", mySQLContainer.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size", POOL_SIZE,
+                        "spring.jpa.show-sql", false,
+                        "spring.threads.virtual.enabled", virtual,
+                        "server.port", 0,
+                        "server.tomcat.max-connections", maxConnections,
+                        "server.tomcat.accept-count", maxConnections))
+                .run();
+    }
+
+    private static List<Long> seed(EmployeeService employeeService) {
+        List<Employee> existing = employeeService.getEmployeesAfter(0, HOT_SET).getItems();
+        if (existing.size() == HOT_SET) {
+            return existing.stream().map(Employee::getId).toList();
+        }
+        List<Employee> employees = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            employees.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("load" + i + "@example.com")
+                    .build());
+        }
+        return employeeService.saveEmployees(employees).stream().limit(HOT_SET).map(Employee::getId).toList();
+    }
+
+    /**
+     * This method keeps the given number of connections busy for the configured time and collects the latency of every request
+     * that started after the warm-up.
+     */
+    private static Result drive(int port, List<Long> ids, int connections) throws Exception {
+        ExecutorService responses = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(responses)
+                .build();
+        try {
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARM_UP_SECONDS);
+            long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(SECONDS);
+            AtomicLong errors = new AtomicLong();
+            List<Connection> clients = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Connection connection = new Connection(client, port, ids, measureFrom, stopAt, errors);
+                clients.add(connection);
+                connection.next();
+            }
+            CompletableFuture.allOf(clients.stream().map(Connection::done).toArray(CompletableFuture[]::new))
+                    .get(SECONDS + WARM_UP_SECONDS + 60, TimeUnit.SECONDS);
+
+            long[] latencies = clients.stream().flatMapToLong(Connection::latencies).sorted().toArray();
+            return new Result(latencies.length, latencies.length / (double) SECONDS,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), errors.get());
+        } finally {
+            responses.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * One client connection that sends its next request as soon as the previous response has arrived.
+     */
+    private static final class Connection {
+
+        private final HttpClient client;
+        private final int port;
+        private final List<Long> ids;
+        private final long measureFrom;
+        private final long stopAt;
+        private final AtomicLong errors;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long[] latencies = new long[256];
+        private int count;
+
+        private Connection(HttpClient client, int port, List<Long> ids, long measureFrom, long stopAt, AtomicLong errors) {
+            this.client = client;
+            this.port = port;
+            this.ids = ids;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+            this.errors = errors;
+        }
+
+        private void next() {
+            long sent = System.nanoTime();
+            if (sent >= stopAt) {
+                done.complete(null);
+                return;
+            }
+            client.sendAsync(request(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long received = System.nanoTime();
+                if (failure != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else if (sent >= measureFrom) {
+                    record(received - sent);
+                }
+                next();
+            });
+        }
+
+        private HttpRequest request() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long id = ids.get(random.nextInt(ids.size()));
+            String path = random.nextBoolean()
+                    ? "/api/v1/employees/" + id
+                    : "/api/v1/employees?limit=20&after=" + CursorCodec.encode(id);
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        private CompletableFuture<Void> done() {
+            return done;
+        }
+
+        private LongStream latencies() {
+            return Arrays.stream(latencies, 0, count);
+        }
+    }
+
+    private record Result(long requests, double throughput, double p50, double p99, double p999, long errors) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.wchamara.springboottesting.benchmark;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.integration.BaseIT;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.service.impl.EmployeeServiceImpl;
+import com.wchamara.springboottesting.service.impl.WriteBehindEmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is a latency and throughput benchmark for single Employee creates under concurrency.
+ * It is named *IT so it is not part of the default test run; run it with
+ * mvn test -Dtest=EmployeeWriteBehindBenchmarkIT -Dbenchmark.requests=20000 -Dbenchmark.callers=64
+ * <p>
+ * The "before" path is what POST /api/v1/employees does by default: every create is its own transaction and INSERT.
+ * The "after" path sends the same creates through a WriteBehindEmployeeService, which saves them in batches.
+ * Both paths are called from the same number of concurrent callers, and the latency of every create is recorded.
+ */
+@SpringBootTest
+class EmployeeWriteBehindBenchmarkIT extends BaseIT {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+    private static final int CALLERS = Integer.getInteger("benchmark.callers", 64);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeServiceImpl employeeServiceImpl;
+
+    @Autowired
+    private EmployeeProperties employeeProperties;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("write-behind creates have a higher throughput than one transaction per create")
+    void perRequestVersusWriteBehindCreates() throws Exception {
+        Result perRequest = run("direct", employeeServiceImpl);
+        employeeRepository.deleteAllInBatch();
+
+        Result writeBehind;
+        try (WriteBehindEmployeeService service = new WriteBehindEmployeeService(
+                employeeServiceImpl, employeeProperties.getWriteBehind(), new SimpleMeterRegistry())) {
+            writeBehind = run("buffered", service);
+        }
+
+        System.out.printf("%-14s %12s %10s %10s%n", "path", "creates/s", "p50 ms", "p99 ms");
+        perRequest.print("per-request");
+        writeBehind.print("write-behind");
+
+        assertThat(employeeRepository.count()).isEqualTo(REQUESTS);
+        assertThat(writeBehind.throughput()).isGreaterThan(perRequest.throughput());
+    }
+
+    private static Result run(String prefix, EmployeeService employeeService) throws Exception {
+        long[] latencies = new long[REQUESTS];
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                int request = i;
+                done.add(callers.submit(() -> {
+                    long sent = System.nanoTime();
+                    employeeService.saveEmployee(Employee.builder()
+                            .firstName("First" + request)
+                            .lastName("Last" + request)
+                            .email(prefix + request + "@example.com")
+                            .build());
+                    latencies[request] = System.nanoTime() - sent;
+                }));
+            }
+            for (Future<?> request : done) {
+                request.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            Arrays.sort(latencies);
+            return new Result(REQUESTS / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99));
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private record Result(double throughput, double p50, double p99) {
+
+        void print(String path) {
+            System.out.printf("%-14s %12.0f %10.2f %10.2f%n", path, throughput, p50, p99);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.wchamara.springboottesting.controller;
+
+import com.wchamara.springboottesting.exception.LocalInfileUnavailableException;
+import com.wchamara.springboottesting.util.EmployeeLoader;
+import com.wchamara.springboottesting.util.EmployeeLocalInfileLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This class is a test class for the EmployeeAdminController.
+ * It mocks the EmployeeLoader and the EmployeeLocalInfileLoader to isolate the controller and uses the MockMvc to upload Employee files.
+ */
+@WebMvcTest(EmployeeAdminController.class)
+class EmployeeAdminControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeLoader employeeLoader;
+
+    @MockBean
+    private EmployeeLocalInfileLoader employeeLocalInfileLoader;
+
+    @Test
+    @DisplayName("an uploaded Employee file is loaded and the outcome is returned")
+    void givenEmployeeFile_whenImport_thenReturnLoadResult() throws Exception {
+        // given - precondition or setup
+        String json = "{\"users\": [{\"firstName\": \"John\", \"lastName\": \"Doe\", \"email\": \"john@gmail.com\"}]}";
+        EmployeeLoader.FailedChunk failed = new EmployeeLoader.FailedChunk(2, 1000, 3, "Lock wait timeout exceeded");
+        given(employeeLoader.load(any(InputStream.class)))
+                .willReturn(new EmployeeLoader.LoadResult(2000, 1000, List.of(failed), Duration.ofSeconds(2)));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/admin/employees/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json));
+
+        // then verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows", is(1000)))
+                .andExpect(jsonPath("$.parsed", is(2000)))
+                .andExpect(jsonPath("$.rowsPerSecond", is(500.0)))
+                .andExpect(jsonPath("$.failedChunks[0].number", is(2)))
+                .andExpect(jsonPath("$.failedChunks[0].attempts", is(3)));
+        ArgumentCaptor<InputStream> body = ArgumentCaptor.forClass(InputStream.class);
+        verify(employeeLoader).load(body.capture());
+        assertThat(new String(body.getValue().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("an uploaded CSV file is loaded with LOAD DATA LOCAL INFILE in local-infile mode")
+    void givenCsvFile_whenImportWithLocalInfile_thenLoadAsCsv() throws Exception {
+        // given - precondition or setup
+        String csv = "first_name,last_name,email\nJohn,Doe,john@gmail.com\n";
+        given(employeeLocalInfileLoader.load(any(InputStream.class), eq(EmployeeLocalInfileLoader.Format.CSV)))
+                .willReturn(new EmployeeLoader.LoadResult(1, 1, List.of(), Duration.ofMillis(10)));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/admin/employees/import")
+                .param("mode", "local-infile")
+                .contentType("text/csv")
+                .content(csv));
+
+        // then verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows", is(1)))
+                .andExpect(jsonPath("$.failedChunks.length()", is(0)));
+        ArgumentCaptor<InputStream> body = ArgumentCaptor.forClass(InputStream.class);
+        verify(employeeLocalInfileLoader).load(body.capture(), eq(EmployeeLocalInfileLoader.Format.CSV));
+        assertThat(new String(body.getValue().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+    }
+
+    @Test
+    @DisplayName("local-infile mode is answered with a 409 while the Employees are sharded")
+    void givenSharding_whenImportWithLocalInfile_thenReturnConflict() throws Exception {
+        // given - precondition or setup
+        given(employeeLocalInfileLoader.load(any(InputStream.class), eq(EmployeeLocalInfileLoader.Format.CSV)))
+                .willThrow(new LocalInfileUnavailableException("LOAD DATA LOCAL INFILE can not load sharded Employees"));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/admin/employees/import")
+                .param("mode", "local-infile")
+                .contentType("text/csv")
+                .content("first_name,last_name,email\nJohn,Doe,john@gmail.com\n"));
+
+        // then verify the output
+        response.andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("a file of an unsupported type is rejected in local-infile mode")
+    void givenXmlFile_whenImportWithLocalInfile_thenReturnUnsupportedMediaType() throws Exception {
+        // given - precondition or setup
+        String xml = "<users/>";
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(post("/api/v1/admin/employees/import")
+                .param("mode", "local-infile")
+                .contentType(MediaType.APPLICATION_XML)
+                .content(xml));
+
+        // then verify the output
+        response.andExpect(status().isUnsupportedMediaType());
+    }
+}
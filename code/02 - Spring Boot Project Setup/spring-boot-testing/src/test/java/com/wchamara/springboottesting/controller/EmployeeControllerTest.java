@@ -1,8 +1,19 @@
 package com.wchamara.springboottesting.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.wchamara.springboottesting.config.BinaryFormatsConfiguration;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottesting.exception.ResourceNotFoundException;
+import com.wchamara.springboottesting.exception.ServiceBusyException;
 import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
 import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.util.CursorCodec;
 import com.wchamara.springboottesting.util.FileUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,18 +22,27 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.aMapWithSize;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -87,10 +107,68 @@ class EmployeeControllerTest {
                 );
     }
 
+    @Test
+    @DisplayName("Employee creation with a taken email returns conflict")
+    void givenTakenEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        // given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exists with given email : " + employee.getEmail(), null));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee))
+        );
+
+        // then verify the output
+        response.andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Employee creation while the write-behind buffer is full returns service unavailable")
+    void givenFullBuffer_whenCreateEmployee_thenReturnServiceUnavailable() throws Exception {
+        // given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class)))
+                .willThrow(new ServiceBusyException("Too many Employees are waiting to be saved, please try again later"));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee))
+        );
+
+        // then verify the output
+        response.andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("Batch Employee creation succeeds")
+    void givenEmployees_whenCreateEmployees_thenEmployeesAreCreated() throws Exception {
+        // given - precondition or setup
+        Employee other = Employee.builder().firstName("Jane").lastName("Doe").email("jane.doe@gmail.com").build();
+        given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(
+                post("/api/v1/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(employee, other)))
+        );
+
+        // then verify the output
+        response.andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())))
+                .andExpect(jsonPath("$[1].email", is(other.getEmail())));
+    }
+
     @Test
     @DisplayName("get all Employees")
     void givenEmployees_whenGetAllEmployees_thenReturnJsonArray() throws Exception {
         // given
+        when(employeeService.getEmployeeListVersion()).thenReturn(new EmployeeListVersion(1, 0, 1, Instant.parse("2024-05-01T10:15:30Z")));
         when(employeeService.getAllEmployees()).thenReturn(List.of(employee));
 
         // when
@@ -105,7 +183,173 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$[0].lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$[0].email", is(employee.getEmail()))).andDo(
                         print()
-                );
+                )
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-1\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 May 2024 10:15:30 GMT"));
+    }
+
+    @Test
+    @DisplayName("get all Employees with the ETag or the Last-Modified of the current list returns Not Modified without loading it")
+    void givenCurrentListValidators_whenGetAllEmployees_thenReturnNotModified() throws Exception {
+        // given
+        when(employeeService.getEmployeeListVersion()).thenReturn(new EmployeeListVersion(1, 0, 1, Instant.parse("2024-05-01T10:15:30Z")));
+
+        // when
+        ResultActions byETag = mockMvc.perform(
+                get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-1\"")
+        );
+        ResultActions byLastModified = mockMvc.perform(
+                get("/api/v1/employees")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 May 2024 10:15:30 GMT")
+        );
+
+        // then
+        byETag.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        byLastModified.andExpect(status().isNotModified());
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    @DisplayName("get all Employees with the ETag of an older list returns the list")
+    void givenStaleETag_whenGetAllEmployees_thenReturnJsonArray() throws Exception {
+        // given
+        when(employeeService.getEmployeeListVersion()).thenReturn(new EmployeeListVersion(2, 0, 2, Instant.parse("2024-05-01T10:15:31Z")));
+        when(employeeService.getAllEmployees()).thenReturn(List.of(employee));
+
+        // when
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-1\"")
+        );
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", is(employee.getEmail())))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-0-2\""));
+    }
+
+    @Test
+    @DisplayName("get a page of Employees after a cursor")
+    void givenCursorAndLimit_whenGetEmployeesPage_thenReturnPage() throws Exception {
+        // given
+        String cursor = CursorCodec.encode(41L);
+        when(employeeService.getEmployeesAfter(41L, 1)).thenReturn(new CursorPage<>(List.of(employee), CursorCodec.encode(42L)));
+
+        // when
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .param("after", cursor)
+                        .param("limit", "1")
+        );
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].firstName", is(employee.getFirstName())))
+                .andExpect(jsonPath("$.items[0].email", is(employee.getEmail())))
+                .andExpect(jsonPath("$.nextCursor", is(CursorCodec.encode(42L))));
+    }
+
+    @Test
+    @DisplayName("get a page of Employees with an invalid cursor")
+    void givenInvalidCursor_whenGetEmployeesPage_thenReturnBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .param("after", "not-a-cursor")
+                        .param("limit", "10")
+        );
+
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).getEmployeesAfter(ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("get all Employees with only the selected fields")
+    void givenFields_whenGetAllEmployees_thenReturnOnlySelectedFields() throws Exception {
+        // given
+        Set<EmployeeField> fields = Set.of(EmployeeField.ID, EmployeeField.EMAIL);
+        Employee sparse = Employee.builder().id(7L).email("new@gmail.com").build();
+        when(employeeService.getAllEmployees(fields)).thenReturn(List.of(sparse));
+
+        // when
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .param("fields", "id,email")
+        );
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(jsonPath("$[0].email", is("new@gmail.com")));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @Test
+    @DisplayName("get an Employee by id with only the selected fields")
+    void givenFields_whenGetEmployeeById_thenReturnOnlySelectedFields() throws Exception {
+        // given
+        Set<EmployeeField> fields = Set.of(EmployeeField.FIRST_NAME);
+        Employee sparse = Employee.builder().firstName("John").build();
+        when(employeeService.getEmployeeById(1L, fields)).thenReturn(Optional.of(sparse));
+
+        // when
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees/{id}", 1L)
+                        .param("fields", "firstName")
+        );
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(content().json("{\"firstName\":\"John\"}", true));
+    }
+
+    @Test
+    @DisplayName("get all Employees with an unknown field")
+    void givenUnknownField_whenGetAllEmployees_thenReturnBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .param("fields", "id,salary")
+        );
+
+        response.andExpect(status().isBadRequest());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("get a page of Employees with only the selected fields")
+    void givenFieldsAndLimit_whenGetEmployeesPage_thenReturnBadRequest() throws Exception {
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees")
+                        .param("fields", "id,email")
+                        .param("limit", "50")
+        );
+
+        response.andExpect(status().isBadRequest());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("export all Employees as newline delimited JSON")
+    void givenEmployees_whenExportEmployees_thenReturnNdjson() throws Exception {
+        // given
+        Employee other = new Employee(2L, "Jane", "Doe", "jane.doe@gmail.com");
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(other);
+            return null;
+        }).when(employeeService).streamAllEmployees(ArgumentMatchers.any());
+
+        // when
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/export"));
+
+        // then
+        response.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(employee) + "\n"
+                        + objectMapper.writeValueAsString(other) + "\n"));
     }
 
     @Test
@@ -137,6 +381,35 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @Test
+    @DisplayName("Given existing email, then return Employee")
+    void givenExistingEmail_thenReturnEmployee() throws Exception {
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees/search")
+                        .param("email", employee.getEmail())
+        );
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    @Test
+    @DisplayName("Given existing name, then return Employee")
+    void givenExistingName_thenReturnEmployee() throws Exception {
+        given(employeeService.getEmployeeByName(employee.getFirstName(), employee.getLastName())).willReturn(Optional.of(employee));
+
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees/search")
+                        .param("firstName", employee.getFirstName())
+                        .param("lastName", employee.getLastName())
+        );
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
     @Test
     @DisplayName("Given invalid ID, then return not found")
     void givenInvalidId_thenReturnNotFound() throws Exception {
@@ -154,7 +427,6 @@ class EmployeeControllerTest {
     @DisplayName("Given valid ID and Employee, then return updated Employee")
     void givenValidIdAndEmployee_thenReturnUpdatedEmployee() throws Exception {
         Employee updated = new Employee(1L, "UpdatedFirstName", "UpdatedLastName", "updated@gmail.com");
-        given(employeeService.getEmployeeById(ArgumentMatchers.anyLong())).willReturn(Optional.of(employee));
         given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Employee.class))).willReturn(updated);
 
         ResultActions response = mockMvc.perform(
@@ -174,7 +446,8 @@ class EmployeeControllerTest {
     void givenInvalidEmployeeId_thenReturnNotFound() throws Exception {
         long wrongId = 999L;
         Employee employee = new Employee(1L, "UpdatedFirstName", "UpdatedLastName", "updated@gmail.com");
-        given(employeeService.getEmployeeById(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
+        given(employeeService.updateEmployee(ArgumentMatchers.anyLong(), ArgumentMatchers.any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee not found with id : " + wrongId));
 
         ResultActions response = mockMvc.perform(
                 put("/api/v1/employees/{id}", wrongId)
@@ -188,9 +461,6 @@ class EmployeeControllerTest {
     @Test
     @DisplayName("Given valid ID, then delete Employee")
     void givenValidId_thenDeleteEmployee() throws Exception {
-        Employee employee = new Employee(1L, "John", "Doe", "john.doe@gmail.com");
-        given(employeeService.getEmployeeById(ArgumentMatchers.anyLong())).willReturn(Optional.of(employee));
-
         ResultActions response = mockMvc.perform(
                 delete("/api/v1/employees/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -198,12 +468,14 @@ class EmployeeControllerTest {
 
         response.andExpect(status().isOk());
         verify(employeeService, times(1)).deleteEmployeeById(ArgumentMatchers.anyLong());
+        verify(employeeService, never()).getEmployeeById(ArgumentMatchers.anyLong());
     }
 
     @Test
     @DisplayName("Given invalid ID, then return not found")
     void givenInvalidId_whenDeleteEmployee_thenReturnNotFound() throws Exception {
-        given(employeeService.getEmployeeById(ArgumentMatchers.anyLong())).willReturn(Optional.empty());
+        doThrow(new ResourceNotFoundException("Employee not found with id : 999"))
+                .when(employeeService).deleteEmployeeById(ArgumentMatchers.anyLong());
 
         ResultActions response = mockMvc.perform(
                 delete("/api/v1/employees/999")
@@ -211,7 +483,187 @@ class EmployeeControllerTest {
         );
 
         response.andExpect(status().isNotFound());
-        verify(employeeService, times(0)).deleteEmployeeById(ArgumentMatchers.anyLong());
+        verify(employeeService, times(1)).deleteEmployeeById(ArgumentMatchers.anyLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Given the ETag of the Employee, then return Not Modified")
+    void givenCurrentETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@gmail.com")
+                .version(3L).lastModified(Instant.parse("2024-05-01T10:15:30Z")).build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        ResultActions current = mockMvc.perform(
+                get("/api/v1/employees/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+        );
+        ResultActions stale = mockMvc.perform(
+                get("/api/v1/employees/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+        );
+        ResultActions notModifiedSince = mockMvc.perform(
+                get("/api/v1/employees/{id}", 1L)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 May 2024 10:15:30 GMT")
+        );
+
+        // then verify the output
+        current.andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        stale.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 May 2024 10:15:30 GMT"))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        notModifiedSince.andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Given Accept of Smile or CBOR, then return Employee in that format")
+    void givenBinaryAccept_whenGetEmployeeById_thenReturnBinaryEmployee() throws Exception {
+        // given - precondition or setup
+        Employee employee = new Employee(1L, "John", "Doe", "john.doe@gmail.com");
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        for (ObjectMapper binary : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            MediaType mediaType = binary.getFactory() instanceof SmileFactory
+                    ? BinaryFormatsConfiguration.APPLICATION_SMILE
+                    : MediaType.APPLICATION_CBOR;
+
+            // when action or the behaviour we are going to test
+            ResultActions response = mockMvc.perform(
+                    get("/api/v1/employees/{id}", 1L)
+                            .accept(mediaType)
+            );
+
+            // then verify the output
+            response.andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(mediaType))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+            JsonNode node = binary.readTree(response.andReturn().getResponse().getContentAsByteArray());
+            assertThat(node.get("id").asLong()).isEqualTo(1L);
+            assertThat(node.get("email").asText()).isEqualTo("john.doe@gmail.com");
+        }
+    }
+
+    @Test
+    @DisplayName("Given Accept of Smile or CBOR and the ETag of the Employee, then return Not Modified")
+    void givenBinaryAcceptAndCurrentETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@gmail.com")
+                .version(3L).lastModified(Instant.parse("2024-05-01T10:15:30Z")).build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        for (Map.Entry<MediaType, String> format : Map.of(BinaryFormatsConfiguration.APPLICATION_SMILE, "\"3-smile\"",
+                MediaType.APPLICATION_CBOR, "\"3-cbor\"").entrySet()) {
+            MediaType mediaType = format.getKey();
+            String eTag = format.getValue();
+
+            // when action or the behaviour we are going to test
+            ResultActions current = mockMvc.perform(
+                    get("/api/v1/employees/{id}", 1L)
+                            .accept(mediaType)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            );
+            ResultActions stale = mockMvc.perform(
+                    get("/api/v1/employees/{id}", 1L)
+                            .accept(mediaType)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag.replace('3', '2'))
+            );
+            ResultActions notModifiedSince = mockMvc.perform(
+                    get("/api/v1/employees/{id}", 1L)
+                            .accept(mediaType)
+                            .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 May 2024 10:15:30 GMT")
+            );
+
+            // then verify the output
+            current.andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().string(""));
+            stale.andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(mediaType))
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 May 2024 10:15:30 GMT"));
+            notModifiedSince.andExpect(status().isNotModified());
+        }
+    }
+
+    @Test
+    @DisplayName("Given Accept of Smile and the ETag of the JSON representation, then return the Employee")
+    void givenSmileAcceptAndJsonETag_whenGetEmployeeById_thenReturnEmployee() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@gmail.com")
+                .version(3L).lastModified(Instant.parse("2024-05-01T10:15:30Z")).build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(
+                get("/api/v1/employees/{id}", 1L)
+                        .accept(BinaryFormatsConfiguration.APPLICATION_SMILE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+        );
+
+        // then verify the output
+        response.andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(BinaryFormatsConfiguration.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-smile\""));
+    }
+
+    @Test
+    @DisplayName("Given Accept of JSON or none, then return JSON that varies by Accept")
+    void givenJsonOrNoAccept_whenGetEmployeeById_thenReturnJsonVaryingByAccept() throws Exception {
+        // given - precondition or setup
+        Employee employee = new Employee(1L, "John", "Doe", "john.doe@gmail.com");
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        ResultActions json = mockMvc.perform(get("/api/v1/employees/{id}", 1L).accept(MediaType.APPLICATION_JSON));
+        ResultActions any = mockMvc.perform(get("/api/v1/employees/{id}", 1L));
+
+        // then verify the output
+        for (ResultActions response : List.of(json, any)) {
+            response.andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                    .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        }
+    }
+
+    @Test
+    @DisplayName("Given Accept of a format that is not served, then return Not Acceptable")
+    void givenXmlAccept_whenGetEmployeeById_thenReturnNotAcceptable() throws Exception {
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(get("/api/v1/employees/{id}", 1L).accept(MediaType.APPLICATION_XML));
+
+        // then verify the output
+        response.andExpect(status().isNotAcceptable());
+        verify(employeeService, never()).getEmployeeById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Given Smile or CBOR body, then create Employee and answer in JSON by default")
+    void givenBinaryBody_whenCreateEmployee_thenEmployeeIsCreated() throws Exception {
+        // given - precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        for (ObjectMapper binary : List.of(new ObjectMapper(new SmileFactory()), new ObjectMapper(new CBORFactory()))) {
+            MediaType mediaType = binary.getFactory() instanceof SmileFactory
+                    ? BinaryFormatsConfiguration.APPLICATION_SMILE
+                    : MediaType.APPLICATION_CBOR;
+
+            // when action or the behaviour we are going to test
+            ResultActions response = mockMvc.perform(
+                    post("/api/v1/employees")
+                            .contentType(mediaType)
+                            .content(binary.writeValueAsBytes(employee))
+            );
+
+            // then verify the output
+            response.andExpect(status().isCreated())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.wchamara.springboottesting.datasource;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.util.SqlFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * This class is used to test the StatementProfilingDataSource class.
+ * It uses Mockito to mock the JDBC objects of the target DataSource, and reads what was recorded back from a real StatementRecorder.
+ */
+@ExtendWith(MockitoExtension.class)
+class StatementProfilingDataSourceTest {
+
+    private static final String SQL = "SELECT * FROM employees e WHERE e.first_name = ? AND e.last_name = ?";
+
+    /**
+     * A mock of the DataSource whose statements are profiled.
+     */
+    @Mock
+    private DataSource target;
+
+    /**
+     * A mock of the connection of the target.
+     */
+    @Mock
+    private Connection connection;
+
+    /**
+     * A mock of the statement prepared on the connection.
+     */
+    @Mock
+    private PreparedStatement statement;
+
+    /**
+     * The registry the statement metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The recorder the profiled statements are recorded in, which logs every statement as slow.
+     */
+    private StatementRecorder recorder;
+
+    /**
+     * The StatementProfilingDataSource to test.
+     */
+    private StatementProfilingDataSource underTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EmployeeProperties.Sql settings = new EmployeeProperties.Sql();
+        settings.setSlowThreshold(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new StatementRecorder(settings, meterRegistry);
+        underTest = new StatementProfilingDataSource(target, recorder);
+        given(target.getConnection()).willReturn(connection);
+        given(connection.prepareStatement(SQL)).willReturn(statement);
+    }
+
+    @Test
+    @DisplayName("a query is recorded by its fingerprint with the rows read, once its result set is closed")
+    void givenQuery_whenResultSetClosed_thenRecordedWithRows() throws Exception {
+        // given - precondition or setup
+        ResultSet resultSet = mock(ResultSet.class);
+        given(statement.executeQuery()).willReturn(resultSet);
+        given(resultSet.next()).willReturn(true, true, false);
+
+        // when action or the behaviour we are going to test
+        try (Connection profiled = underTest.getConnection();
+             PreparedStatement prepared = profiled.prepareStatement(SQL);
+             ResultSet rows = prepared.executeQuery()) {
+            while (rows.next()) {
+                assertThat(recorder.top(10)).isEmpty();
+            }
+        }
+
+        // then verify the output
+        List<StatementRecorder.StatementStatistics> top = recorder.top(10);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).fingerprint()).isEqualTo("select * from employees e where e.first_name = ? and e.last_name = ?");
+        assertThat(top.get(0).count()).isEqualTo(1);
+        assertThat(top.get(0).rows()).isEqualTo(2);
+        assertThat(meterRegistry.get(StatementRecorder.TIMER).tag("kind", "select").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(StatementRecorder.LOGGED_COUNTER).tag("reason", "slow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("an update is recorded with its update count, and unwrap reaches the statement of the driver")
+    void givenUpdate_whenExecuteUpdate_thenRecordedWithUpdateCount() throws Exception {
+        // given - precondition or setup
+        JdbcStatement driverStatement = mock(JdbcStatement.class);
+        given(statement.executeUpdate()).willReturn(3);
+        given(statement.unwrap(JdbcStatement.class)).willReturn(driverStatement);
+
+        // when action or the behaviour we are going to test
+        try (Connection profiled = underTest.getConnection();
+             PreparedStatement prepared = profiled.prepareStatement(SQL)) {
+            assertThat(prepared.unwrap(JdbcStatement.class)).isSameAs(driverStatement);
+            assertThat(prepared.executeUpdate()).isEqualTo(3);
+            assertThat(prepared.getConnection()).isSameAs(profiled);
+        }
+
+        // then verify the output
+        assertThat(recorder.top(10).get(0).rows()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("a prepared statement is fingerprinted once, when it is prepared, however often it is executed")
+    void givenPreparedStatement_whenExecutedThreeTimes_thenFingerprintedOnce() throws Exception {
+        // given - precondition or setup
+        given(statement.executeUpdate()).willReturn(1);
+
+        // when action or the behaviour we are going to test
+        try (MockedStatic<SqlFingerprint> fingerprints = mockStatic(SqlFingerprint.class, CALLS_REAL_METHODS)) {
+            try (Connection profiled = underTest.getConnection();
+                 PreparedStatement prepared = profiled.prepareStatement(SQL)) {
+                for (int i = 0; i < 3; i++) {
+                    prepared.executeUpdate();
+                }
+            }
+
+            // then verify the output
+            fingerprints.verify(() -> SqlFingerprint.of(SQL));
+        }
+        assertThat(recorder.top(10).get(0).count()).isEqualTo(3);
+    }
+}
@@ -18,6 +18,8 @@ public abstract class BaseIT {
                 .withPassword("example")
                 .withUsername("root")
                 .withDatabaseName("ems")
+                .withUrlParam("rewriteBatchedStatements", "true")
+                .withCommand("--local-infile=1")
                 .withLogConsumer(new Slf4jLogConsumer(logger));
         mySQLContainer.start();
     }
@@ -0,0 +1,77 @@
+package com.wchamara.springboottesting.integration;
+
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an integration test for concurrent Employee creation.
+ * It fires many POST requests with the same email at the same time against a real MySQL database,
+ * and checks that the unique email index lets exactly one of them through and turns the others into 409 Conflict.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmployeeConcurrentCreateITest extends BaseIT {
+
+    private static final int REQUESTS = 20;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("concurrent creates with the same email create one Employee")
+    void givenParallelCreatesWithSameEmail_whenCreateEmployee_thenOnlyOneIsCreated() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("NewFirstName")
+                .lastName("NewLastName")
+                .email("same@gmail.com")
+                .build();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+
+        // when action or the behaviour we are going to test
+        List<Future<HttpStatusCode>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.postForEntity("/api/v1/employees", employee, String.class).getStatusCode();
+            }));
+        }
+        start.countDown();
+        List<HttpStatusCode> statuses = new ArrayList<>();
+        for (Future<HttpStatusCode> response : responses) {
+            statuses.add(response.get());
+        }
+        executor.shutdown();
+
+        // then verify the output
+        assertThat(statuses).filteredOn(status -> status.equals(HttpStatus.CREATED)).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status.equals(HttpStatus.CONFLICT)).hasSize(REQUESTS - 1);
+        assertThat(employeeRepository.findByEmail("same@gmail.com")).isPresent();
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+}
@@ -10,15 +10,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -154,6 +159,74 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.email", is(updated.getEmail())));
     }
 
+    @Test
+    @DisplayName("get employee by id after update integration returns the update, in JSON and gzip-compressed JSON")
+    void givenCachedEmployee_whenUpdateEmployeeById_thenGetEmployeeByIdReturnsUpdate() throws Exception {
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("NewFirstName")
+                .lastName("NewLastName")
+                .email("new@gmail.com")
+                .build());
+        mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()))
+                .andExpect(jsonPath("$.email", is("new@gmail.com")));
+        Employee updated = Employee.builder()
+                .firstName("UpdatedFirstName")
+                .lastName("UpdatedLastName")
+                .email("Updatednew@gmail.com")
+                .build();
+
+        mockMvc.perform(
+                put("/api/v1/employees/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updated))
+        ).andExpect(status().isOk());
+        ResultActions json = mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()));
+        ResultActions gzip = mockMvc.perform(
+                get("/api/v1/employees/{id}", employee.getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        );
+
+        json.andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(updated.getEmail())));
+        gzip.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(
+                gzip.andReturn().getResponse().getContentAsByteArray()))) {
+            assertThat(objectMapper.readTree(in).get("email").asText()).isEqualTo(updated.getEmail());
+        }
+    }
+
+    @Test
+    @DisplayName("conditional get of an employee and of the list integration returns Not Modified until an update")
+    void givenETags_whenUpdateEmployeeById_thenConditionalGetsReturnTheUpdate() throws Exception {
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("NewFirstName")
+                .lastName("NewLastName")
+                .email("new@gmail.com")
+                .build());
+        String employeeETag = mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String listETag = mockMvc.perform(get("/api/v1/employees"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()).header(HttpHeaders.IF_NONE_MATCH, employeeETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/employees").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(
+                put("/api/v1/employees/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"UpdatedFirstName\"}")
+        ).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/employees/{id}", employee.getId()).header(HttpHeaders.IF_NONE_MATCH, employeeETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is("UpdatedFirstName")));
+        mockMvc.perform(get("/api/v1/employees").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName", is("UpdatedFirstName")));
+    }
+
     @Test
     @DisplayName("update employee by id integration fails")
     void givenEmployee_whenUpdateEmployeeById_thenReturnUpdatedEmployeeFails() throws Exception {
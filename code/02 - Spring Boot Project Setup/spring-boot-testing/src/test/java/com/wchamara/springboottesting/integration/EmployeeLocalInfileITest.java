@@ -0,0 +1,65 @@
+package com.wchamara.springboottesting.integration;
+
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.util.EmployeeLoader;
+import com.wchamara.springboottesting.util.EmployeeLocalInfileLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an integration test for the LOAD DATA LOCAL INFILE import against a real MySQL database.
+ * It checks that quoted CSV values are unescaped, that rows with a taken email are skipped,
+ * and that the ids it allocates do not collide with the ones Hibernate takes from employee_id_sequence afterwards.
+ */
+@SpringBootTest
+class EmployeeLocalInfileITest extends BaseIT {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeLoader employeeLoader;
+
+    @Autowired
+    private EmployeeLocalInfileLoader employeeLocalInfileLoader;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("LOAD DATA LOCAL INFILE skips taken emails and keeps ids apart from the JPA generator")
+    void givenCsvWithDuplicateEmail_whenLoadWithLocalInfile_thenDuplicateIsSkippedAndIdsAreShared() throws IOException {
+        // given - precondition or setup
+        String csv = "email,first_name,last_name\r\n"
+                + "john@gmail.com,John,Doe\r\n"
+                + "\"jane@gmail.com\",\"Jane, Jr.\",\"Doe\"\r\n"
+                + "john@gmail.com,Johnny,Doe\r\n";
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = employeeLocalInfileLoader.load(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), EmployeeLocalInfileLoader.Format.CSV);
+        employeeLoader.load(new ByteArrayInputStream(
+                "{\"users\": [{\"firstName\": \"Jim\", \"lastName\": \"Doe\", \"email\": \"jim@gmail.com\"}]}"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        // then verify the output
+        assertThat(result.parsed()).isEqualTo(3);
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(employeeRepository.findByEmail("jane@gmail.com"))
+                .hasValueSatisfying(employee -> assertThat(employee.getFirstName()).isEqualTo("Jane, Jr."));
+        assertThat(employeeRepository.findByEmail("john@gmail.com"))
+                .hasValueSatisfying(employee -> assertThat(employee.getFirstName()).isEqualTo("John"));
+        assertThat(employeeRepository.count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wchamara.springboottesting.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * This is an integration test for the metrics of the Employee API, as Prometheus scrapes them from /actuator/prometheus.
+ * Spring Boot tests do not export metrics unless asked to, hence @AutoConfigureObservability.
+ * It also checks the statistics of the SQL statements, as the slowstatements endpoint lists them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class EmployeeMetricsITest extends BaseIT {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("the Prometheus endpoint exposes the endpoint, service, repository, pool and Hibernate metrics")
+    void givenEmployeeCalls_whenScrapePrometheus_thenMetricsOfEveryLayer() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder().firstName("Chamara").lastName("Weerasinghe").email("abc@gmail.com").build();
+        String created = mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readValue(created, Employee.class).getId();
+        mockMvc.perform(get("/api/v1/employees/{id}", id)).andExpect(status().isOk());
+        employeeRepository.findByJPQLQuery("Chamara", "Weerasinghe");
+        employeeRepository.findByNativeQueryWithNamedParameters("Chamara", "Weerasinghe");
+
+        // when action or the behaviour we are going to test
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then verify the output
+        List<String> lines = Arrays.asList(scrape.split("\n"));
+        assertThat(lines).anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket")
+                && line.contains("uri=\"/api/v1/employees/{id}\"") && line.contains("le=\"0.005\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("employees_service_seconds_count")
+                && line.contains("method=\"saveEmployee\"") && line.contains("exception=\"none\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("employees_service_seconds_bucket")
+                && line.contains("method=\"getEmployeeById\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("spring_data_repository_invocations_seconds_count")
+                && line.contains("method=\"findByJPQLQuery\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("spring_data_repository_invocations_seconds_count")
+                && line.contains("method=\"findByNativeQueryWithNamedParameters\""));
+        assertThat(lines).anyMatch(line -> line.startsWith("hikaricp_connections_acquire_seconds_bucket"));
+        assertThat(lines).anyMatch(line -> line.startsWith("hikaricp_connections_usage_seconds_count"));
+        assertThat(lines).anyMatch(line -> line.startsWith("hikaricp_connections_active"));
+        assertThat(lines).anyMatch(line -> line.startsWith("hibernate_statements_total"));
+        assertThat(lines).anyMatch(line -> line.startsWith("hibernate_entities_loads_total"));
+        assertThat(lines).anyMatch(line -> line.startsWith("hibernate_flushes_total"));
+    }
+
+    @Test
+    @DisplayName("the slowstatements endpoint lists the native name finder by its fingerprint")
+    void givenNativeQueries_whenGetSlowStatements_thenListedByFingerprint() throws Exception {
+        // given - precondition or setup
+        mockMvc.perform(delete("/actuator/slowstatements")).andExpect(status().is2xxSuccessful());
+        employeeRepository.findByNativeQueryWithNamedParameters("Chamara", "Weerasinghe");
+        employeeRepository.findByNativeQueryWithNamedParameters("Jane", "Doe");
+
+        // when action or the behaviour we are going to test
+        ResultActions response = mockMvc.perform(get("/actuator/slowstatements"));
+
+        // then verify the output
+        String fingerprint = "select * from employees e where e.first_name =? and e.last_name =?";
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].fingerprint", hasItem(fingerprint)))
+                .andExpect(jsonPath("$[?(@.fingerprint == '" + fingerprint + "')].count", hasItem(2)));
+    }
+}
@@ -0,0 +1,264 @@
+package com.wchamara.springboottesting.integration;
+
+import com.wchamara.springboottesting.datasource.ReadYourWritesFilter;
+import com.wchamara.springboottesting.datasource.ReplicaPool;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an integration test for the routing of read-only transactions to a replica.
+ * It starts two MySQL containers, a primary and a replica that replicates from it with GTID auto-positioning.
+ * The replica runs with super_read_only, so a write that is routed to it fails.
+ * The health check is only run by the tests, so they decide when the replica is taken out of the rotation.
+ * The caches are on, as they are by default, so the tests also cover that they never hold rows read from the lagging replica.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employees.routing.enabled=true",
+        "employees.routing.health-check-interval=1h"
+})
+class ReadWriteRoutingITest {
+
+    private static final MySQLContainer<?> primary;
+    private static final MySQLContainer<?> replica;
+
+    static {
+        Network network = Network.newNetwork();
+        primary = mySQLContainer(network, "primary", 1);
+        replica = mySQLContainer(network, "replica", 2);
+        Startables.deepStart(primary, replica).join();
+        startReplication();
+    }
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("employees.routing.replicas[0].url", replica::getJdbcUrl);
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        employeeRepository.deleteAllInBatch();
+        awaitReplication();
+        replicaPool.checkHealth();
+    }
+
+    @Test
+    @DisplayName("a read the caches do not hold is served by the replica")
+    void givenReplicatedEmployee_whenGetEmployeeByName_thenReadFromReplica() throws SQLException {
+        // given - precondition or setup
+        employeeRepository.save(newEmployee("replicated@gmail.com"));
+        awaitReplication();
+        double replicaReads = connections("replica-0");
+        double primaryReads = connections("primary");
+
+        // when action or the behaviour we are going to test
+        ResponseEntity<Employee> response = getEmployeeByName("John", new HttpHeaders());
+
+        // then verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getEmail()).isEqualTo("replicated@gmail.com");
+        assertThat(connections("replica-0")).isGreaterThan(replicaReads);
+        assertThat(connections("primary")).isEqualTo(primaryReads);
+    }
+
+    @Test
+    @DisplayName("a read that fills the caches is served by the primary")
+    void givenReplicatedEmployee_whenGetEmployeeById_thenReadFromPrimary() throws SQLException {
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(newEmployee("cached@gmail.com"));
+        awaitReplication();
+        double replicaReads = connections("replica-0");
+        double primaryReads = connections("primary");
+
+        // when action or the behaviour we are going to test
+        ResponseEntity<Employee> response = restTemplate.getForEntity("/api/v1/employees/{id}", Employee.class, employee.getId());
+
+        // then verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getEmail()).isEqualTo("cached@gmail.com");
+        assertThat(connections("primary")).isGreaterThan(primaryReads);
+        assertThat(connections("replica-0")).isEqualTo(replicaReads);
+    }
+
+    @Test
+    @DisplayName("a client that wrote reads its write while the replica lags, also after another client refilled the caches")
+    void givenUpdateWithPinCookie_whenGetEmployee_thenReadOwnWrite() throws SQLException {
+        // given - precondition or setup
+        Employee employee = employeeRepository.save(newEmployee("pinned@gmail.com"));
+        awaitReplication();
+        restTemplate.getForEntity("/api/v1/employees/{id}", Employee.class, employee.getId());
+        executeOnReplica("STOP REPLICA SQL_THREAD");
+        try {
+            Employee update = newEmployee("pinned@gmail.com");
+            update.setFirstName("Jane");
+            ResponseEntity<Employee> updated = restTemplate.exchange("/api/v1/employees/{id}", HttpMethod.PUT,
+                    new HttpEntity<>(update), Employee.class, employee.getId());
+            String pinCookie = updated.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(HttpHeaders.COOKIE, pinCookie.substring(0, pinCookie.indexOf(';')));
+
+            // when action or the behaviour we are going to test
+            ResponseEntity<Employee> refilledByOther = restTemplate.getForEntity("/api/v1/employees/{id}", Employee.class, employee.getId());
+            ResponseEntity<Employee> pinned = restTemplate.exchange("/api/v1/employees/{id}", HttpMethod.GET,
+                    new HttpEntity<>(headers), Employee.class, employee.getId());
+            ResponseEntity<Employee> pinnedSearch = getEmployeeByName("Jane", headers);
+            ResponseEntity<Employee> unpinnedSearch = getEmployeeByName("Jane", new HttpHeaders());
+
+            // then verify the output
+            assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(pinCookie).startsWith(ReadYourWritesFilter.PIN_COOKIE + "=");
+            assertThat(refilledByOther.getBody().getFirstName()).isEqualTo("Jane");
+            assertThat(pinned.getBody().getFirstName()).isEqualTo("Jane");
+            assertThat(pinnedSearch.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(unpinnedSearch.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        } finally {
+            executeOnReplica("START REPLICA SQL_THREAD");
+        }
+    }
+
+    @Test
+    @DisplayName("a replica whose replication stopped is ejected and reads go to the primary until it is healthy again")
+    void givenStoppedReplication_whenHealthCheck_thenReadFromPrimaryUntilHealthy() throws SQLException {
+        // given - precondition or setup
+        executeOnReplica("STOP REPLICA SQL_THREAD");
+        try {
+            employeeRepository.save(newEmployee("ejected@gmail.com"));
+
+            // when action or the behaviour we are going to test
+            replicaPool.checkHealth();
+            ResponseEntity<Employee> response = getEmployeeByName("John", new HttpHeaders());
+
+            // then verify the output
+            assertThat(replicaPool.getHealthyReplicas()).isEmpty();
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(meterRegistry.get("employees.routing.ejections").tag("replica", "replica-0").counter().count())
+                    .isGreaterThanOrEqualTo(1);
+        } finally {
+            executeOnReplica("START REPLICA SQL_THREAD");
+        }
+        awaitReplication();
+        replicaPool.checkHealth();
+        double replicaReads = connections("replica-0");
+        ResponseEntity<Employee> response = getEmployeeByName("John", new HttpHeaders());
+        assertThat(replicaPool.getHealthyReplicas()).containsExactly("replica-0");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(connections("replica-0")).isGreaterThan(replicaReads);
+    }
+
+    private ResponseEntity<Employee> getEmployeeByName(String firstName, HttpHeaders headers) {
+        return restTemplate.exchange("/api/v1/employees/search?firstName={firstName}&lastName=Doe", HttpMethod.GET,
+                new HttpEntity<>(headers), Employee.class, firstName);
+    }
+
+    private double connections(String target) {
+        Counter counter = meterRegistry.find("employees.routing.connections").tag("target", target).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Employee newEmployee(String email) {
+        return Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .build();
+    }
+
+    private static MySQLContainer<?> mySQLContainer(Network network, String alias, int serverId) {
+        return new MySQLContainer<>(DockerImageName.parse("mysql:8.3.0"))
+                .withPassword("example")
+                .withUsername("root")
+                .withDatabaseName("ems")
+                .withUrlParam("rewriteBatchedStatements", "true")
+                .withNetwork(network)
+                .withNetworkAliases(alias)
+                .withCommand("--server-id=" + serverId, "--gtid-mode=ON", "--enforce-gtid-consistency=ON");
+    }
+
+    /**
+     * This method makes the replica follow the primary from the primary's current position.
+     * Both containers created the ems database on their own, so the replica takes what the primary did so far as already applied.
+     */
+    private static void startReplication() {
+        try {
+            String executed = queryPrimary("SELECT @@GLOBAL.gtid_executed");
+            executeOnReplica("RESET BINARY LOGS AND GTIDS");
+            executeOnReplica("SET GLOBAL gtid_purged = '" + executed + "'");
+            executeOnReplica("CHANGE REPLICATION SOURCE TO SOURCE_HOST = 'primary', SOURCE_PORT = 3306, "
+                    + "SOURCE_USER = 'root', SOURCE_PASSWORD = 'example', SOURCE_AUTO_POSITION = 1, GET_SOURCE_PUBLIC_KEY = 1");
+            executeOnReplica("START REPLICA");
+            executeOnReplica("SET GLOBAL super_read_only = ON");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start the replication", e);
+        }
+    }
+
+    /**
+     * This method waits until the replica has applied everything the primary has committed.
+     */
+    private static void awaitReplication() throws SQLException {
+        String executed = queryPrimary("SELECT @@GLOBAL.gtid_executed");
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT WAIT_FOR_EXECUTED_GTID_SET('" + executed + "', 30)")) {
+            result.next();
+            assertThat(result.getInt(1)).as("replica caught up with the primary").isZero();
+        }
+    }
+
+    private static String queryPrimary(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(primary.getJdbcUrl(), primary.getUsername(), primary.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+
+    private static void executeOnReplica(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
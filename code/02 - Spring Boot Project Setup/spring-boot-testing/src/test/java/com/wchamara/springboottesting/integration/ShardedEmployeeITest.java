@@ -0,0 +1,232 @@
+package com.wchamara.springboottesting.integration;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.sharding.SnowflakeIdGenerator;
+import com.wchamara.springboottesting.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This is an integration test for the sharding of Employees.
+ * It starts three MySQL containers: shard 0, which spring.datasource.* points to and which holds the directory of the emails,
+ * and shards 1 and 2, which are listed under employees.sharding.shards.
+ * The tests look at the shards through plain JDBC to see where the rows went.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employees.sharding.enabled=true",
+        "employees.cache.enabled=false",
+        "employees.coalescing.enabled=false"
+})
+class ShardedEmployeeITest {
+
+    private static final List<MySQLContainer<?>> shards = List.of(mySQLContainer(), mySQLContainer(), mySQLContainer());
+
+    static {
+        Startables.deepStart(shards).join();
+    }
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void dynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", shards.get(0)::getJdbcUrl);
+        registry.add("spring.datasource.username", shards.get(0)::getUsername);
+        registry.add("spring.datasource.password", shards.get(0)::getPassword);
+        for (int shard = 1; shard < shards.size(); shard++) {
+            MySQLContainer<?> container = shards.get(shard);
+            registry.add("employees.sharding.shards[" + (shard - 1) + "].url", container::getJdbcUrl);
+            registry.add("employees.sharding.shards[" + (shard - 1) + "].username", container::getUsername);
+            registry.add("employees.sharding.shards[" + (shard - 1) + "].password", container::getPassword);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            execute(shard, "DELETE FROM employees");
+        }
+        execute(0, "DELETE FROM employee_shards");
+    }
+
+    @Test
+    @DisplayName("saved Employees are spread across the shards, with ids that carry the shard they are stored on")
+    void givenManyEmployees_whenSaveEmployees_thenSpreadAcrossShards() throws SQLException {
+        // given - precondition or setup
+        List<Employee> employees = employees("spread", 60);
+
+        // when action or the behaviour we are going to test
+        employeeService.saveEmployees(employees);
+
+        // then verify the output
+        int total = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            List<Long> ids = ids(shard);
+            assertThat(ids).as("Employees on shard %d", shard).isNotEmpty();
+            for (long id : ids) {
+                assertThat(SnowflakeIdGenerator.shardOf(id)).isEqualTo(shard);
+            }
+            total += ids.size();
+        }
+        assertThat(total).isEqualTo(60);
+        assertThat(employeeService.getAllEmployees()).hasSize(60).extracting(Employee::getId).isSorted();
+    }
+
+    @Test
+    @DisplayName("an Employee created through the API is found by id, by email and by name")
+    void givenCreatedEmployee_whenFindByIdEmailAndName_thenFound() {
+        // given - precondition or setup
+        ResponseEntity<Employee> created = restTemplate.postForEntity("/api/v1/employees",
+                newEmployee("John", "Doe", "john@gmail.com"), Employee.class);
+        long id = created.getBody().getId();
+
+        // when action or the behaviour we are going to test
+        ResponseEntity<Employee> byId = restTemplate.getForEntity("/api/v1/employees/{id}", Employee.class, id);
+        ResponseEntity<Employee> byEmail = restTemplate.getForEntity("/api/v1/employees/search?email={email}",
+                Employee.class, "john@gmail.com");
+        ResponseEntity<Employee> byName = restTemplate.getForEntity("/api/v1/employees/search?firstName={first}&lastName={last}",
+                Employee.class, "John", "Doe");
+
+        // then verify the output
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(byId.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byId.getBody().getEmail()).isEqualTo("john@gmail.com");
+        assertThat(byEmail.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byName.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byName.getBody().getEmail()).isEqualTo("john@gmail.com");
+    }
+
+    @Test
+    @DisplayName("an email moved to another shard by an update can not be taken by a new Employee on the shard of its hash")
+    void givenEmailMovedByUpdate_whenCreateEmployeeWithIt_thenConflict() {
+        // given - precondition or setup
+        Employee moved = employeeService.saveEmployee(newEmployee("Jane", "Doe", "jane@gmail.com"));
+        int shard = SnowflakeIdGenerator.shardOf(moved.getId());
+        Employee elsewhere = employeeService.saveEmployees(employees("elsewhere", 20)).stream()
+                .filter(employee -> SnowflakeIdGenerator.shardOf(employee.getId()) != shard)
+                .findFirst()
+                .orElseThrow();
+        employeeService.deleteEmployeeById(elsewhere.getId());
+        restTemplate.exchange("/api/v1/employees/{id}", HttpMethod.PUT,
+                new HttpEntity<>(newEmployee("Jane", "Doe", elsewhere.getEmail())), Employee.class, moved.getId());
+
+        // when action or the behaviour we are going to test
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/employees",
+                newEmployee("John", "Doe", elsewhere.getEmail()), String.class);
+
+        // then verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(restTemplate.getForEntity("/api/v1/employees/search?email={email}", Employee.class, elsewhere.getEmail())
+                .getBody().getFirstName()).isEqualTo("Jane");
+        assertThat(restTemplate.getForEntity("/api/v1/employees/search?email={email}", Employee.class, "jane@gmail.com")
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("a deleted Employee releases its email, so it can be used again")
+    void givenDeletedEmployee_whenCreateEmployeeWithItsEmail_thenCreated() {
+        // given - precondition or setup
+        Employee employee = employeeService.saveEmployee(newEmployee("John", "Doe", "john@gmail.com"));
+        restTemplate.delete("/api/v1/employees/{id}", employee.getId());
+
+        // when action or the behaviour we are going to test
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/v1/employees",
+                newEmployee("John", "Doe", "john@gmail.com"), String.class);
+
+        // then verify the output
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    @DisplayName("the pages of a cursor walk return every Employee of every shard once, in id order")
+    void givenEmployeesOnEveryShard_whenWalkPages_thenEveryEmployeeOnceInOrder() {
+        // given - precondition or setup
+        employeeService.saveEmployees(employees("page", 45));
+
+        // when action or the behaviour we are going to test
+        List<Long> walked = new ArrayList<>();
+        long afterId = 0;
+        CursorPage<Employee> page;
+        do {
+            page = employeeService.getEmployeesAfter(afterId, 10);
+            page.getItems().forEach(employee -> walked.add(employee.getId()));
+            afterId = page.getNextCursor() == null ? 0 : CursorCodec.decode(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        // then verify the output
+        assertThat(walked).hasSize(45).doesNotHaveDuplicates().isSorted();
+    }
+
+    private static List<Employee> employees(String prefix, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(newEmployee("First" + i, "Last" + i, prefix + i + "@gmail.com"));
+        }
+        return employees;
+    }
+
+    private static Employee newEmployee(String firstName, String lastName, String email) {
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+
+    private static MySQLContainer<?> mySQLContainer() {
+        return new MySQLContainer<>(DockerImageName.parse("mysql:8.3.0"))
+                .withPassword("example")
+                .withUsername("root")
+                .withDatabaseName("ems")
+                .withUrlParam("rewriteBatchedStatements", "true");
+    }
+
+    private static List<Long> ids(int shard) throws SQLException {
+        MySQLContainer<?> container = shards.get(shard);
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT id FROM employees")) {
+            while (result.next()) {
+                ids.add(result.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static void execute(int shard, String sql) throws SQLException {
+        MySQLContainer<?> container = shards.get(shard);
+        try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.wchamara.springboottesting.jfr;
+
+import com.wchamara.springboottesting.exception.RecordingUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * This class is used to test the FlightRecordingEndpoint class.
+ * It uses Mockito to mock the EmployeeFlightRecorder, which returns a file written to a temporary directory as the dump.
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecordingEndpointTest {
+
+    /**
+     * A mock of the EmployeeFlightRecorder the dumps are taken from.
+     */
+    @Mock
+    private EmployeeFlightRecorder recorder;
+
+    /**
+     * The FlightRecordingEndpoint to test.
+     */
+    private FlightRecordingEndpoint underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FlightRecordingEndpoint(recorder);
+    }
+
+    @Test
+    @DisplayName("the dump is sent back and its file is deleted once it has been read")
+    void givenRecording_whenDump_thenFileIsDeletedAfterReading(@TempDir Path directory) throws Exception {
+        // given - precondition or setup
+        Path file = Files.write(directory.resolve("employees-20240501-101530-123.jfr"), new byte[]{'F', 'L', 'R', 0});
+        given(recorder.dump(Duration.ofMinutes(10))).willReturn(file);
+
+        // when action or the behaviour we are going to test
+        WebEndpointResponse<Resource> response = underTest.dump(10L);
+
+        // then verify the output
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(response.getBody().isFile()).isFalse();
+        try (InputStream content = response.getBody().getInputStream()) {
+            assertThat(content.readAllBytes()).containsExactly('F', 'L', 'R', 0);
+        }
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("the last 5 minutes are dumped when no minutes are given")
+    void givenNoMinutes_whenDump_thenLastFiveMinutesAreDumped(@TempDir Path directory) throws Exception {
+        // given - precondition or setup
+        Path file = Files.write(directory.resolve("employees-20240501-101530-123.jfr"), new byte[]{'F', 'L', 'R', 0});
+        given(recorder.dump(Duration.ofMinutes(5))).willReturn(file);
+
+        // when action or the behaviour we are going to test
+        WebEndpointResponse<Resource> response = underTest.dump(null);
+
+        // then verify the output
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    }
+
+    @Test
+    @DisplayName("a dump while nothing is recorded is answered with a 409")
+    void givenNoRecording_whenDump_thenReturnConflict() throws Exception {
+        // given - precondition or setup
+        given(recorder.dump(Duration.ofMinutes(5)))
+                .willThrow(new RecordingUnavailableException("No Java Flight Recorder recording is running"));
+
+        // when action or the behaviour we are going to test
+        WebEndpointResponse<Resource> response = underTest.dump(null);
+
+        // then verify the output
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getBody()).isNull();
+    }
+}
@@ -1,14 +1,20 @@
 package com.wchamara.springboottesting.repository;
 
+import com.wchamara.springboottesting.dto.EmployeeListVersion;
 import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.model.EmployeeField;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -28,6 +34,9 @@ class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository underTest;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -115,6 +124,83 @@ class EmployeeRepositoryTest {
 
     }
 
+    /**
+     * This test case is for the projection of all Employees used by the read endpoints.
+     * The test case follows the given-when-then pattern:
+     * - given: Two Employee objects are saved and the persistence context is cleared.
+     * - when: The findAllProjected method of the EmployeeRepository is called.
+     * - then: Assertions are made to ensure that both Employees are returned with their data,
+     * and that they are not managed by the persistence context.
+     */
+    @Test
+    @DisplayName("JUnit5 test for the projection of all Employees")
+    void givenEmployees_whenFindAllProjected_thenReturnUnmanagedEmployees() {
+        // given - precondition or setup
+        underTest.save(employee);
+        underTest.save(Employee.builder().firstName("Gagani").lastName("Dharika").email("xds@abc.com").build());
+        entityManager.flush();
+        entityManager.clear();
+        // when action or the behaviour we are going to test
+        List<Employee> employees = underTest.findAllProjected();
+        // then verify the output
+        assertThat(employees).extracting(Employee::getEmail).containsExactlyInAnyOrder("abc@abc.com", "xds@abc.com");
+        assertThat(employees).noneMatch(entityManager.getEntityManager()::contains);
+    }
+
+    /**
+     * This test case is for the projection of one Employee by id used by the read endpoints.
+     * The test case follows the given-when-then pattern:
+     * - given: An Employee object is saved and the persistence context is cleared.
+     * - when: The findProjectedById method of the EmployeeRepository is called with the id of the saved Employee.
+     * - then: Assertions are made to ensure that the Employee is returned with its data and is not managed by the persistence context.
+     */
+    @Test
+    @DisplayName("JUnit5 test for the projection of an Employee by Id")
+    void givenEmployeeId_whenFindProjectedById_thenReturnUnmanagedEmployee() {
+        // given - precondition or setup
+        Employee savedEmployee = underTest.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+        // when action or the behaviour we are going to test
+        Optional<Employee> byId = underTest.findProjectedById(savedEmployee.getId());
+        // then verify the output
+        assertThat(byId).isPresent();
+        assertThat(byId.get().getId()).isEqualTo(savedEmployee.getId());
+        assertThat(byId.get().getFirstName()).isEqualTo(employee.getFirstName());
+        assertThat(byId.get().getEmail()).isEqualTo(employee.getEmail());
+        assertThat(entityManager.getEntityManager().contains(byId.get())).isFalse();
+        assertThat(underTest.findProjectedById(savedEmployee.getId() + 1)).isEmpty();
+    }
+
+    /**
+     * This test case is for the lookups that read only the fields a client selected.
+     * The test case follows the given-when-then pattern:
+     * - given: An Employee object is saved and the persistence context is cleared.
+     * - when: The findAllWithFields and findByIdWithFields methods are called with some of the fields.
+     * - then: Assertions are made to ensure that the selected fields are read and the others are left null.
+     */
+    @Test
+    @DisplayName("JUnit5 test for reading only the selected fields of Employees")
+    void givenFields_whenFindWithFields_thenOnlySelectedFieldsAreRead() {
+        // given - precondition or setup
+        Employee savedEmployee = underTest.save(employee);
+        entityManager.flush();
+        entityManager.clear();
+        EnumSet<EmployeeField> fields = EnumSet.of(EmployeeField.ID, EmployeeField.EMAIL);
+        // when action or the behaviour we are going to test
+        List<Employee> all = underTest.findAllWithFields(fields);
+        Optional<Employee> byId = underTest.findByIdWithFields(savedEmployee.getId(), EnumSet.of(EmployeeField.LAST_NAME));
+        // then verify the output
+        assertThat(all).hasSize(1);
+        assertThat(all.get(0).getId()).isEqualTo(savedEmployee.getId());
+        assertThat(all.get(0).getEmail()).isEqualTo(employee.getEmail());
+        assertThat(all.get(0).getFirstName()).isNull();
+        assertThat(byId).isPresent();
+        assertThat(byId.get().getLastName()).isEqualTo(employee.getLastName());
+        assertThat(byId.get().getEmail()).isNull();
+        assertThat(underTest.findByIdWithFields(savedEmployee.getId() + 1, fields)).isEmpty();
+    }
+
     /**
      * This test case is for the Find Employee by Email operation.
      * It uses JUnit's @Test annotation to indicate that this is a test method.
@@ -279,4 +365,115 @@ class EmployeeRepositoryTest {
         assertThat(byNativeQuery.getEmail()).isEqualTo(employee.getEmail());
     }
 
-}
\ No newline at end of file
+    /**
+     * This test case is for the keyset pagination query.
+     * The test case follows the given-when-then pattern:
+     * - given: Three Employee objects are saved using the save method of the EmployeeRepository.
+     * - when: The findByIdGreaterThanOrderByIdAsc method is called with the id of the first Employee and a limit of one.
+     * - then: Assertions are made to ensure that only the second Employee is returned.
+     */
+    @Test
+    @DisplayName("JUnit5 test for keyset pagination of Employees")
+    void givenEmployees_whenFindByIdGreaterThan_thenReturnNextPage() {
+        // given - precondition or setup
+        Employee first = underTest.save(employee);
+        Employee second = underTest.save(Employee.builder().firstName("Gagani").lastName("Dharika").email("xds@abc.com").build());
+        underTest.save(Employee.builder().firstName("Kamal").lastName("Perera").email("kamal@abc.com").build());
+        // when action or the behaviour we are going to test
+        List<Employee> page = underTest.findByIdGreaterThanOrderByIdAsc(first.getId(), Limit.of(1));
+        // then verify the output
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isEqualTo(second.getId());
+    }
+
+    /**
+     * This test case is for the streaming query used by the export.
+     * The test case follows the given-when-then pattern:
+     * - given: Two Employee objects are saved using the save method of the EmployeeRepository.
+     * - when: The streamAllByOrderByIdAsc method of the EmployeeRepository is called.
+     * - then: Assertions are made to ensure that both Employees are streamed in id order.
+     */
+    @Test
+    @DisplayName("JUnit5 test for streaming all Employees")
+    void givenEmployees_whenStreamAll_thenReturnEmployeesInIdOrder() {
+        // given - precondition or setup
+        Employee first = underTest.save(employee);
+        Employee second = underTest.save(Employee.builder().firstName("Gagani").lastName("Dharika").email("xds@abc.com").build());
+        // when action or the behaviour we are going to test
+        try (Stream<Employee> employees = underTest.streamAllByOrderByIdAsc()) {
+            // then verify the output
+            assertThat(employees.map(Employee::getId)).containsExactly(first.getId(), second.getId());
+        }
+    }
+
+    /**
+     * This test case is for the single statement partial update.
+     * The test case follows the given-when-then pattern:
+     * - given: An Employee object is saved using the save method of the EmployeeRepository.
+     * - when: The updateEmployeeById method is called with a new first name only.
+     * - then: Assertions are made to ensure that one row was updated and only the first name changed.
+     */
+    @Test
+    @DisplayName("JUnit5 test for single statement Employee update")
+    void givenEmployee_whenUpdateEmployeeById_thenOnlyGivenFieldsChange() {
+        // given - precondition or setup
+        Employee savedEmployee = underTest.save(employee);
+        // when action or the behaviour we are going to test
+        int updated = underTest.updateEmployeeById(savedEmployee.getId(), "Chamara Updated", null, null);
+        // then verify the output
+        assertThat(updated).isEqualTo(1);
+        Employee reloaded = underTest.findById(savedEmployee.getId()).orElseThrow();
+        assertThat(reloaded.getFirstName()).isEqualTo("Chamara Updated");
+        assertThat(reloaded.getLastName()).isEqualTo(employee.getLastName());
+        assertThat(reloaded.getEmail()).isEqualTo(employee.getEmail());
+        assertThat(underTest.updateEmployeeById(savedEmployee.getId() + 1, "Nobody", null, null)).isZero();
+    }
+
+    /**
+     * This test case is for the version and the last modified time of an Employee and of the list.
+     * The test case follows the given-when-then pattern:
+     * - given: An Employee object is saved using the save method of the EmployeeRepository.
+     * - when: The updateEmployeeById method is called with a new first name.
+     * - then: Assertions are made to ensure that the version was incremented and that the list version changed.
+     */
+    @Test
+    @DisplayName("JUnit5 test for the versions of an updated Employee and of the list")
+    void givenEmployee_whenUpdateEmployeeById_thenVersionsChange() {
+        // given - precondition or setup
+        Employee savedEmployee = underTest.saveAndFlush(employee);
+        EmployeeListVersion before = underTest.findListVersion();
+        // when action or the behaviour we are going to test
+        underTest.updateEmployeeById(savedEmployee.getId(), "Chamara Updated", null, null);
+        // then verify the output
+        Employee reloaded = underTest.findProjectedById(savedEmployee.getId()).orElseThrow();
+        assertThat(savedEmployee.getVersion()).isZero();
+        assertThat(savedEmployee.getLastModified()).isNotNull();
+        assertThat(reloaded.getVersion()).isEqualTo(1);
+        assertThat(reloaded.getLastModified()).isAfterOrEqualTo(savedEmployee.getLastModified().minusSeconds(1));
+        EmployeeListVersion after = underTest.findListVersion();
+        assertThat(before.getCount()).isEqualTo(1);
+        assertThat(after.getCount()).isEqualTo(1);
+        assertThat(after.getETag()).isNotEqualTo(before.getETag());
+    }
+
+    /**
+     * This test case is for the single statement delete.
+     * The test case follows the given-when-then pattern:
+     * - given: An Employee object is saved using the save method of the EmployeeRepository.
+     * - when: The deleteEmployeeById method is called twice with its id.
+     * - then: Assertions are made to ensure that the first call deleted one row and the second none.
+     */
+    @Test
+    @DisplayName("JUnit5 test for single statement Employee delete")
+    void givenEmployee_whenDeleteEmployeeById_thenReturnDeletedRowCount() {
+        // given - precondition or setup
+        Employee savedEmployee = underTest.save(employee);
+        // when action or the behaviour we are going to test
+        int firstDelete = underTest.deleteEmployeeById(savedEmployee.getId());
+        int secondDelete = underTest.deleteEmployeeById(savedEmployee.getId());
+        // then verify the output
+        assertThat(firstDelete).isEqualTo(1);
+        assertThat(secondDelete).isZero();
+        assertThat(underTest.findById(savedEmployee.getId())).isEmpty();
+    }
+}
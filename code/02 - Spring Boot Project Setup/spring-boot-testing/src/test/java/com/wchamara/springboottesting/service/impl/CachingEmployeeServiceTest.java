@@ -0,0 +1,212 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the CachingEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService, so it can count how often the cache falls through to it.
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingEmployeeServiceTest {
+
+    /**
+     * A mock of the EmployeeService the cache delegates to.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * The registry the cache metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The CachingEmployeeService to test.
+     */
+    private CachingEmployeeService underTest;
+
+    /**
+     * An instance of Employee which will be used in the tests.
+     */
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new CachingEmployeeService(delegate, new EmployeeProperties.Cache(), meterRegistry);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("abc@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("getEmployeeById is served from the cache after the first lookup")
+    void givenCachedEmployee_whenGetEmployeeById_thenDelegateIsCalledOnce() {
+        // given - precondition or setup
+        when(delegate.getEmployeeById(1L)).thenReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        underTest.getEmployeeById(1L);
+        Optional<Employee> cached = underTest.getEmployeeById(1L);
+
+        // then verify the output
+        assertThat(cached).contains(employee);
+        verify(delegate, times(1)).getEmployeeById(1L);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "employees.by-id").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("a miss is loaded from the primary, and reads that are not cached are routed as usual")
+    void givenMiss_whenGetEmployeeById_thenLoadedFromPrimary() {
+        // given - precondition or setup
+        List<Boolean> onPrimary = new ArrayList<>();
+        when(delegate.getEmployeeById(1L)).thenAnswer(invocation -> {
+            onPrimary.add(PrimaryPin.isPrimaryRequired());
+            return Optional.of(employee);
+        });
+        when(delegate.getEmployeeByName("Chamara", "Weerasinghe")).thenAnswer(invocation -> {
+            onPrimary.add(PrimaryPin.isPrimaryRequired());
+            return Optional.of(employee);
+        });
+
+        // when action or the behaviour we are going to test
+        underTest.getEmployeeById(1L);
+        underTest.getEmployeeByName("Chamara", "Weerasinghe");
+
+        // then verify the output
+        assertThat(onPrimary).containsExactly(true, false);
+        assertThat(PrimaryPin.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("getEmployeeById caches a missing Employee")
+    void givenMissingEmployee_whenGetEmployeeById_thenMissIsCached() {
+        // given - precondition or setup
+        when(delegate.getEmployeeById(2L)).thenReturn(Optional.empty());
+
+        // when action or the behaviour we are going to test
+        underTest.getEmployeeById(2L);
+        Optional<Employee> cached = underTest.getEmployeeById(2L);
+
+        // then verify the output
+        assertThat(cached).isEmpty();
+        verify(delegate, times(1)).getEmployeeById(2L);
+    }
+
+    @Test
+    @DisplayName("saveEmployee drops a cached miss for the new Employee")
+    void givenCachedMiss_whenSaveEmployee_thenNextLookupReachesDelegate() {
+        // given - precondition or setup
+        when(delegate.getEmployeeByEmail("abc@gmail.com")).thenReturn(Optional.empty(), Optional.of(employee));
+        when(delegate.getEmployeeById(1L)).thenReturn(Optional.of(employee));
+        when(delegate.saveEmployee(employee)).thenReturn(employee);
+        underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // when action or the behaviour we are going to test
+        underTest.saveEmployee(employee);
+        Optional<Employee> found = underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // then verify the output
+        assertThat(found).contains(employee);
+        verify(delegate, times(2)).getEmployeeByEmail("abc@gmail.com");
+    }
+
+    @Test
+    @DisplayName("updateEmployee invalidates the id and both emails")
+    void givenCachedEmployee_whenUpdateEmployee_thenOldEmailIsNotFound() {
+        // given - precondition or setup
+        Employee updated = Employee.builder().id(1L).firstName("Chamara").lastName("Weerasinghe").email("new@gmail.com").build();
+        when(delegate.getEmployeeByEmail("abc@gmail.com")).thenReturn(Optional.of(employee), Optional.empty());
+        when(delegate.getEmployeeById(1L)).thenReturn(Optional.of(employee), Optional.of(updated));
+        when(delegate.updateEmployee(1L, updated)).thenReturn(updated);
+        underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // when action or the behaviour we are going to test
+        underTest.updateEmployee(1L, updated);
+
+        // then verify the output
+        assertThat(underTest.getEmployeeById(1L)).contains(updated);
+        assertThat(underTest.getEmployeeByEmail("abc@gmail.com")).isEmpty();
+        verify(delegate, times(2)).getEmployeeById(1L);
+    }
+
+    @Test
+    @DisplayName("an email entry pointing to an Employee whose email changed is reloaded")
+    void givenStaleEmailEntry_whenGetEmployeeByEmail_thenLookupIsRepeated() {
+        // given - precondition or setup
+        Employee renamed = Employee.builder().id(1L).firstName("Chamara").lastName("Weerasinghe").email("other@gmail.com").build();
+        when(delegate.getEmployeeByEmail("abc@gmail.com")).thenReturn(Optional.of(employee), Optional.empty());
+        when(delegate.getEmployeeById(1L)).thenReturn(Optional.of(renamed));
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // then verify the output
+        assertThat(found).isEmpty();
+        verify(delegate, times(2)).getEmployeeByEmail("abc@gmail.com");
+    }
+
+    @Test
+    @DisplayName("deleteEmployeeById invalidates the cached Employee")
+    void givenCachedEmployee_whenDeleteEmployeeById_thenNextLookupReachesDelegate() {
+        // given - precondition or setup
+        when(delegate.getEmployeeById(1L)).thenReturn(Optional.of(employee), Optional.empty());
+        underTest.getEmployeeById(1L);
+
+        // when action or the behaviour we are going to test
+        underTest.deleteEmployeeById(1L);
+
+        // then verify the output
+        assertThat(underTest.getEmployeeById(1L)).isEmpty();
+        verify(delegate, times(1)).deleteEmployeeById(1L);
+        verify(delegate, times(2)).getEmployeeById(1L);
+    }
+
+    @Test
+    @DisplayName("a lookup that is still loading when its Employee is deleted is not cached")
+    void givenRunningLookup_whenDeleteEmployeeById_thenLoadedEmployeeIsNotCached() throws Exception {
+        // given - precondition or setup
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getEmployeeById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(employee);
+        }).thenReturn(Optional.empty());
+        CompletableFuture<Optional<Employee>> running = CompletableFuture.supplyAsync(() -> underTest.getEmployeeById(1L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when action or the behaviour we are going to test
+        underTest.deleteEmployeeById(1L);
+        release.countDown();
+
+        // then verify the output
+        assertThat(running.get(5, TimeUnit.SECONDS)).contains(employee);
+        assertThat(underTest.getEmployeeById(1L)).isEmpty();
+        verify(delegate, times(2)).getEmployeeById(1L);
+    }
+}
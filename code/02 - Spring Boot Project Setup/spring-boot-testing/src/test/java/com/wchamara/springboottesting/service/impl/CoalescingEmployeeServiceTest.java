@@ -0,0 +1,212 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the CoalescingEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService and holds the first lookup open,
+ * so the concurrent lookups are known to arrive while it is running.
+ */
+@ExtendWith(MockitoExtension.class)
+class CoalescingEmployeeServiceTest {
+
+    private static final int CALLERS = 8;
+
+    /**
+     * A mock of the EmployeeService the lookups are coalesced in front of.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * The registry the coalesced counter is published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The CoalescingEmployeeService to test.
+     */
+    private CoalescingEmployeeService underTest;
+
+    /**
+     * The threads that run the concurrent lookups.
+     */
+    private ExecutorService executor;
+
+    /**
+     * An instance of Employee which will be used in the tests.
+     */
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new CoalescingEmployeeService(delegate, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("abc@gmail.com")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent getEmployeeById calls for the same id share one lookup")
+    void givenConcurrentLookups_whenGetEmployeeById_thenDelegateIsCalledOnce() throws Exception {
+        // given - precondition or setup
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getEmployeeById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(employee);
+        });
+
+        // when action or the behaviour we are going to test
+        List<Future<Optional<Employee>>> results = lookUpConcurrently(() -> underTest.getEmployeeById(1L), "id", release);
+
+        // then verify the output
+        for (Future<Optional<Employee>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).contains(employee);
+        }
+        verify(delegate, times(1)).getEmployeeById(1L);
+        assertThat(coalesced("id")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    @DisplayName("A failed lookup is reported to every caller that shared it")
+    void givenFailingLookup_whenGetEmployeeByEmail_thenEveryCallerGetsTheException() throws Exception {
+        // given - precondition or setup
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getEmployeeByEmail(employee.getEmail())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("database is down");
+        });
+
+        // when action or the behaviour we are going to test
+        List<Future<Optional<Employee>>> results =
+                lookUpConcurrently(() -> underTest.getEmployeeByEmail(employee.getEmail()), "email", release);
+
+        // then verify the output
+        for (Future<Optional<Employee>> result : results) {
+            assertThat(catchCause(result)).isInstanceOf(IllegalStateException.class).hasMessage("database is down");
+        }
+        verify(delegate, times(1)).getEmployeeByEmail(employee.getEmail());
+    }
+
+    @Test
+    @DisplayName("Lookups that do not overlap each reach the delegate")
+    void givenSequentialLookups_whenGetEmployeeByName_thenNothingIsCached() {
+        // given - precondition or setup
+        when(delegate.getEmployeeByName("Chamara", "Weerasinghe")).thenReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        underTest.getEmployeeByName("Chamara", "Weerasinghe");
+        underTest.getEmployeeByName("Chamara", "Weerasinghe");
+
+        // then verify the output
+        verify(delegate, times(2)).getEmployeeByName("Chamara", "Weerasinghe");
+        assertThat(coalesced("name")).isZero();
+    }
+
+    @Test
+    @DisplayName("A lookup that started before an update is not joined after it, so the cache above is not filled with the old row")
+    void givenLookupRunningDuringUpdate_whenCacheIsReloaded_thenNewLookupIsCached() throws Exception {
+        // given - precondition or setup
+        CachingEmployeeService cachingEmployeeService =
+                new CachingEmployeeService(underTest, new EmployeeProperties.Cache(), meterRegistry);
+        Employee updatedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("new@gmail.com")
+                .build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getEmployeeById(1L))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(employee);
+                })
+                .thenReturn(Optional.of(updatedEmployee));
+        when(delegate.updateEmployee(1L, updatedEmployee)).thenReturn(updatedEmployee);
+        Future<Optional<Employee>> readerA = executor.submit(() -> cachingEmployeeService.getEmployeeById(1L));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when action or the behaviour we are going to test
+        cachingEmployeeService.updateEmployee(1L, updatedEmployee);
+        Future<Optional<Employee>> readerB = executor.submit(() -> cachingEmployeeService.getEmployeeById(1L));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!readerB.isDone() && coalesced("id") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // then verify the output
+        assertThat(readerA.get(5, TimeUnit.SECONDS)).contains(employee);
+        assertThat(readerB.get(5, TimeUnit.SECONDS)).contains(updatedEmployee);
+        assertThat(cachingEmployeeService.getEmployeeById(1L)).contains(updatedEmployee);
+        verify(delegate, times(2)).getEmployeeById(1L);
+        assertThat(coalesced("id")).isZero();
+    }
+
+    /**
+     * This method starts the lookup on every caller thread and releases the running lookup
+     * once all the other callers have joined it.
+     */
+    private List<Future<Optional<Employee>>> lookUpConcurrently(Supplier<Optional<Employee>> lookup, String kind,
+                                                               CountDownLatch release) throws InterruptedException {
+        List<Future<Optional<Employee>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(lookup::get));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced(kind) < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return results;
+    }
+
+    private double coalesced(String kind) {
+        return meterRegistry.get(CoalescingEmployeeService.COALESCED_COUNTER).tag("lookup", kind).counter().count();
+    }
+
+    private static Throwable catchCause(Future<?> result) throws Exception {
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.wchamara.springboottesting.service.impl;
 
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
 import com.wchamara.springboottesting.exception.ResourceNotFoundException;
 import com.wchamara.springboottesting.model.Employee;
 import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.util.CursorCodec;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,6 +44,18 @@ class EmployeeServiceImplTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    /**
+     * A mock of the EntityManager.
+     */
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * The configuration of the Employee API, with its default values.
+     */
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+
     /**
      * The EmployeeServiceImpl to test.
      * The mock EmployeeRepository is injected into this instance.
@@ -70,8 +93,7 @@ class EmployeeServiceImplTest {
     void givenEmployeeObject_whenSaveEmployee_thenReturnEmployee() {
 
         // given - precondition or setup
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.empty());
-        when(employeeRepository.save(employee)).thenReturn(employee);
+        when(employeeRepository.saveAndFlush(employee)).thenReturn(employee);
 
         // when action or the behaviour we are going to test
         Employee savedEmployee = underTest.saveEmployee(employee);
@@ -82,35 +104,81 @@ class EmployeeServiceImplTest {
         assertThat(savedEmployee.getFirstName()).isEqualTo(employee.getFirstName());
         assertThat(savedEmployee.getLastName()).isEqualTo(employee.getLastName());
         assertThat(savedEmployee.getEmail()).isEqualTo(employee.getEmail());
-
+        verify(employeeRepository, never()).findById(anyLong());
     }
 
     /**
      * This method tests the saveEmployee method of the EmployeeServiceImpl when the email already exists.
      * It sets up a mock Employee and the expected behavior of the EmployeeRepository.
-     * It then calls the saveEmployee method and expects a ResourceNotFoundException to be thrown.
+     * It then calls the saveEmployee method and expects a ResourceAlreadyExistsException to be thrown.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An Employee with an email that already exists is created and the findById method of the EmployeeRepository is set to return this Employee.
+     * - Given: The saveAndFlush method of the EmployeeRepository is set to fail with a violation of the unique email index.
      * - When: The saveEmployee method is called with this Employee.
-     * - Then: It is verified that a ResourceNotFoundException is thrown and that the save method of the EmployeeRepository is never called.
+     * - Then: It is verified that a ResourceAlreadyExistsException is thrown.
      */
     @Test
     @DisplayName("JUnit test for saveEmployee method which will throw exception when email already exists")
     void givenEmailAlreadyExists_whenSaveEmployee_thenWillThrowsException() {
 
         // given - precondition or setup
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+        ConstraintViolationException violation = new ConstraintViolationException("Duplicate entry",
+                new SQLException("Duplicate entry", "23000", 1062), "employees." + Employee.EMAIL_CONSTRAINT);
+        when(employeeRepository.saveAndFlush(employee)).thenThrow(new DataIntegrityViolationException("Duplicate entry", violation));
 
         // when action or the behaviour we are going to test
 
+        // then verify the output
+        assertThatThrownBy(() -> underTest.saveEmployee(employee))
+                .isInstanceOf(ResourceAlreadyExistsException.class)
+                .hasMessage("Employee already exists with given email : " + employee.getEmail());
+    }
+
+    /**
+     * This method tests the saveEmployee method of the EmployeeServiceImpl when another integrity rule is violated.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: The saveAndFlush method of the EmployeeRepository is set to fail with an integrity violation that is not about the email.
+     * - When: The saveEmployee method is called with this Employee.
+     * - Then: It is verified that the original exception is thrown unchanged.
+     */
+    @Test
+    @DisplayName("JUnit test for saveEmployee method which keeps other integrity violations")
+    void givenOtherIntegrityViolation_whenSaveEmployee_thenRethrowsException() {
+        // given - precondition or setup
+        when(employeeRepository.saveAndFlush(employee)).thenThrow(new DataIntegrityViolationException("Column 'first_name' cannot be null"));
 
         // then verify the output
-//        assertThatThrownBy(() -> underTest.saveEmployee(employee))
-//                .isInstanceOf(ResourceNotFoundException.class)
-//                .hasMessage("Employee already exists with given email : " + employee.getEmail());
-        assertThrows(ResourceNotFoundException.class, () -> underTest.saveEmployee(employee));
-        verify(employeeRepository, never()).save(any(Employee.class));
+        assertThrows(DataIntegrityViolationException.class, () -> underTest.saveEmployee(employee));
+    }
+
+    /**
+     * This method tests the saveEmployees method of the EmployeeServiceImpl.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: Three Employees and a chunk size of two.
+     * - When: The saveEmployees method is called with the Employees.
+     * - Then: It is verified that the Employees are saved in two chunks, and the persistence context is flushed and cleared after each chunk.
+     */
+    @Test
+    @DisplayName("JUnit test for saveEmployees method")
+    void givenEmployees_whenSaveEmployees_thenEmployeesAreSavedInChunks() {
+        // given - precondition or setup
+        employeeProperties.getBatch().setChunkSize(2);
+        Employee employee2 = Employee.builder().firstName("Gagani").lastName("Dharika").email("xds@abc.com").build();
+        Employee employee3 = Employee.builder().firstName("Kamal").lastName("Perera").email("kamal@abc.com").build();
+        List<Employee> employees = List.of(employee, employee2, employee3);
+
+        // when action or the behaviour we are going to test
+        List<Employee> savedEmployees = underTest.saveEmployees(employees);
+
+        // then verify the output
+        assertThat(savedEmployees).containsExactly(employee, employee2, employee3);
+        assertThat(employee.getId()).isZero();
+        verify(employeeRepository, times(1)).saveAll(List.of(employee, employee2));
+        verify(employeeRepository, times(1)).saveAll(List.of(employee3));
+        verify(employeeRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
     }
 
     /**
@@ -119,7 +187,7 @@ class EmployeeServiceImplTest {
      * It then calls the getAllEmployees method and verifies the result.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: A list of Employees is created and the findAll method of the EmployeeRepository is set to return this list.
+     * - Given: A list of Employees is created and the findAllProjected method of the EmployeeRepository is set to return this list.
      * - When: The getAllEmployees method is called.
      * - Then: It is verified that the returned list is not null, has the correct size, and contains the correct Employees.
      */
@@ -128,7 +196,7 @@ class EmployeeServiceImplTest {
     void givenGetAllEmployees_whenGetAllEmployees_thenReturnListOfEmployees() {
         // given - precondition or setup
         List<Employee> employees = List.of(employee);
-        when(employeeRepository.findAll()).thenReturn(employees);
+        when(employeeRepository.findAllProjected()).thenReturn(employees);
         // when action or the behaviour we are going to test
         List<Employee> allEmployees = underTest.getAllEmployees();
         // then verify the output
@@ -144,7 +212,7 @@ class EmployeeServiceImplTest {
      * It then calls the getAllEmployees method and expects an empty list to be returned.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: The findAll method of the EmployeeRepository is set to return an empty list.
+     * - Given: The findAllProjected method of the EmployeeRepository is set to return an empty list.
      * - When: The getAllEmployees method is called.
      * - Then: It is verified that the returned list is empty.
      */
@@ -152,7 +220,7 @@ class EmployeeServiceImplTest {
     @DisplayName("JUnit test for getAllEmployees method when no employees exist")
     void givenNoEmployees_whenGetAllEmployees_thenReturnEmptyList() {
         // given - precondition or setup
-        when(employeeRepository.findAll()).thenReturn(List.of());
+        when(employeeRepository.findAllProjected()).thenReturn(List.of());
         // when action or the behaviour we are going to test
         List<Employee> allEmployees = underTest.getAllEmployees();
         // then verify the output
@@ -160,13 +228,76 @@ class EmployeeServiceImplTest {
     }
 
 
+    /**
+     * This method tests the getEmployeesAfter method of the EmployeeServiceImpl when there are more Employees than the page size.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: The keyset query of the EmployeeRepository returns one Employee more than the requested page size.
+     * - When: The getEmployeesAfter method is called.
+     * - Then: It is verified that only the requested number of Employees is returned and the cursor points after the last one.
+     */
+    @Test
+    @DisplayName("JUnit test for getEmployeesAfter method when there is a next page")
+    void givenMoreEmployeesThanLimit_whenGetEmployeesAfter_thenReturnPageWithNextCursor() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().id(2L).firstName("Gagani").lastName("Dharika").email("xds@abc.com").build();
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(employee, employee2));
+        // when action or the behaviour we are going to test
+        CursorPage<Employee> page = underTest.getEmployeesAfter(0L, 1);
+        // then verify the output
+        assertThat(page.getItems()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNotNull();
+        assertThat(CursorCodec.decode(page.getNextCursor())).isEqualTo(employee.getId());
+    }
+
+    /**
+     * This method tests the getEmployeesAfter method of the EmployeeServiceImpl on the last page.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: The keyset query of the EmployeeRepository returns fewer Employees than the requested page size.
+     * - When: The getEmployeesAfter method is called.
+     * - Then: It is verified that all Employees are returned and there is no next cursor.
+     */
+    @Test
+    @DisplayName("JUnit test for getEmployeesAfter method on the last page")
+    void givenFewerEmployeesThanLimit_whenGetEmployeesAfter_thenReturnPageWithoutNextCursor() {
+        // given - precondition or setup
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11))).thenReturn(List.of(employee));
+        // when action or the behaviour we are going to test
+        CursorPage<Employee> page = underTest.getEmployeesAfter(0L, 10);
+        // then verify the output
+        assertThat(page.getItems()).containsExactly(employee);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    /**
+     * This method tests the streamAllEmployees method of the EmployeeServiceImpl.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: The streaming query of the EmployeeRepository returns a Stream of one Employee.
+     * - When: The streamAllEmployees method is called with a consumer.
+     * - Then: It is verified that the consumer received the Employee and that the Employee was detached afterwards.
+     */
+    @Test
+    @DisplayName("JUnit test for streamAllEmployees method")
+    void givenEmployees_whenStreamAllEmployees_thenEachEmployeeIsConsumedAndDetached() {
+        // given - precondition or setup
+        when(employeeRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(employee));
+        List<Employee> consumed = new ArrayList<>();
+        // when action or the behaviour we are going to test
+        underTest.streamAllEmployees(consumed::add);
+        // then verify the output
+        assertThat(consumed).containsExactly(employee);
+        verify(entityManager, times(1)).detach(employee);
+    }
+
     /**
      * This method tests the getEmployeeById method of the EmployeeServiceImpl.
      * It sets up a mock Employee and the expected behavior of the EmployeeRepository.
      * It then calls the getEmployeeById method and verifies the result.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An Employee is created and the findById method of the EmployeeRepository is set to return this Employee.
+     * - Given: An Employee is created and the findProjectedById method of the EmployeeRepository is set to return this Employee.
      * - When: The getEmployeeById method is called with the id of this Employee.
      * - Then: It is verified that the returned Employee is not null and is the correct Employee.
      */
@@ -174,7 +305,7 @@ class EmployeeServiceImplTest {
     @DisplayName("JUnit test for getEmployeeById method")
     void givenEmployeeId_whenGetEmployeeById_thenReturnEmployee() {
         // given - precondition or setup
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+        when(employeeRepository.findProjectedById(employee.getId())).thenReturn(Optional.of(employee));
         // when action or the behaviour we are going to test
         Optional<Employee> employeeById = underTest.getEmployeeById(employee.getId());
         // then verify the output
@@ -188,7 +319,7 @@ class EmployeeServiceImplTest {
      * It then calls the getEmployeeById method and expects an empty Optional to be returned.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: The findById method of the EmployeeRepository is set to return an empty Optional.
+     * - Given: The findProjectedById method of the EmployeeRepository is set to return an empty Optional.
      * - When: The getEmployeeById method is called with an id.
      * - Then: It is verified that the returned Optional is empty.
      */
@@ -196,59 +327,80 @@ class EmployeeServiceImplTest {
     @DisplayName("JUnit test for getEmployeeById method when Employee does not exist")
     void givenEmployeeId_whenGetEmployeeById_thenWillReturnEmptyOptional() {
         // given - precondition or setup
-        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.empty());
+        when(employeeRepository.findProjectedById(employee.getId())).thenReturn(Optional.empty());
         // when action or the behaviour we are going to test
         Optional<Employee> employeeById = underTest.getEmployeeById(employee.getId());
         // then verify the output
         assertThat(employeeById).isEmpty();
     }
 
+    /**
+     * This method tests the getEmployeeByName method of the EmployeeServiceImpl.
+     * <p>
+     * The test follows the given-when-then pattern:
+     * - Given: The JPQL query of the EmployeeRepository is set to return the Employee.
+     * - When: The getEmployeeByName method is called with the names of this Employee.
+     * - Then: It is verified that the returned Optional contains the Employee.
+     */
+    @Test
+    @DisplayName("JUnit test for getEmployeeByName method")
+    void givenEmployeeName_whenGetEmployeeByName_thenReturnEmployee() {
+        // given - precondition or setup
+        when(employeeRepository.findByJPQLQueryWithNamedParameters(employee.getFirstName(), employee.getLastName()))
+                .thenReturn(employee);
+        // when action or the behaviour we are going to test
+        Optional<Employee> employeeByName = underTest.getEmployeeByName(employee.getFirstName(), employee.getLastName());
+        // then verify the output
+        assertThat(employeeByName).contains(employee);
+    }
+
     /**
      * This method tests the deleteEmployeeById method of the EmployeeServiceImpl.
      * It sets up the expected behavior of the EmployeeRepository.
      * It then calls the deleteEmployeeById method and verifies the result.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An id is provided and the deleteById method of the EmployeeRepository is set to do nothing.
+     * - Given: An id is provided and the deleteEmployeeById method of the EmployeeRepository is set to report one deleted row.
      * - When: The deleteEmployeeById method is called with this id.
-     * - Then: It is verified that the deleteById method of the EmployeeRepository is called once with this id.
+     * - Then: It is verified that the single DELETE was issued and the Employee was not loaded first.
      */
     @Test
     @DisplayName("Employee deletion by id succeeds")
     void givenEmployeeId_whenDeleteEmployeeById_thenEmployeeIsDeleted() {
         // given - precondition or setup
         Long id = 1L;
-        doNothing().when(employeeRepository).deleteById(id);
+        when(employeeRepository.deleteEmployeeById(id)).thenReturn(1);
 
         // when action or the behaviour we are going to test
         underTest.deleteEmployeeById(id);
 
         // then verify the output
-        verify(employeeRepository, times(1)).deleteById(id);
+        verify(employeeRepository, times(1)).deleteEmployeeById(id);
+        verify(employeeRepository, never()).findById(anyLong());
     }
 
     /**
      * This method tests the deleteEmployeeById method of the EmployeeServiceImpl when the Employee does not exist.
-     * It sets up the expected behavior of the EmployeeRepository to throw an EmptyResultDataAccessException.
-     * It then calls the deleteEmployeeById method and expects an EmptyResultDataAccessException to be thrown.
+     * It sets up the expected behavior of the EmployeeRepository to report that no row was deleted.
+     * It then calls the deleteEmployeeById method and expects a ResourceNotFoundException to be thrown.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An id is provided and the deleteById method of the EmployeeRepository is set to throw an EmptyResultDataAccessException.
+     * - Given: An id is provided and the deleteEmployeeById method of the EmployeeRepository is set to report zero deleted rows.
      * - When: The deleteEmployeeById method is called with this id.
-     * - Then: It is verified that an EmptyResultDataAccessException is thrown and that the deleteById method of the EmployeeRepository is called once with this id.
+     * - Then: It is verified that a ResourceNotFoundException is thrown.
      */
     @Test
     @DisplayName("Employee deletion by non-existing id throws exception")
     void givenNonExistingEmployeeId_whenDeleteEmployeeById_thenThrowsException() {
         // given - precondition or setup
         Long id = 1L;
-        doThrow(EmptyResultDataAccessException.class).when(employeeRepository).deleteById(id);
+        when(employeeRepository.deleteEmployeeById(id)).thenReturn(0);
 
         // when action or the behaviour we are going to test
 
         // then verify the output
-        assertThrows(EmptyResultDataAccessException.class, () -> underTest.deleteEmployeeById(id));
-        verify(employeeRepository, times(1)).deleteById(id);
+        assertThrows(ResourceNotFoundException.class, () -> underTest.deleteEmployeeById(id));
+        verify(employeeRepository, times(1)).deleteEmployeeById(id);
     }
 
     /**
@@ -257,9 +409,9 @@ class EmployeeServiceImplTest {
      * It then calls the updateEmployee method and verifies the result.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An id and an updated Employee are provided and the findById method of the EmployeeRepository is set to return the Employee.
+     * - Given: An id and an updated Employee with all fields are provided and the updateEmployeeById method of the EmployeeRepository is set to report one updated row.
      * - When: The updateEmployee method is called with this id and updated Employee.
-     * - Then: It is verified that the returned Employee is not null and is the updated Employee.
+     * - Then: It is verified that the returned Employee is the updated Employee and that it was not read back from the database.
      */
     @Test
     @DisplayName("Employee update by id succeeds")
@@ -272,8 +424,7 @@ class EmployeeServiceImplTest {
                 .lastName("UpdatedLastName")
                 .email("updated@gmail.com")
                 .build();
-        when(employeeRepository.findById(id)).thenReturn(Optional.of(employee));
-        when(employeeRepository.save(any(Employee.class))).thenReturn(updatedEmployee);
+        when(employeeRepository.updateEmployeeById(id, "UpdatedFirstName", "UpdatedLastName", "updated@gmail.com")).thenReturn(1);
 
         // when action or the behaviour we are going to test
         Employee result = underTest.updateEmployee(id, updatedEmployee);
@@ -284,6 +435,8 @@ class EmployeeServiceImplTest {
         assertThat(result.getFirstName()).isEqualTo(updatedEmployee.getFirstName());
         assertThat(result.getLastName()).isEqualTo(updatedEmployee.getLastName());
         assertThat(result.getEmail()).isEqualTo(updatedEmployee.getEmail());
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeRepository, never()).save(any(Employee.class));
     }
 
     /**
@@ -292,7 +445,7 @@ class EmployeeServiceImplTest {
      * It then calls the updateEmployee method and expects a ResourceNotFoundException to be thrown.
      * <p>
      * The test follows the given-when-then pattern:
-     * - Given: An id and an updated Employee are provided and the findById method of the EmployeeRepository is set to return an empty Optional.
+     * - Given: An id and an updated Employee are provided and the updateEmployeeById method of the EmployeeRepository is set to report zero updated rows.
      * - When: The updateEmployee method is called with this id and updated Employee.
      * - Then: It is verified that a ResourceNotFoundException is thrown.
      */
@@ -307,7 +460,7 @@ class EmployeeServiceImplTest {
                 .lastName("UpdatedLastName")
                 .email("updated@gmail.com")
                 .build();
-        when(employeeRepository.findById(id)).thenReturn(Optional.empty());
+        when(employeeRepository.updateEmployeeById(id, "UpdatedFirstName", "UpdatedLastName", "updated@gmail.com")).thenReturn(0);
 
         // when action or the behaviour we are going to test
 
@@ -324,12 +477,6 @@ class EmployeeServiceImplTest {
                 .id(id)
                 .firstName("UpdatedFirstName")
                 .build();
-        Employee existingEmployee = Employee.builder()
-                .id(id)
-                .firstName("Existing FirstName")
-                .lastName("Existing LastName")
-                .email("Existing@gmail.com")
-                .build();
         Employee expectedEmployee = Employee.builder()
                 .id(id)
                 .firstName("UpdatedFirstName")
@@ -337,8 +484,8 @@ class EmployeeServiceImplTest {
                 .email("Existing@gmail.com")
                 .build();
 
-        when(employeeRepository.findById(id)).thenReturn(Optional.of(existingEmployee));
-        when(employeeRepository.save(any(Employee.class))).thenReturn(expectedEmployee);
+        when(employeeRepository.updateEmployeeById(id, "UpdatedFirstName", null, null)).thenReturn(1);
+        when(employeeRepository.findById(id)).thenReturn(Optional.of(expectedEmployee));
 
         // when action or the behaviour we are going to test
         Employee result = underTest.updateEmployee(id, updatedEmployee);
@@ -349,5 +496,6 @@ class EmployeeServiceImplTest {
         assertThat(result.getFirstName()).isEqualTo(expectedEmployee.getFirstName());
         assertThat(result.getLastName()).isEqualTo(expectedEmployee.getLastName());
         assertThat(result.getEmail()).isEqualTo(expectedEmployee.getEmail());
+        verify(employeeRepository, never()).save(any(Employee.class));
     }
 }
@@ -0,0 +1,139 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.exception.ResourceNotFoundException;
+import com.wchamara.springboottesting.jfr.EmployeeServiceEvent;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * This class is used to test the FlightRecorderEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService, records the calls with a Java Flight Recorder recording
+ * that keeps every EmployeeServiceEvent, and reads the events back from the dumped file.
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecorderEmployeeServiceTest {
+
+    /**
+     * A mock of the EmployeeService whose calls are recorded.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * The FlightRecorderEmployeeService to test.
+     */
+    private FlightRecorderEmployeeService underTest;
+
+    /**
+     * The directory the recording is dumped to.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * An instance of Employee which will be used in the tests.
+     */
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new FlightRecorderEmployeeService(delegate);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("abc@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("a call emits an event with its operation, key and rows")
+    void givenRecording_whenGetEmployeeByEmail_thenEventWithOperationKeyAndRows() throws IOException {
+        // given - precondition or setup
+        given(delegate.getEmployeeByEmail("abc@gmail.com")).willReturn(Optional.of(employee));
+        given(delegate.getAllEmployees()).willReturn(List.of(employee, employee));
+
+        // when action or the behaviour we are going to test
+        List<RecordedEvent> events = record(() -> {
+            underTest.getEmployeeByEmail("abc@gmail.com");
+            underTest.getAllEmployees();
+        });
+
+        // then verify the output
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getString("operation")).isEqualTo("getEmployeeByEmail");
+        assertThat(events.get(0).getString("key")).isEqualTo("abc@gmail.com");
+        assertThat(events.get(0).getLong("rows")).isEqualTo(1);
+        assertThat(events.get(1).getString("operation")).isEqualTo("getAllEmployees");
+        assertThat(events.get(1).getString("key")).isNull();
+        assertThat(events.get(1).getLong("rows")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a call that throws emits an event with the failure, and the exception is rethrown")
+    void givenFailingCall_whenUpdateEmployee_thenEventWithFailure() throws IOException {
+        // given - precondition or setup
+        given(delegate.updateEmployee(2L, employee)).willThrow(new ResourceNotFoundException("Employee not found"));
+
+        // when action or the behaviour we are going to test
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> underTest.updateEmployee(2L, employee))
+                .isInstanceOf(ResourceNotFoundException.class));
+
+        // then verify the output
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("key")).isEqualTo("2");
+        assertThat(events.get(0).getString("failure")).isEqualTo("ResourceNotFoundException");
+        assertThat(events.get(0).getLong("rows")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("closing the service closes a delegate that holds resources, like a WriteBehindEmployeeService")
+    void givenCloseableDelegate_whenClose_thenDelegateIsClosed() throws Exception {
+        // given - precondition or setup
+        EmployeeService closeableDelegate = mock(EmployeeService.class, withSettings().extraInterfaces(AutoCloseable.class));
+        FlightRecorderEmployeeService service = new FlightRecorderEmployeeService(closeableDelegate);
+
+        // when action or the behaviour we are going to test
+        service.close();
+
+        // then verify the output
+        verify((AutoCloseable) closeableDelegate).close();
+    }
+
+    private List<RecordedEvent> record(Runnable calls) throws IOException {
+        Path file = directory.resolve("service.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EmployeeServiceEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EmployeeServiceEvent.NAME))
+                .toList();
+    }
+}
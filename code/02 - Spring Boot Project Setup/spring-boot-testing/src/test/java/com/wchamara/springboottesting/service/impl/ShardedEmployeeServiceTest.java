@@ -0,0 +1,326 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.dto.CursorPage;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.sharding.ShardContext;
+import com.wchamara.springboottesting.sharding.ShardDirectory;
+import com.wchamara.springboottesting.sharding.SnowflakeIdGenerator;
+import com.wchamara.springboottesting.util.CursorCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the ShardedEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService and the ShardDirectory.
+ * The answers of the delegate read the ShardContext of the calling thread, the way the ShardRoutingDataSource does,
+ * so the tests see which shard each call went to.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardedEmployeeServiceTest {
+
+    private static final int SHARDS = 4;
+
+    /**
+     * A mock of the EmployeeService that works on the shard of the current thread.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * A mock of the directory of the shard of each email.
+     */
+    @Mock
+    private ShardDirectory directory;
+
+    /**
+     * The generator of the ids, which the tests also use to make ids of a given shard.
+     */
+    private SnowflakeIdGenerator ids;
+
+    /**
+     * The ShardedEmployeeService to test.
+     */
+    private ShardedEmployeeService underTest;
+
+    @BeforeEach
+    void setUp() {
+        ids = new SnowflakeIdGenerator(0);
+        underTest = new ShardedEmployeeService(delegate, SHARDS, ids, directory, Executors.newFixedThreadPool(SHARDS),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    @DisplayName("saveEmployee reserves the email and saves the Employee on the shard of its email")
+    void givenEmployee_whenSaveEmployee_thenSavedOnShardOfEmail() {
+        // given - precondition or setup
+        Employee employee = employee("abc@gmail.com");
+        int shard = underTest.shardOf("abc@gmail.com");
+        List<Integer> shardsCalled = new ArrayList<>();
+        when(delegate.saveEmployee(employee)).thenAnswer(invocation -> {
+            shardsCalled.add(ShardContext.current().getShard());
+            return employee;
+        });
+
+        // when action or the behaviour we are going to test
+        Employee saved = underTest.saveEmployee(employee);
+
+        // then verify the output
+        assertThat(saved).isSameAs(employee);
+        assertThat(shardsCalled).containsExactly(shard);
+        verify(directory).reserve(Map.of("abc@gmail.com", shard));
+        verify(directory, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("saveEmployee throws ResourceAlreadyExistsException when the directory already has the email")
+    void givenReservedEmail_whenSaveEmployee_thenThrowsResourceAlreadyExistsException() {
+        // given - precondition or setup
+        doThrow(new DuplicateKeyException("Duplicate entry")).when(directory).reserve(any());
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        assertThatThrownBy(() -> underTest.saveEmployee(employee("abc@gmail.com")))
+                .isInstanceOf(ResourceAlreadyExistsException.class);
+        verify(delegate, never()).saveEmployee(any());
+    }
+
+    @Test
+    @DisplayName("saveEmployee releases the email again when the shard fails")
+    void givenFailingShard_whenSaveEmployee_thenEmailIsReleased() {
+        // given - precondition or setup
+        Employee employee = employee("abc@gmail.com");
+        when(delegate.saveEmployee(employee)).thenThrow(new IllegalStateException("shard is down"));
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        assertThatThrownBy(() -> underTest.saveEmployee(employee)).isInstanceOf(IllegalStateException.class);
+        verify(directory).release(List.of("abc@gmail.com"));
+    }
+
+    @Test
+    @DisplayName("saveEmployees sends each Employee to the shard of its email")
+    void givenEmployeesOfManyShards_whenSaveEmployees_thenEachShardGetsItsEmployees() {
+        // given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            employees.add(employee("employee" + i + "@gmail.com"));
+        }
+        Map<Integer, List<Employee>> savedByShard = new ConcurrentHashMap<>();
+        when(delegate.saveEmployees(any())).thenAnswer(invocation -> {
+            List<Employee> group = invocation.getArgument(0);
+            savedByShard.put(ShardContext.current().getShard(), group);
+            return group;
+        });
+
+        // when action or the behaviour we are going to test
+        List<Employee> saved = underTest.saveEmployees(employees);
+
+        // then verify the output
+        assertThat(saved).hasSize(40);
+        assertThat(savedByShard.values().stream().mapToInt(List::size).sum()).isEqualTo(40);
+        savedByShard.forEach((shard, group) ->
+                assertThat(group).allSatisfy(employee -> assertThat(underTest.shardOf(employee.getEmail())).isEqualTo(shard)));
+        verify(directory).reserve(argThat(shardsByEmail -> shardsByEmail.size() == 40));
+    }
+
+    @Test
+    @DisplayName("saveEmployees rejects a batch that has the same email twice before anything is reserved")
+    void givenDuplicateEmailInBatch_whenSaveEmployees_thenThrowsResourceAlreadyExistsException() {
+        // given - precondition or setup
+        List<Employee> employees = List.of(employee("abc@gmail.com"), employee("abc@gmail.com"));
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        assertThatThrownBy(() -> underTest.saveEmployees(employees)).isInstanceOf(ResourceAlreadyExistsException.class);
+        verifyNoInteractions(directory, delegate);
+    }
+
+    @Test
+    @DisplayName("getEmployeeById asks only the shard the id carries")
+    void givenIdOfShard_whenGetEmployeeById_thenOnlyThatShardIsAsked() {
+        // given - precondition or setup
+        long id = ids.nextId(2);
+        List<Integer> shardsCalled = new ArrayList<>();
+        when(delegate.getEmployeeById(id)).thenAnswer(invocation -> {
+            shardsCalled.add(ShardContext.current().getShard());
+            return Optional.of(employee("abc@gmail.com"));
+        });
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeById(id);
+
+        // then verify the output
+        assertThat(found).isPresent();
+        assertThat(shardsCalled).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("getEmployeeById returns an empty Optional for an id of a shard that does not exist")
+    void givenIdOfUnknownShard_whenGetEmployeeById_thenEmpty() {
+        // given - precondition or setup
+        long id = ids.nextId(SHARDS);
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeById(id);
+
+        // then verify the output
+        assertThat(found).isEmpty();
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("getEmployeeByEmail asks only the shard the directory has for the email")
+    void givenEmailInDirectory_whenGetEmployeeByEmail_thenOnlyThatShardIsAsked() {
+        // given - precondition or setup
+        when(directory.findShard("abc@gmail.com")).thenReturn(Optional.of(3));
+        List<Integer> shardsCalled = new ArrayList<>();
+        when(delegate.getEmployeeByEmail("abc@gmail.com")).thenAnswer(invocation -> {
+            shardsCalled.add(ShardContext.current().getShard());
+            return Optional.of(employee("abc@gmail.com"));
+        });
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // then verify the output
+        assertThat(found).isPresent();
+        assertThat(shardsCalled).containsExactly(3);
+    }
+
+    @Test
+    @DisplayName("getEmployeeByEmail does not ask any shard for an email the directory does not have")
+    void givenUnknownEmail_whenGetEmployeeByEmail_thenEmpty() {
+        // given - precondition or setup
+        when(directory.findShard("abc@gmail.com")).thenReturn(Optional.empty());
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeByEmail("abc@gmail.com");
+
+        // then verify the output
+        assertThat(found).isEmpty();
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("getAllEmployees asks every shard and merges the Employees by id")
+    void givenEmployeesOnEveryShard_whenGetAllEmployees_thenMergedById() {
+        // given - precondition or setup
+        Set<Integer> shardsCalled = ConcurrentHashMap.newKeySet();
+        when(delegate.getAllEmployees()).thenAnswer(invocation -> {
+            int shard = ShardContext.current().getShard();
+            shardsCalled.add(shard);
+            return List.of(employeeWithId(ids.nextId(shard)), employeeWithId(ids.nextId(shard)));
+        });
+
+        // when action or the behaviour we are going to test
+        List<Employee> employees = underTest.getAllEmployees();
+
+        // then verify the output
+        assertThat(shardsCalled).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(employees).hasSize(2 * SHARDS);
+        assertThat(employees).extracting(Employee::getId).isSorted();
+    }
+
+    @Test
+    @DisplayName("getEmployeesAfter merges the pages of the shards and cuts them to the page size")
+    void givenPagesOfEveryShard_whenGetEmployeesAfter_thenMergedAndCut() {
+        // given - precondition or setup
+        when(delegate.getEmployeesAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            int shard = ShardContext.current().getShard();
+            return new CursorPage<>(List.of(employeeWithId(ids.nextId(shard)), employeeWithId(ids.nextId(shard))), null);
+        });
+
+        // when action or the behaviour we are going to test
+        CursorPage<Employee> page = underTest.getEmployeesAfter(0, 5);
+
+        // then verify the output
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.getItems()).extracting(Employee::getId).isSorted();
+        assertThat(page.getNextCursor()).isEqualTo(CursorCodec.encode(page.getItems().get(4).getId()));
+        verify(delegate, times(SHARDS)).getEmployeesAfter(0, 5);
+    }
+
+    @Test
+    @DisplayName("getEmployeeByName returns the Employee with the lowest id when several shards have the name")
+    void givenNameOnSeveralShards_whenGetEmployeeByName_thenLowestIdWins() {
+        // given - precondition or setup
+        long first = ids.nextId(3);
+        long second = ids.nextId(1);
+        when(delegate.getEmployeeByName("John", "Doe")).thenAnswer(invocation -> switch (ShardContext.current().getShard()) {
+            case 1 -> Optional.of(employeeWithId(second));
+            case 3 -> Optional.of(employeeWithId(first));
+            default -> Optional.empty();
+        });
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeByName("John", "Doe");
+
+        // then verify the output
+        // ids taken in the same millisecond are ordered by shard, so either one can be the lowest
+        assertThat(found).map(Employee::getId).contains(Math.min(first, second));
+    }
+
+    @Test
+    @DisplayName("updateEmployee reserves the new email for the shard of the Employee and releases the old one")
+    void givenNewEmail_whenUpdateEmployee_thenDirectoryIsUpdated() {
+        // given - precondition or setup
+        long id = ids.nextId(1);
+        Employee update = employee("new@gmail.com");
+        when(delegate.getEmployeeById(id)).thenReturn(Optional.of(employee("old@gmail.com")));
+        when(delegate.updateEmployee(id, update)).thenReturn(update);
+
+        // when action or the behaviour we are going to test
+        Employee updated = underTest.updateEmployee(id, update);
+
+        // then verify the output
+        assertThat(updated.getEmail()).isEqualTo("new@gmail.com");
+        verify(directory).reserve(Map.of("new@gmail.com", 1));
+        verify(directory).release(List.of("old@gmail.com"));
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email(email)
+                .build();
+    }
+
+    private static Employee employeeWithId(long id) {
+        return Employee.builder()
+                .id(id)
+                .firstName("John")
+                .lastName("Doe")
+                .email(id + "@gmail.com")
+                .build();
+    }
+}
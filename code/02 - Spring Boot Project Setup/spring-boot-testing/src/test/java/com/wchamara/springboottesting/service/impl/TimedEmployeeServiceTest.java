@@ -0,0 +1,100 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.exception.ResourceNotFoundException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * This class is used to test the TimedEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService and reads the timers back from a SimpleMeterRegistry.
+ */
+@ExtendWith(MockitoExtension.class)
+class TimedEmployeeServiceTest {
+
+    /**
+     * A mock of the EmployeeService whose calls are timed.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * The registry the timers are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The TimedEmployeeService to test.
+     */
+    private TimedEmployeeService underTest;
+
+    /**
+     * An instance of Employee which will be used in the tests.
+     */
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new TimedEmployeeService(delegate, meterRegistry);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("abc@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("every call of a method, of either overload, is recorded in the timer of the method")
+    void givenCalls_whenGetEmployeeById_thenRecordedInTimerOfMethod() {
+        // given - precondition or setup
+        given(delegate.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(delegate.getEmployeeById(1L, Set.of())).willReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        Optional<Employee> found = underTest.getEmployeeById(1L);
+        underTest.getEmployeeById(1L, Set.of());
+
+        // then verify the output
+        assertThat(found).contains(employee);
+        assertThat(timer("getEmployeeById", "none").count()).isEqualTo(2);
+        assertThat(timer("saveEmployee", "none").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("a call that throws is recorded with the exception, and the exception is rethrown")
+    void givenFailingCall_whenUpdateEmployee_thenRecordedWithException() {
+        // given - precondition or setup
+        given(delegate.updateEmployee(2L, employee)).willThrow(new ResourceNotFoundException("Employee not found"));
+
+        // when action or the behaviour we are going to test
+        assertThatThrownBy(() -> underTest.updateEmployee(2L, employee))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        // then verify the output
+        assertThat(timer("updateEmployee", "ResourceNotFoundException").count()).isEqualTo(1);
+        assertThat(timer("updateEmployee", "none").count()).isZero();
+    }
+
+    private Timer timer(String method, String exception) {
+        return meterRegistry.get(TimedEmployeeService.TIMER)
+                .tag("method", method)
+                .tag("exception", exception)
+                .timer();
+    }
+}
@@ -0,0 +1,281 @@
+package com.wchamara.springboottesting.service.impl;
+
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.datasource.PrimaryPin;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottesting.exception.ServiceBusyException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the WriteBehindEmployeeService class.
+ * It uses Mockito to mock the delegate EmployeeService and calls saveEmployee from several threads,
+ * like concurrent POST requests would.
+ */
+@ExtendWith(MockitoExtension.class)
+class WriteBehindEmployeeServiceTest {
+
+    /**
+     * A mock of the EmployeeService the batches are saved through.
+     */
+    @Mock
+    private EmployeeService delegate;
+
+    /**
+     * The registry the buffer metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The settings of the buffer, changed by the tests before the service is created.
+     */
+    private EmployeeProperties.WriteBehind writeBehind;
+
+    /**
+     * The threads that call saveEmployee.
+     */
+    private ExecutorService callers;
+
+    /**
+     * The WriteBehindEmployeeService to test.
+     */
+    private WriteBehindEmployeeService underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new EmployeeProperties.WriteBehind();
+        writeBehind.setMaxDelay(Duration.ofSeconds(5));
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        if (underTest != null) {
+            underTest.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A full buffer is saved with one saveEmployees call and every caller gets its id")
+    void givenConcurrentCreates_whenBufferIsFull_thenTheyAreSavedAsOneBatch() throws Exception {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(4);
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.forEach(employee -> employee.setId(employees.indexOf(employee) + 1L));
+            return employees;
+        });
+
+        // when action or the behaviour we are going to test
+        List<Future<Employee>> saved = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Employee employee = employee(i);
+            saved.add(callers.submit(() -> underTest.saveEmployee(employee)));
+        }
+
+        // then verify the output
+        List<Long> ids = new ArrayList<>();
+        for (Future<Employee> employee : saved) {
+            ids.add(employee.get(5, TimeUnit.SECONDS).getId());
+        }
+        assertThat(ids).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        verify(delegate, times(1)).saveEmployees(anyList());
+        verify(delegate, never()).saveEmployee(any());
+    }
+
+    @Test
+    @DisplayName("A buffered create is saved once maxDelay has passed, even if the batch is not full")
+    void givenSingleCreate_whenMaxDelayPasses_thenItIsSaved() {
+        // given - precondition or setup
+        writeBehind.setMaxDelay(Duration.ofMillis(10));
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when action or the behaviour we are going to test
+        Employee saved = underTest.saveEmployee(employee(0));
+
+        // then verify the output
+        assertThat(saved.getEmail()).isEqualTo("employee0@example.com");
+        verify(delegate, times(1)).saveEmployees(List.of(saved));
+    }
+
+    @Test
+    @DisplayName("When a batch fails, only the callers whose own create fails get an exception")
+    void givenDuplicateEmailInBatch_whenBatchFails_thenEachCreateIsRetriedAlone() throws Exception {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(2);
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        Employee taken = employee(0);
+        Employee free = employee(1);
+        ResourceAlreadyExistsException duplicate = new ResourceAlreadyExistsException("taken", null);
+        when(delegate.saveEmployees(anyList())).thenThrow(duplicate);
+        when(delegate.saveEmployee(taken)).thenThrow(duplicate);
+        when(delegate.saveEmployee(free)).thenReturn(free);
+
+        // when action or the behaviour we are going to test
+        Future<Employee> takenResult = callers.submit(() -> underTest.saveEmployee(taken));
+        Future<Employee> freeResult = callers.submit(() -> underTest.saveEmployee(free));
+
+        // then verify the output
+        assertThat(freeResult.get(5, TimeUnit.SECONDS)).isSameAs(free);
+        assertThatThrownBy(() -> takenResult.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceAlreadyExistsException.class);
+    }
+
+    @Test
+    @DisplayName("A create is rejected with a ServiceBusyException when the buffer stays full")
+    void givenFullBuffer_whenSaveEmployee_thenThrowsServiceBusyException() throws Exception {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(1);
+        writeBehind.setCapacity(1);
+        writeBehind.setOfferTimeout(Duration.ofMillis(10));
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        callers.submit(() -> underTest.saveEmployee(employee(0)));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> underTest.saveEmployee(employee(1)));
+        while (meterRegistry.get("employees.write-behind.buffered").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        // when action or the behaviour we are going to test
+        assertThatThrownBy(() -> underTest.saveEmployee(employee(2)))
+                // then verify the output
+                .isInstanceOf(ServiceBusyException.class);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("When the delegate throws an Error, the caller gets an exception and later creates are still saved")
+    void givenDelegateThrowsError_whenSaveEmployee_thenCallerIsAnsweredAndBufferGoesOn() {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(1);
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        when(delegate.saveEmployees(anyList()))
+                .thenThrow(new AssertionError("broken"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when action or the behaviour we are going to test
+        assertThatThrownBy(() -> underTest.saveEmployee(employee(0)))
+                // then verify the output
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(underTest.saveEmployee(employee(1)).getEmail()).isEqualTo("employee1@example.com");
+    }
+
+    @Test
+    @DisplayName("A create that is still buffered when saveTimeout passes is rejected and never saved")
+    void givenBufferedCreate_whenSaveTimeoutPasses_thenThrowsServiceBusyExceptionAndIsNotSaved() throws Exception {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(1);
+        writeBehind.setSaveTimeout(Duration.ofMillis(50));
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> saved = new ArrayList<>();
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            List<Employee> batch = invocation.getArgument(0);
+            batch.forEach(employee -> saved.add(employee.getEmail()));
+            return batch;
+        });
+        Future<Employee> flushed = callers.submit(() -> underTest.saveEmployee(employee(0)));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when action or the behaviour we are going to test
+        assertThatThrownBy(() -> underTest.saveEmployee(employee(1)))
+                // then verify the output
+                .isInstanceOf(ServiceBusyException.class);
+        release.countDown();
+        assertThat(flushed.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("employee0@example.com");
+        underTest.close();
+        assertThat(saved).containsExactly("employee0@example.com");
+    }
+
+    @Test
+    @DisplayName("A create that a flush has taken when saveTimeout passes waits for the flush")
+    void givenFlushingCreate_whenSaveTimeoutPasses_thenReturnsSavedEmployee() throws Exception {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(1);
+        writeBehind.setSaveTimeout(Duration.ofMillis(50));
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        Future<Employee> result = callers.submit(() -> underTest.saveEmployee(employee(0)));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        // when action or the behaviour we are going to test
+        release.countDown();
+
+        // then verify the output
+        assertThat(result.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("employee0@example.com");
+    }
+
+    @Test
+    @DisplayName("A saved create pins the PrimaryPin scope of its caller, although the batch was committed on another thread")
+    void givenPrimaryPinScope_whenSaveEmployee_thenScopeIsPinned() {
+        // given - precondition or setup
+        writeBehind.setMaxBatchSize(1);
+        underTest = new WriteBehindEmployeeService(delegate, writeBehind, meterRegistry);
+        when(delegate.saveEmployees(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<String> pins = new ArrayList<>();
+        PrimaryPin.open(false, () -> pins.add("pinned"));
+        try {
+            // when action or the behaviour we are going to test
+            underTest.saveEmployee(employee(0));
+
+            // then verify the output
+            assertThat(PrimaryPin.isPinned()).isTrue();
+            assertThat(pins).containsExactly("pinned");
+        } finally {
+            PrimaryPin.close();
+        }
+    }
+
+    private static Employee employee(int i) {
+        return Employee.builder()
+                .firstName("First" + i)
+                .lastName("Last" + i)
+                .email("employee" + i + "@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.wchamara.springboottesting.sharding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class is used to test the SnowflakeIdGenerator class.
+ * The tests drive the generator with a clock they control, so they decide when the millisecond changes.
+ */
+class SnowflakeIdGeneratorTest {
+
+    /**
+     * The time the clock of the tests starts at.
+     */
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 1_000_000L;
+
+    @Test
+    @DisplayName("the shard of an id is the shard it was generated for")
+    void givenIdsOfEveryShard_whenShardOf_thenShardIsReturned() {
+        // given - precondition or setup
+        SnowflakeIdGenerator underTest = new SnowflakeIdGenerator(31, () -> NOW);
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        for (int shard = 0; shard < SnowflakeIdGenerator.MAX_SHARDS; shard++) {
+            assertThat(SnowflakeIdGenerator.shardOf(underTest.nextId(shard))).isEqualTo(shard);
+        }
+    }
+
+    @Test
+    @DisplayName("the ids of a shard grow, also when the sequence of a millisecond runs out and when the clock goes back")
+    void givenSequenceOverflowAndClockGoingBack_whenNextId_thenIdsGrow() {
+        // given - precondition or setup
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator underTest = new SnowflakeIdGenerator(0, clock::get);
+        Set<Long> seen = new HashSet<>();
+        long last = 0;
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        for (int i = 0; i < 1_000; i++) {
+            if (i == 500) {
+                clock.addAndGet(-10);
+            }
+            long id = underTest.nextId(7);
+            assertThat(id).isGreaterThan(last);
+            assertThat(seen.add(id)).isTrue();
+            last = id;
+        }
+    }
+
+    @Test
+    @DisplayName("ids generated later are larger than ids generated earlier on another shard")
+    void givenLaterMillisecond_whenNextId_thenLargerThanIdsOfOtherShards() {
+        // given - precondition or setup
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator underTest = new SnowflakeIdGenerator(0, clock::get);
+        long earlier = underTest.nextId(SnowflakeIdGenerator.MAX_SHARDS - 1);
+
+        // when action or the behaviour we are going to test
+        clock.incrementAndGet();
+        long later = underTest.nextId(0);
+
+        // then verify the output
+        assertThat(later).isGreaterThan(earlier);
+    }
+
+    @Test
+    @DisplayName("a node or shard outside of the range of the id is rejected")
+    void givenNodeOrShardOutOfRange_whenCreatedOrNextId_thenThrowsIllegalArgumentException() {
+        // given - precondition or setup
+        SnowflakeIdGenerator underTest = new SnowflakeIdGenerator(0, () -> NOW);
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODES))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> underTest.nextId(SnowflakeIdGenerator.MAX_SHARDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.wchamara.springboottesting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * This class is used to test the DelimitedRecordReader class.
+ */
+class DelimitedRecordReaderTest {
+
+    @Test
+    @DisplayName("quoted CSV fields can hold delimiters, quotes and line breaks")
+    void givenQuotedCsv_whenNext_thenReturnUnquotedFields() throws IOException {
+        // given - precondition or setup
+        String csv = "first_name,last_name,email\r\n"
+                + "\"Doe, John\",\"say \"\"hi\"\"\",\"two\nlines\"\r\n"
+                + "\r\n"
+                + "Jane,Doe,";
+        DelimitedRecordReader underTest = new DelimitedRecordReader(new StringReader(csv), ',', true);
+
+        // when action or the behaviour we are going to test
+        List<String> header = underTest.next();
+        List<String> quoted = underTest.next();
+        long quotedLine = underTest.getRecordLine();
+        List<String> last = underTest.next();
+        long lastLine = underTest.getRecordLine();
+
+        // then verify the output
+        assertThat(header).containsExactly("first_name", "last_name", "email");
+        assertThat(quoted).containsExactly("Doe, John", "say \"hi\"", "two\nlines");
+        assertThat(quotedLine).isEqualTo(2);
+        assertThat(last).containsExactly("Jane", "Doe", "");
+        assertThat(lastLine).isEqualTo(5);
+        assertThat(underTest.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("TSV fields are taken as they are")
+    void givenTsv_whenNext_thenKeepQuotes() throws IOException {
+        // given - precondition or setup
+        DelimitedRecordReader underTest = new DelimitedRecordReader(new StringReader("\"John\"\tDoe\n"), '\t', false);
+
+        // when action or the behaviour we are going to test
+        List<String> record = underTest.next();
+
+        // then verify the output
+        assertThat(record).containsExactly("\"John\"", "Doe");
+        assertThat(underTest.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("a quoted field that is not closed is rejected")
+    void givenUnterminatedQuote_whenNext_thenThrowIOException() {
+        // given - precondition or setup
+        DelimitedRecordReader underTest = new DelimitedRecordReader(new StringReader("\"John,Doe\n"), ',', true);
+
+        // when action or the behaviour we are going to test
+        // then verify the output
+        assertThatThrownBy(underTest::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("line 1");
+    }
+}
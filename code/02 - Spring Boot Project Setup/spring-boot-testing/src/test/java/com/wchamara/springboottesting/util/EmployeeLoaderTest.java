@@ -0,0 +1,277 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.exception.ResourceAlreadyExistsException;
+import com.wchamara.springboottesting.model.Employee;
+import com.wchamara.springboottesting.repository.EmployeeRepository;
+import com.wchamara.springboottesting.service.EmployeeService;
+import com.wchamara.springboottesting.sharding.ShardDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the EmployeeLoader class.
+ * It uses Mockito to mock the EmployeeService and checks how the Employees of a file are split into chunks,
+ * how failed chunks are tried again and how chunks are shared by several writers.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeLoaderTest {
+
+    /**
+     * A mock of the EmployeeService the chunks are saved through.
+     */
+    @Mock
+    private EmployeeService employeeService;
+
+    /**
+     * A mock of the EmployeeRepository that tells which Employees of a failed chunk are already saved.
+     */
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    /**
+     * A mock of the provider of the ShardDirectory, which has none unless a test says otherwise.
+     */
+    @Mock
+    private ObjectProvider<ShardDirectory> shardDirectoryProvider;
+
+    /**
+     * A mock of the ShardDirectory that tells which Employees of a failed chunk are already saved on any shard.
+     */
+    @Mock
+    private ShardDirectory shardDirectory;
+
+    /**
+     * The registry the pipeline metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The settings of the loader, changed by the tests before the loader is created.
+     */
+    private EmployeeProperties employeeProperties;
+
+    /**
+     * Captures each chunk passed to saveEmployees.
+     */
+    @Captor
+    private ArgumentCaptor<List<Employee>> chunks;
+
+    /**
+     * The EmployeeLoader to test, with a chunk size of 2 and one writer unless a test changes the settings.
+     */
+    private EmployeeLoader underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeProperties = new EmployeeProperties();
+        employeeProperties.getLoad().setChunkSize(2);
+        employeeProperties.getLoad().setWriters(1);
+        employeeProperties.getLoad().setRetryBackoff(Duration.ofMillis(1));
+        underTest = newLoader();
+    }
+
+    @Test
+    @DisplayName("the Employees of a file are saved in chunks of the configured size")
+    void givenFile_whenLoad_thenSaveInChunks() throws IOException {
+        // given - precondition or setup
+        String json = json(5);
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json));
+
+        // then verify the output
+        verify(employeeService, times(3)).saveEmployees(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(chunks.getAllValues().get(2).get(0).getEmail()).isEqualTo("employee4@gmail.com");
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.rowsPerSecond()).isPositive();
+    }
+
+    @Test
+    @DisplayName("a gzip compressed file is decompressed while it is read")
+    void givenGzipFile_whenLoad_thenSaveAllEmployees() throws IOException {
+        // given - precondition or setup
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json(3).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(new ByteArrayInputStream(compressed.toByteArray()));
+
+        // then verify the output
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        assertThat(result.rows()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("fields next to the users array are skipped")
+    void givenOtherFields_whenLoad_thenOnlyUsersAreSaved() throws IOException {
+        // given - precondition or setup
+        String json = "{\"version\": 2, \"meta\": {\"users\": [1, 2]}, \"users\": ["
+                + "{\"id\": 7, \"firstName\": \"John\", \"lastName\": \"Doe\", \"email\": \"john@gmail.com\"}], \"count\": 1}";
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json));
+
+        // then verify the output
+        verify(employeeService).saveEmployees(chunks.capture());
+        assertThat(chunks.getValue()).extracting(Employee::getEmail).containsExactly("john@gmail.com");
+        assertThat(result.rows()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a file without a users array is rejected")
+    void givenNoUsersArray_whenLoad_thenThrow() {
+        // when action or the behaviour we are going to test
+        assertThatThrownBy(() -> underTest.load(input("{\"employees\": []}")))
+                // then verify the output
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("users");
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @DisplayName("a chunk that fails with a transient error is tried again without the Employees already saved")
+    void givenTransientFailure_whenLoad_thenRetryWithoutSavedEmployees() throws IOException {
+        // given - precondition or setup
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .willReturn(List.of());
+        given(employeeRepository.findExistingEmails(List.of("employee0@gmail.com", "employee1@gmail.com")))
+                .willReturn(List.of("employee0@gmail.com"));
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json(2)));
+
+        // then verify the output
+        verify(employeeService, times(2)).saveEmployees(chunks.capture());
+        assertThat(chunks.getAllValues().get(1)).extracting(Employee::getEmail).containsExactly("employee1@gmail.com");
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(result.failedChunks()).isEmpty();
+        assertThat(meterRegistry.get("employees.load.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("with sharding, a chunk is tried again without the Employees already saved on any shard")
+    void givenShardingAndTransientFailure_whenLoad_thenRetryWithoutEmployeesOfTheDirectory() throws IOException {
+        // given - precondition or setup
+        given(shardDirectoryProvider.getIfAvailable()).willReturn(shardDirectory);
+        underTest = newLoader();
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .willReturn(List.of());
+        given(shardDirectory.findReserved(List.of("employee0@gmail.com", "employee1@gmail.com")))
+                .willReturn(List.of("employee1@gmail.com"));
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json(2)));
+
+        // then verify the output
+        verify(employeeService, times(2)).saveEmployees(chunks.capture());
+        assertThat(chunks.getAllValues().get(1)).extracting(Employee::getEmail).containsExactly("employee0@gmail.com");
+        assertThat(result.failedChunks()).isEmpty();
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("a chunk that clashes with existing Employees is reported and the next chunks are still saved")
+    void givenDuplicateEmail_whenLoad_thenReportChunkAndGoOn() throws IOException {
+        // given - precondition or setup
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new ResourceAlreadyExistsException("Employee already exists with given email : one of the given emails", null))
+                .willReturn(List.of());
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json(4)));
+
+        // then verify the output
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        verifyNoInteractions(employeeRepository);
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(result.parsed()).isEqualTo(4);
+        assertThat(result.failedChunks()).singleElement()
+                .satisfies(failed -> {
+                    assertThat(failed.number()).isEqualTo(1);
+                    assertThat(failed.attempts()).isEqualTo(1);
+                });
+        assertThat(meterRegistry.get("employees.load.rows").tag("stage", "failed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("several writers save every chunk exactly once")
+    void givenSeveralWriters_whenLoad_thenEveryEmployeeIsSavedOnce() throws IOException {
+        // given - precondition or setup
+        employeeProperties.getLoad().setWriters(4);
+        employeeProperties.getLoad().setQueueCapacity(2);
+        underTest = newLoader();
+        Queue<String> savedEmails = new ConcurrentLinkedQueue<>();
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            chunk.forEach(employee -> savedEmails.add(employee.getEmail()));
+            writerThreads.add(Thread.currentThread().getName());
+            return chunk;
+        });
+
+        // when action or the behaviour we are going to test
+        EmployeeLoader.LoadResult result = underTest.load(input(json(1001)));
+
+        // then verify the output
+        assertThat(result.rows()).isEqualTo(1001);
+        assertThat(savedEmails).hasSize(1001).doesNotHaveDuplicates();
+        assertThat(writerThreads).allMatch(name -> name.startsWith("employee-load-writer-"));
+        assertThat(meterRegistry.get("employees.load.chunk").tag("stage", "write").timer().count()).isEqualTo(501);
+    }
+
+    private EmployeeLoader newLoader() {
+        return new EmployeeLoader(employeeService, employeeRepository, shardDirectoryProvider, new ObjectMapper(),
+                employeeProperties, meterRegistry);
+    }
+
+    private static String json(int count) {
+        StringBuilder json = new StringBuilder("{\"users\": [");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"firstName\": \"First").append(i)
+                    .append("\", \"lastName\": \"Last").append(i)
+                    .append("\", \"email\": \"employee").append(i).append("@gmail.com\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static InputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,184 @@
+package com.wchamara.springboottesting.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wchamara.springboottesting.config.EmployeeProperties;
+import com.wchamara.springboottesting.model.Employee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class is used to test the EmployeeResponseCache class.
+ * It uses Mockito to mock the loader of the Employees, so it can count how often the cache has to load and encode one.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeResponseCacheTest {
+
+    /**
+     * A mock of the loader that is called on a cache miss.
+     */
+    @Mock
+    private Function<Long, Optional<Employee>> loader;
+
+    /**
+     * The ObjectMapper the cache encodes with, used by the tests to read the bytes back.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The registry the cache metrics are published to.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The EmployeeResponseCache to test.
+     */
+    private EmployeeResponseCache underTest;
+
+    /**
+     * An instance of Employee which will be used in the tests.
+     */
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new EmployeeResponseCache(objectMapper, new EmployeeProperties.ResponseCache(), meterRegistry);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Chamara")
+                .lastName("Weerasinghe")
+                .email("abc@gmail.com")
+                .build();
+    }
+
+    @Test
+    @DisplayName("the second lookup of an Employee returns the same bytes without loading it again")
+    void givenCachedEmployee_whenGet_thenSameBytesWithoutLoading() throws IOException {
+        // given - precondition or setup
+        given(loader.apply(1L)).willReturn(Optional.of(employee));
+        byte[] first = underTest.get(1L, false, loader).body(false);
+
+        // when action or the behaviour we are going to test
+        byte[] second = underTest.get(1L, false, loader).body(false);
+
+        // then verify the output
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readTree(second).get("email").asText()).isEqualTo("abc@gmail.com");
+        verify(loader, times(1)).apply(1L);
+        assertThat(bytes("cache", "identity")).isEqualTo(first.length);
+        assertThat(bytes("serialized", "identity")).isEqualTo(first.length);
+    }
+
+    @Test
+    @DisplayName("the gzip-compressed bytes decompress to the JSON of the Employee, and are encoded once")
+    void givenGzip_whenGet_thenCompressedJson() throws IOException {
+        // given - precondition or setup
+        given(loader.apply(1L)).willReturn(Optional.of(employee));
+        byte[] json = underTest.get(1L, false, loader).body(false);
+
+        // when action or the behaviour we are going to test
+        byte[] gzip = underTest.get(1L, true, loader).body(true);
+
+        // then verify the output
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+        assertThat(underTest.get(1L, true, loader).body(true)).isSameAs(gzip);
+        verify(loader, times(1)).apply(1L);
+        assertThat(bytes("serialized", "gzip")).isEqualTo(gzip.length);
+        assertThat(bytes("cache", "gzip")).isEqualTo(gzip.length);
+    }
+
+    @Test
+    @DisplayName("each representation has a strong ETag from the version, and the Last-Modified of the Employee")
+    void givenVersionedEmployee_whenGet_thenValidatorsOfEachRepresentation() {
+        // given - precondition or setup
+        employee.setVersion(3L);
+        employee.setLastModified(Instant.parse("2024-05-01T10:15:30.123Z"));
+        given(loader.apply(1L)).willReturn(Optional.of(employee));
+
+        // when action or the behaviour we are going to test
+        EmployeeResponseCache.Encoded encoded = underTest.get(1L, true, loader);
+
+        // then verify the output
+        assertThat(encoded.eTag(false)).isEqualTo("\"3\"");
+        assertThat(encoded.eTag(true)).isEqualTo("\"3-gzip\"");
+        assertThat(encoded.lastModified()).isEqualTo(1714558530123L);
+    }
+
+    @Test
+    @DisplayName("an invalidated Employee is loaded and encoded again")
+    void givenInvalidatedEmployee_whenGet_thenLoadedAgain() throws IOException {
+        // given - precondition or setup
+        Employee updated = Employee.builder().id(1L).firstName("Jane").lastName("Doe").email("jane@gmail.com").build();
+        given(loader.apply(1L)).willReturn(Optional.of(employee), Optional.of(updated));
+        underTest.get(1L, false, loader);
+
+        // when action or the behaviour we are going to test
+        underTest.invalidate(1L);
+        byte[] bytes = underTest.get(1L, false, loader).body(false);
+
+        // then verify the output
+        assertThat(objectMapper.readTree(bytes).get("email").asText()).isEqualTo("jane@gmail.com");
+        verify(loader, times(2)).apply(1L);
+    }
+
+    @Test
+    @DisplayName("a missing Employee returns null and is not cached")
+    void givenMissingEmployee_whenGet_thenNullAndNotCached() {
+        // given - precondition or setup
+        given(loader.apply(2L)).willReturn(Optional.empty());
+
+        // when action or the behaviour we are going to test
+        EmployeeResponseCache.Encoded first = underTest.get(2L, false, loader);
+        EmployeeResponseCache.Encoded second = underTest.get(2L, true, loader);
+
+        // then verify the output
+        assertThat(first).isNull();
+        assertThat(second).isNull();
+        verify(loader, times(2)).apply(2L);
+    }
+
+    @Test
+    @DisplayName("an Employee that is invalidated while it is loaded is returned but not cached")
+    void givenInvalidationDuringLoad_whenGet_thenNotCached() {
+        // given - precondition or setup
+        given(loader.apply(1L)).willAnswer(invocation -> {
+            // the Employee is updated and invalidated after it was read, but before its bytes are cached
+            underTest.invalidate(1L);
+            return Optional.of(employee);
+        });
+
+        // when action or the behaviour we are going to test
+        EmployeeResponseCache.Encoded encoded = underTest.get(1L, false, loader);
+        underTest.get(1L, false, loader);
+
+        // then verify the output
+        assertThat(encoded).isNotNull();
+        verify(loader, times(2)).apply(1L);
+    }
+
+    private double bytes(String source, String encoding) {
+        return meterRegistry.get(EmployeeResponseCache.BYTES_COUNTER)
+                .tag("source", source)
+                .tag("encoding", encoding)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,40 @@
+package com.wchamara.springboottesting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * This class is used to test the SqlFingerprint class.
+ */
+class SqlFingerprintTest {
+
+    @Test
+    @DisplayName("literals become placeholders, whitespace is collapsed and the statement is lower-cased")
+    void givenLiterals_whenFingerprint_thenPlaceholders() {
+        // given - precondition or setup
+        String sql = "SELECT *  FROM employees e\n WHERE e.first_name = 'O''Brien' AND e.id > 42 LIMIT 10";
+
+        // when action or the behaviour we are going to test
+        String fingerprint = SqlFingerprint.of(sql);
+
+        // then verify the output
+        assertThat(fingerprint).isEqualTo("select * from employees e where e.first_name = ? and e.id > ? limit ?");
+    }
+
+    @Test
+    @DisplayName("lists of placeholders of any length share a fingerprint, and digits in names are kept")
+    void givenPlaceholderLists_whenFingerprint_thenSameFingerprint() {
+        // given - precondition or setup
+        String two = "select e1_0.email from employees e1_0 where e1_0.email in (?,?)";
+        String three = "select e1_0.email from employees e1_0 where e1_0.email in (?, ?, ?)";
+
+        // when action or the behaviour we are going to test
+        String fingerprint = SqlFingerprint.of(two);
+
+        // then verify the output
+        assertThat(fingerprint).isEqualTo("select e1_0.email from employees e1_0 where e1_0.email in (?)");
+        assertThat(SqlFingerprint.of(three)).isEqualTo(fingerprint);
+    }
+}